@@ -0,0 +1,450 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package org.semanticweb.owlapi.model;
+
+import static org.semanticweb.owlapi.util.OWLAPIPreconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A change broadcast strategy that delivers changes to listeners on an executor rather than on the
+ * thread applying the changes, so that slow listeners do not hold up editing. Each listener has
+ * its own queue of undelivered changes; changes are delivered to a listener in the order in which
+ * they were applied, one batch at a time, and all batches queued while the listener was busy are
+ * coalesced into a single call. <br>
+ * Queues are bounded: a writer broadcasting to a listener whose queue is full waits until the
+ * listener catches up. The wait is itself bounded, since with a concurrent manager the writer
+ * holds the manager lock while broadcasting and a listener reading ontologies cannot catch up
+ * until the writer is done; when the wait times out, the changes are queued anyway and counted as
+ * an overflow. Time spent waiting, overflows and the delivery lag are recorded, so that listeners
+ * that cannot keep up can be spotted. <br>
+ * Listeners receive changes after the manager has released its locks, and may see an ontology
+ * that has already been changed further; exceptions thrown by listeners are logged. Changes
+ * broadcast from a delivery thread, e.g., by a listener that edits ontologies, never wait for a
+ * full queue. A queue is dropped as soon as all its changes have been delivered, so listeners
+ * removed from the manager are not retained by the strategy.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public class AsyncChangeBroadcastStrategy
+    implements OWLOntologyChangeBroadcastStrategy, AutoCloseable {
+
+    private static final Logger LOGGER =
+        LoggerFactory.getLogger(AsyncChangeBroadcastStrategy.class);
+    /** Default maximum number of undelivered changes per listener. */
+    public static final int DEFAULT_CAPACITY = 100_000;
+    /** Default maximum time in milliseconds a writer waits for a full queue. */
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 1_000;
+    private static final ThreadLocal<Boolean> DELIVERING = new ThreadLocal<>();
+    private final int capacity;
+    private final long maxWaitNanos;
+    private final transient Executor executor;
+    @Nullable
+    private final transient ExecutorService ownExecutor;
+    private final transient Map<OWLOntologyChangeListener, ListenerQueue> queues =
+        new ConcurrentHashMap<>();
+    private final AtomicLong submittedBatches = new AtomicLong();
+    private final AtomicLong deliveredBatches = new AtomicLong();
+    private final AtomicLong deliveredChanges = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong backPressureWaits = new AtomicLong();
+    private final AtomicLong backPressureNanos = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    /**
+     * Strategy delivering changes on its own daemon thread, with the default capacity.
+     */
+    public AsyncChangeBroadcastStrategy() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Strategy delivering changes on its own daemon thread.
+     *
+     * @param capacity maximum number of undelivered changes per listener
+     */
+    public AsyncChangeBroadcastStrategy(int capacity) {
+        this(capacity, DEFAULT_MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS, newExecutor(), true);
+    }
+
+    /**
+     * Strategy delivering changes on the specified executor. The executor is not shut down by
+     * {@link #close()}.
+     *
+     * @param capacity maximum number of undelivered changes per listener
+     * @param maxWait maximum time a writer waits for a full queue
+     * @param unit unit of the maximum wait
+     * @param executor executor for deliveries; at most one delivery per listener is submitted at
+     *        any time
+     */
+    public AsyncChangeBroadcastStrategy(int capacity, long maxWait, TimeUnit unit,
+        Executor executor) {
+        this(capacity, maxWait, unit, executor, false);
+    }
+
+    private AsyncChangeBroadcastStrategy(int capacity, long maxWait, TimeUnit unit,
+        Executor executor, boolean owned) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        maxWaitNanos = unit.toNanos(maxWait);
+        this.executor = checkNotNull(executor, "executor cannot be null");
+        ownExecutor = owned ? (ExecutorService) executor : null;
+    }
+
+    private static ExecutorService newExecutor() {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "owlapi-change-broadcast");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public void broadcastChanges(OWLOntologyChangeListener listener,
+        List<? extends OWLOntologyChange> changes) {
+        checkNotNull(listener, "listener cannot be null");
+        checkNotNull(changes, "changes cannot be null");
+        if (changes.isEmpty()) {
+            return;
+        }
+        submittedBatches.incrementAndGet();
+        // a queue that has just been dropped does not accept changes; a new one is created
+        while (!queues.computeIfAbsent(listener, ListenerQueue::new).offer(changes)) {
+            // retry with the new queue
+        }
+    }
+
+    /**
+     * Wait until all changes broadcast so far have been delivered.
+     *
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @return true if all changes were delivered, false if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitDelivery(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ListenerQueue q : queues.values()) {
+            if (!q.awaitIdle(deadline)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Shut down the executor created by this strategy, if any; changes already queued are still
+     * delivered, changes broadcast afterwards are discarded.
+     */
+    @Override
+    public void close() {
+        if (ownExecutor != null) {
+            ownExecutor.shutdown();
+        }
+    }
+
+    /**
+     * @return number of changes queued but not yet delivered, across all listeners
+     */
+    public int getPendingChanges() {
+        return queues.values().stream().mapToInt(ListenerQueue::size).sum();
+    }
+
+    /**
+     * @return age in milliseconds of the oldest change queued but not yet delivered, or 0 if all
+     *         changes have been delivered
+     */
+    public long getLagMillis() {
+        long now = System.nanoTime();
+        long lag = queues.values().stream().mapToLong(q -> q.lag(now)).max().orElse(0);
+        return TimeUnit.NANOSECONDS.toMillis(lag);
+    }
+
+    /**
+     * @return largest observed time in milliseconds between a change being broadcast and its
+     *         delivery starting
+     */
+    public long getMaxLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get());
+    }
+
+    /**
+     * @return number of non empty change lists broadcast to listeners
+     */
+    public long getSubmittedBatches() {
+        return submittedBatches.get();
+    }
+
+    /**
+     * @return number of calls to listeners; less than the number of submitted batches when
+     *         batches have been coalesced
+     */
+    public long getDeliveredBatches() {
+        return deliveredBatches.get();
+    }
+
+    /**
+     * @return number of changes delivered to listeners
+     */
+    public long getDeliveredChanges() {
+        return deliveredChanges.get();
+    }
+
+    /**
+     * @return number of deliveries in which the listener threw an exception
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * @return number of times a writer had to wait for a full queue
+     */
+    public long getBackPressureWaits() {
+        return backPressureWaits.get();
+    }
+
+    /**
+     * @return number of times a writer stopped waiting for a full queue and queued its changes
+     *         beyond the capacity
+     */
+    public long getOverflows() {
+        return overflows.get();
+    }
+
+    /**
+     * @return total time in milliseconds writers spent waiting for full queues
+     */
+    public long getBackPressureMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(backPressureNanos.get());
+    }
+
+    /**
+     * Executors and queues are not serialized; a deserialized strategy delivers changes on its own
+     * thread.
+     *
+     * @return replacement for the deserialized object
+     */
+    protected Object readResolve() {
+        return new AsyncChangeBroadcastStrategy(capacity, maxWaitNanos, TimeUnit.NANOSECONDS,
+            newExecutor(), true);
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Undelivered changes for one listener. At most one delivery task per listener is scheduled
+     * at any time, which keeps deliveries to a listener ordered and sequential.
+     */
+    private final class ListenerQueue implements Runnable {
+
+        private final OWLOntologyChangeListener listener;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private List<OWLOntologyChange> pending = new ArrayList<>();
+        private long oldest;
+        private boolean scheduled;
+        private boolean dropped;
+
+        ListenerQueue(OWLOntologyChangeListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * @return false if the queue has been dropped and the changes were not queued
+         */
+        boolean offer(List<? extends OWLOntologyChange> changes) {
+            lock.lock();
+            try {
+                waitForCapacity(changes.size());
+                if (dropped) {
+                    return false;
+                }
+                if (pending.isEmpty()) {
+                    oldest = System.nanoTime();
+                }
+                pending.addAll(changes);
+                if (!scheduled) {
+                    scheduled = true;
+                    schedule();
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void waitForCapacity(int size) {
+            // batches larger than the capacity are accepted into an empty queue
+            if (DELIVERING.get() != null || pending.isEmpty()
+                || pending.size() + size <= capacity) {
+                return;
+            }
+            backPressureWaits.incrementAndGet();
+            long start = System.nanoTime();
+            long left = maxWaitNanos;
+            try {
+                while (!pending.isEmpty() && pending.size() + size > capacity) {
+                    if (left <= 0) {
+                        overflows.incrementAndGet();
+                        return;
+                    }
+                    left = changed.awaitNanos(left);
+                }
+            } catch (InterruptedException e) {
+                overflows.incrementAndGet();
+                Thread.currentThread().interrupt();
+            } finally {
+                backPressureNanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+
+        private void schedule() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled = false;
+                if (ownExecutor == null || !ownExecutor.isShutdown()) {
+                    throw e;
+                }
+                // the strategy has been closed
+                LOGGER.debug("Discarding {} changes for {} after close",
+                    Integer.valueOf(pending.size()), listener);
+                pending = new ArrayList<>();
+                changed.signalAll();
+            } catch (RuntimeException e) {
+                scheduled = false;
+                throw e;
+            }
+        }
+
+        @Override
+        public void run() {
+            DELIVERING.set(Boolean.TRUE);
+            try {
+                deliver();
+            } finally {
+                DELIVERING.remove();
+            }
+        }
+
+        private void deliver() {
+            boolean idle = false;
+            try {
+                deliverPending();
+                idle = true;
+            } finally {
+                if (!idle) {
+                    // a listener threw an error; the next offer schedules the remaining changes
+                    lock.lock();
+                    try {
+                        scheduled = false;
+                        changed.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        }
+
+        private void deliverPending() {
+            while (true) {
+                List<OWLOntologyChange> batch;
+                lock.lock();
+                try {
+                    if (pending.isEmpty()) {
+                        scheduled = false;
+                        dropped = true;
+                        queues.remove(listener, this);
+                        changed.signalAll();
+                        return;
+                    }
+                    batch = pending;
+                    pending = new ArrayList<>();
+                    updateMax(maxLagNanos, System.nanoTime() - oldest);
+                    // writers waiting for capacity can proceed while this batch is delivered
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    listener.ontologiesChanged(batch);
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                    LOGGER.warn("Change listener {} failed: {}", listener, e.getMessage(), e);
+                }
+                deliveredBatches.incrementAndGet();
+                deliveredChanges.addAndGet(batch.size());
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return pending.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long lag(long now) {
+            lock.lock();
+            try {
+                return pending.isEmpty() ? 0 : now - oldest;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean awaitIdle(long deadline) throws InterruptedException {
+            lock.lock();
+            try {
+                while (scheduled) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        return false;
+                    }
+                    changed.awaitNanos(left);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
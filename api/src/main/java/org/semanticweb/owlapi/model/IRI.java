@@ -12,6 +12,7 @@
  * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
 package org.semanticweb.owlapi.model;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static org.semanticweb.owlapi.util.OWLAPIPreconditions.checkNotNull;
 import static org.semanticweb.owlapi.util.OWLAPIPreconditions.emptyOptional;
 import static org.semanticweb.owlapi.util.OWLAPIPreconditions.optional;
@@ -21,6 +22,7 @@ import java.io.File;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
@@ -35,6 +37,8 @@ import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 
 /**
  * Represents International Resource Identifiers.
@@ -54,11 +58,18 @@ public class IRI implements OWLAnnotationSubject, OWLAnnotationValue, SWRLPredic
             .longValue();
     }
 
+    // Unbounded namespace table for compact IRIs; namespaces no longer used
+    // by any IRI are released. See ConfigurationOptions.COMPACT_IRIS.
+    private static final Interner<String> NAMESPACES = Interners.newWeakInterner();
+    private static final boolean COMPACT = ConfigurationOptions.COMPACT_IRIS
+        .getValue(Boolean.class, Collections.emptyMap()).booleanValue();
     private static final AtomicLong COUNTER = new AtomicLong(System.nanoTime());
     // Impl - All constructors are private - factory methods are used for
     // public creation
-    private final String remainder;
+    // a String, or the Latin-1 bytes of the remainder for compact IRIs
+    private final Object remainder;
     private final String namespace;
+    private int hashCode;
 
     /**
      * Constructs an IRI which is built from the concatenation of the specified prefix and suffix.
@@ -67,8 +78,92 @@ public class IRI implements OWLAnnotationSubject, OWLAnnotationValue, SWRLPredic
      * @param suffix The suffix.
      */
     protected IRI(String prefix, @Nullable String suffix) {
-        namespace = CACHE.get(XMLUtils.getNCNamePrefix(prefix));
-        remainder = suffix == null ? "" : suffix;
+        this(prefix, suffix, COMPACT);
+    }
+
+    /**
+     * Constructs an IRI which is built from the concatenation of the specified prefix and suffix.
+     *
+     * @param prefix The prefix.
+     * @param suffix The suffix.
+     * @param compact true if the namespace should be shared through the global namespace table
+     *        and the suffix stored as Latin-1 bytes, where possible
+     */
+    protected IRI(String prefix, @Nullable String suffix, boolean compact) {
+        String ns = XMLUtils.getNCNamePrefix(prefix);
+        String s = suffix == null ? "" : suffix;
+        if (compact) {
+            namespace = NAMESPACES.intern(ns);
+            remainder = latin1(s);
+        } else {
+            namespace = CACHE.get(ns);
+            remainder = s;
+        }
+    }
+
+    private static Object latin1(String s) {
+        if (s.isEmpty()) {
+            return s;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                return s;
+            }
+        }
+        return s.getBytes(ISO_8859_1);
+    }
+
+    private String remainder() {
+        if (remainder instanceof byte[]) {
+            return new String((byte[]) remainder, ISO_8859_1);
+        }
+        return (String) remainder;
+    }
+
+    private int remainderLength() {
+        if (remainder instanceof byte[]) {
+            return ((byte[]) remainder).length;
+        }
+        return ((String) remainder).length();
+    }
+
+    private boolean sameRemainder(IRI other) {
+        if (remainder instanceof byte[] && other.remainder instanceof byte[]) {
+            return Arrays.equals((byte[]) remainder, (byte[]) other.remainder);
+        }
+        if (remainder instanceof String && other.remainder instanceof String) {
+            return remainder.equals(other.remainder);
+        }
+        return remainder().equals(other.remainder());
+    }
+
+    private int compareRemainder(IRI other) {
+        if (remainder instanceof byte[] && other.remainder instanceof byte[]) {
+            // unsigned Latin-1 bytes sort as their characters do
+            byte[] a = (byte[]) remainder;
+            byte[] b = (byte[]) other.remainder;
+            int length = Math.min(a.length, b.length);
+            for (int i = 0; i < length; i++) {
+                int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return a.length - b.length;
+        }
+        return remainder().compareTo(other.remainder());
+    }
+
+    private int remainderHash() {
+        if (remainder instanceof byte[]) {
+            // same value as String::hashCode on the decoded remainder
+            int h = 0;
+            for (byte b : (byte[]) remainder) {
+                h = 31 * h + (b & 0xFF);
+            }
+            return h;
+        }
+        return remainder.hashCode();
     }
 
     protected IRI(String s) {
@@ -200,7 +295,7 @@ public class IRI implements OWLAnnotationSubject, OWLAnnotationValue, SWRLPredic
      * @return The URI
      */
     public URI toURI() {
-        return URI.create(namespace + remainder);
+        return URI.create(namespace + remainder());
     }
 
     /**
@@ -314,7 +409,7 @@ public class IRI implements OWLAnnotationSubject, OWLAnnotationValue, SWRLPredic
      *         {@code false}
      */
     public boolean isPlainLiteral() {
-        return "PlainLiteral".equals(remainder) && Namespaces.RDF.inNamespace(namespace);
+        return "PlainLiteral".equals(remainder()) && Namespaces.RDF.inNamespace(namespace);
     }
 
     /**
@@ -324,17 +419,17 @@ public class IRI implements OWLAnnotationSubject, OWLAnnotationValue, SWRLPredic
      * @return The IRI fragment, or empty string if the IRI does not have a fragment
      */
     public String getFragment() {
-        return remainder;
+        return remainder();
     }
 
     /**
      * @return the remainder (coincident with NCName usually) for this IRI.
      */
     public Optional<String> getRemainder() {
-        if (remainder.isEmpty()) {
+        if (remainderLength() == 0) {
             return emptyOptional();
         }
-        return optional(remainder);
+        return optional(remainder());
     }
 
     /**
@@ -359,7 +454,7 @@ public class IRI implements OWLAnnotationSubject, OWLAnnotationValue, SWRLPredic
 
     @Override
     public int length() {
-        return namespace.length() + remainder.length();
+        return namespace.length() + remainderLength();
     }
 
     @Override
@@ -370,13 +465,16 @@ public class IRI implements OWLAnnotationSubject, OWLAnnotationValue, SWRLPredic
         if (index < namespace.length()) {
             return namespace.charAt(index);
         }
-        return remainder.charAt(index - namespace.length());
+        if (remainder instanceof byte[]) {
+            return (char) (((byte[]) remainder)[index - namespace.length()] & 0xFF);
+        }
+        return ((String) remainder).charAt(index - namespace.length());
     }
 
     @Override
     public CharSequence subSequence(int start, int end) {
         StringBuilder sb = new StringBuilder(namespace);
-        sb.append(remainder);
+        sb.append(remainder());
         return sb.subSequence(start, end);
     }
 
@@ -386,16 +484,16 @@ public class IRI implements OWLAnnotationSubject, OWLAnnotationValue, SWRLPredic
      */
     public String prefixedBy(String prefix) {
         checkNotNull(prefix, "prefix cannot be null");
-        if (remainder.isEmpty()) {
+        if (remainderLength() == 0) {
             return prefix;
         }
-        return prefix + remainder;
+        return prefix + remainder();
     }
 
     @Override
     public String getShortForm() {
-        if (!remainder.isEmpty()) {
-            return remainder;
+        if (remainderLength() > 0) {
+            return remainder();
         }
         int lastSlashIndex = namespace.lastIndexOf('/');
         if (lastSlashIndex != -1 && lastSlashIndex != namespace.length() - 1) {
@@ -435,11 +533,13 @@ public class IRI implements OWLAnnotationSubject, OWLAnnotationValue, SWRLPredic
             return -1;
         }
         IRI other = (IRI) o;
-        int diff = namespace.compareTo(other.namespace);
-        if (diff != 0) {
-            return diff;
+        if (namespace != other.namespace) {
+            int diff = namespace.compareTo(other.namespace);
+            if (diff != 0) {
+                return diff;
+            }
         }
-        return remainder.compareTo(other.remainder);
+        return compareRemainder(other);
     }
 
     @Override
@@ -449,7 +549,12 @@ public class IRI implements OWLAnnotationSubject, OWLAnnotationValue, SWRLPredic
 
     @Override
     public int hashCode() {
-        return namespace.hashCode() + remainder.hashCode();
+        int h = hashCode;
+        if (h == 0) {
+            h = namespace.hashCode() + remainderHash();
+            hashCode = h;
+        }
+        return h;
     }
 
     @Override
@@ -482,7 +587,11 @@ public class IRI implements OWLAnnotationSubject, OWLAnnotationValue, SWRLPredic
         }
         if (obj instanceof IRI) {
             IRI other = (IRI) obj;
-            return remainder.equals(other.remainder) && other.namespace.equals(namespace);
+            if (hashCode != 0 && other.hashCode != 0 && hashCode != other.hashCode) {
+                return false;
+            }
+            return sameRemainder(other)
+                && (namespace == other.namespace || other.namespace.equals(namespace));
         }
         // Commons RDF IRI equals() contract
         if (obj instanceof org.apache.commons.rdf.api.IRI) {
@@ -494,15 +603,15 @@ public class IRI implements OWLAnnotationSubject, OWLAnnotationValue, SWRLPredic
 
     @Override
     public String ntriplesString() {
-        return '<' + namespace + remainder + '>';
+        return '<' + namespace + remainder() + '>';
     }
 
     @Override
     public String getIRIString() {
-        if (remainder.isEmpty()) {
+        if (remainderLength() == 0) {
             return namespace;
         }
-        return namespace + remainder;
+        return namespace + remainder();
     }
 
     @Override
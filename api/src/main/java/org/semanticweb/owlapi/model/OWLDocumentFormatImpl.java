@@ -13,6 +13,7 @@
 package org.semanticweb.owlapi.model;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -49,6 +50,14 @@ public abstract class OWLDocumentFormatImpl implements OWLDocumentFormat {
         parameterMap.put(key, value);
     }
 
+    /**
+     * @return read only view of the parameters set on this format
+     * @since 5.1.18
+     */
+    public Map<Serializable, Serializable> getParameters() {
+        return Collections.unmodifiableMap(parameterMap);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <T> T getParameter(Serializable key, T defaultValue) {
@@ -23,6 +23,8 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
+import org.semanticweb.owlapi.util.StructuralFingerprint;
+
 /**
  * @author Matthew Horridge, The University Of Manchester, Bio-Health Informatics Group
  * @since 2.0.0
@@ -168,6 +170,18 @@ public interface OWLObject
      */
     int initHashCode();
 
+    /**
+     * A 64-bit structural fingerprint: equal objects have equal fingerprints, independently of
+     * the implementation and of the JVM computing them, and different objects collide with
+     * negligible probability. Suitable as a key for content addressed stores.
+     *
+     * @return fingerprint for the object; cached by OWLObjectImpl in the default implementation.
+     * @since 5.1.18
+     */
+    default long fingerprint() {
+        return StructuralFingerprint.of(this);
+    }
+
     /**
      * Iteration for hash codes
      * 
@@ -12,6 +12,7 @@
  * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
 package org.semanticweb.owlapi.model;
 
+import static org.semanticweb.owlapi.util.OWLAPIPreconditions.emptyOptional;
 import static org.semanticweb.owlapi.util.OWLAPIPreconditions.verifyNotNull;
 import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asSet;
 
@@ -19,6 +20,7 @@ import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -269,6 +271,19 @@ public interface OWLOntology extends OWLObject, HasAnnotations, HasDirectImports
      */
     boolean isEmpty();
 
+    /**
+     * Estimates the heap retained by this ontology's axioms and indexes. The estimate is meant to be
+     * cheap enough to poll: it does not build indexes and samples axioms rather than visiting all
+     * of them. Objects shared with other ontologies, such as entities and IRIs, are not included.
+     *
+     * @return the estimate, or an empty optional if the implementation does not support memory
+     *         accounting
+     * @since 5.1.18
+     */
+    default Optional<OntologyMemoryUsage> estimateMemoryUsage() {
+        return emptyOptional();
+    }
+
     /**
      * Gets the axioms that form the TBox for this ontology, i.e., the ones whose type is in the
      * AxiomType::TBoxAxiomTypes.
@@ -17,11 +17,15 @@ import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.ALLOW
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.AUTHORIZATION_VALUE;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.BANNED_PARSERS;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.CONNECTION_TIMEOUT;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.DEFER_INDEXING;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.ENTITY_EXPANSION_LIMIT;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.FOLLOW_REDIRECTS;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.IMPORTS_LOADING_THREADS;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.INDEX_SNAPSHOT_DIRECTORY;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.LOAD_ANNOTATIONS;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.MISSING_IMPORT_HANDLING_STRATEGY;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.MISSING_ONTOLOGY_HEADER_STRATEGY;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.PARALLEL_IMPORTS_LOADING;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.PARSE_WITH_STRICT_CONFIGURATION;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.PRIORITY_COLLECTION_SORTING;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.REPAIR_ILLEGAL_PUNNINGS;
@@ -30,11 +34,13 @@ import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.RETRI
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.SKIP_MODULE_ANNOTATIONS;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.TREAT_DUBLINCORE_AS_BUILTIN;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.TRIM_TO_SIZE;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.WARM_UP_INDEXES;
 
 import java.io.Serializable;
 import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.semanticweb.owlapi.model.parameters.ConfigurationOptions;
 import org.semanticweb.owlapi.vocab.Namespaces;
@@ -101,6 +107,15 @@ public class OWLOntologyLoaderConfiguration implements Serializable {
         return Namespaces.isDefaultIgnoredImport(iri) || ignoredImports.contains(iri);
     }
 
+    /**
+     * @return the ontology document IRIs explicitly added to the ignored imports; default ignored
+     *         imports are not included
+     * @since 5.1.18
+     */
+    public Stream<IRI> ignoredImports() {
+        return ignoredImports.stream();
+    }
+
     /**
      * Removes an ontology document IRI from the list of ontology imports that will be ignored
      * during ontology loading.
@@ -270,6 +285,43 @@ public class OWLOntologyLoaderConfiguration implements Serializable {
         return TRIM_TO_SIZE.getValue(Boolean.class, overrides).booleanValue();
     }
 
+    /**
+     * @return true if all lazy indexes of the ontology should be built in parallel after load
+     */
+    public boolean shouldWarmUpIndexes() {
+        return WARM_UP_INDEXES.getValue(Boolean.class, overrides).booleanValue();
+    }
+
+    /**
+     * @return true if indexes should be built in a single pass once parsing is done, rather than
+     *         updated for each parsed axiom
+     */
+    public boolean shouldDeferIndexing() {
+        return DEFER_INDEXING.getValue(Boolean.class, overrides).booleanValue();
+    }
+
+    /**
+     * @return directory where index snapshots of ontologies loaded from local files are stored and
+     *         looked up; empty if index snapshots are disabled
+     */
+    public String getIndexSnapshotDirectory() {
+        return INDEX_SNAPSHOT_DIRECTORY.getValue(String.class, overrides);
+    }
+
+    /**
+     * @return true if the documents in an imports closure should be parsed concurrently
+     */
+    public boolean shouldLoadImportsInParallel() {
+        return PARALLEL_IMPORTS_LOADING.getValue(Boolean.class, overrides).booleanValue();
+    }
+
+    /**
+     * @return number of threads parsing imported documents; 0 for one per available processor
+     */
+    public int getImportsLoadingThreads() {
+        return IMPORTS_LOADING_THREADS.getValue(Integer.class, overrides).intValue();
+    }
+
     /**
      * @param b true if HTTP compression should be accepted
      * @return a copy of this configuration with accepting HTTP compression set to the new value
@@ -503,6 +555,72 @@ public class OWLOntologyLoaderConfiguration implements Serializable {
         return configuration;
     }
 
+    /**
+     * @param value new value for index warm up
+     * @return An {@code OWLOntologyLoaderConfiguration} with the new option set.
+     */
+    public OWLOntologyLoaderConfiguration setWarmUpIndexes(boolean value) {
+        if (shouldWarmUpIndexes() == value) {
+            return this;
+        }
+        OWLOntologyLoaderConfiguration configuration = copyConfiguration();
+        configuration.overrides.put(WARM_UP_INDEXES, Boolean.valueOf(value));
+        return configuration;
+    }
+
+    /**
+     * @param value new value for deferred indexing
+     * @return An {@code OWLOntologyLoaderConfiguration} with the new option set.
+     */
+    public OWLOntologyLoaderConfiguration setDeferIndexing(boolean value) {
+        if (shouldDeferIndexing() == value) {
+            return this;
+        }
+        OWLOntologyLoaderConfiguration configuration = copyConfiguration();
+        configuration.overrides.put(DEFER_INDEXING, Boolean.valueOf(value));
+        return configuration;
+    }
+
+    /**
+     * @param directory directory for index snapshots; empty to disable index snapshots
+     * @return An {@code OWLOntologyLoaderConfiguration} with the new option set.
+     */
+    public OWLOntologyLoaderConfiguration setIndexSnapshotDirectory(String directory) {
+        if (getIndexSnapshotDirectory().equals(directory)) {
+            return this;
+        }
+        OWLOntologyLoaderConfiguration configuration = copyConfiguration();
+        configuration.overrides.put(INDEX_SNAPSHOT_DIRECTORY, directory);
+        return configuration;
+    }
+
+    /**
+     * @param value true if the documents in an imports closure should be parsed concurrently
+     * @return An {@code OWLOntologyLoaderConfiguration} with the new option set.
+     */
+    public OWLOntologyLoaderConfiguration setLoadImportsInParallel(boolean value) {
+        if (shouldLoadImportsInParallel() == value) {
+            return this;
+        }
+        OWLOntologyLoaderConfiguration configuration = copyConfiguration();
+        configuration.overrides.put(PARALLEL_IMPORTS_LOADING, Boolean.valueOf(value));
+        return configuration;
+    }
+
+    /**
+     * @param threads number of threads parsing imported documents; 0 for one per available
+     *        processor
+     * @return An {@code OWLOntologyLoaderConfiguration} with the new option set.
+     */
+    public OWLOntologyLoaderConfiguration setImportsLoadingThreads(int threads) {
+        if (getImportsLoadingThreads() == threads) {
+            return this;
+        }
+        OWLOntologyLoaderConfiguration configuration = copyConfiguration();
+        configuration.overrides.put(IMPORTS_LOADING_THREADS, Integer.valueOf(threads));
+        return configuration;
+    }
+
     /**
      * @return true if module extraction should not add annotation axioms to the module.
      */
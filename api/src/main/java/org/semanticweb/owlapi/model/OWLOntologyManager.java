@@ -22,7 +22,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -104,6 +107,33 @@ public interface OWLOntologyManager extends OWLOntologySetProvider, HasDataFacto
         return ontologies().filter(o -> o.getOntologyID().matchOntology(ontology));
     }
 
+    /**
+     * Estimates the heap retained by each managed ontology. Ontologies that do not support memory
+     * accounting are not included.
+     *
+     * @return estimates by ontology id
+     * @see OWLOntology#estimateMemoryUsage()
+     * @since 5.1.18
+     */
+    default Map<OWLOntologyID, OntologyMemoryUsage> estimateMemoryUsage() {
+        Map<OWLOntologyID, OntologyMemoryUsage> map = new LinkedHashMap<>();
+        ontologies().forEach(o -> o.estimateMemoryUsage()
+            .ifPresent(usage -> map.put(o.getOntologyID(), usage)));
+        return map;
+    }
+
+    /**
+     * Estimates the heap retained by objects shared between the managed ontologies, such as the
+     * entities and IRIs cached by the data factory.
+     *
+     * @return estimated bytes by cache name; empty if the data factory does not support memory
+     *         accounting
+     * @since 5.1.18
+     */
+    default Map<String, Long> estimateSharedMemoryUsage() {
+        return Collections.emptyMap();
+    }
+
     /**
      * @param ontology ontology to check
      * @return true if the ontology is contained
@@ -15,14 +15,23 @@ package org.semanticweb.owlapi.model;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.ACCEPT_HTTP_COMPRESSION;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.BANNED_PARSERS;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.BANNERS_ENABLED;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.COMPACT_INDEX_STORAGE;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.CONNECTION_TIMEOUT;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.DEFER_INDEXING;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.EVICT_LAZY_INDEXES;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.FOLLOW_REDIRECTS;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.IMPORTS_LOADING_THREADS;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.INDENTING;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.INDENT_SIZE;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.INDEX_IMPORTS_CLOSURE;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.INDEX_SNAPSHOT_DIRECTORY;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.LABELS_AS_BANNER;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.LAZY_INDEX_IDLE_MILLIS;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.LOAD_ANNOTATIONS;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.LOCK_FREE_INDEX_READS;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.MISSING_IMPORT_HANDLING_STRATEGY;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.MISSING_ONTOLOGY_HEADER_STRATEGY;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.PARALLEL_IMPORTS_LOADING;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.PARSE_WITH_STRICT_CONFIGURATION;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.PRIORITY_COLLECTION_SORTING;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.REMAP_IDS;
@@ -30,8 +39,11 @@ import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.REPAI
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.REPORT_STACK_TRACES;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.RETRIES_TO_ATTEMPT;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.SAVE_IDS;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.SHARE_SHALLOW_COPIES;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.SNAPSHOT_READS;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.TREAT_DUBLINCORE_AS_BUILTIN;
 import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.USE_NAMESPACE_ENTITIES;
+import static org.semanticweb.owlapi.model.parameters.ConfigurationOptions.WARM_UP_INDEXES;
 
 import java.io.Serializable;
 import java.util.EnumMap;
@@ -327,6 +339,211 @@ public class OntologyConfigurator implements Serializable {
         return this;
     }
 
+    /**
+     * @return true if all lazy indexes should be built in parallel right after an ontology is
+     *         loaded
+     */
+    public boolean shouldWarmUpIndexes() {
+        return WARM_UP_INDEXES.getValue(Boolean.class, overrides).booleanValue();
+    }
+
+    /**
+     * @param b true if all lazy indexes should be built in parallel right after an ontology is
+     *        loaded
+     * @return new config object
+     */
+    public OntologyConfigurator withWarmUpIndexes(boolean b) {
+        overrides.put(WARM_UP_INDEXES, Boolean.valueOf(b));
+        return this;
+    }
+
+    /**
+     * @return true if indexes should be built in a single pass once parsing is done, rather than
+     *         updated for each parsed axiom
+     */
+    public boolean shouldDeferIndexing() {
+        return DEFER_INDEXING.getValue(Boolean.class, overrides).booleanValue();
+    }
+
+    /**
+     * @param b true if indexes should be built in a single pass once parsing is done
+     * @return new config object
+     */
+    public OntologyConfigurator withDeferIndexing(boolean b) {
+        overrides.put(DEFER_INDEXING, Boolean.valueOf(b));
+        return this;
+    }
+
+    /**
+     * @return directory where index snapshots of ontologies loaded from local files are stored and
+     *         looked up; empty if index snapshots are disabled
+     */
+    public String getIndexSnapshotDirectory() {
+        return INDEX_SNAPSHOT_DIRECTORY.getValue(String.class, overrides);
+    }
+
+    /**
+     * @param directory directory for index snapshots; empty to disable index snapshots
+     * @return new config object
+     */
+    public OntologyConfigurator withIndexSnapshotDirectory(String directory) {
+        overrides.put(INDEX_SNAPSHOT_DIRECTORY, directory);
+        return this;
+    }
+
+    /**
+     * @return true if the documents in an imports closure should be parsed concurrently
+     */
+    public boolean shouldLoadImportsInParallel() {
+        return PARALLEL_IMPORTS_LOADING.getValue(Boolean.class, overrides).booleanValue();
+    }
+
+    /**
+     * @param b true if the documents in an imports closure should be parsed concurrently
+     * @return new config object
+     */
+    public OntologyConfigurator withLoadImportsInParallel(boolean b) {
+        overrides.put(PARALLEL_IMPORTS_LOADING, Boolean.valueOf(b));
+        return this;
+    }
+
+    /**
+     * @return number of threads parsing imported documents; 0 for one per available processor
+     */
+    public int getImportsLoadingThreads() {
+        return IMPORTS_LOADING_THREADS.getValue(Integer.class, overrides).intValue();
+    }
+
+    /**
+     * @param threads number of threads parsing imported documents; 0 for one per available
+     *        processor
+     * @return new config object
+     */
+    public OntologyConfigurator withImportsLoadingThreads(int threads) {
+        overrides.put(IMPORTS_LOADING_THREADS, Integer.valueOf(threads));
+        return this;
+    }
+
+    /**
+     * @return true if queries including the imports closure should be served from a merged index
+     *         of the closure
+     */
+    public boolean shouldIndexImportsClosure() {
+        return INDEX_IMPORTS_CLOSURE.getValue(Boolean.class, overrides).booleanValue();
+    }
+
+    /**
+     * @param b true if queries including the imports closure should be served from a merged index
+     *        of the closure
+     * @return new config object
+     */
+    public OntologyConfigurator withIndexImportsClosure(boolean b) {
+        overrides.put(INDEX_IMPORTS_CLOSURE, Boolean.valueOf(b));
+        return this;
+    }
+
+    /**
+     * @return true if shallow ontology copies should share axioms and indexes with the copied
+     *         ontology until either is changed
+     */
+    public boolean shouldShareShallowCopies() {
+        return SHARE_SHALLOW_COPIES.getValue(Boolean.class, overrides).booleanValue();
+    }
+
+    /**
+     * @param b true if shallow ontology copies should share axioms and indexes with the copied
+     *        ontology until either is changed; axioms are not shared while change listeners
+     *        are attached to the copying manager
+     * @return new config object
+     */
+    public OntologyConfigurator withShareShallowCopies(boolean b) {
+        overrides.put(SHARE_SHALLOW_COPIES, Boolean.valueOf(b));
+        return this;
+    }
+
+    /**
+     * @return true if lazy ontology indexes should serve reads from published snapshots
+     */
+    public boolean shouldUseLockFreeIndexReads() {
+        return LOCK_FREE_INDEX_READS.getValue(Boolean.class, overrides).booleanValue();
+    }
+
+    /**
+     * @param b true if lazy ontology indexes should serve reads from published snapshots
+     * @return new config object
+     */
+    public OntologyConfigurator withLockFreeIndexReads(boolean b) {
+        overrides.put(LOCK_FREE_INDEX_READS, Boolean.valueOf(b));
+        return this;
+    }
+
+    /**
+     * @return true if large ontology index entries should be stored as sorted arrays of axioms
+     */
+    public boolean shouldUseCompactIndexStorage() {
+        return COMPACT_INDEX_STORAGE.getValue(Boolean.class, overrides).booleanValue();
+    }
+
+    /**
+     * @param b true if large ontology index entries should be stored as sorted arrays of axioms
+     * @return new config object
+     */
+    public OntologyConfigurator withCompactIndexStorage(boolean b) {
+        overrides.put(COMPACT_INDEX_STORAGE, Boolean.valueOf(b));
+        return this;
+    }
+
+    /**
+     * @return true if concurrent ontologies should serve reads from read only snapshots
+     */
+    public boolean shouldUseSnapshotReads() {
+        return SNAPSHOT_READS.getValue(Boolean.class, overrides).booleanValue();
+    }
+
+    /**
+     * @param b true if concurrent ontologies should serve reads from read only snapshots
+     * @return new config object
+     */
+    public OntologyConfigurator withSnapshotReads(boolean b) {
+        overrides.put(SNAPSHOT_READS, Boolean.valueOf(b));
+        return this;
+    }
+
+    /**
+     * @return true if unused lazy indexes of concurrent ontologies should be dropped in the
+     *         background
+     */
+    public boolean shouldEvictLazyIndexes() {
+        return EVICT_LAZY_INDEXES.getValue(Boolean.class, overrides).booleanValue();
+    }
+
+    /**
+     * @param b true if unused lazy indexes of concurrent ontologies should be dropped in the
+     *        background
+     * @return new config object
+     */
+    public OntologyConfigurator withEvictLazyIndexes(boolean b) {
+        overrides.put(EVICT_LAZY_INDEXES, Boolean.valueOf(b));
+        return this;
+    }
+
+    /**
+     * @return milliseconds without reads after which a lazy index can be dropped
+     */
+    public long getLazyIndexIdleMillis() {
+        return LAZY_INDEX_IDLE_MILLIS.getValue(Long.class, overrides).longValue();
+    }
+
+    /**
+     * @param l milliseconds without reads after which a lazy index can be dropped; 0 to drop
+     *        indexes only when the heap is nearly full
+     * @return new config object
+     */
+    public OntologyConfigurator withLazyIndexIdleMillis(long l) {
+        overrides.put(LAZY_INDEX_IDLE_MILLIS, Long.valueOf(l));
+        return this;
+    }
+
     /**
      * @return a new OWLOntologyLoaderConfiguration from the builder current settings
      */
@@ -344,7 +561,12 @@ public class OntologyConfigurator implements Serializable {
             .setStrict(shouldParseWithStrictConfiguration())
             .setTreatDublinCoreAsBuiltIn(shouldTreatDublinCoreAsBuiltin())
             .setBannedParsers(getBannedParsers())
-            .setRepairIllegalPunnings(shouldRepairIllegalPunnings());
+            .setRepairIllegalPunnings(shouldRepairIllegalPunnings())
+            .setWarmUpIndexes(shouldWarmUpIndexes())
+            .setDeferIndexing(shouldDeferIndexing())
+            .setIndexSnapshotDirectory(getIndexSnapshotDirectory())
+            .setLoadImportsInParallel(shouldLoadImportsInParallel())
+            .setImportsLoadingThreads(getImportsLoadingThreads());
     }
 
     /**
@@ -0,0 +1,87 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package org.semanticweb.owlapi.model;
+
+import static org.semanticweb.owlapi.util.OWLAPIPreconditions.checkNotNull;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estimate of the heap retained by an ontology. Index estimates cover the index structures only;
+ * axiom estimates cover the axiom objects, excluding entities, IRIs and other objects that are
+ * interned by the data factory and shared between ontologies. Estimates are approximate: they
+ * assume a 64 bit JVM with compressed references and are computed from samples where walking all
+ * objects would be too expensive.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public class OntologyMemoryUsage {
+
+    private final Map<String, Long> indexBytes;
+    private final Map<AxiomType<?>, Long> axiomBytes;
+
+    /**
+     * @param indexBytes estimated bytes per index, by index name
+     * @param axiomBytes estimated bytes of the axioms of each type
+     */
+    public OntologyMemoryUsage(Map<String, Long> indexBytes, Map<AxiomType<?>, Long> axiomBytes) {
+        this.indexBytes = Collections
+            .unmodifiableMap(new LinkedHashMap<>(checkNotNull(indexBytes, "indexBytes")));
+        this.axiomBytes = Collections
+            .unmodifiableMap(new LinkedHashMap<>(checkNotNull(axiomBytes, "axiomBytes")));
+    }
+
+    /**
+     * @return estimated bytes per index, by index name
+     */
+    public Map<String, Long> getIndexBytes() {
+        return indexBytes;
+    }
+
+    /**
+     * @return estimated bytes of the axioms of each type
+     */
+    public Map<AxiomType<?>, Long> getAxiomBytes() {
+        return axiomBytes;
+    }
+
+    /**
+     * @return estimated bytes of all indexes
+     */
+    public long getTotalIndexBytes() {
+        return indexBytes.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @return estimated bytes of all axioms
+     */
+    public long getTotalAxiomBytes() {
+        return axiomBytes.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @return estimated bytes retained by the ontology, excluding shared objects
+     */
+    public long getTotalBytes() {
+        return getTotalIndexBytes() + getTotalAxiomBytes();
+    }
+
+    @Override
+    public String toString() {
+        return "OntologyMemoryUsage{total=" + getTotalBytes() + ", indexes=" + indexBytes
+            + ", axioms=" + axiomBytes + '}';
+    }
+}
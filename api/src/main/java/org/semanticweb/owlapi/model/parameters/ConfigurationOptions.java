@@ -89,8 +89,112 @@ public enum ConfigurationOptions {
      * of a tautology like 
      * {@code Equivalent(A, A)}.*/
     ALLOW_DUPLICATES_IN_CONSTRUCT_SETS  (Boolean.FALSE),
-    /**Max number of elements for caches.*/
-    CACHE_SIZE                        (Integer.valueOf(2048));
+    /**Max number of elements for caches.
+     * This is a JVM wide setting, read
+     * from system properties or
+     * owlapi.properties when the caches
+     * are created; ontology configurators
+     * do not change it. HASH_CONSING,
+     * COMPACT_LITERALS and COMPACT_IRIS
+     * are read in the same way.*/
+    CACHE_SIZE                        (Integer.valueOf(2048)),
+    /** True if lazily built ontology 
+     * indexes should be published as 
+     * immutable snapshots once reads 
+     * dominate writes, so that lookups
+     * do not contend on a lock. Best
+     * suited to read mostly ontologies.*/
+    LOCK_FREE_INDEX_READS             (Boolean.FALSE),
+    /** True if ontology index entries 
+     * with many values should store 
+     * them as arrays of axioms sorted by
+     * hash code rather than hash sets.
+     * Reduces index memory for large
+     * ontologies; lookups in those
+     * entries take logarithmic time.*/
+    COMPACT_INDEX_STORAGE             (Boolean.FALSE),
+    /** True if all lazy ontology
+     * indexes should be built in
+     * parallel right after load,
+     * rather than on first use.*/
+    WARM_UP_INDEXES                   (Boolean.FALSE),
+    /** True if parsers should only
+     * buffer axioms while loading,
+     * with all indexes built in one
+     * pass once parsing is done.*/
+    DEFER_INDEXING                    (Boolean.FALSE),
+    /** True if concurrent ontologies
+     * should serve reads from read only
+     * snapshots, published after each
+     * change batch, rather than under
+     * the read lock. Reads then never
+     * wait for writers.*/
+    SNAPSHOT_READS                    (Boolean.FALSE),
+    /** Directory for persisted index
+     * snapshots of ontologies loaded
+     * from local files; empty to
+     * disable index snapshots. Lazy
+     * indexes are only stored if built
+     * when the snapshot is written,
+     * e.g., with WARM_UP_INDEXES.*/
+    INDEX_SNAPSHOT_DIRECTORY          (""),
+    /** True if lazily built indexes
+     * of concurrent ontologies that are
+     * not in use should be dropped by a
+     * background task, after an idle
+     * period or when the heap is nearly
+     * full, and rebuilt on next use.*/
+    EVICT_LAZY_INDEXES                (Boolean.FALSE),
+    /** Milliseconds without reads after
+     * which a lazily built index can be
+     * dropped, if lazy index eviction is
+     * enabled; 0 to drop indexes only
+     * when the heap is nearly full.*/
+    LAZY_INDEX_IDLE_MILLIS            (Long.valueOf(600000)),
+    /** True if the data factory should
+     * share structurally equal class
+     * expressions, data ranges and
+     * literals, across ontologies.
+     * JVM wide, see {@link #CACHE_SIZE}.*/
+    HASH_CONSING                      (Boolean.FALSE),
+    /** True if the data factory should
+     * store literal lexical forms as
+     * deduplicated Latin-1 or UTF-16
+     * bytes, with interned language
+     * tags. JVM wide, see
+     * {@link #CACHE_SIZE}.*/
+    COMPACT_LITERALS                  (Boolean.FALSE),
+    /** True if IRIs should share their
+     * namespaces through a global table
+     * and store Latin-1 remainders as
+     * bytes. JVM wide, see
+     * {@link #CACHE_SIZE}; read once,
+     * when the IRI class is initialized.*/
+    COMPACT_IRIS                      (Boolean.FALSE),
+    /** True if the documents in an
+     * imports closure should be parsed
+     * concurrently, with registration
+     * in the manager kept serial.*/
+    PARALLEL_IMPORTS_LOADING          (Boolean.FALSE),
+    /** Number of threads parsing
+     * imported documents, if parallel
+     * imports loading is enabled; 0 to
+     * use one per available processor.*/
+    IMPORTS_LOADING_THREADS           (Integer.valueOf(0)),
+    /** True if queries including the
+     * imports closure should be served
+     * from a merged index of the
+     * closure, kept up to date with
+     * changes to its ontologies.*/
+    INDEX_IMPORTS_CLOSURE             (Boolean.FALSE),
+    /** True if shallow ontology copies
+     * should share axioms and indexes
+     * with the copied ontology until
+     * either is changed, rather than
+     * adding each axiom to the copy.
+     * Axioms are not shared while
+     * change listeners are attached.*/
+    SHARE_SHALLOW_COPIES              (Boolean.FALSE);
     //@formatter:on
     private static final String PREFIX =
         "org.semanticweb.owlapi.model.parameters.ConfigurationOptions.";
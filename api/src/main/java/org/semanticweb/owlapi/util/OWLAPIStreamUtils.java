@@ -151,6 +151,20 @@ public class OWLAPIStreamUtils {
         return StreamSupport.stream(Spliterators.spliterator(c, CHARACTERISTICS), false);
     }
 
+    /**
+     * A method to be used on array ranges that are sorted and do not contain nulls.
+     * 
+     * @param <T> type
+     * @param c array whose range is sorted and contains distinct, non null elements
+     * @param fromIndex first index of the range, inclusive
+     * @param toIndex last index of the range, exclusive
+     * @return stream that won't cause sorted() calls to sort the range again
+     */
+    public static <T> Stream<T> streamFromSorted(T[] c, int fromIndex, int toIndex) {
+        return StreamSupport.stream(
+            Spliterators.spliterator(c, fromIndex, toIndex, CHARACTERISTICS), false);
+    }
+
     /**
      * @param <T> type
      * @param s stream to turn to set. The stream is consumed by this operation.
@@ -0,0 +1,122 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package org.semanticweb.owlapi.util;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.NodeID;
+import org.semanticweb.owlapi.model.OWLObject;
+
+/**
+ * 64-bit structural fingerprints for OWL objects. A fingerprint depends only on the type index and
+ * the components of an object, so equal objects have equal fingerprints regardless of the
+ * implementation that created them, and values computed by different JVMs can be compared.
+ * Different objects collide with negligible probability; {@code equals} remains the authority.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public final class StructuralFingerprint {
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private StructuralFingerprint() {}
+
+    /**
+     * @param o object to fingerprint
+     * @return fingerprint of the object, computed from the fingerprints of its components
+     */
+    public static long of(OWLObject o) {
+        long h = mix(SEED + o.typeIndex());
+        if (o instanceof IRI) {
+            return combine(h, of(((IRI) o).getIRIString()));
+        }
+        return combine(h, ofIterator(o.components().iterator()));
+    }
+
+    /**
+     * @param s string to fingerprint
+     * @return fingerprint of the characters in the string
+     */
+    public static long of(String s) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * FNV_PRIME;
+        }
+        return mix(h ^ s.length());
+    }
+
+    private static long ofComponent(Object o) {
+        if (o instanceof OWLObject) {
+            return ((OWLObject) o).fingerprint();
+        }
+        if (o instanceof String) {
+            return of((String) o);
+        }
+        if (o instanceof Number) {
+            return mix(((Number) o).longValue());
+        }
+        if (o instanceof Enum) {
+            return of(((Enum<?>) o).name());
+        }
+        if (o instanceof NodeID) {
+            return of(((NodeID) o).getID());
+        }
+        if (o instanceof Set) {
+            // equal sets can iterate in different orders
+            long h = SEED;
+            for (Object e : (Set<?>) o) {
+                h += ofComponent(e);
+            }
+            return mix(h ^ ((Set<?>) o).size());
+        }
+        if (o instanceof Collection) {
+            return ofIterator(((Collection<?>) o).iterator());
+        }
+        if (o instanceof Stream) {
+            return ofIterator(((Stream<?>) o).iterator());
+        }
+        return mix(o.hashCode());
+    }
+
+    private static long ofIterator(Iterator<?> i) {
+        long h = SEED;
+        int count = 0;
+        while (i.hasNext()) {
+            h = combine(h, ofComponent(i.next()));
+            count++;
+        }
+        return combine(h, count);
+    }
+
+    private static long combine(long h, long value) {
+        return mix(h * FNV_PRIME + value);
+    }
+
+    // finalizer from MurmurHash3
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE53B1A85L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
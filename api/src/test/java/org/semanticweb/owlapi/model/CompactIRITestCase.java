@@ -0,0 +1,73 @@
+package org.semanticweb.owlapi.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author ignazio
+ */
+@SuppressWarnings("javadoc")
+public class CompactIRITestCase {
+
+    private static IRI compact(String prefix, String suffix) {
+        return new IRI(prefix, suffix, true);
+    }
+
+    private static IRI plain(String prefix, String suffix) {
+        return new IRI(prefix, suffix, false);
+    }
+
+    private static void assertSameIRI(IRI expected, IRI actual) {
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(0, expected.compareTo(actual));
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.getRemainder(), actual.getRemainder());
+        assertEquals(expected.getShortForm(), actual.getShortForm());
+        assertEquals(expected.toURI(), actual.toURI());
+        assertEquals(expected.length(), actual.length());
+        for (int i = 0; i < expected.length(); i++) {
+            assertEquals(expected.charAt(i), actual.charAt(i));
+        }
+    }
+
+    @Test
+    public void shouldBehaveAsPlainIRIs() {
+        assertSameIRI(plain("http://example.com/", "Person"),
+            compact("http://example.com/", "Person"));
+        assertSameIRI(plain("http://example.com/", "café"),
+            compact("http://example.com/", "café"));
+        assertSameIRI(plain("http://example.com/", "αβ"),
+            compact("http://example.com/", "αβ"));
+        assertSameIRI(plain("http://example.com/1", ""), compact("http://example.com/1", ""));
+        assertSameIRI(IRI.create("urn:test#", "x"), compact("urn:test#", "x"));
+    }
+
+    @Test
+    public void shouldShareNamespaces() {
+        IRI a = compact(new String("http://example.com/shared#"), "A");
+        IRI b = compact(new String("http://example.com/shared#"), "B");
+        assertSame(a.getNamespace(), b.getNamespace());
+    }
+
+    @Test
+    public void shouldOrderAsPlainIRIs() {
+        String[] suffixes = {"a", "ab", "b", "é", "ÿ", "α", ""};
+        for (String s : suffixes) {
+            for (String t : suffixes) {
+                int expected = Integer.signum(plain("urn:n#", s).compareTo(plain("urn:n#", t)));
+                assertEquals(s + " " + t, expected,
+                    Integer.signum(compact("urn:n#", s).compareTo(compact("urn:n#", t))));
+                assertEquals(s + " " + t, expected,
+                    Integer.signum(compact("urn:n#", s).compareTo(plain("urn:n#", t))));
+            }
+        }
+        assertTrue(compact("urn:a#", "z").compareTo(compact("urn:b#", "a")) < 0);
+        assertNotEquals(compact("urn:a#", "z"), compact("urn:b#", "z"));
+    }
+}
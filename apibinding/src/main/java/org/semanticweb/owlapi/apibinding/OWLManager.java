@@ -29,10 +29,13 @@ import org.semanticweb.owlapi.utilities.Injector;
 
 import uk.ac.manchester.cs.owl.owlapi.CompressionEnabled;
 import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.Concurrency;
 import uk.ac.manchester.cs.owl.owlapi.concurrent.ConcurrentOWLOntologyBuilder;
 import uk.ac.manchester.cs.owl.owlapi.concurrent.NoOpReadWriteLock;
 import uk.ac.manchester.cs.owl.owlapi.concurrent.NonConcurrentDelegate;
 import uk.ac.manchester.cs.owl.owlapi.concurrent.NonConcurrentOWLOntologyBuilder;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.OptimisticReadWriteLock;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.RegistryReadWriteLock;
 
 /**
  * Provides a point of convenience for creating an {@code OWLOntologyManager} with commonly required
@@ -58,7 +61,11 @@ public class OWLManager implements OWLOntologyManagerFactory {
         // singletons.
         REENTRANT(ReadWriteLock.class, () -> new ReentrantReadWriteLock()),
         //
-        NOOP(ReadWriteLock.class, new NoOpReadWriteLock());
+        NOOP(ReadWriteLock.class, new NoOpReadWriteLock()),
+        //
+        REGISTRY(ReadWriteLock.class, () -> new RegistryReadWriteLock()),
+        //
+        OPTIMISTIC(ReadWriteLock.class, () -> new OptimisticReadWriteLock());
 
         private Class<?> c;
         private Supplier<?> s;
@@ -104,6 +111,10 @@ public class OWLManager implements OWLOntologyManagerFactory {
         InjectorConstants.REENTRANT.init(configure(new Injector()));
     private static final Injector normalInjector =
         InjectorConstants.NOOP.init(configure(new Injector()));
+    private static final Injector perOntologyInjector =
+        InjectorConstants.REGISTRY.init(configure(new Injector()));
+    private static final Injector optimisticInjector =
+        InjectorConstants.OPTIMISTIC.init(configure(new Injector()));
 
     private static Injector configure(Injector i) {
         Arrays.stream(InjectorConstants.values()).forEach(f -> f.init(i));
@@ -130,6 +141,32 @@ public class OWLManager implements OWLOntologyManagerFactory {
             .inject(concurrentInjector.getImplementation(OWLOntologyManager.class));
     }
 
+    /**
+     * Creates an OWL ontology manager that is configured with the standard parsers and storers and
+     * uses the specified locking scheme. With {@link Concurrency#PER_ONTOLOGY_LOCKS}, each ontology
+     * has its own lock, and changes to different ontologies do not block each other. With
+     * {@link Concurrency#OPTIMISTIC_READS}, short queries such as axiom counts and containment
+     * checks do not take the read lock unless a write happens at the same time.
+     *
+     * @param concurrency locking scheme
+     * @return The new manager.
+     */
+    public static OWLOntologyManager createOWLOntologyManager(Concurrency concurrency) {
+        switch (concurrency) {
+            case CONCURRENT:
+                return createConcurrentOWLOntologyManager();
+            case PER_ONTOLOGY_LOCKS:
+                return perOntologyInjector
+                    .inject(perOntologyInjector.getImplementation(OWLOntologyManager.class));
+            case OPTIMISTIC_READS:
+                return optimisticInjector
+                    .inject(optimisticInjector.getImplementation(OWLOntologyManager.class));
+            case NON_CONCURRENT:
+            default:
+                return createOWLOntologyManager();
+        }
+    }
+
     /**
      * Gets a global data factory that can be used to create OWL API objects.
      * 
@@ -0,0 +1,170 @@
+package org.semanticweb.owlapi.api.test.multithread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.AsyncChangeBroadcastStrategy;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+public class AsyncChangeBroadcastTestCase extends TestBase {
+
+    private OWLOntologyManager manager;
+    private OWLOntology o;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<OWLAxiom> received = Collections.synchronizedList(new ArrayList<>());
+    private AsyncChangeBroadcastStrategy strategy;
+
+    @Before
+    public void setUpOntology() throws Exception {
+        manager = OWLManager.createConcurrentOWLOntologyManager();
+        o = manager.createOntology(iri("async"));
+    }
+
+    @After
+    public void tearDownStrategy() {
+        release.countDown();
+        if (strategy != null) {
+            strategy.close();
+        }
+    }
+
+    private OWLAxiom axiom(int i) {
+        return df.getOWLSubClassOfAxiom(df.getOWLClass(iri("C" + i)), df.getOWLClass(iri("D")));
+    }
+
+    private void addBlockingListener() {
+        manager.addOntologyChangeListener(changes -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            changes.stream().map(OWLOntologyChange::getAxiom).forEach(received::add);
+        }, strategy);
+    }
+
+    /**
+     * Add the first axiom and wait for the listener to start, and block on, its delivery.
+     */
+    private void addFirstAxiom() throws InterruptedException {
+        o.add(axiom(0));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (strategy.getPendingChanges() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, strategy.getPendingChanges());
+    }
+
+    @Test
+    public void shouldNotBlockWritersAndCoalesceBatches() throws Exception {
+        strategy = new AsyncChangeBroadcastStrategy();
+        addBlockingListener();
+        addFirstAxiom();
+        List<OWLAxiom> expected = new ArrayList<>();
+        expected.add(axiom(0));
+        for (int i = 1; i < 10; i++) {
+            expected.add(axiom(i));
+            o.add(axiom(i));
+        }
+        // all changes applied while the listener is still busy with the first batch
+        assertEquals(10, o.getAxiomCount());
+        assertTrue(received.isEmpty());
+        assertEquals(9, strategy.getPendingChanges());
+        Thread.sleep(20);
+        assertTrue(strategy.getLagMillis() > 0);
+        release.countDown();
+        assertTrue(strategy.awaitDelivery(10, TimeUnit.SECONDS));
+        assertEquals(expected, received);
+        assertEquals(10, strategy.getSubmittedBatches());
+        assertEquals(2, strategy.getDeliveredBatches());
+        assertEquals(10, strategy.getDeliveredChanges());
+        assertEquals(0, strategy.getPendingChanges());
+        assertEquals(0, strategy.getLagMillis());
+        assertTrue(strategy.getMaxLagMillis() > 0);
+    }
+
+    @Test
+    public void shouldApplyBackPressureOnFullQueues() throws Exception {
+        strategy = new AsyncChangeBroadcastStrategy(2, 50, TimeUnit.MILLISECONDS,
+            r -> new Thread(r).start());
+        addBlockingListener();
+        addFirstAxiom();
+        for (int i = 1; i < 5; i++) {
+            o.add(axiom(i));
+        }
+        // one batch is being delivered, two fit in the queue, the last two time out
+        assertEquals(2, strategy.getBackPressureWaits());
+        assertEquals(2, strategy.getOverflows());
+        assertTrue(strategy.getBackPressureMillis() >= 100);
+        assertEquals(4, strategy.getPendingChanges());
+        release.countDown();
+        assertTrue(strategy.awaitDelivery(10, TimeUnit.SECONDS));
+        assertEquals(5, received.size());
+    }
+
+    @Test
+    public void shouldKeepDeliveringAfterListenerFailures() throws Exception {
+        strategy = new AsyncChangeBroadcastStrategy();
+        manager.addOntologyChangeListener(changes -> {
+            throw new IllegalStateException("listener failure expected in test");
+        }, strategy);
+        o.add(axiom(1));
+        o.add(axiom(2));
+        assertTrue(strategy.awaitDelivery(10, TimeUnit.SECONDS));
+        assertEquals(2, strategy.getDeliveredChanges());
+        assertTrue(strategy.getFailures() > 0);
+        assertEquals(strategy.getDeliveredBatches(), strategy.getFailures());
+    }
+
+    @Test
+    public void shouldKeepDeliveringAfterListenerErrors() throws Exception {
+        strategy = new AsyncChangeBroadcastStrategy(10, 50, TimeUnit.MILLISECONDS, r -> {
+            Thread t = new Thread(r);
+            t.setUncaughtExceptionHandler((thread, e) -> {
+                // expected in test
+            });
+            t.start();
+        });
+        OWLOntologyChangeListener listener = changes -> {
+            if (changes.get(0).getAxiom().equals(axiom(1))) {
+                throw new AssertionError("listener error expected in test");
+            }
+            changes.stream().map(OWLOntologyChange::getAxiom).forEach(received::add);
+        };
+        strategy.broadcastChanges(listener, Collections.singletonList(new AddAxiom(o, axiom(1))));
+        strategy.awaitDelivery(10, TimeUnit.SECONDS);
+        strategy.broadcastChanges(listener, Collections.singletonList(new AddAxiom(o, axiom(2))));
+        assertTrue(strategy.awaitDelivery(10, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(axiom(2)), received);
+    }
+
+    @Test
+    public void shouldDiscardChangesAfterClose() throws Exception {
+        strategy = new AsyncChangeBroadcastStrategy();
+        OWLOntologyChangeListener listener =
+            changes -> changes.stream().map(OWLOntologyChange::getAxiom).forEach(received::add);
+        strategy.broadcastChanges(listener, Collections.singletonList(new AddAxiom(o, axiom(1))));
+        assertTrue(strategy.awaitDelivery(10, TimeUnit.SECONDS));
+        strategy.close();
+        strategy.broadcastChanges(listener, Collections.singletonList(new AddAxiom(o, axiom(2))));
+        assertTrue(strategy.awaitDelivery(10, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(axiom(1)), received);
+        assertEquals(0, strategy.getPendingChanges());
+    }
+}
@@ -0,0 +1,79 @@
+package org.semanticweb.owlapi.api.test.multithread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import uk.ac.manchester.cs.owl.owlapi.concurrent.Concurrency;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.ConcurrentOWLOntologyImpl;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.OptimisticReadWriteLock;
+
+public class OptimisticReadsTestCase extends TestBase {
+
+    private static final int AXIOMS = 2000;
+    private final OWLClass top = df.getOWLClass(iri("Top"));
+
+    private OWLAxiom axiom(int i) {
+        return df.getOWLSubClassOfAxiom(df.getOWLClass(iri("C" + i)), top);
+    }
+
+    @Test
+    public void shouldReadConsistentValuesWhileWriting() throws Exception {
+        OWLOntologyManager manager =
+            OWLManager.createOWLOntologyManager(Concurrency.OPTIMISTIC_READS);
+        OWLOntology o = manager.createOntology(iri("o"));
+        assertTrue(((ConcurrentOWLOntologyImpl) o).getLock() instanceof OptimisticReadWriteLock);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(executor.submit(() -> {
+                    int last = 0;
+                    while (writing.get()) {
+                        int count = o.getAxiomCount();
+                        // axioms are only added, in order
+                        assertTrue(count >= last);
+                        if (count > 0) {
+                            assertTrue(o.containsAxiom(axiom(count - 1)));
+                            assertTrue(o.containsEntityInSignature(
+                                df.getOWLClass(iri("C" + (count - 1)))));
+                        }
+                        last = count;
+                    }
+                }));
+            }
+            executor.submit(() -> {
+                try {
+                    for (int i = 0; i < AXIOMS; i++) {
+                        o.add(axiom(i));
+                    }
+                } finally {
+                    writing.set(false);
+                }
+            }).get(60, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(AXIOMS, o.getAxiomCount());
+        assertTrue(o.containsAxiom(axiom(AXIOMS - 1)));
+    }
+}
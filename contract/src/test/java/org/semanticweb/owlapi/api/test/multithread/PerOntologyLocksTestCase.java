@@ -0,0 +1,183 @@
+package org.semanticweb.owlapi.api.test.multithread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.SetOntologyID;
+import org.semanticweb.owlapi.model.parameters.AxiomAnnotations;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+import uk.ac.manchester.cs.owl.owlapi.concurrent.Concurrency;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.ConcurrentOWLOntologyImpl;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.OntologyReadWriteLock;
+
+public class PerOntologyLocksTestCase extends TestBase {
+
+    private OWLOntologyManager manager;
+    private ExecutorService executor;
+
+    @Before
+    public void setUpManager() {
+        manager = OWLManager.createOWLOntologyManager(Concurrency.PER_ONTOLOGY_LOCKS);
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDownExecutor() {
+        executor.shutdownNow();
+    }
+
+    private static ReadWriteLock lock(OWLOntology o) {
+        return ((ConcurrentOWLOntologyImpl) o).getLock();
+    }
+
+    private OWLAxiom axiom(String sub, int i) {
+        return df.getOWLSubClassOfAxiom(df.getOWLClass(iri(sub + i)), df.getOWLClass(iri(sub)));
+    }
+
+    @Test
+    public void shouldGiveEachOntologyItsOwnLock() throws OWLOntologyCreationException {
+        OWLOntology o1 = manager.createOntology(iri("o1"));
+        OWLOntology o2 = manager.createOntology(iri("o2"));
+        assertTrue(lock(o1) instanceof OntologyReadWriteLock);
+        assertNotSame(lock(o1), lock(o2));
+        assertSame(((OntologyReadWriteLock) lock(o1)).getRegistryLock(),
+            ((OntologyReadWriteLock) lock(o2)).getRegistryLock());
+    }
+
+    @Test
+    public void shouldNotBlockOtherOntologies() throws Exception {
+        OWLOntology o1 = manager.createOntology(iri("o1"));
+        OWLOntology o2 = manager.createOntology(iri("o2"));
+        Lock writeLock = lock(o1).writeLock();
+        writeLock.lock();
+        Future<?> blocked;
+        try {
+            executor.submit(() -> o2.add(axiom("B", 0))).get(10, TimeUnit.SECONDS);
+            assertEquals(Integer.valueOf(1),
+                executor.submit(() -> Integer.valueOf(o2.getAxiomCount())).get(10,
+                    TimeUnit.SECONDS));
+            blocked = executor.submit(() -> o1.add(axiom("A", 0)));
+            Thread.sleep(100);
+            assertFalse(blocked.isDone());
+        } finally {
+            writeLock.unlock();
+        }
+        blocked.get(10, TimeUnit.SECONDS);
+        assertTrue(o1.containsAxiom(axiom("A", 0)));
+    }
+
+    @Test
+    public void shouldApplyConcurrentChangesToDifferentOntologies() throws Exception {
+        List<OWLOntology> ontologies = new ArrayList<>();
+        List<Future<?>> writers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            OWLOntology o = manager.createOntology(iri("o" + i));
+            ontologies.add(o);
+            String name = "C" + i;
+            writers.add(executor.submit(() -> {
+                for (int j = 0; j < 500; j++) {
+                    o.add(axiom(name, j));
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(500, ontologies.get(i).getAxiomCount());
+            assertEquals(501, ontologies.get(i).getClassesInSignature().size());
+        }
+    }
+
+    @Test
+    public void shouldUpdateRegistryForImportsAndRenames() throws Exception {
+        OWLOntology o1 = manager.createOntology(iri("o1"));
+        OWLOntology o2 = manager.createOntology(iri("o2"));
+        o1.add(axiom("A", 1));
+        o2.applyChange(new AddImport(o2, df.getOWLImportsDeclaration(iri("o1"))));
+        assertTrue(o2.containsAxiom(axiom("A", 1), Imports.INCLUDED,
+            AxiomAnnotations.CONSIDER_AXIOM_ANNOTATIONS));
+        OWLOntologyID renamed = new OWLOntologyID(iri("renamed"));
+        o1.applyChange(new SetOntologyID(o1, renamed));
+        assertSame(o1, manager.getOntology(renamed));
+        o1.add(axiom("A", 2));
+        assertEquals(2, o1.getAxiomCount());
+    }
+
+    @Test
+    public void shouldNotifyListenersInTheOrderChangesWereApplied() throws Exception {
+        OWLOntology o = manager.createOntology(iri("o"));
+        OWLAxiom axiom = axiom("A", 1);
+        List<OWLOntologyChange> notified = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger outOfOrder = new AtomicInteger();
+        manager.addOntologyChangeListener(changes -> {
+            for (OWLOntologyChange change : changes) {
+                // the ontology cannot change again until its listeners have been notified
+                if (change.isAddAxiom() != o.containsAxiom(axiom)) {
+                    outOfOrder.incrementAndGet();
+                }
+                notified.add(change);
+            }
+        });
+        List<Future<?>> writers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            writers.add(executor.submit(() -> {
+                for (int j = 0; j < 2000; j++) {
+                    o.add(axiom);
+                    o.remove(axiom);
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(0, outOfOrder.get());
+        List<OWLOntologyChange> applied = new ArrayList<>(notified);
+        OWLOntology replayed = manager.createOntology(iri("replayed"));
+        for (OWLOntologyChange change : applied) {
+            replayed.applyChange(change.getChangeData().createOntologyChange(replayed));
+        }
+        assertEquals(o.containsAxiom(axiom), replayed.containsAxiom(axiom));
+    }
+
+    @Test
+    public void shouldApplyChangesToOntologiesRemovedBeforeLocking() throws Exception {
+        OWLOntology o = manager.createOntology(iri("o"));
+        // impending change listeners run before the ontology lock is taken
+        manager.addImpendingOntologyChangeListener(changes -> {
+            if (manager.contains(o)) {
+                manager.removeOntology(o);
+            }
+        });
+        executor.submit(() -> o.add(axiom("A", 1))).get(10, TimeUnit.SECONDS);
+        assertFalse(manager.contains(o));
+        assertTrue(o.containsAxiom(axiom("A", 1)));
+    }
+}
@@ -0,0 +1,85 @@
+package org.semanticweb.owlapi.api.test.multithread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+import uk.ac.manchester.cs.owl.owlapi.HasSnapshot;
+
+public class SnapshotTestCase extends TestBase {
+
+    private final OWLClass a = df.getOWLClass(iri("A"));
+    private final OWLClass b = df.getOWLClass(iri("B"));
+    private final OWLClass c = df.getOWLClass(iri("C"));
+
+    private OWLOntology create() throws OWLOntologyCreationException {
+        OWLOntology o = OWLManager.createConcurrentOWLOntologyManager().createOntology(iri("o"));
+        assertTrue(o instanceof HasSnapshot);
+        return o;
+    }
+
+    @Test
+    public void shouldNotSeeLaterChanges() throws OWLOntologyCreationException {
+        OWLOntology o = create();
+        o.add(df.getOWLSubClassOfAxiom(a, b));
+        // initialize a lazy index before taking the snapshot
+        assertEquals(1, o.subClassAxiomsForSubClass(a).count());
+        OWLOntology snapshot = ((HasSnapshot) o).snapshot();
+        assertSame(snapshot, ((HasSnapshot) o).snapshot());
+        o.add(df.getOWLSubClassOfAxiom(a, c), df.getOWLDeclarationAxiom(c));
+        o.remove(df.getOWLSubClassOfAxiom(a, b));
+        assertEquals(1, snapshot.getAxiomCount());
+        assertEquals(asList(o.subClassAxiomsForSubClass(a)),
+            asList(((HasSnapshot) o).snapshot().subClassAxiomsForSubClass(a)));
+        assertEquals(1, snapshot.subClassAxiomsForSubClass(a).count());
+        assertTrue(snapshot.containsAxiom(df.getOWLSubClassOfAxiom(a, b)));
+        assertFalse(snapshot.containsClassInSignature(c.getIRI()));
+        assertFalse(snapshot.isDeclared(c));
+        assertTrue(o.isDeclared(c));
+        assertEquals(2, o.getAxiomCount());
+        assertEquals(Collections.singletonList(snapshot), asList(snapshot.importsClosure()));
+        assertEquals(1, snapshot.getAxiomCount(Imports.INCLUDED));
+    }
+
+    @Test
+    public void shouldNotBlockWritersWhileStreaming() throws Exception {
+        OWLOntology o = create();
+        for (int i = 0; i < 100; i++) {
+            o.add(df.getOWLSubClassOfAxiom(df.getOWLClass(iri("X" + i)), a));
+        }
+        Iterator<OWLAxiom> iterator = ((HasSnapshot) o).snapshot().axioms().iterator();
+        iterator.next();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> writer = executor.submit(() -> o.add(df.getOWLSubClassOfAxiom(b, a)));
+            writer.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+        int count = 1;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertEquals(100, count);
+        assertEquals(101, o.getAxiomCount());
+    }
+}
@@ -0,0 +1,120 @@
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asUnorderedSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.io.StringDocumentSource;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeProgressListener;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.RemoveAxiom;
+import org.semanticweb.owlapi.model.parameters.ChangeApplied;
+
+import uk.ac.manchester.cs.owl.owlapi.HasBulkLoad;
+
+public class BatchedChangesTestCase extends TestBase {
+
+    private static final int SIZE = 2000;
+    private final OWLClass top = df.getOWLClass(iri("Top"));
+
+    private List<OWLOntologyChange> additions(OWLOntology o) {
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) {
+            OWLClass c = df.getOWLClass(iri("C" + i));
+            changes.add(new AddAxiom(o, df.getOWLDeclarationAxiom(c)));
+            changes.add(new AddAxiom(o, df.getOWLSubClassOfAxiom(c, top)));
+        }
+        return changes;
+    }
+
+    private static AtomicBoolean deferredDuringBatch(OWLOntologyManager m, OWLOntology o) {
+        AtomicBoolean deferred = new AtomicBoolean();
+        m.addOntologyChangeProgessListener(new OWLOntologyChangeProgressListener() {
+
+            @Override
+            public void begin(int size) {
+                // nothing to do
+            }
+
+            @Override
+            public void appliedChange(OWLOntologyChange change) {
+                deferred.compareAndSet(false, ((HasBulkLoad) o).isBulkLoading());
+            }
+
+            @Override
+            public void end() {
+                // nothing to do
+            }
+        });
+        return deferred;
+    }
+
+    @Test
+    public void shouldIndexLargeBatchOnce() throws Exception {
+        OWLOntologyManager m = setupManager();
+        OWLOntology o = m.createOntology(iri("batch"));
+        AtomicBoolean deferred = deferredDuringBatch(m, o);
+        OWLOntology expected = m.createOntology(iri("expected"));
+        // small batches are indexed change by change
+        additions(expected).forEach(c -> m.applyChange(
+            new AddAxiom(expected, c.getAxiom())));
+        assertFalse(deferred.get());
+        assertEquals(ChangeApplied.SUCCESSFULLY, m.applyChanges(additions(o)));
+        assertTrue(deferred.get());
+        assertFalse(((HasBulkLoad) o).isBulkLoading());
+        assertEquals(2 * SIZE, o.getAxiomCount());
+        assertEquals(SIZE + 1, o.getClassesInSignature().size());
+        assertEquals(asUnorderedSet(expected.axioms()), asUnorderedSet(o.axioms()));
+        expected.classesInSignature().forEach(c -> {
+            assertTrue(o.isDeclared(c) || c.equals(top));
+            assertEquals(asUnorderedSet(expected.subClassAxiomsForSubClass(c)),
+                asUnorderedSet(o.subClassAxiomsForSubClass(c)));
+        });
+        assertEquals(SIZE, o.subClassAxiomsForSuperClass(top).count());
+    }
+
+    @Test
+    public void shouldKeepChangeOrderWithinBatch() throws Exception {
+        OWLOntologyManager m = setupManager();
+        OWLOntology o = m.createOntology(iri("batch"));
+        List<OWLOntologyChange> changes = additions(o);
+        OWLClass removed = df.getOWLClass(iri("C0"));
+        changes.add(new RemoveAxiom(o, df.getOWLSubClassOfAxiom(removed, top)));
+        changes.add(new AddAxiom(o, df.getOWLSubClassOfAxiom(top, removed)));
+        m.applyChanges(changes);
+        assertEquals(0, o.subClassAxiomsForSubClass(removed).count());
+        assertEquals(1, o.subClassAxiomsForSuperClass(removed).count());
+        assertEquals(SIZE - 1, o.subClassAxiomsForSuperClass(top).count());
+    }
+
+    @Test
+    public void shouldRollBackLargeBatch() throws Exception {
+        OWLOntologyManager m = setupManager();
+        OWLOntology o = m.loadOntologyFromOntologyDocument(
+            new StringDocumentSource("Ontology(<urn:test:rollback>\nSubClassOf(<urn:test:A> "
+                + "<urn:test:B>))"),
+            new OWLOntologyLoaderConfiguration().setLoadAnnotationAxioms(false));
+        List<OWLOntologyChange> changes = additions(o);
+        // annotation axioms cannot be added to this ontology, so the whole batch fails
+        changes.add(new AddAxiom(o, df.getOWLAnnotationAssertionAxiom(iri("C0"),
+            df.getRDFSLabel("C0"))));
+        assertEquals(ChangeApplied.UNSUCCESSFULLY, m.applyChanges(changes));
+        assertFalse(((HasBulkLoad) o).isBulkLoading());
+        assertEquals(1, o.getAxiomCount());
+        assertEquals(2, o.getClassesInSignature().size());
+        assertEquals(0, o.subClassAxiomsForSuperClass(top).count());
+        assertFalse(o.containsClassInSignature(iri("C1")));
+    }
+}
@@ -0,0 +1,82 @@
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asUnorderedSet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.SWRLVariable;
+
+import uk.ac.manchester.cs.owl.owlapi.BinaryOntologyFile;
+
+public class BinaryOntologyFileTestCase extends TestBase {
+
+    private static void assertSameContent(OWLOntology source, OWLOntology copy) {
+        assertEquals(source.getOntologyID(), copy.getOntologyID());
+        assertEquals(asUnorderedSet(source.importsDeclarations()),
+            asUnorderedSet(copy.importsDeclarations()));
+        assertEquals(asUnorderedSet(source.annotations()), asUnorderedSet(copy.annotations()));
+        assertEquals(source.getAxiomCount(), copy.getAxiomCount());
+        assertEquals(asUnorderedSet(source.axioms()), asUnorderedSet(copy.axioms()));
+    }
+
+    @Test
+    public void shouldRoundTripThroughFile() throws Exception {
+        OWLOntology source = ontologyFromClasspathFile("pizza.owl");
+        File file = folder.newFile("pizza.owlb");
+        BinaryOntologyFile.write(source, file);
+        assertTrue(BinaryOntologyFile.isBinaryOntology(file));
+        OWLOntology copy = BinaryOntologyFile.read(setupManager(), file);
+        assertSameContent(source, copy);
+    }
+
+    @Test
+    public void shouldRoundTripAllConstructs() throws Exception {
+        OWLOntology source = ontologyFromClasspathFile("primer.functionalsyntax.txt");
+        OWLClass a = df.getOWLClass(iri("A"));
+        OWLAnonymousIndividual anon = df.getOWLAnonymousIndividual();
+        OWLAnnotation nested = df.getOWLAnnotation(df.getRDFSComment(), df.getOWLLiteral("x", "en"),
+            df.getOWLAnnotation(df.getRDFSLabel(), anon));
+        SWRLVariable x = df.getSWRLVariable(iri("x"));
+        source.add(df.getOWLSubClassOfAxiom(a, df.getOWLObjectHasSelf(df.getOWLObjectInverseOf(
+            df.getOWLObjectProperty(iri("p")))), Collections.singleton(nested)),
+            df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), anon, df.getOWLLiteral(1.5D)),
+            df.getSWRLRule(
+                Arrays.asList(df.getSWRLClassAtom(a, x),
+                    df.getSWRLBuiltInAtom(iri("builtin"),
+                        Collections.singletonList(
+                            df.getSWRLLiteralArgument(df.getOWLLiteral(true))))),
+                Collections.singleton(df.getSWRLSameIndividualAtom(x,
+                    df.getSWRLIndividualArgument(df.getOWLNamedIndividual(iri("i")))))));
+        source.getOWLOntologyManager().applyChange(new AddImport(source,
+            df.getOWLImportsDeclaration(IRI.create("urn:test:imported"))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryOntologyFile.write(source, out);
+        OWLOntology copy =
+            BinaryOntologyFile.read(setupManager(), new ByteArrayInputStream(out.toByteArray()));
+        assertSameContent(source, copy);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectOtherFiles() throws IOException, OWLOntologyCreationException {
+        File file = folder.newFile("not-binary.owl");
+        assertFalse(BinaryOntologyFile.isBinaryOntology(file));
+        BinaryOntologyFile.read(setupManager(), file);
+    }
+}
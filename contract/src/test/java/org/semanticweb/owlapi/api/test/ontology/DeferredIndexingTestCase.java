@@ -0,0 +1,67 @@
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asUnorderedSet;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.io.StreamDocumentSource;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+
+import uk.ac.manchester.cs.owl.owlapi.HasBulkLoad;
+
+public class DeferredIndexingTestCase extends TestBase {
+
+    private OWLOntology load(boolean defer) throws OWLOntologyCreationException {
+        return setupManager().loadOntologyFromOntologyDocument(
+            new StreamDocumentSource(getClass().getResourceAsStream("/pizza.owl")),
+            new OWLOntologyLoaderConfiguration().setDeferIndexing(defer));
+    }
+
+    @Test
+    public void shouldBuildSameIndexesAsIncrementalLoad() throws OWLOntologyCreationException {
+        OWLOntology expected = load(false);
+        OWLOntology actual = load(true);
+        assertEquals(asUnorderedSet(expected.axioms()), asUnorderedSet(actual.axioms()));
+        assertEquals(asList(expected.signature()), asList(actual.signature()));
+        assertEquals(asUnorderedSet(expected.generalClassAxioms()),
+            asUnorderedSet(actual.generalClassAxioms()));
+        expected.signature().forEach(e -> {
+            assertEquals(e.toString(), Boolean.valueOf(expected.isDeclared(e)),
+                Boolean.valueOf(actual.isDeclared(e)));
+            assertEquals(e.toString(), asUnorderedSet(expected.referencingAxioms(e)),
+                asUnorderedSet(actual.referencingAxioms(e)));
+        });
+        expected.classesInSignature().forEach(c -> {
+            assertEquals(asUnorderedSet(expected.subClassAxiomsForSubClass(c)),
+                asUnorderedSet(actual.subClassAxiomsForSubClass(c)));
+            assertEquals(asUnorderedSet(expected.axioms(c)), asUnorderedSet(actual.axioms(c)));
+        });
+    }
+
+    @Test
+    public void shouldIndexPendingAxiomsBeforeQueries() throws OWLOntologyCreationException {
+        OWLOntology o = getOWLOntology();
+        assertTrue(o instanceof HasBulkLoad);
+        OWLClass a = df.getOWLClass(iri("A"));
+        OWLClass b = df.getOWLClass(iri("B"));
+        ((HasBulkLoad) o).beginBulkLoad();
+        o.add(df.getOWLDeclarationAxiom(a), df.getOWLSubClassOfAxiom(a, b));
+        assertEquals(2, o.getAxiomCount());
+        // queries during the bulk load see all axioms added so far
+        assertTrue(o.isDeclared(a));
+        assertEquals(1, o.subClassAxiomsForSubClass(a).count());
+        o.add(df.getOWLSubClassOfAxiom(b, a));
+        assertTrue(o.containsClassInSignature(b.getIRI()));
+        assertEquals(2, o.referencingAxioms(b).count());
+        ((HasBulkLoad) o).endBulkLoad();
+        o.remove(df.getOWLSubClassOfAxiom(a, b));
+        assertEquals(1, o.referencingAxioms(b).count());
+        assertEquals(0, o.subClassAxiomsForSubClass(a).count());
+    }
+}
@@ -0,0 +1,152 @@
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.semanticweb.owlapi.model.parameters.Imports.INCLUDED;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLPrimitive;
+import org.semanticweb.owlapi.model.OntologyConfigurator;
+import org.semanticweb.owlapi.model.RemoveImport;
+import org.semanticweb.owlapi.model.SetOntologyID;
+import org.semanticweb.owlapi.model.parameters.AxiomAnnotations;
+
+public class ImportsClosureIndexTestCase extends TestBase {
+
+    private static final int MEMBERS = 10;
+    private final OWLClass top = df.getOWLClass(iri("Top"));
+
+    private OWLAxiom axiom(int i) {
+        return df.getOWLSubClassOfAxiom(df.getOWLClass(iri("C" + i)), top);
+    }
+
+    /**
+     * Creates a root ontology importing a chain of members; every member contains its own axiom
+     * and the axiom shared by all members.
+     */
+    private OWLOntology closure(OWLOntologyManager m) throws Exception {
+        OWLOntology root = m.createOntology(iri("root"));
+        OWLOntology last = root;
+        for (int i = 0; i < MEMBERS; i++) {
+            OWLOntology member = m.createOntology(iri("member" + i));
+            OWLClass c = df.getOWLClass(iri("C" + i));
+            member.add(axiom(i), axiom(-1), df.getOWLDeclarationAxiom(c));
+            m.applyChange(new AddImport(last, df.getOWLImportsDeclaration(iri("member" + i))));
+            last = member;
+        }
+        return root;
+    }
+
+    private static OWLOntologyManager indexing(OWLOntologyManager m) {
+        // test managers share one configurator
+        m.setOntologyConfigurator(new OntologyConfigurator().withIndexImportsClosure(true));
+        return m;
+    }
+
+    private static List<OWLAxiom> sorted(Stream<? extends OWLAxiom> axioms) {
+        List<OWLAxiom> list = new ArrayList<>();
+        axioms.forEach(list::add);
+        list.sort(null);
+        return list;
+    }
+
+    private static void assertSameResults(OWLOntology expected, OWLOntology actual,
+        OWLPrimitive key) {
+        for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            assertEquals(sorted(expected.axioms(type, INCLUDED)),
+                sorted(actual.axioms(type, INCLUDED)));
+            assertEquals(expected.getAxiomCount(type, INCLUDED),
+                actual.getAxiomCount(type, INCLUDED));
+        }
+        assertEquals(sorted(expected.referencingAxioms(key, INCLUDED)),
+            sorted(actual.referencingAxioms(key, INCLUDED)));
+    }
+
+    @Test
+    public void shouldMatchUnindexedResults() throws Exception {
+        OWLOntology expected = closure(setupManager());
+        OWLOntology root = closure(indexing(setupManager()));
+        assertSameResults(expected, root, top);
+        assertSameResults(expected, root, df.getOWLClass(iri("C3")));
+        assertEquals(MEMBERS * 2, root.getAxiomCount(AxiomType.SUBCLASS_OF, INCLUDED));
+        assertTrue(root.containsAxiom(axiom(MEMBERS - 1), INCLUDED,
+            AxiomAnnotations.CONSIDER_AXIOM_ANNOTATIONS));
+        assertFalse(root.containsAxiom(axiom(MEMBERS), INCLUDED,
+            AxiomAnnotations.CONSIDER_AXIOM_ANNOTATIONS));
+    }
+
+    @Test
+    public void shouldUpdateIndexIncrementally() throws Exception {
+        OWLOntologyManager m = indexing(OWLManager.createConcurrentOWLOntologyManager());
+        OWLOntology root = closure(m);
+        OWLOntology member = m.getOntology(iri("member5"));
+        // materialize the index before changing the members
+        assertEquals(MEMBERS * 2, root.getAxiomCount(AxiomType.SUBCLASS_OF, INCLUDED));
+        assertEquals(MEMBERS * 2, root.referencingAxioms(top, INCLUDED).count());
+        member.add(axiom(100));
+        assertEquals(MEMBERS * 2 + 1, root.getAxiomCount(AxiomType.SUBCLASS_OF, INCLUDED));
+        assertTrue(root.referencingAxioms(top, INCLUDED).anyMatch(axiom(100)::equals));
+        // the shared axiom is still in the closure until removed from every member
+        member.remove(axiom(-1));
+        assertTrue(root.containsAxiom(axiom(-1), INCLUDED,
+            AxiomAnnotations.CONSIDER_AXIOM_ANNOTATIONS));
+        for (int i = 0; i < MEMBERS; i++) {
+            m.getOntology(iri("member" + i)).remove(axiom(-1));
+        }
+        assertFalse(root.containsAxiom(axiom(-1), INCLUDED,
+            AxiomAnnotations.CONSIDER_AXIOM_ANNOTATIONS));
+        assertFalse(root.referencingAxioms(top, INCLUDED).anyMatch(axiom(-1)::equals));
+        assertEquals(MEMBERS + 1, root.getAxiomCount(AxiomType.SUBCLASS_OF, INCLUDED));
+    }
+
+    @Test
+    public void shouldFollowImportsChanges() throws Exception {
+        OWLOntologyManager m = indexing(setupManager());
+        OWLOntology root = closure(m);
+        assertEquals(MEMBERS * 2, root.getAxiomCount(AxiomType.SUBCLASS_OF, INCLUDED));
+        m.applyChange(new RemoveImport(root, df.getOWLImportsDeclaration(iri("member0"))));
+        assertEquals(0, root.getAxiomCount(AxiomType.SUBCLASS_OF, INCLUDED));
+        root.add(axiom(0));
+        assertEquals(1, root.referencingAxioms(top, INCLUDED).count());
+        m.applyChange(new AddImport(root, df.getOWLImportsDeclaration(iri("member7"))));
+        assertEquals(7, root.getAxiomCount(AxiomType.SUBCLASS_OF, INCLUDED));
+    }
+
+    private void renameAndAdd(OWLOntology root) {
+        OWLOntologyManager m = root.getOWLOntologyManager();
+        // materialize the index before renaming
+        root.getAxiomCount(AxiomType.SUBCLASS_OF, INCLUDED);
+        root.referencingAxioms(top, INCLUDED).count();
+        // the root is a member of its own closure; renaming an imported member would break
+        // the imports declaration referring to it
+        m.applyChange(new SetOntologyID(root, new OWLOntologyID(iri("renamed"))));
+        root.add(axiom(100));
+        root.getAxiomCount(AxiomType.SUBCLASS_OF, INCLUDED);
+        root.add(axiom(101));
+    }
+
+    @Test
+    public void shouldFollowRenamedMembers() throws Exception {
+        OWLOntology expected = closure(setupManager());
+        OWLOntology root = closure(indexing(OWLManager.createConcurrentOWLOntologyManager()));
+        renameAndAdd(expected);
+        renameAndAdd(root);
+        assertSameResults(expected, root, top);
+        assertTrue(root.containsAxiom(axiom(101), INCLUDED,
+            AxiomAnnotations.CONSIDER_AXIOM_ANNOTATIONS));
+    }
+}
@@ -0,0 +1,172 @@
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asUnorderedSet;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OntologyConfigurator;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.util.SimpleIRIMapper;
+
+import uk.ac.manchester.cs.owl.owlapi.IndexSnapshotFile;
+
+public class IndexSnapshotTestCase extends TestBase {
+
+    private File snapshots;
+    private File pizza;
+
+    @Before
+    public void setUpFiles() throws Exception {
+        snapshots = folder.newFolder("snapshots");
+        pizza = folder.newFile("pizza.owl");
+        try (InputStream in = getClass().getResourceAsStream("/pizza.owl")) {
+            Files.copy(in, pizza.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private OWLOntologyManager snapshotManager() {
+        OWLOntologyManager manager = setupManager();
+        manager.getOntologyConfigurator()
+            .withIndexSnapshotDirectory(snapshots.getAbsolutePath());
+        return manager;
+    }
+
+    private File snapshotFor(File document) throws Exception {
+        return IndexSnapshotFile.snapshotFile(snapshots,
+            IndexSnapshotFile.contentHash(IRI.create(document), document,
+                new OWLOntologyLoaderConfiguration()));
+    }
+
+    private static void assertSameIndexes(OWLOntology source, OWLOntology copy) {
+        assertEquals(source.getOntologyID(), copy.getOntologyID());
+        assertEquals(asUnorderedSet(source.annotations()), asUnorderedSet(copy.annotations()));
+        assertEquals(asUnorderedSet(source.axioms()), asUnorderedSet(copy.axioms()));
+        for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            assertEquals(type.getName(), source.getAxiomCount(type), copy.getAxiomCount(type));
+        }
+        assertEquals(asUnorderedSet(source.signature()), asUnorderedSet(copy.signature()));
+        assertEquals(asUnorderedSet(source.generalClassAxioms()),
+            asUnorderedSet(copy.generalClassAxioms()));
+        source.signature().forEach(e -> {
+            assertEquals(e.toString(), asUnorderedSet(source.referencingAxioms(e)),
+                asUnorderedSet(copy.referencingAxioms(e)));
+            assertEquals(e.toString(), source.isDeclared(e), copy.isDeclared(e));
+        });
+        source.classesInSignature().forEach(c -> {
+            assertEquals(asUnorderedSet(source.subClassAxiomsForSubClass(c)),
+                asUnorderedSet(copy.subClassAxiomsForSubClass(c)));
+            assertEquals(asUnorderedSet(source.axioms(c)), asUnorderedSet(copy.axioms(c)));
+            assertEquals(asUnorderedSet(source.annotationAssertionAxioms(c.getIRI())),
+                asUnorderedSet(copy.annotationAssertionAxioms(c.getIRI())));
+        });
+    }
+
+    @Test
+    public void shouldWriteAndRestoreSnapshot() throws Exception {
+        OWLOntology parsed = snapshotManager().loadOntologyFromOntologyDocument(pizza);
+        File snapshot = snapshotFor(pizza);
+        assertTrue(snapshot.isFile());
+        OWLOntologyManager manager = snapshotManager();
+        OWLOntology restored = manager.loadOntologyFromOntologyDocument(pizza);
+        assertSameIndexes(parsed, restored);
+        assertEquals(parsed.getFormat().getClass(), restored.getFormat().getClass());
+        assertEquals(
+            parsed.getNonnullFormat().asPrefixOWLDocumentFormat().getPrefixName2PrefixMap(),
+            restored.getNonnullFormat().asPrefixOWLDocumentFormat().getPrefixName2PrefixMap());
+        assertEquals(IRI.create(pizza), manager.getOntologyDocumentIRI(restored));
+        // restored ontologies can be changed as usual
+        restored.remove(restored.axioms(AxiomType.SUBCLASS_OF).findFirst().get());
+        assertEquals(parsed.getAxiomCount() - 1, restored.getAxiomCount());
+    }
+
+    @Test
+    public void shouldUseSnapshotInsteadOfParsing() throws Exception {
+        snapshotManager().loadOntologyFromOntologyDocument(pizza);
+        // replace the snapshot for the pizza document with the contents of another ontology
+        OWLOntology other = ontologyFromClasspathFile("primer.functionalsyntax.txt");
+        String key = IndexSnapshotFile.contentHash(IRI.create(pizza), pizza,
+            new OWLOntologyLoaderConfiguration());
+        IndexSnapshotFile.write(other, other.getNonnullFormat(), key, snapshotFor(pizza));
+        OWLOntology restored = snapshotManager().loadOntologyFromOntologyDocument(pizza);
+        assertSameIndexes(other, restored);
+    }
+
+    @Test
+    public void shouldNotRestoreSnapshotsUnderOtherLoaderSettings() throws Exception {
+        OWLOntology parsed = snapshotManager().loadOntologyFromOntologyDocument(pizza);
+        OWLOntologyManager manager = setupManager();
+        manager.setOntologyConfigurator(new OntologyConfigurator()
+            .withIndexSnapshotDirectory(snapshots.getAbsolutePath()).setLoadAnnotationAxioms(false));
+        OWLOntology withoutAnnotations = manager.loadOntologyFromOntologyDocument(pizza);
+        assertTrue(parsed.getAxiomCount(AxiomType.ANNOTATION_ASSERTION) > 0);
+        assertEquals(0, withoutAnnotations.getAxiomCount(AxiomType.ANNOTATION_ASSERTION));
+        // one snapshot for each configuration
+        assertEquals(2, snapshots.listFiles().length);
+    }
+
+    @Test
+    public void shouldParseIfSnapshotIsCorrupted() throws Exception {
+        OWLOntology parsed = snapshotManager().loadOntologyFromOntologyDocument(pizza);
+        File snapshot = snapshotFor(pizza);
+        byte[] bytes = Files.readAllBytes(snapshot.toPath());
+        bytes[bytes.length / 2] ^= 0xFF;
+        Files.write(snapshot.toPath(), bytes);
+        OWLOntology reparsed = snapshotManager().loadOntologyFromOntologyDocument(pizza);
+        assertSameIndexes(parsed, reparsed);
+    }
+
+    @Test
+    public void shouldParseIfSnapshotIsTruncated() throws Exception {
+        OWLOntology parsed = snapshotManager().loadOntologyFromOntologyDocument(pizza);
+        File snapshot = snapshotFor(pizza);
+        byte[] bytes = Files.readAllBytes(snapshot.toPath());
+        Files.write(snapshot.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+        OWLOntology reparsed = snapshotManager().loadOntologyFromOntologyDocument(pizza);
+        assertSameIndexes(parsed, reparsed);
+    }
+
+    @Test
+    public void shouldLoadImportsOfRestoredOntology() throws Exception {
+        File importing = folder.newFile("importing.ttl");
+        Files.write(importing.toPath(),
+            ("<urn:test:importing> a <http://www.w3.org/2002/07/owl#Ontology> ; "
+                + "<http://www.w3.org/2002/07/owl#imports> "
+                + "<http://www.co-ode.org/ontologies/pizza/pizza.owl> .")
+                    .getBytes("UTF-8"));
+        IRI pizzaIRI = IRI.create("http://www.co-ode.org/ontologies/pizza/pizza.owl");
+        OWLOntologyManager first = snapshotManager();
+        first.getIRIMappers().add(new SimpleIRIMapper(pizzaIRI, IRI.create(pizza)));
+        OWLOntology parsed = first.loadOntologyFromOntologyDocument(importing);
+        assertTrue(snapshotFor(importing).isFile());
+        OWLOntologyManager second = snapshotManager();
+        second.getIRIMappers().add(new SimpleIRIMapper(pizzaIRI, IRI.create(pizza)));
+        OWLOntology restored = second.loadOntologyFromOntologyDocument(importing);
+        assertEquals(parsed.getOntologyID(), restored.getOntologyID());
+        assertEquals(asUnorderedSet(parsed.importsDeclarations()),
+            asUnorderedSet(restored.importsDeclarations()));
+        assertEquals(2, restored.importsClosure().count());
+        assertEquals(asUnorderedSet(parsed.axioms(Imports.INCLUDED)),
+            asUnorderedSet(restored.axioms(Imports.INCLUDED)));
+    }
+
+    @Test
+    public void shouldNotWriteSnapshotsWhenDisabled() throws Exception {
+        setupManager().loadOntologyFromOntologyDocument(pizza);
+        assertFalse(snapshotFor(pizza).exists());
+    }
+}
@@ -0,0 +1,103 @@
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asUnorderedSet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.OntologyConfigurator;
+
+import uk.ac.manchester.cs.owl.owlapi.HasIndexEviction;
+
+public class LazyIndexEvictionTestCase extends TestBase {
+
+    private static final String INDEX = "subClassAxiomsBySubPosition";
+    private OWLOntology o;
+    private Map<OWLClass, Set<OWLSubClassOfAxiom>> expected;
+
+    @Before
+    public void setUpOntology() {
+        o = ontologyFromClasspathFile("pizza.owl");
+        expected = subClasses();
+    }
+
+    private Map<OWLClass, Set<OWLSubClassOfAxiom>> subClasses() {
+        Map<OWLClass, Set<OWLSubClassOfAxiom>> map = new HashMap<>();
+        o.classesInSignature()
+            .forEach(c -> map.put(c, asUnorderedSet(o.subClassAxiomsForSubClass(c))));
+        return map;
+    }
+
+    private int evict() {
+        return ((HasIndexEviction) o).evictUnusedIndexes();
+    }
+
+    private boolean built() {
+        return o.estimateMemoryUsage().get().getIndexBytes().containsKey(INDEX);
+    }
+
+    @Test
+    public void shouldEvictIndexesNotReadSinceLastCheck() {
+        assertTrue(built());
+        // the first check only marks indexes read since they were built
+        evict();
+        assertTrue(built());
+        assertTrue(evict() > 0);
+        assertFalse(built());
+        assertEquals(expected, subClasses());
+        assertTrue(built());
+    }
+
+    @Test
+    public void shouldKeepIndexesInUse() {
+        for (int i = 0; i < 3; i++) {
+            evict();
+            assertEquals(expected, subClasses());
+            assertTrue(built());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void shouldEvictIndexesOfConcurrentOntologiesInBackground() throws Exception {
+        OWLOntologyManager manager = OWLManager.createConcurrentOWLOntologyManager();
+        manager.setOntologyConfigurator(
+            new OntologyConfigurator().withEvictLazyIndexes(true).withLazyIndexIdleMillis(1));
+        o = manager.createOntology(iri("concurrent"));
+        OWLClass sub = df.getOWLClass(iri("Sub"));
+        o.add(df.getOWLSubClassOfAxiom(sub, df.getOWLClass(iri("Sup"))));
+        assertEquals(1, o.subClassAxiomsForSubClass(sub).count());
+        assertTrue(built());
+        while (built()) {
+            Thread.sleep(100);
+        }
+        assertEquals(1, o.subClassAxiomsForSubClass(sub).count());
+    }
+
+    @Test
+    public void shouldRebuildIndexesWithLaterChanges() {
+        evict();
+        evict();
+        assertFalse(built());
+        OWLClass sub = df.getOWLClass(iri("Sub"));
+        OWLSubClassOfAxiom ax = df.getOWLSubClassOfAxiom(sub, df.getOWLClass(iri("Sup")));
+        o.add(ax);
+        assertEquals(1, o.subClassAxiomsForSubClass(sub).count());
+        evict();
+        evict();
+        o.remove(ax);
+        assertEquals(0, o.subClassAxiomsForSubClass(sub).count());
+        assertEquals(expected, subClasses());
+    }
+}
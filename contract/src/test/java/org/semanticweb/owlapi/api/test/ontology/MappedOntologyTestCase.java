@@ -0,0 +1,113 @@
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asUnorderedSet;
+
+import java.io.File;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.ImmutableOWLOntologyChangeException;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import uk.ac.manchester.cs.owl.owlapi.MappedOntologyFactory;
+import uk.ac.manchester.cs.owl.owlapi.MappedOntologyFile;
+import uk.ac.manchester.cs.owl.owlapi.MappedOntologyImpl;
+
+public class MappedOntologyTestCase extends TestBase {
+
+    private OWLOntology source;
+    private OWLOntology mapped;
+
+    @Before
+    public void setUp() throws Exception {
+        source = ontologyFromClasspathFile("pizza.owl");
+        File file = folder.newFile("pizza.owlm");
+        MappedOntologyFile.write(source, file);
+        assertTrue(MappedOntologyFile.isMappedOntology(file));
+        OWLOntologyManager manager = setupManager();
+        manager.getOntologyFactories().add(new MappedOntologyFactory());
+        mapped = manager.loadOntologyFromOntologyDocument(file);
+    }
+
+    @Test
+    public void shouldLoadMappedOntology() {
+        assertTrue(mapped instanceof MappedOntologyImpl);
+        assertEquals(source.getOntologyID(), mapped.getOntologyID());
+        assertEquals(asUnorderedSet(source.annotations()), asUnorderedSet(mapped.annotations()));
+        assertEquals(source.getAxiomCount(), mapped.getAxiomCount());
+        assertEquals(source.getLogicalAxiomCount(), mapped.getLogicalAxiomCount());
+        for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            assertEquals(type.getName(), source.getAxiomCount(type), mapped.getAxiomCount(type));
+            assertEquals(asUnorderedSet(source.axioms(type)), asUnorderedSet(mapped.axioms(type)));
+        }
+        assertEquals(asUnorderedSet(source.axioms()), asUnorderedSet(mapped.axioms()));
+        source.axioms().forEach(ax -> assertTrue(ax.toString(), mapped.containsAxiom(ax)));
+    }
+
+    @Test
+    public void shouldAnswerSignatureQueries() {
+        assertEquals(asList(source.signature()), asList(mapped.signature()));
+        assertEquals(asList(source.classesInSignature()), asList(mapped.classesInSignature()));
+        assertEquals(asList(source.objectPropertiesInSignature()),
+            asList(mapped.objectPropertiesInSignature()));
+        assertEquals(asList(source.annotationPropertiesInSignature()),
+            asList(mapped.annotationPropertiesInSignature()));
+        source.signature().forEach(e -> {
+            assertTrue(mapped.containsEntityInSignature(e));
+            assertEquals(e.toString(), source.isDeclared(e), mapped.isDeclared(e));
+            assertEquals(e.toString(), source.containsReference(e), mapped.containsReference(e));
+            assertEquals(e.toString(), asUnorderedSet(source.referencingAxioms(e)),
+                asUnorderedSet(mapped.referencingAxioms(e)));
+        });
+        OWLClass missing = df.getOWLClass("urn:test:missing");
+        assertFalse(mapped.containsClassInSignature(missing.getIRI()));
+        assertFalse(mapped.containsEntityInSignature(missing));
+        assertFalse(mapped.containsAxiom(df.getOWLDeclarationAxiom(missing)));
+    }
+
+    @Test
+    public void shouldAnswerIndexQueries() {
+        source.classesInSignature().forEach(c -> {
+            assertEquals(asUnorderedSet(source.subClassAxiomsForSubClass(c)),
+                asUnorderedSet(mapped.subClassAxiomsForSubClass(c)));
+            assertEquals(asUnorderedSet(source.annotationAssertionAxioms(c.getIRI())),
+                asUnorderedSet(mapped.annotationAssertionAxioms(c.getIRI())));
+            assertEquals(asUnorderedSet(source.axioms(c)), asUnorderedSet(mapped.axioms(c)));
+        });
+    }
+
+    @Test
+    public void shouldOnlyBuildTheIndexesUsed() {
+        long before = indexBytes().get("axiomsByType").longValue();
+        source.classesInSignature()
+            .forEach(c -> assertEquals(asUnorderedSet(source.subClassAxiomsForSubClass(c)),
+                asUnorderedSet(mapped.subClassAxiomsForSubClass(c))));
+        assertEquals(asUnorderedSet(source.generalClassAxioms()),
+            asUnorderedSet(mapped.generalClassAxioms()));
+        Map<String, Long> indexes = indexBytes();
+        assertTrue(indexes.containsKey("subClassAxiomsBySubPosition"));
+        assertFalse(indexes.containsKey("classAssertionAxiomsByClass"));
+        // the index over all axioms is not populated
+        assertEquals(before, indexes.get("axiomsByType").longValue());
+    }
+
+    private Map<String, Long> indexBytes() {
+        return mapped.estimateMemoryUsage().get().getIndexBytes();
+    }
+
+    @Test(expected = ImmutableOWLOntologyChangeException.class)
+    public void shouldNotAcceptChanges() {
+        OWLAxiom ax = df.getOWLDeclarationAxiom(df.getOWLClass("urn:test:new"));
+        mapped.getOWLOntologyManager().addAxiom(mapped, ax);
+    }
+}
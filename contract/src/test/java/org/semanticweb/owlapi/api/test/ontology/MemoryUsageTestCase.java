@@ -0,0 +1,58 @@
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OntologyMemoryUsage;
+
+public class MemoryUsageTestCase extends TestBase {
+
+    @Test
+    public void shouldEstimateOntologyMemoryUsage() throws Exception {
+        OWLOntology o = ontologyFromClasspathFile("pizza.owl");
+        OntologyMemoryUsage usage = o.estimateMemoryUsage().get();
+        assertTrue(usage.getTotalIndexBytes() > 0);
+        assertTrue(usage.getTotalAxiomBytes() > 0);
+        assertEquals(usage.getTotalIndexBytes() + usage.getTotalAxiomBytes(),
+            usage.getTotalBytes());
+        Set<AxiomType<?>> types = AxiomType.AXIOM_TYPES.stream()
+            .filter(t -> o.getAxiomCount(t) > 0).collect(Collectors.toSet());
+        assertEquals(types, usage.getAxiomBytes().keySet());
+        usage.getAxiomBytes().values().forEach(v -> assertTrue(v.longValue() > 0));
+        assertTrue(usage.getIndexBytes().containsKey("axiomsByType"));
+        assertEquals(usage.getTotalBytes(), o.estimateMemoryUsage().get().getTotalBytes());
+    }
+
+    @Test
+    public void shouldGrowWithIndexesAndAxioms() throws Exception {
+        OWLOntology o = ontologyFromClasspathFile("pizza.owl");
+        OntologyMemoryUsage before = o.estimateMemoryUsage().get();
+        assertFalse(before.getIndexBytes().containsKey("subClassAxiomsBySubPosition"));
+        o.classesInSignature().forEach(c -> o.subClassAxiomsForSubClass(c).count());
+        OntologyMemoryUsage after = o.estimateMemoryUsage().get();
+        assertTrue(after.getIndexBytes().containsKey("subClassAxiomsBySubPosition"));
+        assertTrue(after.getTotalIndexBytes() > before.getTotalIndexBytes());
+        o.add(df.getOWLDeclarationAxiom(df.getOWLClass(iri("growing"))));
+        assertTrue(o.estimateMemoryUsage().get().getAxiomBytes()
+            .get(AxiomType.DECLARATION).longValue() > before.getAxiomBytes()
+                .get(AxiomType.DECLARATION).longValue());
+    }
+
+    @Test
+    public void shouldReportManagerMemoryUsage() throws Exception {
+        OWLOntology o = ontologyFromClasspathFile("pizza.owl");
+        Map<?, OntologyMemoryUsage> usage = o.getOWLOntologyManager().estimateMemoryUsage();
+        assertTrue(usage.containsKey(o.getOntologyID()));
+        Map<String, Long> shared = o.getOWLOntologyManager().estimateSharedMemoryUsage();
+        assertTrue(shared.get("classes").longValue() > 0);
+    }
+}
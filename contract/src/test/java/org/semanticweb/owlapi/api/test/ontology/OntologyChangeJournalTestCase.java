@@ -0,0 +1,227 @@
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asUnorderedSet;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.SetOntologyID;
+
+import uk.ac.manchester.cs.owl.owlapi.OntologyChangeJournal;
+import uk.ac.manchester.cs.owl.owlapi.OntologyChangeJournal.SyncPolicy;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.Concurrency;
+
+public class OntologyChangeJournalTestCase extends TestBase {
+
+    private File directory;
+
+    @Before
+    public void setUpDirectory() throws IOException {
+        directory = folder.newFolder("journal");
+    }
+
+    private OWLAxiom axiom(int i) {
+        return df.getOWLSubClassOfAxiom(df.getOWLClass(iri("C" + i)), df.getOWLClass(iri("D")));
+    }
+
+    private static void assertSameContent(OWLOntology expected, OWLOntology actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getOntologyID(), actual.getOntologyID());
+        assertEquals(asUnorderedSet(expected.importsDeclarations()),
+            asUnorderedSet(actual.importsDeclarations()));
+        assertEquals(asUnorderedSet(expected.annotations()), asUnorderedSet(actual.annotations()));
+        assertEquals(asUnorderedSet(expected.axioms()), asUnorderedSet(actual.axioms()));
+    }
+
+    private OWLOntology edit(OWLOntologyManager m) throws Exception {
+        OWLOntology o = m.createOntology(iri("journaled"));
+        o.add(axiom(1), axiom(2));
+        o.remove(axiom(1));
+        m.applyChange(new AddImport(o, df.getOWLImportsDeclaration(iri("imported"))));
+        m.applyChange(new AddOntologyAnnotation(o, df.getRDFSComment("edited")));
+        m.applyChanges(new SetOntologyID(o, new OWLOntologyID(iri("renamed"), iri("v1"))),
+            new AddAxiom(o, axiom(3)));
+        return o;
+    }
+
+    @Test
+    public void shouldReplayChangesIntoNewManager() throws Exception {
+        OWLOntologyManager m = setupManager();
+        OntologyChangeJournal journal = OntologyChangeJournal.open(m, directory,
+            SyncPolicy.ALWAYS);
+        OWLOntology o = edit(m);
+        // no close: the process stops without saving
+        assertTrue(journal.getJournalSize() > 8);
+        OWLOntologyManager restored = setupManager();
+        OntologyChangeJournal.open(restored, directory, SyncPolicy.NEVER).close();
+        assertEquals(1, restored.ontologies().count());
+        assertSameContent(o, restored.getOntology(o.getOntologyID()));
+        journal.close();
+    }
+
+    @Test
+    public void shouldDiscardIncompleteFrames() throws Exception {
+        OWLOntologyManager m = setupManager();
+        OntologyChangeJournal journal = OntologyChangeJournal.open(m, directory,
+            SyncPolicy.PERIODIC);
+        OWLOntology o = edit(m);
+        journal.close();
+        File file = new File(directory, "journal-0.log");
+        long size = file.length();
+        try (OutputStream out = new FileOutputStream(file, true)) {
+            // a frame header announcing more bytes than were written
+            out.write(new byte[] {0, 0, 1, 0, 1, 2, 3, 4, 5, 6});
+        }
+        OWLOntologyManager restored = setupManager();
+        OntologyChangeJournal reopened =
+            OntologyChangeJournal.open(restored, directory, SyncPolicy.ALWAYS);
+        assertSameContent(o, restored.getOntology(o.getOntologyID()));
+        assertEquals(size, file.length());
+        // new changes are appended after the last complete frame
+        restored.getOntology(o.getOntologyID()).add(axiom(4));
+        reopened.close();
+        OWLOntologyManager again = setupManager();
+        OntologyChangeJournal.open(again, directory, SyncPolicy.ALWAYS).close();
+        assertTrue(again.getOntology(o.getOntologyID()).containsAxiom(axiom(4)));
+    }
+
+    @Test
+    public void shouldCompactIntoSnapshot() throws Exception {
+        OWLOntologyManager m = setupManager();
+        OntologyChangeJournal journal = OntologyChangeJournal.open(m, directory,
+            SyncPolicy.ALWAYS);
+        OWLOntology o = edit(m);
+        journal.compact();
+        assertEquals(1, journal.getGeneration());
+        assertEquals(8, journal.getJournalSize());
+        assertFalse(new File(directory, "journal-0.log").exists());
+        assertTrue(new File(directory, "snapshot-1").isDirectory());
+        o.add(axiom(5));
+        journal.close();
+        OWLOntologyManager restored = setupManager();
+        OntologyChangeJournal.open(restored, directory, SyncPolicy.ALWAYS).close();
+        assertSameContent(o, restored.getOntology(o.getOntologyID()));
+    }
+
+    @Test
+    public void shouldCompactAutomatically() throws Exception {
+        // snapshots are written on a background thread while changes are applied
+        OWLOntologyManager m = OWLManager.createConcurrentOWLOntologyManager();
+        OntologyChangeJournal journal = OntologyChangeJournal.open(m, directory,
+            SyncPolicy.NEVER);
+        journal.setCompactionThreshold(200);
+        OWLOntology o = m.createOntology(iri("auto"));
+        for (int i = 0; i < 50; i++) {
+            o.add(axiom(i));
+        }
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (journal.getGeneration() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(journal.getGeneration() > 0);
+        journal.close();
+        OWLOntologyManager restored = setupManager();
+        OntologyChangeJournal.open(restored, directory, SyncPolicy.ALWAYS).close();
+        assertSameContent(o, restored.getOntology(o.getOntologyID()));
+    }
+
+    @Test
+    public void shouldRecordChangesFromSeveralThreadsInOrder() throws Exception {
+        // frames for the same ontology must follow the order the changes were applied in, also
+        // across the journal switches of automatic compactions
+        OWLOntologyManager m = OWLManager.createOWLOntologyManager(Concurrency.PER_ONTOLOGY_LOCKS);
+        OntologyChangeJournal journal = OntologyChangeJournal.open(m, directory,
+            SyncPolicy.NEVER);
+        journal.setCompactionThreshold(100_000);
+        OWLOntology o = m.createOntology(iri("shared"));
+        // one thread removes each axiom as soon as the other has added it; the addition comes in
+        // a larger batch, which takes longer to journal, so a removal journaled before the
+        // addition it follows would leave the axiom in the replayed ontology
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    List<OWLAxiom> batch = new ArrayList<>();
+                    batch.add(axiom(i));
+                    for (int j = 0; j < 50; j++) {
+                        batch.add(df.getOWLSubClassOfAxiom(df.getOWLClass(iri("E" + i + "_" + j)),
+                            df.getOWLClass(iri("D"))));
+                    }
+                    o.add(batch);
+                }
+            }));
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    while (!o.containsAxiom(axiom(i))) {
+                        Thread.yield();
+                    }
+                    o.remove(axiom(i));
+                }
+            }));
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(journal.getGeneration() > 0);
+        journal.close();
+        OWLOntologyManager restored = setupManager();
+        OntologyChangeJournal.open(restored, directory, SyncPolicy.ALWAYS).close();
+        assertSameContent(o, restored.getOntology(o.getOntologyID()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRequireConcurrentManagerForAutomaticCompaction() throws Exception {
+        OWLOntologyManager m = setupManager();
+        try (OntologyChangeJournal journal =
+            OntologyChangeJournal.open(m, directory, SyncPolicy.NEVER)) {
+            journal.setCompactionThreshold(200);
+        }
+    }
+
+    @Test
+    public void shouldReplaceContentsOfLoadedOntologies() throws Exception {
+        OWLOntologyManager m = setupManager();
+        OWLOntology base = m.createOntology(iri("base"));
+        base.add(axiom(1), axiom(2));
+        OntologyChangeJournal journal = OntologyChangeJournal.open(m, directory,
+            SyncPolicy.ALWAYS);
+        base.remove(axiom(1));
+        journal.compact();
+        base.add(axiom(3));
+        journal.close();
+        // the original document is loaded again before opening the journal
+        OWLOntologyManager restored = setupManager();
+        OWLOntology reloaded = restored.createOntology(iri("base"));
+        reloaded.add(axiom(1), axiom(2));
+        OntologyChangeJournal.open(restored, directory, SyncPolicy.ALWAYS).close();
+        assertSame(reloaded, restored.getOntology(iri("base")));
+        assertSameContent(base, reloaded);
+    }
+}
@@ -0,0 +1,215 @@
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asUnorderedSet;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.functional.parser.OWLFunctionalSyntaxOWLParserFactory;
+import org.semanticweb.owlapi.io.FileDocumentSource;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
+import org.semanticweb.owlapi.io.OWLParser;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
+import org.semanticweb.owlapi.model.OWLDocumentFormat;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.rdf.turtle.parser.TurtleOntologyParser;
+import org.semanticweb.owlapi.rdf.turtle.parser.TurtleOntologyParserFactory;
+import org.semanticweb.owlapi.util.SimpleIRIMapper;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLOntologyManagerImpl;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.ConcurrentOWLOntologyImpl;
+
+public class ParallelImportsLoadingTestCase extends TestBase {
+
+    private static final String MAPPED = "http://example.com/mapped";
+    private File root;
+    private File mapped;
+
+    private File document(String name, String body, String... imports) throws Exception {
+        File file = folder.newFile(name + ".ofn");
+        StringBuilder b = new StringBuilder("Prefix(:=<urn:test:>)\nOntology(<urn:test:" + name
+            + ">\n");
+        for (String i : imports) {
+            b.append("Import(<").append(i).append(">)\n");
+        }
+        b.append("Declaration(Class(:").append(name).append("))\n").append(body).append(")");
+        Files.write(file.toPath(), b.toString().getBytes("UTF-8"));
+        return file;
+    }
+
+    private File turtle(String name, String superClass, String... imports) throws Exception {
+        File file = folder.newFile(name + ".ttl");
+        StringBuilder b = new StringBuilder("@prefix owl: <http://www.w3.org/2002/07/owl#> .\n"
+            + "@prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .\n<urn:test:" + name
+            + "> a owl:Ontology");
+        for (String i : imports) {
+            b.append(" ; owl:imports <").append(i).append(">");
+        }
+        b.append(" .\n<urn:test:").append(name).append("> a owl:Class ; rdfs:subClassOf <urn:test:")
+            .append(superClass).append("> .\n");
+        Files.write(file.toPath(), b.toString().getBytes("UTF-8"));
+        return file;
+    }
+
+    @Before
+    public void setUpDocuments() throws Exception {
+        File leaf = document("leaf", "SubClassOf(:leaf :Thing)");
+        File mapped = document("mapped", "SubClassOf(:mapped :leaf)");
+        File middle = document("middle", "SubClassOf(:middle :leaf)", leaf.toURI().toString());
+        File other = document("other", "SubClassOf(:other :leaf)", leaf.toURI().toString(),
+            MAPPED);
+        root = document("root", "SubClassOf(:root :middle)", middle.toURI().toString(),
+            other.toURI().toString());
+        this.mapped = mapped;
+    }
+
+    private OWLOntology load(OWLOntologyManager manager, boolean parallel) throws Exception {
+        manager.getIRIMappers().add(new SimpleIRIMapper(IRI.create(MAPPED), IRI.create(mapped)));
+        OWLOntologyLoaderConfiguration config =
+            new OWLOntologyLoaderConfiguration().setLoadImportsInParallel(parallel);
+        return manager.loadOntologyFromOntologyDocument(new FileDocumentSource(root), config);
+    }
+
+    private static Set<String> ids(OWLOntology o) {
+        return o.importsClosure().map(x -> x.getOntologyID().toString())
+            .collect(Collectors.toSet());
+    }
+
+    private static void assertSameClosure(OWLOntology expected, OWLOntology actual) {
+        assertEquals(ids(expected), ids(actual));
+        assertEquals(asUnorderedSet(expected.axioms(Imports.INCLUDED)),
+            asUnorderedSet(actual.axioms(Imports.INCLUDED)));
+        OWLOntologyManager m = actual.getOWLOntologyManager();
+        actual.importsClosure().forEach(o -> {
+            assertEquals(m, o.getOWLOntologyManager());
+            assertEquals(expected.getOWLOntologyManager().getOntologyDocumentIRI(
+                expected.getOWLOntologyManager().getOntology(o.getOntologyID())),
+                m.getOntologyDocumentIRI(o));
+            assertEquals(
+                expected.getOWLOntologyManager().getOntology(o.getOntologyID()).getFormat(),
+                o.getFormat());
+        });
+        assertEquals(5, m.ontologies().count());
+    }
+
+    @Test
+    public void shouldLoadSameClosureInParallel() throws Exception {
+        OWLOntology serial = load(setupManager(), false);
+        OWLOntology parallel = load(setupManager(), true);
+        assertSameClosure(serial, parallel);
+        // adopted ontologies can be changed as usual
+        OWLOntology leaf = parallel.getOWLOntologyManager()
+            .getOntology(IRI.create("urn:test:leaf"));
+        leaf.add(df.getOWLDeclarationAxiom(df.getOWLClass(iri("added"))));
+        assertTrue(parallel.containsClassInSignature(iri("added"), Imports.INCLUDED));
+    }
+
+    @Test
+    public void shouldParseEachDocumentOnce() throws Exception {
+        AtomicInteger parses = new AtomicInteger();
+        OWLOntologyManager manager = setupManager();
+        manager.setOntologyParsers(Collections.singleton(new OWLFunctionalSyntaxOWLParserFactory() {
+
+            @Override
+            public OWLParser createParser() {
+                parses.incrementAndGet();
+                return super.createParser();
+            }
+        }));
+        assertSameClosure(load(setupManager(), false), load(manager, true));
+        assertEquals(5, parses.get());
+    }
+
+    @Test
+    public void shouldReadOnlyImportsOfDocumentsParsedAgain() throws Exception {
+        File leaf = turtle("leaf", "Thing");
+        File mapped = turtle("mapped", "leaf");
+        File middle = turtle("middle", "leaf", leaf.toURI().toString());
+        File other = turtle("other", "leaf", leaf.toURI().toString(), MAPPED);
+        root = turtle("root", "middle", middle.toURI().toString(), other.toURI().toString());
+        this.mapped = mapped;
+        AtomicInteger completed = new AtomicInteger();
+        TurtleOntologyParserFactory counting = new TurtleOntologyParserFactory() {
+
+            @Override
+            public OWLParser createParser() {
+                return new TurtleOntologyParser() {
+
+                    @Override
+                    public OWLDocumentFormat parse(OWLOntologyDocumentSource source,
+                        OWLOntology ontology, OWLOntologyLoaderConfiguration configuration) {
+                        OWLDocumentFormat format = super.parse(source, ontology, configuration);
+                        completed.incrementAndGet();
+                        return format;
+                    }
+                };
+            }
+        };
+        OWLOntologyManager serial = setupManager();
+        serial.setOntologyParsers(Collections.singleton(new TurtleOntologyParserFactory()));
+        OWLOntologyManager parallel = setupManager();
+        parallel.setOntologyParsers(Collections.singleton(counting));
+        assertSameClosure(load(serial, false), load(parallel, true));
+        // documents without imports are parsed once, ahead of time; documents with imports are
+        // read ahead of time only up to their imports, and parsed once by the loading manager
+        assertEquals(5, completed.get());
+    }
+
+    @Test
+    public void shouldWrapAdoptedOntologiesInConcurrentManager() throws Exception {
+        OWLOntology serial = load(setupManager(), false);
+        OWLOntology parallel = load(OWLManager.createConcurrentOWLOntologyManager(), true);
+        assertSameClosure(serial, parallel);
+        parallel.getOWLOntologyManager().ontologies()
+            .forEach(o -> assertTrue(o.toString(), o instanceof ConcurrentOWLOntologyImpl));
+    }
+
+    @Test
+    public void shouldUseConfiguredExecutor() throws Exception {
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(2, r -> {
+            threads.incrementAndGet();
+            return new Thread(r);
+        });
+        try {
+            OWLOntologyManager manager = setupManager();
+            ((OWLOntologyManagerImpl) manager).setImportsLoadingExecutor(pool);
+            assertSameClosure(load(setupManager(), false), load(manager, true));
+            assertTrue(threads.get() > 0);
+            assertFalse(pool.isShutdown());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReportMissingImportsAsUsual() throws Exception {
+        root = document("broken", "",
+            new File(folder.getRoot(), "missing.ofn").toURI().toString());
+        OWLOntologyManager manager = setupManager();
+        AtomicInteger missing = new AtomicInteger();
+        manager.addMissingImportListener(e -> missing.incrementAndGet());
+        OWLOntology o = manager.loadOntologyFromOntologyDocument(new FileDocumentSource(root),
+            new OWLOntologyLoaderConfiguration().setLoadImportsInParallel(true)
+                .setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT));
+        assertEquals(1, missing.get());
+        assertEquals(1, o.importsClosure().count());
+    }
+}
@@ -0,0 +1,154 @@
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asUnorderedSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.TestBase;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeProgressListener;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OntologyConfigurator;
+import org.semanticweb.owlapi.model.parameters.OntologyCopy;
+
+public class SharedShallowCopyTestCase extends TestBase {
+
+    private static final int SIZE = 100;
+    private final OWLClass top = df.getOWLClass(iri("Top"));
+    private final OWLNamedIndividual i = df.getOWLNamedIndividual(iri("i"));
+
+    private OWLAxiom subClass(int n) {
+        return df.getOWLSubClassOfAxiom(df.getOWLClass(iri("C" + n)), top);
+    }
+
+    private OWLAxiom assertion(int n) {
+        return df.getOWLClassAssertionAxiom(df.getOWLClass(iri("C" + n)), i);
+    }
+
+    private OWLOntology source(OWLOntologyManager m) throws Exception {
+        OWLOntology o = m.createOntology(iri("source"));
+        for (int n = 0; n < SIZE; n++) {
+            o.add(subClass(n), assertion(n));
+        }
+        m.applyChange(new AddOntologyAnnotation(o, df.getRDFSComment("source")));
+        m.applyChange(new AddImport(o, df.getOWLImportsDeclaration(iri("imported"))));
+        // build one lazy index before copying, leave the others to be built later
+        assertEquals(SIZE, o.subClassAxiomsForSuperClass(top).count());
+        return o;
+    }
+
+    private static OWLOntologyManager sharing(OWLOntologyManager m) {
+        // test managers share one configurator
+        m.setOntologyConfigurator(new OntologyConfigurator().withShareShallowCopies(true));
+        return m;
+    }
+
+    private static List<OWLOntologyChange> changes(OWLOntologyManager m) {
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        m.addOntologyChangeListener(changes::addAll);
+        return changes;
+    }
+
+    private static List<OWLOntologyChange> appliedChanges(OWLOntologyManager m) {
+        // progress listeners do not stop axioms from being shared
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        m.addOntologyChangeProgessListener(new OWLOntologyChangeProgressListener() {
+
+            @Override
+            public void begin(int size) {
+                // nothing to do
+            }
+
+            @Override
+            public void appliedChange(OWLOntologyChange change) {
+                changes.add(change);
+            }
+
+            @Override
+            public void end() {
+                // nothing to do
+            }
+        });
+        return changes;
+    }
+
+    private void assertIndependentCopies(OWLOntology source, OWLOntology copy) {
+        assertEquals(asUnorderedSet(source.axioms()), asUnorderedSet(copy.axioms()));
+        assertEquals(asUnorderedSet(source.annotations()), asUnorderedSet(copy.annotations()));
+        assertEquals(asUnorderedSet(source.importsDeclarations()),
+            asUnorderedSet(copy.importsDeclarations()));
+        assertEquals(SIZE, copy.subClassAxiomsForSuperClass(top).count());
+        assertEquals(SIZE, copy.classAssertionAxioms(i).count());
+        copy.add(subClass(SIZE), assertion(SIZE));
+        copy.remove(subClass(0), assertion(0));
+        source.add(subClass(-1));
+        assertEquals(2 * SIZE, copy.getAxiomCount());
+        assertEquals(2 * SIZE + 1, source.getAxiomCount());
+        assertTrue(copy.containsAxiom(subClass(SIZE)));
+        assertFalse(source.containsAxiom(subClass(SIZE)));
+        assertFalse(copy.containsAxiom(subClass(0)));
+        assertTrue(source.containsAxiom(subClass(0)));
+        assertFalse(copy.containsAxiom(subClass(-1)));
+        assertEquals(SIZE, copy.subClassAxiomsForSuperClass(top).count());
+        assertEquals(SIZE + 1, source.subClassAxiomsForSuperClass(top).count());
+        assertTrue(copy.classAssertionAxioms(i).anyMatch(assertion(SIZE)::equals));
+        assertFalse(source.classAssertionAxioms(i).anyMatch(assertion(SIZE)::equals));
+        assertTrue(source.classAssertionAxioms(i).anyMatch(assertion(0)::equals));
+        assertTrue(copy.containsClassInSignature(iri("C" + SIZE)));
+        assertFalse(copy.containsClassInSignature(iri("C0")));
+        assertFalse(source.containsClassInSignature(iri("C" + SIZE)));
+        assertTrue(source.containsClassInSignature(iri("C-1")));
+    }
+
+    @Test
+    public void shouldShareAxiomsUntilChanged() throws Exception {
+        OWLOntology source = source(setupManager());
+        OWLOntologyManager m = sharing(setupManager());
+        List<OWLOntologyChange> changes = appliedChanges(m);
+        OWLOntology copy = m.copyOntology(source, OntologyCopy.SHALLOW);
+        // only ontology annotations and imports are added through changes
+        assertEquals(2, changes.size());
+        assertIndependentCopies(source, copy);
+    }
+
+    @Test
+    public void shouldNotShareAxiomsWithChangeListeners() throws Exception {
+        OWLOntology source = source(setupManager());
+        OWLOntologyManager m = sharing(setupManager());
+        List<OWLOntologyChange> changes = changes(m);
+        OWLOntology copy = m.copyOntology(source, OntologyCopy.SHALLOW);
+        // listeners, e.g., change journals, see every axiom added to the copy
+        assertEquals(2 * SIZE + 2, changes.size());
+        assertIndependentCopies(source, copy);
+    }
+
+    @Test
+    public void shouldShareAxiomsWithConcurrentManagers() throws Exception {
+        OWLOntology source = source(OWLManager.createConcurrentOWLOntologyManager());
+        OWLOntologyManager m = sharing(OWLManager.createConcurrentOWLOntologyManager());
+        OWLOntology copy = m.copyOntology(source, OntologyCopy.SHALLOW);
+        assertIndependentCopies(source, copy);
+    }
+
+    @Test
+    public void shouldAddAxiomsUnlessEnabled() throws Exception {
+        OWLOntology source = source(setupManager());
+        OWLOntologyManager m = setupManager();
+        List<OWLOntologyChange> changes = changes(m);
+        OWLOntology copy = m.copyOntology(source, OntologyCopy.SHALLOW);
+        assertEquals(2 * SIZE + 2, changes.size());
+        assertIndependentCopies(source, copy);
+    }
+}
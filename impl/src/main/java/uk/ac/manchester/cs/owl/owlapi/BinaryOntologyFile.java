@@ -0,0 +1,218 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.semanticweb.owlapi.util.OWLAPIPreconditions.checkNotNull;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.RemoveAxiom;
+import org.semanticweb.owlapi.model.RemoveImport;
+import org.semanticweb.owlapi.model.RemoveOntologyAnnotation;
+
+/**
+ * Save and restore ontologies in a compact binary encoding. The file contains the ontology id,
+ * imports declarations, ontology annotations and axioms; IRIs, strings, entities and shared class
+ * expressions are written once and referred to by number afterwards. Reading does not involve any
+ * parsing, so this is meant for checkpointing ontologies and restoring them quickly, not for
+ * exchanging them: there is no guarantee that files are readable by other versions of the OWL API.
+ * Imported ontologies are not included.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public final class BinaryOntologyFile {
+
+    /** Magic number at the start of a binary ontology file. */
+    static final int MAGIC = 0x4F574C42;
+    private static final int VERSION = 1;
+
+    private BinaryOntologyFile() {}
+
+    /**
+     * @param file file to check
+     * @return true if the file starts with the binary ontology magic number
+     */
+    public static boolean isBinaryOntology(File file) {
+        if (!file.isFile()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param ontology ontology to write
+     * @param file destination file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(OWLOntology ontology, File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            write(ontology, out);
+        }
+    }
+
+    /**
+     * @param ontology ontology to write
+     * @param stream destination stream; the stream is not closed
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(OWLOntology ontology, OutputStream stream) throws IOException {
+        checkNotNull(ontology, "ontology cannot be null");
+        write(ontology, ontology.getOntologyID(), stream);
+    }
+
+    /**
+     * @param ontology ontology to write
+     * @param id ontology id to write instead of the current id of the ontology
+     * @param stream destination stream; the stream is not closed
+     * @throws IOException if the stream cannot be written
+     */
+    static void write(OWLOntology ontology, OWLOntologyID id, OutputStream stream)
+        throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        OWLObjectBinaryOutput objects = new OWLObjectBinaryOutput(out);
+        objects.write(id.getOntologyIRI().orElse(null));
+        objects.write(id.getVersionIRI().orElse(null));
+        objects.write(asList(ontology.importsDeclarations().map(OWLImportsDeclaration::getIRI)));
+        objects.write(asList(ontology.annotations()));
+        objects.writeAxioms(asList(ontology.axioms()));
+        out.flush();
+    }
+
+    /**
+     * Create a new ontology in the manager with the contents of the file.
+     *
+     * @param manager manager to create the ontology in
+     * @param file file to read
+     * @return new ontology
+     * @throws IOException if the file cannot be read or is not a binary ontology file
+     * @throws OWLOntologyCreationException if the ontology cannot be created, e.g., because the
+     *         manager already contains an ontology with the same id
+     */
+    public static OWLOntology read(OWLOntologyManager manager, File file)
+        throws IOException, OWLOntologyCreationException {
+        try (InputStream in = new FileInputStream(file)) {
+            return read(manager, in);
+        }
+    }
+
+    /**
+     * Create a new ontology in the manager with the contents of the stream.
+     *
+     * @param manager manager to create the ontology in
+     * @param stream stream to read; the stream is not closed
+     * @return new ontology
+     * @throws IOException if the stream cannot be read or does not contain a binary ontology
+     * @throws OWLOntologyCreationException if the ontology cannot be created, e.g., because the
+     *         manager already contains an ontology with the same id
+     */
+    public static OWLOntology read(OWLOntologyManager manager, InputStream stream)
+        throws IOException, OWLOntologyCreationException {
+        return read(manager, stream, false);
+    }
+
+    /**
+     * Read an ontology from the stream into the manager.
+     *
+     * @param manager manager to read the ontology into
+     * @param stream stream to read; the stream is not closed
+     * @param replace if true and the manager already contains an ontology with the same id, the
+     *        contents of that ontology are replaced with the contents of the stream; otherwise a
+     *        new ontology is created
+     * @return the ontology read
+     * @throws IOException if the stream cannot be read or does not contain a binary ontology
+     * @throws OWLOntologyCreationException if the ontology cannot be created
+     */
+    @SuppressWarnings("unchecked")
+    static OWLOntology read(OWLOntologyManager manager, InputStream stream, boolean replace)
+        throws IOException, OWLOntologyCreationException {
+        checkNotNull(manager, "manager cannot be null");
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a binary ontology file, or unsupported version");
+        }
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLObjectBinaryInput objects = new OWLObjectBinaryInput(in, df);
+        IRI ontologyIRI = (IRI) objects.read();
+        IRI versionIRI = (IRI) objects.read();
+        List<IRI> imports = (List<IRI>) objects.read();
+        List<OWLAnnotation> annotations = (List<OWLAnnotation>) objects.read();
+        OWLOntologyID id =
+            ontologyIRI == null ? new OWLOntologyID() : new OWLOntologyID(ontologyIRI, versionIRI);
+        OWLOntology existing = replace ? manager.getOntology(id) : null;
+        OWLOntology ontology = existing == null ? manager.createOntology(id) : existing;
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        if (existing != null) {
+            // remove the contents that are not in the stream; adding the contents already in the
+            // ontology has no effect
+            Set<OWLAxiom> axioms = new HashSet<>();
+            objects.readAxioms(axioms::add);
+            existing.importsDeclarations().filter(i -> !imports.contains(i.getIRI()))
+                .forEach(i -> changes.add(new RemoveImport(existing, i)));
+            existing.annotations().filter(a -> !annotations.contains(a))
+                .forEach(a -> changes.add(new RemoveOntologyAnnotation(existing, a)));
+            existing.axioms().filter(ax -> !axioms.contains(ax))
+                .forEach(ax -> changes.add(new RemoveAxiom(existing, ax)));
+            axioms.forEach(ax -> changes.add(new AddAxiom(existing, ax)));
+        }
+        imports.forEach(i -> changes.add(new AddImport(ontology, df.getOWLImportsDeclaration(i))));
+        annotations.forEach(a -> changes.add(new AddOntologyAnnotation(ontology, a)));
+        if (existing == null) {
+            objects.readAxioms(ax -> changes.add(new AddAxiom(ontology, ax)));
+        }
+        if (ontology instanceof HasBulkLoad) {
+            ((HasBulkLoad) ontology).beginBulkLoad();
+        }
+        try {
+            manager.applyChanges(changes);
+        } finally {
+            if (ontology instanceof HasBulkLoad) {
+                ((HasBulkLoad) ontology).endBulkLoad();
+            }
+        }
+        return ontology;
+    }
+}
@@ -18,10 +18,6 @@ import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.OWLAxiomVisitorEx;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassAxiom;
-import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
-import org.semanticweb.owlapi.model.OWLDisjointUnionAxiom;
-import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
-import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
 
 /**
  * @author ignazio
@@ -36,7 +32,19 @@ public class ClassAxiomByClassPointer extends MapPointer<OWLClass, OWLClassAxiom
      */
     public ClassAxiomByClassPointer(@Nullable AxiomType<?> t, @Nullable OWLAxiomVisitorEx<?> v,
         boolean initialized, Internals i) {
-        super(t, v, initialized, i, OWLClassAxiom.class);
+        this(t, v, initialized, i, false);
+    }
+
+    /**
+     * @param t axiom type
+     * @param v visitor
+     * @param initialized initialized
+     * @param i internals
+     * @param snapshotReads true if reads should be served from published snapshots
+     */
+    public ClassAxiomByClassPointer(@Nullable AxiomType<?> t, @Nullable OWLAxiomVisitorEx<?> v,
+        boolean initialized, Internals i, boolean snapshotReads) {
+        super(t, v, initialized, i, OWLClassAxiom.class, snapshotReads);
     }
 
     @Override
@@ -45,11 +53,9 @@ public class ClassAxiomByClassPointer extends MapPointer<OWLClass, OWLClassAxiom
             return this;
         }
         super.init();
-        // special case: this map needs other maps to be initialized first
-        i.get(OWLClass.class, OWLEquivalentClassesAxiom.class).get().forEach(this::put);
-        i.get(OWLClass.class, OWLSubClassOfAxiom.class).get().forEach(this::put);
-        i.get(OWLClass.class, OWLDisjointClassesAxiom.class).get().forEach(this::put);
-        i.get(OWLClass.class, OWLDisjointUnionAxiom.class).get().forEach(this::put);
+        // special case: this map needs other maps to be initialized first; they are read without
+        // indexing pending axioms, which would take the internals monitor while this one is held
+        i.classAxiomIndexes().forEach(p -> p.forEach(this::put));
         return this;
     }
 }
@@ -0,0 +1,349 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+/**
+ * A set of axioms stored as an array sorted by hash code. Lookups are binary searches on the
+ * cached axiom hash codes; the array holds one reference per axiom, against the key and hash
+ * buffers of a hash set sized for its load factor. Not thread safe; access is guarded by the
+ * owning {@link MapPointer}, which copies shared sets rather than modifying them.
+ * <p>
+ * To avoid shifting the whole array on every change, the array is made of a sorted main run
+ * followed by a short sorted tail: new axioms are inserted in the tail, and axioms removed from
+ * the main run are only marked as removed. Once the tail or the removed marks outgrow the square
+ * root of the main run, both are merged into the main run in one pass. Adding or removing an axiom
+ * costs about {@code O(sqrt(n))} element moves rather than {@code O(n)}.
+ *
+ * @author ignazio
+ * @param <S> axiom type
+ */
+class CompactAxiomSet<S extends OWLAxiom> extends AbstractCollection<S> {
+
+    /**
+     * Minimum size of the tail and of the removed marks before they are merged into the main run.
+     */
+    private static final int MIN_PENDING = 16;
+    private final Class<S> witness;
+    private Object[] elements;
+    /**
+     * End of the sorted main run; elements from here to {@link #end} form the sorted tail.
+     */
+    private int sorted = 0;
+    private int end = 0;
+    /**
+     * Positions in the main run of axioms removed since the last merge; null if there are none.
+     */
+    @Nullable
+    private BitSet removed;
+    private int removedCount = 0;
+    /**
+     * True if this set has been handed out to readers outside of the map pointer monitor; shared
+     * sets are copied rather than modified.
+     */
+    private boolean shared = false;
+
+    CompactAxiomSet(Collection<S> container, S s, Class<S> witness) {
+        this.witness = witness;
+        elements = new Object[container.size() + 2];
+        container.forEach(this::add);
+        add(s);
+    }
+
+    CompactAxiomSet(CompactAxiomSet<S> source) {
+        witness = source.witness;
+        elements = Arrays.copyOf(source.elements, source.end + 1);
+        sorted = source.sorted;
+        end = source.end;
+        BitSet r = source.removed;
+        removed = r == null ? null : (BitSet) r.clone();
+        removedCount = source.removedCount;
+        // the copy costs a pass over the array anyway, leave it with a single sorted run
+        merge();
+    }
+
+    /**
+     * @return estimated size of this set, excluding the axioms
+     */
+    long estimateMemoryUsage() {
+        long bytes = MemoryEstimator.object(3, 13)
+            + MemoryEstimator.array(elements.length, MemoryEstimator.REFERENCE);
+        BitSet r = removed;
+        if (r != null) {
+            bytes += MemoryEstimator.object(1, 5) + MemoryEstimator.array(r.size() / 64, 8);
+        }
+        return bytes;
+    }
+
+    /**
+     * Mark this set as shared with readers; the set must not be modified afterwards.
+     */
+    void share() {
+        shared = true;
+    }
+
+    /**
+     * @return true if this set has been shared with readers
+     */
+    boolean isShared() {
+        return shared;
+    }
+
+    @Override
+    public int size() {
+        return end - removedCount;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+        if (!witness.isInstance(o)) {
+            return false;
+        }
+        int position = position(o, 0, sorted);
+        if (position >= 0) {
+            return !isRemoved(position);
+        }
+        return position(o, sorted, end) >= 0;
+    }
+
+    private boolean isRemoved(int position) {
+        BitSet r = removed;
+        return r != null && r.get(position);
+    }
+
+    /**
+     * @param o object to find
+     * @param from start of the sorted range to search
+     * @param to end of the sorted range to search, exclusive
+     * @return position of the object, or {@code -(insertion point) - 1} if not found; axioms with
+     *         the same hash code are contiguous
+     */
+    private int position(Object o, int from, int to) {
+        int hash = o.hashCode();
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int h = elements[mid].hashCode();
+            if (h < hash) {
+                low = mid + 1;
+            } else if (h > hash) {
+                high = mid - 1;
+            } else {
+                for (int i = mid; i >= from && elements[i].hashCode() == hash; i--) {
+                    if (o.equals(elements[i])) {
+                        return i;
+                    }
+                }
+                for (int i = mid + 1; i < to && elements[i].hashCode() == hash; i++) {
+                    if (o.equals(elements[i])) {
+                        return i;
+                    }
+                }
+                return -mid - 1;
+            }
+        }
+        return -low - 1;
+    }
+
+    /**
+     * @param hash hash code
+     * @param to end of the main run to search, exclusive
+     * @return position in the main run after all elements with hash code less than or equal to
+     *         the argument
+     */
+    private int upperBound(int hash, int to) {
+        int low = 0;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (elements[mid].hashCode() <= hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int pendingLimit() {
+        return Math.max(MIN_PENDING, (int) Math.sqrt(sorted));
+    }
+
+    @Override
+    public boolean add(S e) {
+        int position = position(e, 0, sorted);
+        if (position >= 0) {
+            if (!isRemoved(position)) {
+                return false;
+            }
+            // the axiom is still in place, clearing the mark restores it
+            BitSet r = removed;
+            assert r != null;
+            r.clear(position);
+            removedCount--;
+            return true;
+        }
+        position = position(e, sorted, end);
+        if (position >= 0) {
+            return false;
+        }
+        int insertion = -position - 1;
+        if (end == elements.length) {
+            elements = Arrays.copyOf(elements, end + (end >> 1) + 1);
+        }
+        System.arraycopy(elements, insertion, elements, insertion + 1, end - insertion);
+        elements[insertion] = e;
+        end++;
+        if (end - sorted > pendingLimit()) {
+            merge();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(@Nullable Object o) {
+        if (!witness.isInstance(o)) {
+            return false;
+        }
+        int position = position(o, 0, sorted);
+        if (position >= 0) {
+            if (isRemoved(position)) {
+                return false;
+            }
+            markRemoved(position);
+            if (removedCount > pendingLimit()) {
+                merge();
+            }
+            return true;
+        }
+        position = position(o, sorted, end);
+        if (position < 0) {
+            return false;
+        }
+        removeFromTail(position);
+        return true;
+    }
+
+    private void markRemoved(int position) {
+        BitSet r = removed;
+        if (r == null) {
+            r = new BitSet(sorted);
+            removed = r;
+        }
+        r.set(position);
+        removedCount++;
+    }
+
+    private void removeFromTail(int position) {
+        System.arraycopy(elements, position + 1, elements, position, end - position - 1);
+        elements[--end] = null;
+    }
+
+    /**
+     * Drop the axioms marked as removed and merge the tail into the main run. Tail elements are
+     * placed by binary search, and the main run is moved in blocks between them, so that hash
+     * codes are only read for the searches.
+     */
+    private void merge() {
+        BitSet r = removed;
+        if (r != null) {
+            int write = 0;
+            int read = 0;
+            for (int next = r.nextSetBit(0); next >= 0; next = r.nextSetBit(next + 1)) {
+                System.arraycopy(elements, read, elements, write, next - read);
+                write += next - read;
+                read = next + 1;
+            }
+            System.arraycopy(elements, read, elements, write, end - read);
+            Arrays.fill(elements, end - removedCount, end, null);
+            sorted -= removedCount;
+            end -= removedCount;
+            removed = null;
+            removedCount = 0;
+        }
+        if (end == sorted) {
+            return;
+        }
+        Object[] tail = Arrays.copyOfRange(elements, sorted, end);
+        int main = sorted;
+        int write = end;
+        for (int i = tail.length - 1; i >= 0; i--) {
+            int insertion = upperBound(tail[i].hashCode(), main);
+            write -= main - insertion;
+            System.arraycopy(elements, insertion, elements, write, main - insertion);
+            elements[--write] = tail[i];
+            main = insertion;
+        }
+        sorted = end;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elements, 0, end, null);
+        sorted = 0;
+        end = 0;
+        removed = null;
+        removedCount = 0;
+    }
+
+    @Override
+    public Iterator<S> iterator() {
+        return new Iterator<S>() {
+
+            int next = 0;
+            boolean removable = false;
+
+            @Override
+            public boolean hasNext() {
+                while (next < sorted && isRemoved(next)) {
+                    next++;
+                }
+                return next < end;
+            }
+
+            @Override
+            public S next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                removable = true;
+                return witness.cast(elements[next++]);
+            }
+
+            @Override
+            public void remove() {
+                if (!removable) {
+                    throw new IllegalStateException();
+                }
+                removable = false;
+                // no merge here, positions must stay stable while iterating
+                if (next - 1 < sorted) {
+                    markRemoved(next - 1);
+                } else {
+                    removeFromTail(--next);
+                }
+            }
+        };
+    }
+}
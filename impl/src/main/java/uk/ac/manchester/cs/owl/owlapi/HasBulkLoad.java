@@ -0,0 +1,27 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+/**
+ * Implemented by ontologies that can defer index updates while a large number of axioms is added,
+ * e.g., by a parser.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public interface HasBulkLoad {
+
+    /**
+     * Start deferring index updates. Axioms added after this call are indexed in a single pass,
+     * either when {@link #endBulkLoad()} is called or when a query needs the indexes.
+     */
+    void beginBulkLoad();
+
+    /**
+     * Index all axioms added since {@link #beginBulkLoad()} and stop deferring index updates.
+     */
+    void endBulkLoad();
+
+    /**
+     * @return true if index updates are currently deferred
+     */
+    boolean isBulkLoading();
+}
@@ -0,0 +1,28 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * Implemented by ontologies that can take their axioms from another ontology without copying
+ * them. Axioms and indexes are shared with the source until either ontology is changed; each
+ * index then copies the entries it modifies, so the two ontologies do not see each other's
+ * changes.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+@FunctionalInterface
+public interface HasCopyOnWrite {
+
+    /**
+     * Share the axioms of the source with this ontology, which must not contain any axioms.
+     * Ontology annotations and imports declarations are not shared. No change events are
+     * generated for the shared axioms, so callers must make sure that nothing relying on change
+     * events, such as listeners or merged imports closure indexes, is left out of date.
+     *
+     * @param source ontology whose axioms are to be shared
+     * @return true if the axioms have been shared, false if the source cannot share its axioms and
+     *         this ontology is unchanged
+     */
+    boolean shareAxioms(OWLOntology source);
+}
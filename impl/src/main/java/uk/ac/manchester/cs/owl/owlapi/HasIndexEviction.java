@@ -0,0 +1,21 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+/**
+ * Implemented by ontologies whose lazily built indexes can be dropped when not in use, and rebuilt
+ * on next use.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+@FunctionalInterface
+public interface HasIndexEviction {
+
+    /**
+     * Drop the lazily built indexes that have not been read since the previous call. Calling this
+     * periodically keeps only the indexes in active use in memory, at the cost of rebuilding an
+     * index when it is used again.
+     *
+     * @return number of indexes dropped
+     */
+    int evictUnusedIndexes();
+}
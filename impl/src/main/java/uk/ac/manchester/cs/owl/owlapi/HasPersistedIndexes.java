@@ -0,0 +1,36 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+/**
+ * Implemented by ontologies that can write their axioms together with their built indexes, and
+ * restore both without indexing the axioms again.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public interface HasPersistedIndexes {
+
+    /**
+     * Write the axioms and the indexes built so far. Imports declarations, ontology annotations
+     * and the ontology id are not written.
+     *
+     * @param out output
+     * @throws IOException if the output cannot be written
+     */
+    void writeIndexes(DataOutput out) throws IOException;
+
+    /**
+     * Add the axioms written by {@link #writeIndexes(DataOutput)} to this ontology and restore the
+     * written indexes. The ontology must not contain axioms; no change events are generated.
+     *
+     * @param in input
+     * @param df data factory used to create the axioms
+     * @throws IOException if the input cannot be read
+     */
+    void readIndexes(DataInput in, OWLDataFactory df) throws IOException;
+}
@@ -0,0 +1,19 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * Implemented by ontologies that can provide read only snapshots of their current state.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+@FunctionalInterface
+public interface HasSnapshot {
+
+    /**
+     * @return a read only ontology with the current contents of this ontology; changes applied to
+     *         this ontology later are not visible through the snapshot
+     */
+    OWLOntology snapshot();
+}
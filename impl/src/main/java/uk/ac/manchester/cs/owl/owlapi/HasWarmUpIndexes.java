@@ -0,0 +1,17 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+/**
+ * Implemented by ontologies whose axiom indexes are built lazily.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+@FunctionalInterface
+public interface HasWarmUpIndexes {
+
+    /**
+     * Build all lazy axiom indexes now, in parallel where possible, so that the first queries do
+     * not pay for index construction.
+     */
+    void warmUpIndexes();
+}
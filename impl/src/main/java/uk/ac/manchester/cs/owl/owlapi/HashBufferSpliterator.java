@@ -0,0 +1,125 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.util.ConcurrentModificationException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * Spliterator over the buffers of an hppcrt hash container, without copying them. Empty slots are
+ * skipped; the containers used by the indexes never contain null keys, so the default key slot is
+ * not visited. Elements can be read from a buffer other than the one holding the keys, e.g., the
+ * values of a map. If a modification counter is provided, a change to the container detected while
+ * iterating causes a {@link ConcurrentModificationException}; without one, the buffers must not be
+ * modified while the spliterator is in use.
+ *
+ * @author ignazio
+ * @param <T> element type
+ */
+final class HashBufferSpliterator<T> implements Spliterator<T> {
+
+    private final Object[] keys;
+    private final Object[] elements;
+    private int index;
+    private final int fence;
+    private long estimate;
+    @Nullable
+    private final IntSupplier modifications;
+    private final int expectedModifications;
+
+    /**
+     * @param keys key buffer; null slots are empty
+     * @param elements buffer to read elements from, at the positions of non empty keys
+     * @param size number of elements in the container
+     * @param modifications modification counter of the container, or null if the buffers are not
+     *        modified while in use
+     */
+    HashBufferSpliterator(Object[] keys, Object[] elements, int size,
+        @Nullable IntSupplier modifications) {
+        this(keys, elements, 0, keys.length, size, modifications,
+            modifications == null ? 0 : modifications.getAsInt());
+    }
+
+    private HashBufferSpliterator(Object[] keys, Object[] elements, int index, int fence,
+        long estimate, @Nullable IntSupplier modifications, int expectedModifications) {
+        this.keys = keys;
+        this.elements = elements;
+        this.index = index;
+        this.fence = fence;
+        this.estimate = estimate;
+        this.modifications = modifications;
+        this.expectedModifications = expectedModifications;
+    }
+
+    private void checkForComodification() {
+        IntSupplier m = modifications;
+        if (m != null && m.getAsInt() != expectedModifications) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (index < fence) {
+            int i = index++;
+            if (keys[i] != null) {
+                action.accept((T) elements[i]);
+                checkForComodification();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachRemaining(Consumer<? super T> action) {
+        int i = index;
+        index = fence;
+        for (; i < fence; i++) {
+            if (keys[i] != null) {
+                action.accept((T) elements[i]);
+            }
+        }
+        checkForComodification();
+    }
+
+    @Override
+    @Nullable
+    public Spliterator<T> trySplit() {
+        int middle = (index + fence) >>> 1;
+        if (middle <= index) {
+            return null;
+        }
+        estimate >>>= 1;
+        Spliterator<T> prefix = new HashBufferSpliterator<>(keys, elements, index, middle,
+            estimate, modifications, expectedModifications);
+        index = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        return keys == elements ? DISTINCT | NONNULL : NONNULL;
+    }
+}
@@ -0,0 +1,225 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLPrimitive;
+import org.semanticweb.owlapi.model.SetOntologyID;
+
+import com.google.common.collect.LinkedHashMultiset;
+import com.google.common.collect.Multiset;
+
+/**
+ * Merged index of the axioms in the imports closure of an ontology, so that queries including
+ * the imports closure are answered with one lookup rather than one per ontology in the closure.
+ * Axioms by type and axioms referencing an entity or anonymous individual are collected from the
+ * members of the closure the first time a type or key is asked for, and kept up to date by the
+ * manager as axioms are added to or removed from the members. Each axiom is counted once for
+ * every member that contains it, so results match those of the members queried one by one. The
+ * manager discards the index whenever the closure itself might change; members renamed while the
+ * index is in use are tracked by their new ids. <br>
+ * Streams are served from a list of the indexed axioms that is built on first use and dropped
+ * when the axioms change, so repeated queries between changes do not copy the index.
+ *
+ * @author ignazio
+ */
+class ImportsClosureIndex {
+
+    private final List<OWLOntology> members;
+    /** Ids of the members; read without holding the monitor. */
+    private final Set<OWLOntologyID> memberIDs = ConcurrentHashMap.newKeySet();
+    private final Map<AxiomType<?>, Entry> axiomsByType = new HashMap<>();
+    private final Map<OWLPrimitive, Entry> axiomsByReference = new HashMap<>();
+    /** True once axioms by reference have been indexed; read without holding the monitor. */
+    private volatile boolean referencesIndexed;
+    /**
+     * Count of updates; values collected from the members without holding the monitor are only
+     * kept if no update happened in the meantime.
+     */
+    private long updates;
+
+    /**
+     * @param members ontologies in the imports closure
+     */
+    ImportsClosureIndex(List<OWLOntology> members) {
+        this.members = members;
+        members.forEach(o -> memberIDs.add(o.getOntologyID()));
+    }
+
+    /**
+     * @param type axiom type
+     * @param <T> axiom class
+     * @return axioms of the specified type in the closure
+     */
+    @SuppressWarnings("unchecked")
+    <T extends OWLAxiom> Stream<T> axioms(AxiomType<T> type) {
+        return (Stream<T>) read(axiomsByType, type,
+            () -> members.stream().flatMap(o -> o.axioms(type)), Entry::snapshot).stream();
+    }
+
+    /**
+     * @param type axiom type
+     * @return number of axioms of the specified type in the closure
+     */
+    int getAxiomCount(AxiomType<?> type) {
+        return read(axiomsByType, type, () -> members.stream().flatMap(o -> o.axioms(type)),
+            e -> Integer.valueOf(e.axioms.size())).intValue();
+    }
+
+    /**
+     * @param axiom axiom to search
+     * @return true if a member of the closure contains the axiom
+     */
+    boolean containsAxiom(OWLAxiom axiom) {
+        AxiomType<?> type = axiom.getAxiomType();
+        return read(axiomsByType, type, () -> members.stream().flatMap(o -> o.axioms(type)),
+            e -> Boolean.valueOf(e.axioms.contains(axiom))).booleanValue();
+    }
+
+    /**
+     * @param key entity or anonymous individual
+     * @return axioms in the closure that reference the key
+     */
+    Stream<OWLAxiom> referencingAxioms(OWLPrimitive key) {
+        referencesIndexed = true;
+        return read(axiomsByReference, key,
+            () -> members.stream().flatMap(o -> o.referencingAxioms(key)), Entry::snapshot)
+                .stream();
+    }
+
+    private <K, R> R read(Map<K, Entry> map, K key, Supplier<Stream<? extends OWLAxiom>> values,
+        Function<Entry, R> reader) {
+        long seen;
+        synchronized (this) {
+            Entry indexed = map.get(key);
+            if (indexed != null) {
+                return reader.apply(indexed);
+            }
+            seen = updates;
+        }
+        // the members are queried without holding the monitor, since their locks might be held
+        // by threads waiting to update this index
+        Entry collected = new Entry();
+        values.get().forEach(collected.axioms::add);
+        synchronized (this) {
+            if (seen == updates) {
+                map.putIfAbsent(key, collected);
+            }
+            return reader.apply(collected);
+        }
+    }
+
+    /**
+     * Updates the indexes after a change has been successfully applied. The entities and
+     * anonymous individuals of an axiom are collected once for all the indexes that need them.
+     *
+     * @param indexes indexes to update
+     * @param change applied change
+     */
+    static void changed(Collection<ImportsClosureIndex> indexes, OWLOntologyChange change) {
+        if (change instanceof SetOntologyID) {
+            SetOntologyID rename = (SetOntologyID) change;
+            indexes.forEach(
+                i -> i.renamed(rename.getOriginalOntologyID(), rename.getNewOntologyID()));
+            return;
+        }
+        if (!change.isAxiomChange()) {
+            return;
+        }
+        OWLOntologyID id = change.getOntology().getOntologyID();
+        OWLAxiom axiom = change.getAxiom();
+        List<OWLPrimitive> references = null;
+        for (ImportsClosureIndex index : indexes) {
+            if (!index.memberIDs.contains(id)) {
+                continue;
+            }
+            if (references == null && index.referencesIndexed) {
+                references = references(axiom);
+            }
+            index.update(axiom, change.isAddAxiom(),
+                references == null ? Collections.emptyList() : references);
+        }
+    }
+
+    private static List<OWLPrimitive> references(OWLAxiom axiom) {
+        List<OWLPrimitive> references = new ArrayList<>();
+        axiom.signature().forEach(references::add);
+        axiom.anonymousIndividuals().forEach(references::add);
+        return references;
+    }
+
+    private synchronized void renamed(OWLOntologyID from, OWLOntologyID to) {
+        if (memberIDs.remove(from)) {
+            memberIDs.add(to);
+        }
+    }
+
+    private synchronized void update(OWLAxiom axiom, boolean added,
+        List<OWLPrimitive> references) {
+        updates++;
+        update(axiomsByType.get(axiom.getAxiomType()), axiom, added);
+        if (!axiomsByReference.isEmpty()) {
+            references.forEach(k -> update(axiomsByReference.get(k), axiom, added));
+        }
+    }
+
+    private static void update(@Nullable Entry indexed, OWLAxiom axiom, boolean added) {
+        if (indexed == null) {
+            return;
+        }
+        if (added) {
+            indexed.axioms.add(axiom);
+        } else {
+            indexed.axioms.remove(axiom);
+        }
+        indexed.snapshot = null;
+    }
+
+    /**
+     * Axioms for one type or key, with the list streamed to callers until the axioms change.
+     * Guarded by the monitor of the index.
+     */
+    private static final class Entry {
+
+        final Multiset<OWLAxiom> axioms = LinkedHashMultiset.create();
+        @Nullable
+        List<OWLAxiom> snapshot;
+
+        List<OWLAxiom> snapshot() {
+            List<OWLAxiom> list = snapshot;
+            if (list == null) {
+                list = Collections.unmodifiableList(new ArrayList<>(axioms));
+                snapshot = list;
+            }
+            return list;
+        }
+    }
+}
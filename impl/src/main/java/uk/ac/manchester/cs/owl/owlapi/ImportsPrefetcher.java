@@ -0,0 +1,350 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.formats.OWLXMLDocumentFormat;
+import org.semanticweb.owlapi.io.FileDocumentSource;
+import org.semanticweb.owlapi.io.IRIDocumentSource;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
+import org.semanticweb.owlapi.io.OWLParserFactory;
+import org.semanticweb.owlapi.model.ChangeDetails;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDocumentFormat;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyIRIMapper;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.ac.manchester.cs.owl.owlapi.concurrent.NoOpReadWriteLock;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.NonConcurrentOWLOntologyBuilder;
+
+/**
+ * Parses the documents in an imports closure concurrently, ahead of the manager asking for them.
+ * Each document is parsed into a private manager that records, rather than follows, its imports;
+ * the recorded imports are scheduled in turn. Functional syntax and OWL/XML documents spell out
+ * the type of every entity, and documents without imports do not depend on any other document, so
+ * their parses do not depend on the imports closure; the loading manager copies these parses into
+ * ontologies of its own and loads their imports. Other documents, for example RDF documents whose
+ * parsers use the imports closure to type entities, are first read only for their imports: the
+ * parse stops at the first axiom added once an import has been recorded, and the loading manager
+ * parses the document once its imports are available. RDF parsers stream imports while reading
+ * triples and add axioms afterwards, so all imports are recorded before the parse stops. Workers
+ * never touch the loading manager or its lock; the loading manager waits for the closure to be
+ * discovered before taking its lock, so that the lock is only held while parses are copied and
+ * registered.
+ *
+ * @author ignazio
+ */
+class ImportsPrefetcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportsPrefetcher.class);
+    private final OWLDataFactory dataFactory;
+    /** Parsers of formats whose parse does not depend on the imports closure. */
+    private final Set<OWLParserFactory> selfTypingParsers = new HashSet<>();
+    private final Set<OWLParserFactory> otherParsers = new HashSet<>();
+    private final List<OWLOntologyIRIMapper> mappers;
+    private final OWLOntologyLoaderConfiguration configuration;
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final Map<IRI, CompletableFuture<Prefetched>> prefetched = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Ontology parsed ahead of time, with the format its parser reported. The ontology belongs to
+     * a scratch manager; its imports declarations have been recorded but not loaded.
+     */
+    static final class Prefetched {
+
+        final OWLOntology ontology;
+        final OWLDocumentFormat format;
+
+        Prefetched(OWLOntology ontology, OWLDocumentFormat format) {
+            this.ontology = ontology;
+            this.format = format;
+        }
+    }
+
+    /**
+     * @param dataFactory data factory of the loading manager
+     * @param parsers parsers of the loading manager; copied
+     * @param mappers IRI mappers of the loading manager; copied
+     * @param configuration configuration for the load
+     * @param executor executor for parsing; if null, a pool sized by the configuration is created,
+     *        and shut down on close
+     */
+    ImportsPrefetcher(OWLDataFactory dataFactory, Iterable<OWLParserFactory> parsers,
+        Iterable<OWLOntologyIRIMapper> mappers, OWLOntologyLoaderConfiguration configuration,
+        @Nullable ExecutorService executor) {
+        this.dataFactory = dataFactory;
+        String functional = new FunctionalSyntaxDocumentFormat().getKey();
+        String owlxml = new OWLXMLDocumentFormat().getKey();
+        for (OWLParserFactory parser : parsers) {
+            String key = parser.getSupportedFormat().getKey();
+            if (functional.equals(key) || owlxml.equals(key)) {
+                selfTypingParsers.add(parser);
+            } else {
+                otherParsers.add(parser);
+            }
+        }
+        this.mappers = new ArrayList<>();
+        mappers.forEach(this.mappers::add);
+        // scratch parses must not start prefetching of their own
+        this.configuration = configuration.setLoadImportsInParallel(false);
+        if (executor == null) {
+            int threads = configuration.getImportsLoadingThreads();
+            if (threads <= 0) {
+                threads = Runtime.getRuntime().availableProcessors();
+            }
+            this.executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "OWLAPI imports loading");
+                t.setDaemon(true);
+                return t;
+            });
+            ownExecutor = true;
+        } else {
+            this.executor = executor;
+            ownExecutor = false;
+        }
+    }
+
+    /**
+     * Start discovering the imports of the root document. The root is parsed like any imported
+     * document, so that the loading manager can take its parse as well.
+     *
+     * @param root source of the document being loaded
+     */
+    void discover(OWLOntologyDocumentSource root) {
+        if (!canTake(root)) {
+            // other sources might not be readable twice
+            return;
+        }
+        IRIDocumentSource source = new IRIDocumentSource(root.getDocumentIRI(),
+            root.getFormat().orElse(null), root.getMIMEType().orElse(null));
+        prefetched.computeIfAbsent(source.getDocumentIRI(), k -> submit(() -> parse(source)));
+    }
+
+    /**
+     * Wait until every document in the imports closure has been parsed or has failed to parse.
+     * Parses schedule their imports before completing, so the closure is complete once no parse
+     * is pending.
+     */
+    void awaitDiscovery() {
+        int done = -1;
+        while (!closed && done != prefetched.size()) {
+            List<CompletableFuture<Prefetched>> pending = new ArrayList<>(prefetched.values());
+            done = pending.size();
+            try {
+                CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[pending.size()]))
+                    .join();
+            } catch (CompletionException | CancellationException e) {
+                // failed parses are reported by the loading manager when it parses them again
+                LOGGER.debug("Prefetching failed", e);
+            }
+        }
+    }
+
+    /**
+     * @param source document source
+     * @return true if prefetched parses can stand in for the source
+     */
+    static boolean canTake(OWLOntologyDocumentSource source) {
+        return source instanceof IRIDocumentSource || source instanceof FileDocumentSource;
+    }
+
+    /**
+     * Schedule an imported ontology for parsing, unless already scheduled.
+     *
+     * @param ontologyIRI IRI in the imports declaration
+     */
+    void prefetch(IRI ontologyIRI) {
+        if (closed || configuration.isIgnoredImport(ontologyIRI)) {
+            return;
+        }
+        IRI documentIRI = documentIRI(ontologyIRI);
+        prefetched.computeIfAbsent(documentIRI,
+            k -> submit(() -> parse(new IRIDocumentSource(k, null, null))));
+    }
+
+    /**
+     * @param documentIRI document IRI the loading manager is about to parse
+     * @return the prefetched ontology for the document, waiting for its parse to finish; null if
+     *         the document was not scheduled, could not be parsed, or must be parsed with its
+     *         imports available; the loading manager then parses the document itself
+     */
+    @Nullable
+    Prefetched take(IRI documentIRI) {
+        CompletableFuture<Prefetched> future = prefetched.get(documentIRI);
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.join();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Prefetching {} failed", documentIRI, e);
+            return null;
+        }
+    }
+
+    /**
+     * Cancel parses still scheduled and release the executor, if owned.
+     */
+    void close() {
+        closed = true;
+        prefetched.values().forEach(f -> f.cancel(true));
+        prefetched.clear();
+        if (ownExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Imports loading executor rejected a task", e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private IRI documentIRI(IRI ontologyIRI) {
+        // mappers are not required to be thread safe
+        synchronized (mappers) {
+            for (OWLOntologyIRIMapper mapper : mappers) {
+                IRI documentIRI = mapper.getDocumentIRI(ontologyIRI);
+                if (documentIRI != null) {
+                    return documentIRI;
+                }
+            }
+        }
+        return ontologyIRI;
+    }
+
+    /**
+     * Parse a document with the self typing parsers and, if none of them can parse it, read the
+     * imports of the document with the other parsers.
+     */
+    @Nullable
+    private Prefetched parse(IRIDocumentSource source) {
+        if (!selfTypingParsers.isEmpty()) {
+            try {
+                return parse(source, selfTypingParsers, false);
+            } catch (OWLOntologyCreationException | RuntimeException e) {
+                LOGGER.debug("{} is not in a self typing format", source.getDocumentIRI(), e);
+            }
+        }
+        if (otherParsers.isEmpty()) {
+            return null;
+        }
+        try {
+            return parse(source, otherParsers, true);
+        } catch (ImportsRecorded e) {
+            // the loading manager parses the document once its imports are loaded
+            return null;
+        } catch (OWLOntologyCreationException | RuntimeException e) {
+            // the loading manager will parse the document again and report the error
+            LOGGER.debug("Prefetching {} failed", source.getDocumentIRI(), e);
+            return null;
+        }
+    }
+
+    /**
+     * @param importsOnly true if the parse should stop once imports have been recorded and the
+     *        first axiom is added
+     * @return the parse, or null if the document has imports and the parse depends on them
+     */
+    @Nullable
+    private Prefetched parse(IRIDocumentSource source, Set<OWLParserFactory> parsers,
+        boolean importsOnly) throws OWLOntologyCreationException {
+        if (closed) {
+            return null;
+        }
+        PrefetchingManager manager = new PrefetchingManager(dataFactory, parsers, importsOnly);
+        OWLOntology ontology = manager.loadOntologyFromOntologyDocument(source, configuration);
+        OWLDocumentFormat format = manager.getOntologyFormat(ontology);
+        if (format == null || importsOnly && manager.importing) {
+            // imports recorded after the first axiom; the full parse is discarded
+            return null;
+        }
+        return new Prefetched(ontology, format);
+    }
+
+    /**
+     * Thrown to stop a parse once the imports of the document have been recorded.
+     */
+    private static final class ImportsRecorded extends OWLRuntimeException {
+
+        ImportsRecorded() {
+            super("Imports recorded");
+        }
+    }
+
+    /**
+     * Manager for a single prefetched document, recording imports instead of loading them.
+     */
+    private class PrefetchingManager extends OWLOntologyManagerImpl {
+
+        private final boolean importsOnly;
+        boolean importing = false;
+
+        PrefetchingManager(OWLDataFactory dataFactory, Set<OWLParserFactory> parsers,
+            boolean importsOnly) {
+            super(dataFactory, new NoOpReadWriteLock());
+            this.importsOnly = importsOnly;
+            setOntologyParsers(parsers);
+            getOntologyFactories()
+                .add(new OWLOntologyFactoryImpl(new NonConcurrentOWLOntologyBuilder()));
+        }
+
+        @Override
+        public void makeLoadImportRequest(OWLImportsDeclaration declaration,
+            OWLOntologyLoaderConfiguration config) {
+            if (!config.isIgnoredImport(declaration.getIRI())) {
+                importing = true;
+                prefetch(declaration.getIRI());
+            }
+        }
+
+        @Override
+        public ChangeDetails applyChangesAndGetDetails(
+            List<? extends OWLOntologyChange> changes) {
+            if (importsOnly && importing
+                && changes.stream().anyMatch(OWLOntologyChange::isAxiomChange)) {
+                throw new ImportsRecorded();
+            }
+            return super.applyChangesAndGetDetails(changes);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.semanticweb.owlapi.util.OWLAPIPreconditions.checkNotNull;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.semanticweb.owlapi.formats.PrefixDocumentFormat;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDocumentFormat;
+import org.semanticweb.owlapi.model.OWLDocumentFormatImpl;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.semanticweb.owlapi.model.SetOntologyID;
+
+/**
+ * Index snapshots: sidecar files that hold an ontology together with its built indexes, keyed by a
+ * hash of the document the ontology was parsed from. Restoring an ontology from a snapshot does not
+ * involve parsing or visiting axioms to compute index keys; axioms are decoded and the index maps
+ * filled directly, so loading is dominated by reading the file. The document format is stored as its
+ * class name, prefixes and parameters; parameters must be strings, booleans, integers or longs,
+ * and formats must have a public no argument constructor. Snapshots are a cache: they are only valid for the version of the OWL API that
+ * wrote them, and any snapshot that cannot be read should be discarded and the document parsed
+ * again.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public final class IndexSnapshotFile {
+
+    /** Extension of index snapshot files. */
+    public static final String EXTENSION = ".owlidx";
+    /** Magic number at the start of an index snapshot file. */
+    static final int MAGIC = 0x4F574C49;
+    private static final int VERSION = 3;
+    /** Length of the trailer: contents length and checksum. */
+    private static final int TRAILER_LENGTH = 16;
+
+    private IndexSnapshotFile() {}
+
+    /**
+     * @param documentIRI document IRI; relative IRIs in the document are resolved against it, so it
+     *        is part of the hash
+     * @param document document file
+     * @param configuration loader configuration; the settings that change what the parsers produce
+     *        are part of the hash, so that a snapshot is only restored under the settings it was
+     *        parsed with
+     * @return hex encoded SHA-256 hash of the document IRI, loader settings and contents
+     * @throws IOException if the document cannot be read
+     */
+    public static String contentHash(IRI documentIRI, File document,
+        OWLOntologyLoaderConfiguration configuration) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new OWLRuntimeException(e);
+        }
+        digest.update(documentIRI.toString().getBytes(StandardCharsets.UTF_8));
+        digest.update(settings(configuration).getBytes(StandardCharsets.UTF_8));
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = new FileInputStream(document)) {
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder b = new StringBuilder();
+        for (byte x : digest.digest()) {
+            b.append(Character.forDigit((x >> 4) & 0xF, 16)).append(Character.forDigit(x & 0xF, 16));
+        }
+        return b.toString();
+    }
+
+    private static String settings(OWLOntologyLoaderConfiguration configuration) {
+        StringBuilder b = new StringBuilder();
+        b.append("\nannotations=").append(configuration.isLoadAnnotationAxioms());
+        b.append("\nstrict=").append(configuration.isStrict());
+        b.append("\nheader=").append(configuration.getMissingOntologyHeaderStrategy());
+        b.append("\ndublinCore=").append(configuration.isTreatDublinCoreAsBuiltIn());
+        b.append("\nduplicates=").append(configuration.shouldAllowDuplicatesInConstructSets());
+        b.append("\nbannedParsers=").append(configuration.getBannedParsers());
+        // sorted, so that the order of insertion does not matter
+        new TreeSet<>(asList(configuration.ignoredImports().map(IRI::toString)))
+            .forEach(i -> b.append("\nignored=").append(i));
+        return b.toString();
+    }
+
+    /**
+     * @param directory snapshot directory
+     * @param hash content hash of the document
+     * @return the snapshot file for the document in the directory
+     */
+    public static File snapshotFile(File directory, String hash) {
+        return new File(directory, hash + EXTENSION);
+    }
+
+    /**
+     * Write a snapshot of the ontology. The snapshot is streamed to a temporary file first and then
+     * moved in place, so that concurrent readers never see a partial snapshot. Only the indexes
+     * built at the time of writing are stored; lazy indexes that have not been built yet are built
+     * on first use after the snapshot is restored, as usual. Warm up the indexes before writing to
+     * store all of them.
+     *
+     * @param ontology ontology to write; must implement {@link HasPersistedIndexes}
+     * @param format format of the document the ontology was parsed from
+     * @param hash content hash of the document
+     * @param file destination file
+     * @throws IOException if the file cannot be written, or the ontology or format cannot be
+     *         persisted
+     */
+    public static void write(OWLOntology ontology, OWLDocumentFormat format, String hash,
+        File file) throws IOException {
+        checkNotNull(ontology, "ontology cannot be null");
+        checkNotNull(format, "format cannot be null");
+        if (!(ontology instanceof HasPersistedIndexes)) {
+            throw new IOException("Ontology does not support persisted indexes: " + ontology);
+        }
+        ByteArrayOutputStream encodedFormat = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(encodedFormat)) {
+            writeFormat(format, out);
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create snapshot directory " + parent);
+        }
+        File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream stream = Files.newOutputStream(temp.toPath());
+                DataOutputStream out = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(stream), crc))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(hash);
+                OWLObjectBinaryOutput objects = new OWLObjectBinaryOutput(out);
+                OWLOntologyID id = ontology.getOntologyID();
+                objects.write(id.getOntologyIRI().orElse(null));
+                objects.write(id.getVersionIRI().orElse(null));
+                objects.write(
+                    asList(ontology.importsDeclarations().map(OWLImportsDeclaration::getIRI)));
+                objects.write(asList(ontology.annotations()));
+                objects.writeVarInt(encodedFormat.size());
+                encodedFormat.writeTo(out);
+                ((HasPersistedIndexes) ontology).writeIndexes(out);
+            }
+            // the trailer holds the length and checksum of everything before it
+            long length = temp.length();
+            try (DataOutputStream out = new DataOutputStream(
+                Files.newOutputStream(temp.toPath(), StandardOpenOption.APPEND))) {
+                out.writeLong(length);
+                out.writeLong(crc.getValue());
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * Check the length and checksum in the trailer of a snapshot file against its contents. The
+     * file is streamed, its contents are not held in memory.
+     */
+    private static void verify(File file) throws IOException {
+        long length = file.length() - TRAILER_LENGTH;
+        if (length < 0) {
+            throw new IOException("Not an index snapshot: " + file);
+        }
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            byte[] buffer = new byte[1 << 16];
+            for (long left = length; left > 0;) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, left));
+                if (read < 0) {
+                    throw new EOFException("Truncated index snapshot: " + file);
+                }
+                crc.update(buffer, 0, read);
+                left -= read;
+            }
+            if (in.readLong() != length || in.readLong() != crc.getValue()) {
+                throw new IOException("Corrupted index snapshot: " + file);
+            }
+        }
+    }
+
+    /**
+     * Restore the contents of a snapshot into an empty ontology. The file is checked before the
+     * ontology is changed, and then streamed into the ontology. The ontology id, imports
+     * declarations and ontology annotations are changed through the ontology manager; axioms and
+     * indexes are restored without change events. Imported ontologies are not loaded.
+     *
+     * @param ontology ontology to populate; must implement {@link HasPersistedIndexes}
+     * @param hash expected content hash of the document
+     * @param file snapshot file
+     * @return the format of the document the ontology was parsed from
+     * @throws IOException if the file cannot be read, is corrupted, or was not written for a
+     *         document with the expected hash
+     */
+    @SuppressWarnings("unchecked")
+    public static OWLDocumentFormat read(OWLOntology ontology, String hash, File file)
+        throws IOException {
+        checkNotNull(ontology, "ontology cannot be null");
+        if (!(ontology instanceof HasPersistedIndexes)) {
+            throw new IOException("Ontology does not support persisted indexes: " + ontology);
+        }
+        verify(file);
+        OWLOntologyManager manager = ontology.getOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        try (DataInputStream in =
+            new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an index snapshot, or unsupported version: " + file);
+            }
+            if (!hash.equals(in.readUTF())) {
+                throw new IOException("Index snapshot for a different document: " + file);
+            }
+            OWLObjectBinaryInput objects = new OWLObjectBinaryInput(in, df);
+            IRI ontologyIRI = (IRI) objects.read();
+            IRI versionIRI = (IRI) objects.read();
+            List<IRI> imports = (List<IRI>) objects.read();
+            List<OWLAnnotation> annotations = (List<OWLAnnotation>) objects.read();
+            int formatLength = objects.readVarInt();
+            if (formatLength < 0 || formatLength > file.length()) {
+                throw new IOException("Corrupted index snapshot: " + file);
+            }
+            byte[] encodedFormat = new byte[formatLength];
+            in.readFully(encodedFormat);
+            OWLDocumentFormat format;
+            try (DataInputStream formatIn =
+                new DataInputStream(new ByteArrayInputStream(encodedFormat))) {
+                format = readFormat(formatIn, file);
+            }
+            if (ontologyIRI != null) {
+                manager.applyChange(
+                    new SetOntologyID(ontology, new OWLOntologyID(ontologyIRI, versionIRI)));
+            }
+            ((HasPersistedIndexes) ontology).readIndexes(in, df);
+            List<OWLOntologyChange> changes = new ArrayList<>();
+            imports
+                .forEach(i -> changes.add(new AddImport(ontology, df.getOWLImportsDeclaration(i))));
+            annotations.forEach(a -> changes.add(new AddOntologyAnnotation(ontology, a)));
+            manager.applyChanges(changes);
+            return format;
+        }
+    }
+
+    /**
+     * Write the class name, prefixes and parameters of a format.
+     */
+    private static void writeFormat(OWLDocumentFormat format, DataOutputStream out)
+        throws IOException {
+        out.writeUTF(format.getClass().getName());
+        out.writeBoolean(format.isAddMissingTypes());
+        Map<String, String> prefixes = format instanceof PrefixDocumentFormat
+            ? ((PrefixDocumentFormat) format).getPrefixName2PrefixMap() : Collections.emptyMap();
+        out.writeInt(prefixes.size());
+        for (Map.Entry<String, String> e : prefixes.entrySet()) {
+            out.writeUTF(e.getKey());
+            out.writeUTF(e.getValue());
+        }
+        Map<Serializable, Serializable> parameters = format instanceof OWLDocumentFormatImpl
+            ? ((OWLDocumentFormatImpl) format).getParameters() : Collections.emptyMap();
+        out.writeInt(parameters.size());
+        for (Map.Entry<Serializable, Serializable> e : parameters.entrySet()) {
+            writeParameter(e.getKey(), out);
+            writeParameter(e.getValue(), out);
+        }
+    }
+
+    private static void writeParameter(Serializable value, DataOutputStream out)
+        throws IOException {
+        if (value instanceof String) {
+            out.writeByte('S');
+            out.writeUTF((String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte('Z');
+            out.writeBoolean(((Boolean) value).booleanValue());
+        } else if (value instanceof Integer) {
+            out.writeByte('I');
+            out.writeInt(((Integer) value).intValue());
+        } else if (value instanceof Long) {
+            out.writeByte('J');
+            out.writeLong(((Long) value).longValue());
+        } else {
+            throw new IOException("Format parameter cannot be persisted: " + value);
+        }
+    }
+
+    /**
+     * Create a format from its class name, and restore its prefixes and parameters. Only classes
+     * implementing {@link OWLDocumentFormat} are instantiated.
+     */
+    private static OWLDocumentFormat readFormat(DataInputStream in, File file) throws IOException {
+        String name = in.readUTF();
+        OWLDocumentFormat format;
+        try {
+            // not initialized until it is known to be a format
+            Class<?> c = Class.forName(name, false, IndexSnapshotFile.class.getClassLoader());
+            if (!OWLDocumentFormat.class.isAssignableFrom(c)) {
+                throw new IOException("Not a document format: " + name + " in " + file);
+            }
+            format = (OWLDocumentFormat) c.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IOException("Index snapshot format cannot be restored: " + file, e);
+        }
+        format.setAddMissingTypes(in.readBoolean());
+        int prefixes = in.readInt();
+        if (prefixes > 0 && !(format instanceof PrefixDocumentFormat)) {
+            throw new IOException("Corrupted index snapshot: " + file);
+        }
+        if (format instanceof PrefixDocumentFormat) {
+            PrefixDocumentFormat prefixFormat = (PrefixDocumentFormat) format;
+            prefixFormat.clear();
+            for (int i = 0; i < prefixes; i++) {
+                prefixFormat.setPrefix(in.readUTF(), in.readUTF());
+            }
+        }
+        int parameters = in.readInt();
+        for (int i = 0; i < parameters; i++) {
+            format.setParameter(readParameter(in, file), readParameter(in, file));
+        }
+        return format;
+    }
+
+    private static Serializable readParameter(DataInputStream in, File file) throws IOException {
+        int tag = in.readByte();
+        switch (tag) {
+            case 'S':
+                return in.readUTF();
+            case 'Z':
+                return Boolean.valueOf(in.readBoolean());
+            case 'I':
+                return Integer.valueOf(in.readInt());
+            case 'J':
+                return Long.valueOf(in.readLong());
+            default:
+                throw new IOException("Corrupted index snapshot: " + file);
+        }
+    }
+}
@@ -64,16 +64,26 @@ import static uk.ac.manchester.cs.owl.owlapi.InitVisitorFactory.OPCOLLECTIONS;
 import static uk.ac.manchester.cs.owl.owlapi.InitVisitorFactory.OPSUBNAMED;
 import static uk.ac.manchester.cs.owl.owlapi.InitVisitorFactory.OPSUPERNAMED;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToIntFunction;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -94,6 +104,7 @@ import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLClassAxiom;
 import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLDataProperty;
 import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLDataPropertyDomainAxiom;
@@ -137,6 +148,8 @@ import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
 import org.semanticweb.owlapi.model.OWLSubPropertyChainOfAxiom;
 import org.semanticweb.owlapi.model.OWLSymmetricObjectPropertyAxiom;
 import org.semanticweb.owlapi.model.OWLTransitiveObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OntologyConfigurator;
+import org.semanticweb.owlapi.model.OntologyMemoryUsage;
 import org.semanticweb.owlapi.model.parameters.Navigation;
 import org.semanticweb.owlapi.search.Filters;
 import org.semanticweb.owlapi.util.AbstractCollector;
@@ -150,67 +163,133 @@ import org.slf4j.LoggerFactory;
 public class Internals implements Serializable {
 
     protected static final Logger LOGGER = LoggerFactory.getLogger(Internals.class);
+    /** Pending axioms below this count are indexed on the calling thread only. */
+    private static final int PARALLEL_INDEXING_THRESHOLD = 10_000;
+    /** Number of axioms per axiom type measured when estimating memory usage. */
+    private static final int MEMORY_SAMPLE_SIZE = 32;
+    /** Index names, in the order of {@link #allIndexes()}, used in memory usage estimates. */
+    private static final List<String> INDEX_NAMES = Arrays.asList(
+        "axiomsByType", "owlClassReferences", "owlObjectPropertyReferences",
+        "owlDataPropertyReferences", "owlIndividualReferences", "owlAnonymousIndividualReferences",
+        "owlDatatypeReferences", "owlAnnotationPropertyReferences", "declarationsByEntity",
+        "classAssertionAxiomsByClass", "annotationAssertionAxiomsBySubject",
+        "subClassAxiomsBySubPosition", "subClassAxiomsBySuperPosition",
+        "objectSubPropertyAxiomsBySubPosition", "objectSubPropertyAxiomsBySuperPosition",
+        "dataSubPropertyAxiomsBySubPosition", "dataSubPropertyAxiomsBySuperPosition",
+        "classAxiomsByClass", "equivalentClassesAxiomsByClass", "disjointClassesAxiomsByClass",
+        "disjointUnionAxiomsByClass", "hasKeyAxiomsByClass",
+        "equivalentObjectPropertyAxiomsByProperty", "disjointObjectPropertyAxiomsByProperty",
+        "objectPropertyDomainAxiomsByProperty", "objectPropertyRangeAxiomsByProperty",
+        "functionalObjectPropertyAxiomsByProperty", "inverseFunctionalPropertyAxiomsByProperty",
+        "symmetricPropertyAxiomsByProperty", "asymmetricPropertyAxiomsByProperty",
+        "reflexivePropertyAxiomsByProperty", "irreflexivePropertyAxiomsByProperty",
+        "transitivePropertyAxiomsByProperty", "inversePropertyAxiomsByProperty",
+        "equivalentDataPropertyAxiomsByProperty", "disjointDataPropertyAxiomsByProperty",
+        "dataPropertyDomainAxiomsByProperty", "dataPropertyRangeAxiomsByProperty",
+        "functionalDataPropertyAxiomsByProperty", "classAssertionAxiomsByIndividual",
+        "objectPropertyAssertionsByIndividual", "dataPropertyAssertionsByIndividual",
+        "negativeObjectPropertyAssertionAxiomsByIndividual",
+        "negativeDataPropertyAssertionAxiomsByIndividual", "differentIndividualsAxiomsByIndividual",
+        "sameIndividualsAxiomsByIndividual");
+    /** True if lazy indexes should serve reads from published snapshots. */
+    private final boolean lockFreeReads;
+    /** True if large index entries should be stored as sorted arrays of axioms. */
+    private final boolean compactIndexes;
+    /** Axioms added during a bulk load and not yet indexed; null if not bulk loading. */
+    @Nullable
+    private transient volatile List<OWLAxiom> pendingAxioms;
+    /** All lazily initialized indexes, in declaration order. */
+    private transient List<MapPointer<?, ?>> lazyIndexes = new ArrayList<>();
+    /**
+     * Positions of the lazy indexes built by snapshots of these internals; shared with the
+     * snapshots, which record the indexes they build. The indexes are built on these internals
+     * before the next snapshot is taken, so that later snapshots share them.
+     */
+    private transient Set<Integer> snapshotIndexes = ConcurrentHashMap.newKeySet();
+    /** True if these internals are a snapshot and record the lazy indexes they build. */
+    private transient boolean isSnapshot = false;
     //@formatter:off
     private final AddAxiomVisitor addChangeVisitor = new AddAxiomVisitor();
     private final RemoveAxiomVisitor removeChangeVisitor = new RemoveAxiomVisitor();
     private final ReferenceChecker refChecker = new ReferenceChecker();
     private final ReferencedAxiomsCollector refAxiomsCollector = new ReferencedAxiomsCollector();
-    protected transient MapPointer<OWLClassExpression, OWLClassAssertionAxiom>                          classAssertionAxiomsByClass                         = buildLazy(CLASS_ASSERTION, CLASSEXPRESSIONS, OWLClassAssertionAxiom.class);
-    protected transient MapPointer<OWLAnnotationSubject, OWLAnnotationAssertionAxiom>                   annotationAssertionAxiomsBySubject                  = buildLazy(ANNOTATION_ASSERTION, ANNOTSUPERNAMED, OWLAnnotationAssertionAxiom.class);
-    protected transient MapPointer<OWLClass, OWLSubClassOfAxiom>                                        subClassAxiomsBySubPosition                         = buildLazy(SUBCLASS_OF, CLASSSUBNAMED, OWLSubClassOfAxiom.class);
-    protected transient MapPointer<OWLClass, OWLSubClassOfAxiom>                                        subClassAxiomsBySuperPosition                       = buildLazy(SUBCLASS_OF, CLASSSUPERNAMED, OWLSubClassOfAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLSubObjectPropertyOfAxiom>            objectSubPropertyAxiomsBySubPosition                = buildLazy(SUB_OBJECT_PROPERTY, OPSUBNAMED, OWLSubObjectPropertyOfAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLSubObjectPropertyOfAxiom>            objectSubPropertyAxiomsBySuperPosition              = buildLazy(SUB_OBJECT_PROPERTY, OPSUPERNAMED, OWLSubObjectPropertyOfAxiom.class);
-    protected transient MapPointer<OWLDataPropertyExpression, OWLSubDataPropertyOfAxiom>                dataSubPropertyAxiomsBySubPosition                  = buildLazy(SUB_DATA_PROPERTY, DPSUBNAMED, OWLSubDataPropertyOfAxiom.class);
-    protected transient MapPointer<OWLDataPropertyExpression, OWLSubDataPropertyOfAxiom>                dataSubPropertyAxiomsBySuperPosition                = buildLazy(SUB_DATA_PROPERTY, DPSUPERNAMED, OWLSubDataPropertyOfAxiom.class);
-    protected transient MapPointer<OWLClass, OWLClassAxiom>                                             classAxiomsByClass                                  = buildClassAxiomByClass();
-    protected transient MapPointer<OWLClass, OWLEquivalentClassesAxiom>                                 equivalentClassesAxiomsByClass                      = buildLazy(EQUIVALENT_CLASSES, CLASSCOLLECTIONS, OWLEquivalentClassesAxiom.class);
-    protected transient MapPointer<OWLClass, OWLDisjointClassesAxiom>                                   disjointClassesAxiomsByClass                        = buildLazy(DISJOINT_CLASSES, CLASSCOLLECTIONS, OWLDisjointClassesAxiom.class);
-    protected transient MapPointer<OWLClass, OWLDisjointUnionAxiom>                                     disjointUnionAxiomsByClass                          = buildLazy(DISJOINT_UNION, CLASSCOLLECTIONS, OWLDisjointUnionAxiom.class);
-    protected transient MapPointer<OWLClass, OWLHasKeyAxiom>                                            hasKeyAxiomsByClass                                 = buildLazy(HAS_KEY, CLASSSUPERNAMED, OWLHasKeyAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLEquivalentObjectPropertiesAxiom>     equivalentObjectPropertyAxiomsByProperty            = buildLazy(EQUIVALENT_OBJECT_PROPERTIES, OPCOLLECTIONS, OWLEquivalentObjectPropertiesAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLDisjointObjectPropertiesAxiom>       disjointObjectPropertyAxiomsByProperty              = buildLazy(DISJOINT_OBJECT_PROPERTIES, OPCOLLECTIONS, OWLDisjointObjectPropertiesAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLObjectPropertyDomainAxiom>           objectPropertyDomainAxiomsByProperty                = buildLazy(OBJECT_PROPERTY_DOMAIN, OPSUBNAMED, OWLObjectPropertyDomainAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLObjectPropertyRangeAxiom>            objectPropertyRangeAxiomsByProperty                 = buildLazy(OBJECT_PROPERTY_RANGE, OPSUBNAMED, OWLObjectPropertyRangeAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLFunctionalObjectPropertyAxiom>       functionalObjectPropertyAxiomsByProperty            = buildLazy(FUNCTIONAL_OBJECT_PROPERTY, OPSUBNAMED, OWLFunctionalObjectPropertyAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLInverseFunctionalObjectPropertyAxiom>inverseFunctionalPropertyAxiomsByProperty           = buildLazy(INVERSE_FUNCTIONAL_OBJECT_PROPERTY, OPSUBNAMED, OWLInverseFunctionalObjectPropertyAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLSymmetricObjectPropertyAxiom>        symmetricPropertyAxiomsByProperty                   = buildLazy(SYMMETRIC_OBJECT_PROPERTY, OPSUBNAMED, OWLSymmetricObjectPropertyAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLAsymmetricObjectPropertyAxiom>       asymmetricPropertyAxiomsByProperty                  = buildLazy(ASYMMETRIC_OBJECT_PROPERTY, OPSUBNAMED, OWLAsymmetricObjectPropertyAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLReflexiveObjectPropertyAxiom>        reflexivePropertyAxiomsByProperty                   = buildLazy(REFLEXIVE_OBJECT_PROPERTY, OPSUBNAMED, OWLReflexiveObjectPropertyAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLIrreflexiveObjectPropertyAxiom>      irreflexivePropertyAxiomsByProperty                 = buildLazy(IRREFLEXIVE_OBJECT_PROPERTY, OPSUBNAMED, OWLIrreflexiveObjectPropertyAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLTransitiveObjectPropertyAxiom>       transitivePropertyAxiomsByProperty                  = buildLazy(TRANSITIVE_OBJECT_PROPERTY, OPSUBNAMED, OWLTransitiveObjectPropertyAxiom.class);
-    protected transient MapPointer<OWLObjectPropertyExpression, OWLInverseObjectPropertiesAxiom>        inversePropertyAxiomsByProperty                     = buildLazy(INVERSE_OBJECT_PROPERTIES, OPCOLLECTIONS, OWLInverseObjectPropertiesAxiom.class);
-    protected transient MapPointer<OWLDataPropertyExpression, OWLEquivalentDataPropertiesAxiom>         equivalentDataPropertyAxiomsByProperty              = buildLazy(EQUIVALENT_DATA_PROPERTIES, DPCOLLECTIONS, OWLEquivalentDataPropertiesAxiom.class);
-    protected transient MapPointer<OWLDataPropertyExpression, OWLDisjointDataPropertiesAxiom>           disjointDataPropertyAxiomsByProperty                = buildLazy(DISJOINT_DATA_PROPERTIES, DPCOLLECTIONS, OWLDisjointDataPropertiesAxiom.class);
-    protected transient MapPointer<OWLDataPropertyExpression, OWLDataPropertyDomainAxiom>               dataPropertyDomainAxiomsByProperty                  = buildLazy(DATA_PROPERTY_DOMAIN, DPSUBNAMED, OWLDataPropertyDomainAxiom.class);
-    protected transient MapPointer<OWLDataPropertyExpression, OWLDataPropertyRangeAxiom>                dataPropertyRangeAxiomsByProperty                   = buildLazy(DATA_PROPERTY_RANGE, DPSUBNAMED, OWLDataPropertyRangeAxiom.class);
-    protected transient MapPointer<OWLDataPropertyExpression, OWLFunctionalDataPropertyAxiom>           functionalDataPropertyAxiomsByProperty              = buildLazy(FUNCTIONAL_DATA_PROPERTY, DPSUBNAMED, OWLFunctionalDataPropertyAxiom.class);
-    protected transient MapPointer<OWLIndividual, OWLClassAssertionAxiom>                               classAssertionAxiomsByIndividual                    = buildLazy(CLASS_ASSERTION, INDIVIDUALSUBNAMED, OWLClassAssertionAxiom.class);
-    protected transient MapPointer<OWLIndividual, OWLObjectPropertyAssertionAxiom>                      objectPropertyAssertionsByIndividual                = buildLazy(OBJECT_PROPERTY_ASSERTION, INDIVIDUALSUBNAMED, OWLObjectPropertyAssertionAxiom.class);
-    protected transient MapPointer<OWLIndividual, OWLDataPropertyAssertionAxiom>                        dataPropertyAssertionsByIndividual                  = buildLazy(DATA_PROPERTY_ASSERTION, INDIVIDUALSUBNAMED, OWLDataPropertyAssertionAxiom.class);
-    protected transient MapPointer<OWLIndividual, OWLNegativeObjectPropertyAssertionAxiom>              negativeObjectPropertyAssertionAxiomsByIndividual   = buildLazy(NEGATIVE_OBJECT_PROPERTY_ASSERTION, INDIVIDUALSUBNAMED, OWLNegativeObjectPropertyAssertionAxiom.class);
-    protected transient MapPointer<OWLIndividual, OWLNegativeDataPropertyAssertionAxiom>                negativeDataPropertyAssertionAxiomsByIndividual     = buildLazy(NEGATIVE_DATA_PROPERTY_ASSERTION, INDIVIDUALSUBNAMED, OWLNegativeDataPropertyAssertionAxiom.class);
-    protected transient MapPointer<OWLIndividual, OWLDifferentIndividualsAxiom>                         differentIndividualsAxiomsByIndividual              = buildLazy(DIFFERENT_INDIVIDUALS, ICOLLECTIONS, OWLDifferentIndividualsAxiom.class);
-    protected transient MapPointer<OWLIndividual, OWLSameIndividualAxiom>                               sameIndividualsAxiomsByIndividual                   = buildLazy(SAME_INDIVIDUAL, ICOLLECTIONS, OWLSameIndividualAxiom.class);
+    protected transient MapPointer<OWLClassExpression, OWLClassAssertionAxiom>                          classAssertionAxiomsByClass;
+    protected transient MapPointer<OWLAnnotationSubject, OWLAnnotationAssertionAxiom>                   annotationAssertionAxiomsBySubject;
+    protected transient MapPointer<OWLClass, OWLSubClassOfAxiom>                                        subClassAxiomsBySubPosition;
+    protected transient MapPointer<OWLClass, OWLSubClassOfAxiom>                                        subClassAxiomsBySuperPosition;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLSubObjectPropertyOfAxiom>            objectSubPropertyAxiomsBySubPosition;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLSubObjectPropertyOfAxiom>            objectSubPropertyAxiomsBySuperPosition;
+    protected transient MapPointer<OWLDataPropertyExpression, OWLSubDataPropertyOfAxiom>                dataSubPropertyAxiomsBySubPosition;
+    protected transient MapPointer<OWLDataPropertyExpression, OWLSubDataPropertyOfAxiom>                dataSubPropertyAxiomsBySuperPosition;
+    protected transient MapPointer<OWLClass, OWLClassAxiom>                                             classAxiomsByClass;
+    protected transient MapPointer<OWLClass, OWLEquivalentClassesAxiom>                                 equivalentClassesAxiomsByClass;
+    protected transient MapPointer<OWLClass, OWLDisjointClassesAxiom>                                   disjointClassesAxiomsByClass;
+    protected transient MapPointer<OWLClass, OWLDisjointUnionAxiom>                                     disjointUnionAxiomsByClass;
+    protected transient MapPointer<OWLClass, OWLHasKeyAxiom>                                            hasKeyAxiomsByClass;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLEquivalentObjectPropertiesAxiom>     equivalentObjectPropertyAxiomsByProperty;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLDisjointObjectPropertiesAxiom>       disjointObjectPropertyAxiomsByProperty;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLObjectPropertyDomainAxiom>           objectPropertyDomainAxiomsByProperty;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLObjectPropertyRangeAxiom>            objectPropertyRangeAxiomsByProperty;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLFunctionalObjectPropertyAxiom>       functionalObjectPropertyAxiomsByProperty;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLInverseFunctionalObjectPropertyAxiom>inverseFunctionalPropertyAxiomsByProperty;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLSymmetricObjectPropertyAxiom>        symmetricPropertyAxiomsByProperty;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLAsymmetricObjectPropertyAxiom>       asymmetricPropertyAxiomsByProperty;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLReflexiveObjectPropertyAxiom>        reflexivePropertyAxiomsByProperty;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLIrreflexiveObjectPropertyAxiom>      irreflexivePropertyAxiomsByProperty;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLTransitiveObjectPropertyAxiom>       transitivePropertyAxiomsByProperty;
+    protected transient MapPointer<OWLObjectPropertyExpression, OWLInverseObjectPropertiesAxiom>        inversePropertyAxiomsByProperty;
+    protected transient MapPointer<OWLDataPropertyExpression, OWLEquivalentDataPropertiesAxiom>         equivalentDataPropertyAxiomsByProperty;
+    protected transient MapPointer<OWLDataPropertyExpression, OWLDisjointDataPropertiesAxiom>           disjointDataPropertyAxiomsByProperty;
+    protected transient MapPointer<OWLDataPropertyExpression, OWLDataPropertyDomainAxiom>               dataPropertyDomainAxiomsByProperty;
+    protected transient MapPointer<OWLDataPropertyExpression, OWLDataPropertyRangeAxiom>                dataPropertyRangeAxiomsByProperty;
+    protected transient MapPointer<OWLDataPropertyExpression, OWLFunctionalDataPropertyAxiom>           functionalDataPropertyAxiomsByProperty;
+    protected transient MapPointer<OWLIndividual, OWLClassAssertionAxiom>                               classAssertionAxiomsByIndividual;
+    protected transient MapPointer<OWLIndividual, OWLObjectPropertyAssertionAxiom>                      objectPropertyAssertionsByIndividual;
+    protected transient MapPointer<OWLIndividual, OWLDataPropertyAssertionAxiom>                        dataPropertyAssertionsByIndividual;
+    protected transient MapPointer<OWLIndividual, OWLNegativeObjectPropertyAssertionAxiom>              negativeObjectPropertyAssertionAxiomsByIndividual;
+    protected transient MapPointer<OWLIndividual, OWLNegativeDataPropertyAssertionAxiom>                negativeDataPropertyAssertionAxiomsByIndividual;
+    protected transient MapPointer<OWLIndividual, OWLDifferentIndividualsAxiom>                         differentIndividualsAxiomsByIndividual;
+    protected transient MapPointer<OWLIndividual, OWLSameIndividualAxiom>                               sameIndividualsAxiomsByIndividual;
 
     protected SetPointer<OWLImportsDeclaration> importsDeclarations = new SetPointer<>();
     protected SetPointer<OWLAnnotation> ontologyAnnotations = new SetPointer<>();
     protected SetPointer<OWLClassAxiom> generalClassAxioms = new SetPointer<>();
     protected SetPointer<OWLSubPropertyChainOfAxiom> propertyChainSubPropertyAxioms = new SetPointer<>();
     @SuppressWarnings("rawtypes")
-    protected transient MapPointer<AxiomType, OWLAxiom>             axiomsByType = build(OWLAxiom.class);
-    protected transient MapPointer<OWLClass, OWLAxiom>              owlClassReferences = build(OWLAxiom.class);
-    protected transient MapPointer<OWLObjectProperty, OWLAxiom>     owlObjectPropertyReferences = build(OWLAxiom.class);
-    protected transient MapPointer<OWLDataProperty, OWLAxiom>       owlDataPropertyReferences = build(OWLAxiom.class);
-    protected transient MapPointer<OWLNamedIndividual, OWLAxiom>    owlIndividualReferences = build(OWLAxiom.class);
-    protected transient MapPointer<OWLAnonymousIndividual, OWLAxiom>owlAnonymousIndividualReferences = build(OWLAxiom.class);
-    protected transient MapPointer<OWLDatatype, OWLAxiom>           owlDatatypeReferences = build(OWLAxiom.class);
-    protected transient MapPointer<OWLAnnotationProperty, OWLAxiom> owlAnnotationPropertyReferences = build(OWLAxiom.class);
-    protected transient MapPointer<OWLEntity, OWLDeclarationAxiom>  declarationsByEntity = build(OWLDeclarationAxiom.class);
+    protected transient MapPointer<AxiomType, OWLAxiom>             axiomsByType;
+    protected transient MapPointer<OWLClass, OWLAxiom>              owlClassReferences;
+    protected transient MapPointer<OWLObjectProperty, OWLAxiom>     owlObjectPropertyReferences;
+    protected transient MapPointer<OWLDataProperty, OWLAxiom>       owlDataPropertyReferences;
+    protected transient MapPointer<OWLNamedIndividual, OWLAxiom>    owlIndividualReferences;
+    protected transient MapPointer<OWLAnonymousIndividual, OWLAxiom>owlAnonymousIndividualReferences;
+    protected transient MapPointer<OWLDatatype, OWLAxiom>           owlDatatypeReferences;
+    protected transient MapPointer<OWLAnnotationProperty, OWLAxiom> owlAnnotationPropertyReferences;
+    protected transient MapPointer<OWLEntity, OWLDeclarationAxiom>  declarationsByEntity;
     //@formatter:on
 
     @Nullable
-    private List<OWLAxiom> axiomsForSerialization;
+    private transient volatile OntologySignature signature;
+
+    /**
+     * Internals configured from system properties and defaults.
+     */
+    public Internals() {
+        this(new OntologyConfigurator());
+    }
+
+    /**
+     * @param config configuration for index storage and reads, usually the configurator of the
+     *        manager the ontology belongs to
+     */
+    public Internals(OntologyConfigurator config) {
+        this(config.shouldUseLockFreeIndexReads(), config.shouldUseCompactIndexStorage());
+    }
+
+    private Internals(boolean lockFreeReads, boolean compactIndexes) {
+        this.lockFreeReads = lockFreeReads;
+        this.compactIndexes = compactIndexes;
+        initIndexes();
+    }
 
     /**
      * @param p pointer
@@ -227,6 +306,43 @@ public class Internals implements Serializable {
     @SuppressWarnings("null")
     private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
         stream.defaultReadObject();
+        initIndexes();
+        new OWLObjectBinaryInput(stream, new OWLDataFactoryImpl()).readAxioms(this::addAxiom);
+    }
+
+    /**
+     * @param type entity type
+     * @return true if there are entities of the specified type referred
+     */
+    public boolean anyEntities(EntityType<?> type) {
+        indexPendingAxioms();
+        if (EntityType.CLASS.equals(type)) {
+            return !owlClassReferences.isEmpty();
+        }
+        if (EntityType.DATA_PROPERTY.equals(type)) {
+            return !owlDataPropertyReferences.isEmpty();
+        }
+        if (EntityType.OBJECT_PROPERTY.equals(type)) {
+            return !owlObjectPropertyReferences.isEmpty();
+        }
+        if (EntityType.ANNOTATION_PROPERTY.equals(type)) {
+            return !owlAnnotationPropertyReferences.isEmpty();
+        }
+        if (EntityType.DATATYPE.equals(type)) {
+            return !owlDatatypeReferences.isEmpty();
+        }
+        if (EntityType.NAMED_INDIVIDUAL.equals(type)) {
+            return !owlIndividualReferences.isEmpty();
+        }
+        return false;
+    }
+
+    /**
+     * Create the index pointers; lazy indexes are registered in declaration order.
+     */
+    private void initIndexes() {
+        lazyIndexes = new ArrayList<>();
+        snapshotIndexes = ConcurrentHashMap.newKeySet();
         axiomsByType = build(OWLAxiom.class);
         owlClassReferences = build(OWLAxiom.class);
         owlObjectPropertyReferences = build(OWLAxiom.class);
@@ -310,39 +426,12 @@ public class Internals implements Serializable {
             buildLazy(DIFFERENT_INDIVIDUALS, ICOLLECTIONS, OWLDifferentIndividualsAxiom.class);
         sameIndividualsAxiomsByIndividual =
             buildLazy(SAME_INDIVIDUAL, ICOLLECTIONS, OWLSameIndividualAxiom.class);
-        axiomsForSerialization.forEach(this::addAxiom);
-        axiomsForSerialization = null;
-    }
-
-    /**
-     * @param type entity type
-     * @return true if there are entities of the specified type referred
-     */
-    public boolean anyEntities(EntityType<?> type) {
-        if (EntityType.CLASS.equals(type)) {
-            return !owlClassReferences.isEmpty();
-        }
-        if (EntityType.DATA_PROPERTY.equals(type)) {
-            return !owlDataPropertyReferences.isEmpty();
-        }
-        if (EntityType.OBJECT_PROPERTY.equals(type)) {
-            return !owlObjectPropertyReferences.isEmpty();
-        }
-        if (EntityType.ANNOTATION_PROPERTY.equals(type)) {
-            return !owlAnnotationPropertyReferences.isEmpty();
-        }
-        if (EntityType.DATATYPE.equals(type)) {
-            return !owlDatatypeReferences.isEmpty();
-        }
-        if (EntityType.NAMED_INDIVIDUAL.equals(type)) {
-            return !owlIndividualReferences.isEmpty();
-        }
-        return false;
     }
 
     private void writeObject(ObjectOutputStream stream) throws IOException {
-        axiomsForSerialization = asList(axiomsByType.getAllValues());
         stream.defaultWriteObject();
+        // axioms are written in the compact binary encoding rather than as serialized objects
+        new OWLObjectBinaryOutput(stream).writeAxioms(asList(axiomsByType.getAllValues()));
     }
 
     /**
@@ -350,6 +439,7 @@ public class Internals implements Serializable {
      * @return true if a class with this iri exists
      */
     public boolean containsClassInSignature(IRI i) {
+        indexPendingAxioms();
         return owlClassReferences.containsReference(i);
     }
 
@@ -358,6 +448,7 @@ public class Internals implements Serializable {
      * @return true if an object property with this iri exists
      */
     public boolean containsObjectPropertyInSignature(IRI i) {
+        indexPendingAxioms();
         return owlObjectPropertyReferences.containsReference(i);
     }
 
@@ -366,6 +457,7 @@ public class Internals implements Serializable {
      * @return true if a data property with this iri exists
      */
     public boolean containsDataPropertyInSignature(IRI i) {
+        indexPendingAxioms();
         return owlDataPropertyReferences.containsReference(i);
     }
 
@@ -374,6 +466,7 @@ public class Internals implements Serializable {
      * @return true if an annotation property with this iri exists
      */
     public boolean containsAnnotationPropertyInSignature(IRI i) {
+        indexPendingAxioms();
         return owlAnnotationPropertyReferences.containsReference(i);
     }
 
@@ -382,6 +475,7 @@ public class Internals implements Serializable {
      * @return true if a individual with this iri exists
      */
     public boolean containsIndividualInSignature(IRI i) {
+        indexPendingAxioms();
         return owlIndividualReferences.containsReference(i);
     }
 
@@ -390,6 +484,7 @@ public class Internals implements Serializable {
      * @return true if a datatype with this iri exists
      */
     public boolean containsDatatypeInSignature(IRI i) {
+        indexPendingAxioms();
         return owlDatatypeReferences.containsReference(i);
     }
 
@@ -398,6 +493,7 @@ public class Internals implements Serializable {
      * @return true if a class with this iri exists
      */
     public boolean containsClassInSignature(OWLClass i) {
+        indexPendingAxioms();
         return owlClassReferences.containsReference(i);
     }
 
@@ -406,6 +502,7 @@ public class Internals implements Serializable {
      * @return true if an object property with this iri exists
      */
     public boolean containsObjectPropertyInSignature(OWLObjectProperty i) {
+        indexPendingAxioms();
         return owlObjectPropertyReferences.containsReference(i);
     }
 
@@ -414,6 +511,7 @@ public class Internals implements Serializable {
      * @return true if a data property with this iri exists
      */
     public boolean containsDataPropertyInSignature(OWLDataProperty i) {
+        indexPendingAxioms();
         return owlDataPropertyReferences.containsReference(i);
     }
 
@@ -422,6 +520,7 @@ public class Internals implements Serializable {
      * @return true if an annotation property with this iri exists
      */
     public boolean containsAnnotationPropertyInSignature(OWLAnnotationProperty i) {
+        indexPendingAxioms();
         return owlAnnotationPropertyReferences.containsReference(i);
     }
 
@@ -430,6 +529,7 @@ public class Internals implements Serializable {
      * @return true if a individual with this iri exists
      */
     public boolean containsIndividualInSignature(OWLNamedIndividual i) {
+        indexPendingAxioms();
         return owlIndividualReferences.containsReference(i);
     }
 
@@ -438,6 +538,7 @@ public class Internals implements Serializable {
      * @return true if a datatype with this iri exists
      */
     public boolean containsDatatypeInSignature(OWLDatatype i) {
+        indexPendingAxioms();
         return owlDatatypeReferences.containsReference(i);
     }
 
@@ -454,6 +555,18 @@ public class Internals implements Serializable {
         return get(type, axiom, Navigation.IN_SUB_POSITION);
     }
 
+    /**
+     * Indexes read to build the class axioms by class index. Pending axioms are not indexed first,
+     * since the caller holds the monitor of that index; they are added to all initialized indexes
+     * when they are indexed.
+     *
+     * @return the equivalent, subclass, disjoint and disjoint union indexes by named class
+     */
+    Stream<MapPointer<OWLClass, ? extends OWLClassAxiom>> classAxiomIndexes() {
+        return Stream.of(equivalentClassesAxiomsByClass, subClassAxiomsBySubPosition,
+            disjointClassesAxiomsByClass, disjointUnionAxiomsByClass);
+    }
+
     /**
      * @param type type of map key
      * @param axiom class of axiom indexed
@@ -466,6 +579,7 @@ public class Internals implements Serializable {
     @SuppressWarnings({"unchecked"})
     <T extends OWLObject, A extends OWLAxiom> Optional<MapPointer<T, A>> get(Class<T> type,
         Class<A> axiom, Navigation position) {
+        indexPendingAxioms();
         if (OWLEntity.class.isAssignableFrom(type) && axiom.equals(OWLDeclarationAxiom.class)) {
             return optional((MapPointer<T, A>) declarationsByEntity);
         }
@@ -616,17 +730,325 @@ public class Internals implements Serializable {
         return emptyOptional();
     }
 
+    /**
+     * @return true if large index entries are stored as sorted arrays of axioms
+     */
+    boolean isCompactIndexStorage() {
+        return compactIndexes;
+    }
+
     protected <K, V extends OWLAxiom> MapPointer<K, V> build(Class<V> valueWithness) {
         return build(null, null, valueWithness);
     }
 
+    /**
+     * Start deferring index updates: until {@link #endBulkLoad()} is called, added axioms are only
+     * recorded in the axioms by type index and in a buffer, and all other indexes are built in a
+     * single pass over the buffer when they are next needed.
+     */
+    public void beginBulkLoad() {
+        synchronized (this) {
+            if (pendingAxioms == null) {
+                pendingAxioms = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * Index all pending axioms and stop deferring index updates.
+     */
+    public void endBulkLoad() {
+        indexPendingAxioms();
+        synchronized (this) {
+            pendingAxioms = null;
+        }
+    }
+
+    /**
+     * @return true if index updates are currently deferred
+     */
+    public boolean isBulkLoading() {
+        return pendingAxioms != null;
+    }
+
+    /**
+     * Add the axioms buffered during a bulk load to all indexes. References and the remaining
+     * indexes are disjoint sets of map pointers, so for large buffers the two are populated in
+     * parallel. The internals monitor is taken before the index monitors, so this method must not
+     * be called while holding the monitor of a map pointer.
+     */
+    protected void indexPendingAxioms() {
+        List<OWLAxiom> pending = pendingAxioms;
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            pending = pendingAxioms;
+            if (pending == null || pending.isEmpty()) {
+                return;
+            }
+            pendingAxioms = new ArrayList<>();
+            List<OWLAxiom> toIndex = groupByType(pending);
+            if (toIndex.size() < PARALLEL_INDEXING_THRESHOLD) {
+                toIndex.forEach(ax -> {
+                    ax.accept(addChangeVisitor);
+                    addReferences(ax);
+                });
+            } else {
+                ForkJoinTask<?> references =
+                    ForkJoinPool.commonPool().submit(() -> toIndex.forEach(this::addReferences));
+                toIndex.forEach(ax -> ax.accept(addChangeVisitor));
+                references.join();
+            }
+        }
+    }
+
+    /**
+     * @param axioms axioms to group
+     * @return the axioms reordered so that axioms of the same type are contiguous, keeping the
+     *         original order within each type; each run of axioms then updates the same indexes
+     */
+    private static List<OWLAxiom> groupByType(List<OWLAxiom> axioms) {
+        int[] offsets = new int[AxiomType.AXIOM_TYPES.size() + 1];
+        for (OWLAxiom ax : axioms) {
+            offsets[ax.getAxiomType().getIndex() + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        OWLAxiom[] grouped = new OWLAxiom[axioms.size()];
+        for (OWLAxiom ax : axioms) {
+            grouped[offsets[ax.getAxiomType().getIndex()]++] = ax;
+        }
+        return Arrays.asList(grouped);
+    }
+
+    /**
+     * Initialize all lazy indexes at once, in parallel on the common fork join pool. The class
+     * axioms by class index is populated from other lazy indexes, so it is initialized last.
+     */
+    public void warmUpIndexes() {
+        indexPendingAxioms();
+        lazyIndexes.stream().filter(p -> p != classAxiomsByClass).parallel()
+            .forEach(MapPointer::init);
+        classAxiomsByClass.init();
+    }
+
+    /**
+     * Drop the lazily built indexes that have not been read since the previous call. Dropped
+     * indexes return to the uninitialized state and are rebuilt from the axioms by type index when
+     * next used; eager indexes are never dropped. Called periodically, this keeps only the indexes
+     * in active use in memory.
+     *
+     * @return number of indexes dropped
+     */
+    public int evictUnusedIndexes() {
+        int evicted = 0;
+        for (MapPointer<?, ?> p : lazyIndexes) {
+            if (p.evictIfUnused()) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * @return the lazily initialized indexes
+     */
+    Stream<MapPointer<?, ?>> lazyIndexes() {
+        return lazyIndexes.stream();
+    }
+
+    /**
+     * @return all indexes, eager ones first, in declaration order; their names are listed in
+     *         {@link #INDEX_NAMES}
+     */
+    private List<MapPointer<?, ?>> allIndexes() {
+        List<MapPointer<?, ?>> list = new ArrayList<>(Arrays.asList(axiomsByType,
+            owlClassReferences, owlObjectPropertyReferences, owlDataPropertyReferences,
+            owlIndividualReferences, owlAnonymousIndividualReferences, owlDatatypeReferences,
+            owlAnnotationPropertyReferences, declarationsByEntity));
+        list.addAll(lazyIndexes);
+        return list;
+    }
+
+    /**
+     * Estimate the memory retained by these internals. Index sizes cover the index maps and their
+     * value collections, keyed by index name; indexes that have not been built are not listed.
+     * Axiom sizes are extrapolated from a sample of the axioms of each type. Entities and IRIs
+     * are shared by all ontologies using the same data factory and are not included. The estimate
+     * does not build indexes and does not copy index contents.
+     *
+     * @return memory usage estimate
+     */
+    public OntologyMemoryUsage estimateMemoryUsage() {
+        Map<String, Long> indexes = new LinkedHashMap<>();
+        List<MapPointer<?, ?>> all = allIndexes();
+        assert all.size() == INDEX_NAMES.size();
+        for (int index = 0; index < all.size(); index++) {
+            MapPointer<?, ?> p = all.get(index);
+            if (p.isInitialized()) {
+                indexes.put(INDEX_NAMES.get(index), Long.valueOf(p.estimateMemoryUsage()));
+            }
+        }
+        OntologySignature s = signature;
+        if (s != null) {
+            indexes.put("signature", Long.valueOf(s.estimateMemoryUsage()));
+        }
+        List<OWLAxiom> pending = pendingAxioms;
+        if (pending != null) {
+            indexes.put("pendingAxioms", Long.valueOf(MemoryEstimator.object(2, 8)
+                + MemoryEstimator.array(pending.size(), MemoryEstimator.REFERENCE)));
+        }
+        Map<AxiomType<?>, Long> axioms = new LinkedHashMap<>();
+        for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            int count = axiomsByType.countValues(type);
+            if (count > 0) {
+                List<OWLAxiom> sample = axiomsByType.sample(type, MEMORY_SAMPLE_SIZE);
+                long bytes = 0;
+                for (OWLAxiom ax : sample) {
+                    bytes += MemoryEstimator.owlObject(ax);
+                }
+                axioms.put(type, Long.valueOf(bytes * count / Math.max(1, sample.size())));
+            }
+        }
+        return new OntologyMemoryUsage(indexes, axioms);
+    }
+
+    /**
+     * Create read only internals with the current contents of these internals. Index maps are
+     * shared, and a later change to these internals copies only the map segments it touches, so
+     * neither taking a snapshot nor the first write after it copies the axioms. Lazy indexes built
+     * by earlier snapshots are built here first. Callers must ensure no changes are applied while
+     * the snapshot is taken.
+     *
+     * @return snapshot of these internals; the snapshot must not be modified
+     */
+    Internals snapshot() {
+        // lazy indexes used by earlier snapshots are built here once and shared from now on,
+        // rather than rebuilt by each snapshot
+        snapshotIndexes.forEach(index -> lazyIndexes.get(index.intValue()).init());
+        Internals copy = new Internals(lockFreeReads, compactIndexes);
+        copy.snapshotIndexes = snapshotIndexes;
+        copy.isSnapshot = true;
+        copy.shareAxioms(this);
+        importsDeclarations.stream().forEach(copy.importsDeclarations::add);
+        ontologyAnnotations.stream().forEach(copy.ontologyAnnotations::add);
+        return copy;
+    }
+
+    /**
+     * Take the axioms of the source internals, sharing its index maps. Changes to either internals
+     * copy the index segments they modify, so neither sees the changes applied to the other and
+     * the first change after sharing does not copy whole indexes. These
+     * internals must not contain any axioms; imports declarations and ontology annotations are not
+     * copied. Callers must ensure no changes are applied to the source during the call.
+     *
+     * @param source internals to share
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    synchronized void shareAxioms(Internals source) {
+        if (getAxiomCount() > 0) {
+            throw new IllegalStateException("Axioms can only be shared with empty internals");
+        }
+        source.indexPendingAxioms();
+        List<MapPointer<?, ?>> from = source.allIndexes();
+        List<MapPointer<?, ?>> to = allIndexes();
+        for (int index = 0; index < from.size(); index++) {
+            ((MapPointer) to.get(index)).shareFrom((MapPointer) from.get(index));
+        }
+        source.generalClassAxioms.stream().forEach(generalClassAxioms::add);
+        source.propertyChainSubPropertyAxioms.stream()
+            .forEach(propertyChainSubPropertyAxioms::add);
+        // rebuilt from the shared reference indexes on first use
+        signature = null;
+    }
+
+    /**
+     * Write all axioms, followed by the contents of all indexes that have been built. Indexes are
+     * written as lists of keys and axiom positions, so that {@link #readIndexes(DataInput,
+     * OWLDataFactory)} can restore them without visiting the axioms. Imports declarations and
+     * ontology annotations are not written. Callers must ensure no changes are applied while the
+     * indexes are written.
+     *
+     * @param out output
+     * @throws IOException if the output cannot be written
+     */
+    public void writeIndexes(DataOutput out) throws IOException {
+        indexPendingAxioms();
+        OWLObjectBinaryOutput objects = new OWLObjectBinaryOutput(out);
+        List<OWLAxiom> axioms = asList(getAxiomsByType().getAllValues());
+        objects.writeAxioms(axioms);
+        Map<OWLAxiom, Integer> numbers = new IdentityHashMap<>(axioms.size());
+        for (int index = 0; index < axioms.size(); index++) {
+            numbers.put(axioms.get(index), Integer.valueOf(index));
+        }
+        ToIntFunction<OWLAxiom> number = ax -> numbers.get(ax).intValue();
+        writeNumbers(objects, asList(generalClassAxioms.stream()), number);
+        writeNumbers(objects, asList(propertyChainSubPropertyAxioms.stream()), number);
+        // the axioms by type index is rebuilt from the axioms themselves
+        List<MapPointer<?, ?>> indexes = allIndexes();
+        for (MapPointer<?, ?> p : indexes.subList(1, indexes.size())) {
+            p.write(objects, number);
+        }
+    }
+
+    private static void writeNumbers(OWLObjectBinaryOutput out, List<? extends OWLAxiom> axioms,
+        ToIntFunction<OWLAxiom> number) throws IOException {
+        out.writeVarInt(axioms.size());
+        for (OWLAxiom ax : axioms) {
+            out.writeVarInt(number.applyAsInt(ax));
+        }
+    }
+
+    /**
+     * Populate these internals with the axioms and indexes written by
+     * {@link #writeIndexes(DataOutput)}. Indexes that had not been built when the contents were
+     * written are built on first use, as usual. These internals must not contain any axioms.
+     *
+     * @param in input
+     * @param df data factory used to create the axioms
+     * @throws IOException if the input cannot be read
+     */
+    public void readIndexes(DataInput in, OWLDataFactory df) throws IOException {
+        OWLObjectBinaryInput objects = new OWLObjectBinaryInput(in, df);
+        List<OWLAxiom> axioms = new ArrayList<>();
+        objects.readAxioms(axioms::add);
+        synchronized (this) {
+            if (getAxiomCount() > 0) {
+                throw new IllegalStateException("Indexes can only be read into empty internals");
+            }
+            axioms.forEach(ax -> axiomsByType.put(ax.getAxiomType(), ax));
+            int count = objects.readVarInt();
+            for (int index = 0; index < count; index++) {
+                generalClassAxioms.add((OWLClassAxiom) axioms.get(objects.readVarInt()));
+            }
+            count = objects.readVarInt();
+            for (int index = 0; index < count; index++) {
+                propertyChainSubPropertyAxioms
+                    .add((OWLSubPropertyChainOfAxiom) axioms.get(objects.readVarInt()));
+            }
+            List<MapPointer<?, ?>> indexes = allIndexes();
+            for (MapPointer<?, ?> p : indexes.subList(1, indexes.size())) {
+                p.read(objects, axioms::get);
+            }
+            signature = null;
+        }
+    }
+
     protected <K, V extends OWLAxiom> MapPointer<K, V> buildLazy(AxiomType<?> t,
         OWLAxiomVisitorEx<?> v, Class<V> valueWithness) {
-        return new MapPointer<>(t, v, false, this, valueWithness);
+        MapPointer<K, V> pointer =
+            new MapPointer<>(t, v, false, this, valueWithness, lockFreeReads);
+        lazyIndexes.add(pointer);
+        return pointer;
     }
 
     protected ClassAxiomByClassPointer buildClassAxiomByClass() {
-        return new ClassAxiomByClassPointer(null, null, false, this);
+        ClassAxiomByClassPointer pointer =
+            new ClassAxiomByClassPointer(null, null, false, this, lockFreeReads);
+        lazyIndexes.add(pointer);
+        return pointer;
     }
 
     protected <K, V extends OWLAxiom> MapPointer<K, V> build(@Nullable AxiomType<?> t,
@@ -640,49 +1062,132 @@ public class Internals implements Serializable {
      */
     public boolean addAxiom(final OWLAxiom axiom) {
         checkNotNull(axiom, "axiom cannot be null");
+        if (pendingAxioms != null) {
+            synchronized (this) {
+                List<OWLAxiom> pending = pendingAxioms;
+                if (pending != null) {
+                    // only the axioms by type index is updated until the pending axioms are
+                    // indexed
+                    if (axiomsByType.put(axiom.getAxiomType(), axiom)) {
+                        pending.add(axiom);
+                        return true;
+                    }
+                    return false;
+                }
+            }
+        }
         if (axiomsByType.put(axiom.getAxiomType(), axiom)) {
             axiom.accept(addChangeVisitor);
-            AbstractCollector referenceAdder = new AbstractCollector() {
+            addReferences(axiom);
+            return true;
+        }
+        return false;
+    }
 
-                @Override
-                public void visit(OWLClass ce) {
-                    owlClassReferences.put(ce, axiom);
+    private void addReferences(final OWLAxiom axiom) {
+        AbstractCollector referenceAdder = new AbstractCollector() {
+
+            @Override
+            public void visit(OWLClass ce) {
+                if (owlClassReferences.put(ce, axiom)) {
+                    referenceAdded(ce);
                 }
+            }
 
-                @Override
-                public void visit(OWLObjectProperty property) {
-                    owlObjectPropertyReferences.put(property, axiom);
+            @Override
+            public void visit(OWLObjectProperty property) {
+                if (owlObjectPropertyReferences.put(property, axiom)) {
+                    referenceAdded(property);
                 }
+            }
 
-                @Override
-                public void visit(OWLDataProperty property) {
-                    owlDataPropertyReferences.put(property, axiom);
+            @Override
+            public void visit(OWLDataProperty property) {
+                if (owlDataPropertyReferences.put(property, axiom)) {
+                    referenceAdded(property);
                 }
+            }
 
-                @Override
-                public void visit(OWLNamedIndividual individual) {
-                    owlIndividualReferences.put(individual, axiom);
+            @Override
+            public void visit(OWLNamedIndividual individual) {
+                if (owlIndividualReferences.put(individual, axiom)) {
+                    referenceAdded(individual);
                 }
+            }
 
-                @Override
-                public void visit(OWLAnnotationProperty property) {
-                    owlAnnotationPropertyReferences.put(property, axiom);
+            @Override
+            public void visit(OWLAnnotationProperty property) {
+                if (owlAnnotationPropertyReferences.put(property, axiom)) {
+                    referenceAdded(property);
                 }
+            }
 
-                @Override
-                public void visit(OWLDatatype node) {
-                    owlDatatypeReferences.put(node, axiom);
+            @Override
+            public void visit(OWLDatatype node) {
+                if (owlDatatypeReferences.put(node, axiom)) {
+                    referenceAdded(node);
                 }
+            }
 
-                @Override
-                public void visit(OWLAnonymousIndividual individual) {
-                    owlAnonymousIndividualReferences.put(individual, axiom);
+            @Override
+            public void visit(OWLAnonymousIndividual individual) {
+                if (owlAnonymousIndividualReferences.put(individual, axiom)) {
+                    referenceAdded(individual);
                 }
-            };
-            axiom.accept(referenceAdder);
-            return true;
+            }
+        };
+        axiom.accept(referenceAdder);
+    }
+
+    private void referenceAdded(OWLObject k) {
+        OntologySignature s = signature;
+        if (s != null) {
+            s.add(k);
+        }
+    }
+
+    private <K extends OWLObject> void referenceRemoved(MapPointer<K, OWLAxiom> p, K k,
+        OWLAxiom axiom) {
+        if (p.remove(k, axiom)) {
+            OntologySignature s = signature;
+            if (s != null && !p.containsKey(k)) {
+                s.remove(k);
+            }
         }
-        return false;
+    }
+
+    /**
+     * The signature is built from the reference indexes the first time it is requested, and
+     * updated with every change after that.
+     *
+     * @return the signature of the axioms and ontology annotations
+     */
+    OntologySignature getSignature() {
+        indexPendingAxioms();
+        OntologySignature s = signature;
+        if (s != null) {
+            return s;
+        }
+        synchronized (this) {
+            s = signature;
+            if (s == null) {
+                s = new OntologySignature()
+                    .addAll(keys(OWLClass.class))
+                    .addAll(keys(OWLObjectProperty.class))
+                    .addAll(keys(OWLDataProperty.class))
+                    .addAll(keys(OWLNamedIndividual.class))
+                    .addAll(keys(OWLAnnotationProperty.class))
+                    .addAll(keys(OWLDatatype.class))
+                    .addAll(keys(OWLAnonymousIndividual.class));
+                ontologyAnnotations.stream().forEach(s::annotationAdded);
+                signature = s;
+            }
+            return s;
+        }
+    }
+
+    private <K extends OWLObject> Stream<K> keys(Class<K> type) {
+        return get(type, OWLAxiom.class).map(MapPointer::keySet).orElseGet(Stream::empty);
     }
 
     /**
@@ -691,43 +1196,44 @@ public class Internals implements Serializable {
      */
     public boolean removeAxiom(final OWLAxiom axiom) {
         checkNotNull(axiom, "axiom cannot be null");
+        indexPendingAxioms();
         if (axiomsByType.remove(axiom.getAxiomType(), axiom)) {
             axiom.accept(removeChangeVisitor);
             AbstractCollector referenceRemover = new AbstractCollector() {
 
                 @Override
                 public void visit(OWLClass ce) {
-                    owlClassReferences.remove(ce, axiom);
+                    referenceRemoved(owlClassReferences, ce, axiom);
                 }
 
                 @Override
                 public void visit(OWLObjectProperty property) {
-                    owlObjectPropertyReferences.remove(property, axiom);
+                    referenceRemoved(owlObjectPropertyReferences, property, axiom);
                 }
 
                 @Override
                 public void visit(OWLDataProperty property) {
-                    owlDataPropertyReferences.remove(property, axiom);
+                    referenceRemoved(owlDataPropertyReferences, property, axiom);
                 }
 
                 @Override
                 public void visit(OWLNamedIndividual individual) {
-                    owlIndividualReferences.remove(individual, axiom);
+                    referenceRemoved(owlIndividualReferences, individual, axiom);
                 }
 
                 @Override
                 public void visit(OWLAnnotationProperty property) {
-                    owlAnnotationPropertyReferences.remove(property, axiom);
+                    referenceRemoved(owlAnnotationPropertyReferences, property, axiom);
                 }
 
                 @Override
                 public void visit(OWLDatatype node) {
-                    owlDatatypeReferences.remove(node, axiom);
+                    referenceRemoved(owlDatatypeReferences, node, axiom);
                 }
 
                 @Override
                 public void visit(OWLAnonymousIndividual individual) {
-                    owlAnonymousIndividualReferences.remove(individual, axiom);
+                    referenceRemoved(owlAnonymousIndividualReferences, individual, axiom);
                 }
             };
             axiom.accept(referenceRemover);
@@ -741,6 +1247,7 @@ public class Internals implements Serializable {
      * @return true if the entity is declared in the ontology
      */
     public boolean isDeclared(OWLEntity e) {
+        indexPendingAxioms();
         return declarationsByEntity.containsKey(e);
     }
 
@@ -818,7 +1325,14 @@ public class Internals implements Serializable {
      * @return true if annotation added
      */
     public boolean addOntologyAnnotation(OWLAnnotation ann) {
-        return ontologyAnnotations.add(ann);
+        if (ontologyAnnotations.add(ann)) {
+            OntologySignature s = signature;
+            if (s != null) {
+                s.annotationAdded(ann);
+            }
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -826,7 +1340,14 @@ public class Internals implements Serializable {
      * @return true if annotation removed
      */
     public boolean removeOntologyAnnotation(OWLAnnotation ann) {
-        return ontologyAnnotations.remove(ann);
+        if (ontologyAnnotations.remove(ann)) {
+            OntologySignature s = signature;
+            if (s != null) {
+                s.annotationRemoved(ann, this::containsReference);
+            }
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -880,6 +1401,7 @@ public class Internals implements Serializable {
      * @return copy of GCI axioms
      */
     public Stream<OWLClassAxiom> getGeneralClassAxioms() {
+        indexPendingAxioms();
         // XXX watch out for performance issues
         return generalClassAxioms.stream().sorted();
     }
@@ -924,6 +1446,38 @@ public class Internals implements Serializable {
         return axiomsByType;
     }
 
+    /**
+     * @param type axiom type
+     * @return the axioms of the type, read when a lazy index for the type is first used
+     */
+    Collection<OWLAxiom> axiomsToIndex(AxiomType<?> type) {
+        return axiomsByType.getValuesAsCollection(type);
+    }
+
+    /**
+     * Called by a lazy index when it is built. Snapshots record the index, so that the internals
+     * they were taken from build it before the next snapshot. Must not take the monitor of these
+     * internals, the monitor of the index is held.
+     *
+     * @param p index just built
+     */
+    void lazyIndexBuilt(MapPointer<?, ?> p) {
+        if (isSnapshot) {
+            int index = lazyIndexes.indexOf(p);
+            if (index >= 0) {
+                snapshotIndexes.add(Integer.valueOf(index));
+            }
+        }
+    }
+
+    /**
+     * @param p index
+     * @return true if the index is built from the axioms of its type on first use
+     */
+    boolean isLazyIndex(MapPointer<?, ?> p) {
+        return lazyIndexes.contains(p);
+    }
+
     @Override
     public String toString() {
         StringBuilder b = new StringBuilder("Internals{(first 20 axioms) ");
@@ -937,6 +1491,7 @@ public class Internals implements Serializable {
      * @return true if reference is contained
      */
     public boolean containsReference(OWLEntity entity) {
+        indexPendingAxioms();
         return entity.accept(refChecker).booleanValue();
     }
 
@@ -945,6 +1500,7 @@ public class Internals implements Serializable {
      * @return referencing axioms
      */
     public Stream<OWLAxiom> getReferencingAxioms(OWLEntity owlEntity) {
+        indexPendingAxioms();
         return owlEntity.accept(refAxiomsCollector);
     }
 
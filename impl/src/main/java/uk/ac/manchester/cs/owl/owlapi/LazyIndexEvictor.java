@@ -0,0 +1,159 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.model.OntologyConfigurator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Background task dropping the lazily built indexes of registered ontologies when they are not in
+ * use. Indexes are checked after each idle period and, when the old generation is still nearly
+ * full after a collection, every second; see {@link HasIndexEviction#evictUnusedIndexes()}. The
+ * task runs on its own thread, so only ontologies that can be changed concurrently with their
+ * readers, such as concurrent ontologies, must be registered. Ontologies are held weakly,
+ * registering them does not prevent them from being collected.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public final class LazyIndexEvictor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LazyIndexEvictor.class);
+    /** Interval between heap and idle checks. */
+    private static final long CHECK_MILLIS = 1000;
+    /** Fraction of the old generation in use after a collection above which heap is tight. */
+    private static final double LOW_MEMORY_FRACTION = 0.8;
+    private static final List<Registration> REGISTERED = new ArrayList<>();
+    @Nullable
+    private static ScheduledExecutorService executor;
+
+    private LazyIndexEvictor() {}
+
+    /**
+     * Register a thread safe ontology for eviction of its unused lazy indexes, if lazy index
+     * eviction is enabled in the configuration; otherwise do nothing.
+     *
+     * @param ontology ontology to register; {@link HasIndexEviction#evictUnusedIndexes()} is
+     *        called from a background thread and must be thread safe
+     * @param config configuration of the manager of the ontology
+     */
+    public static void register(HasIndexEviction ontology, OntologyConfigurator config) {
+        if (!config.shouldEvictLazyIndexes()) {
+            return;
+        }
+        Registration r =
+            new Registration(ontology, Math.max(0L, config.getLazyIndexIdleMillis()));
+        synchronized (REGISTERED) {
+            REGISTERED.add(r);
+            if (executor == null) {
+                ScheduledExecutorService e = Executors.newSingleThreadScheduledExecutor(t -> {
+                    Thread thread = new Thread(t, "OWLAPI lazy index eviction");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                e.scheduleWithFixedDelay(LazyIndexEvictor::check, CHECK_MILLIS, CHECK_MILLIS,
+                    TimeUnit.MILLISECONDS);
+                executor = e;
+            }
+        }
+    }
+
+    private static void check() {
+        long now = System.currentTimeMillis();
+        boolean lowMemory = lowMemory();
+        List<Registration> due = new ArrayList<>();
+        synchronized (REGISTERED) {
+            for (Iterator<Registration> i = REGISTERED.iterator(); i.hasNext();) {
+                Registration r = i.next();
+                if (r.ontology.get() == null) {
+                    i.remove();
+                } else if (r.isDue(now, lowMemory)) {
+                    due.add(r);
+                }
+            }
+        }
+        int evicted = 0;
+        for (Registration r : due) {
+            HasIndexEviction ontology = r.ontology.get();
+            if (ontology == null) {
+                continue;
+            }
+            try {
+                evicted += ontology.evictUnusedIndexes();
+            } catch (RuntimeException e) {
+                // the task must keep running for the other ontologies
+                LOGGER.warn("Lazy indexes could not be evicted", e);
+            }
+        }
+        if (evicted > 0) {
+            LOGGER.debug("Evicted {} unused lazy indexes", Integer.valueOf(evicted));
+        }
+    }
+
+    /**
+     * @return true if a tenured heap pool is still nearly full after its last collection
+     */
+    static boolean lowMemory() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            // young pools do not support usage thresholds, and are nearly empty after a collection
+            if (pool.getType() != MemoryType.HEAP || !pool.isUsageThresholdSupported()
+                || !pool.isCollectionUsageThresholdSupported()) {
+                continue;
+            }
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null && usage.getMax() > 0
+                && usage.getUsed() > usage.getMax() * LOW_MEMORY_FRACTION) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A registered ontology with its own idle period. Guarded by the registration list.
+     */
+    private static final class Registration {
+        final WeakReference<HasIndexEviction> ontology;
+        private final long idleMillis;
+        private long lastIdleCheck;
+
+        Registration(HasIndexEviction ontology, long idleMillis) {
+            this.ontology = new WeakReference<>(ontology);
+            this.idleMillis = idleMillis;
+            lastIdleCheck = System.currentTimeMillis();
+        }
+
+        boolean isDue(long now, boolean lowMemory) {
+            if (idleMillis > 0 && now - lastIdleCheck >= idleMillis) {
+                lastIdleCheck = now;
+                return true;
+            }
+            return lowMemory;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/**
+ * Encoding of lexical forms as byte arrays, and a bounded deduplication table for them, so that
+ * literals with equal lexical forms created through the same data factory share one array. As in
+ * the JDK string implementation, a form whose characters all fit in one byte is stored in Latin-1,
+ * one byte per character; any other form is stored as UTF-16 code units, two bytes per character,
+ * high byte first. Every string, including strings with unpaired surrogates, is encoded exactly,
+ * and equal strings always have equal encodings, so encoded forms can be compared without decoding
+ * them.
+ * <p>
+ * The table is direct mapped: each string hash selects one slot, and a new form replaces the form
+ * in its slot. Looking up a form already in the table compares the string with the stored bytes
+ * and allocates nothing. The table is read and written without locking; forms are immutable, so a
+ * racing write at worst loses a form from the table.
+ *
+ * @author ignazio
+ */
+class LexicalForms {
+
+    private final Form[] forms;
+
+    /**
+     * @param size maximum number of lexical forms to remember; rounded up to a power of two
+     */
+    LexicalForms(long size) {
+        int capacity = Integer.highestOneBit((int) Math.max(1, Math.min(size, 1 << 30)) - 1) << 1;
+        forms = new Form[Math.max(1, capacity)];
+    }
+
+    /**
+     * @param lexicalForm lexical form to encode
+     * @return encoding of the lexical form, shared with equal forms encoded earlier
+     */
+    Form encode(String lexicalForm) {
+        int hash = lexicalForm.hashCode();
+        // spread the hash, string hashes of short forms differ mostly in the low bits
+        int index = (hash ^ hash >>> 16) & forms.length - 1;
+        Form form = forms[index];
+        if (form != null && form.hash == hash && form.matches(lexicalForm)) {
+            return form;
+        }
+        form = new Form(lexicalForm, hash);
+        forms[index] = form;
+        return form;
+    }
+
+    /**
+     * @param bytes encoded form
+     * @param latin1 true if the form is Latin-1 encoded, false if UTF-16
+     * @return number of characters in the form
+     */
+    static int length(byte[] bytes, boolean latin1) {
+        return latin1 ? bytes.length : bytes.length >> 1;
+    }
+
+    /**
+     * @param bytes encoded form
+     * @param latin1 true if the form is Latin-1 encoded, false if UTF-16
+     * @param index character index
+     * @return character at the index
+     */
+    static char charAt(byte[] bytes, boolean latin1, int index) {
+        if (latin1) {
+            return (char) (bytes[index] & 0xFF);
+        }
+        return (char) ((bytes[2 * index] & 0xFF) << 8 | bytes[2 * index + 1] & 0xFF);
+    }
+
+    /**
+     * @param bytes encoded form
+     * @param latin1 true if the form is Latin-1 encoded, false if UTF-16
+     * @return the decoded string
+     */
+    static String decode(byte[] bytes, boolean latin1) {
+        if (latin1) {
+            return new String(bytes, ISO_8859_1);
+        }
+        char[] chars = new char[bytes.length >> 1];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = charAt(bytes, false, i);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @param bytes encoded form
+     * @param latin1 true if the form is Latin-1 encoded, false if UTF-16
+     * @return hash code of the decoded string, computed without decoding it
+     */
+    static int hash(byte[] bytes, boolean latin1) {
+        int hash = 0;
+        int length = length(bytes, latin1);
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + charAt(bytes, latin1, i);
+        }
+        return hash;
+    }
+
+    /**
+     * Compare two encoded forms as {@link String#compareTo(String)} compares the decoded strings.
+     *
+     * @param a first form
+     * @param aLatin1 true if the first form is Latin-1 encoded
+     * @param b second form
+     * @param bLatin1 true if the second form is Latin-1 encoded
+     * @return comparison result
+     */
+    static int compare(byte[] a, boolean aLatin1, byte[] b, boolean bLatin1) {
+        int aLength = length(a, aLatin1);
+        int bLength = length(b, bLatin1);
+        int length = Math.min(aLength, bLength);
+        for (int i = 0; i < length; i++) {
+            int diff = charAt(a, aLatin1, i) - charAt(b, bLatin1, i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    /**
+     * An encoded lexical form, with the hash code of the string it was encoded from.
+     */
+    static final class Form {
+        final byte[] bytes;
+        final boolean latin1;
+        final int hash;
+
+        Form(String s, int hash) {
+            this.hash = hash;
+            boolean fits = true;
+            for (int i = 0; i < s.length() && fits; i++) {
+                fits = s.charAt(i) <= 0xFF;
+            }
+            latin1 = fits;
+            if (fits) {
+                bytes = s.getBytes(ISO_8859_1);
+            } else {
+                bytes = new byte[2 * s.length()];
+                for (int i = 0; i < s.length(); i++) {
+                    char c = s.charAt(i);
+                    bytes[2 * i] = (byte) (c >> 8);
+                    bytes[2 * i + 1] = (byte) c;
+                }
+            }
+        }
+
+        boolean matches(String s) {
+            int length = length(bytes, latin1);
+            if (length != s.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (charAt(bytes, latin1, i) != s.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
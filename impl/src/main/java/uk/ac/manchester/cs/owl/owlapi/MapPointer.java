@@ -14,18 +14,26 @@ package uk.ac.manchester.cs.owl.owlapi;
 
 import static org.semanticweb.owlapi.util.OWLAPIPreconditions.checkNotNull;
 import static org.semanticweb.owlapi.util.OWLAPIPreconditions.verifyNotNull;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
 
+import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.Nullable;
 
@@ -38,7 +46,7 @@ import org.semanticweb.owlapi.util.CollectionFactory;
 import org.semanticweb.owlapi.util.OWLAxiomSearchFilter;
 import org.semanticweb.owlapi.util.SmallSet;
 
-import com.carrotsearch.hppcrt.cursors.ObjectCursor;
+import com.carrotsearch.hppcrt.cursors.ObjectObjectCursor;
 import com.carrotsearch.hppcrt.maps.ObjectObjectHashMap;
 import com.carrotsearch.hppcrt.procedures.ObjectProcedure;
 import com.carrotsearch.hppcrt.sets.ObjectHashSet;
@@ -56,17 +64,61 @@ import uk.ac.manchester.cs.owl.owlapi.InitVisitorFactory.InitVisitor;
  */
 public class MapPointer<K, V extends OWLAxiom> {
 
+    /**
+     * Minimum number of reads under the monitor, since the last write, before the map is frozen
+     * and published for lock free reads.
+     */
+    private static final int FREEZE_THRESHOLD = 16;
     @Nullable
     private final AxiomType<?> type;
     @Nullable
     private final OWLAxiomVisitorEx<?> visitor;
-    private boolean initialized;
+    private volatile boolean initialized;
     protected final Internals i;
     @Nullable
     private SoftReference<Set<IRI>> iris;
     private int size = 0;
-    private final ObjectObjectHashMap<K, Collection<V>> map = new ObjectObjectHashMap<>(17, 0.75F);
+    private SegmentedMap<K, Collection<V>> map = new SegmentedMap<>();
     private final Class<V> valueWithness;
+    private final boolean snapshotReads;
+    /**
+     * True if large value collections are kept in sorted arrays rather than hash sets.
+     */
+    private final boolean compact;
+    /**
+     * Published read only view of the map; when not null, readers do not need to acquire the
+     * monitor. Writers thaw the map before changing it.
+     */
+    @Nullable
+    private volatile Frozen frozen;
+    /**
+     * Keys whose value collections have been copied since the map was last thawed. Collections for
+     * keys not in this set might still be visible to readers of the previous snapshot and must not
+     * be modified in place. Null when no snapshot has been published since the last freeze.
+     */
+    @Nullable
+    private ObjectHashSet<K> copiedKeys;
+    private int readsSinceWrite = 0;
+    /**
+     * True if a stream over the keys of the current map has been handed out to readers; the map is
+     * cloned before the next write.
+     */
+    private boolean sharedKeys = false;
+    /**
+     * True if a stream over the keys and value collections of the current map has been handed out
+     * to readers; the map is cloned and value collections are copied on first write, as for a
+     * published snapshot.
+     */
+    private boolean sharedValues = false;
+    /**
+     * Last memory estimate, or a negative value if the map has changed since it was computed.
+     */
+    private long estimatedBytes = -1;
+    /**
+     * True if the pointer has been read since the last eviction check; see
+     * {@link #evictIfUnused()}.
+     */
+    private volatile boolean used = false;
 
     /**
      * @param t type of axioms contained
@@ -77,11 +129,27 @@ public class MapPointer<K, V extends OWLAxiom> {
      */
     public MapPointer(@Nullable AxiomType<?> t, @Nullable OWLAxiomVisitorEx<?> v,
         boolean initialized, Internals i, Class<V> valueWithness) {
+        this(t, v, initialized, i, valueWithness, false);
+    }
+
+    /**
+     * @param t type of axioms contained
+     * @param v visitor
+     * @param initialized true if initialized
+     * @param i internals containing this pointer
+     * @param valueWithness witness for the value type
+     * @param snapshotReads true if, once reads dominate writes, the map should be published as an
+     *        immutable snapshot and read without locking
+     */
+    public MapPointer(@Nullable AxiomType<?> t, @Nullable OWLAxiomVisitorEx<?> v,
+        boolean initialized, Internals i, Class<V> valueWithness, boolean snapshotReads) {
         type = t;
         visitor = v;
         this.initialized = initialized;
         this.i = checkNotNull(i, "i cannot be null");
         this.valueWithness = valueWithness;
+        compact = i.isCompactIndexStorage();
+        this.snapshotReads = snapshotReads;
     }
 
     /**
@@ -97,30 +165,52 @@ public class MapPointer<K, V extends OWLAxiom> {
      * @param e entity
      * @return true if an entity with the same iri as the input exists in the collection
      */
-    public synchronized boolean containsReference(K e) {
-        return map.containsKey(e);
+    public boolean containsReference(K e) {
+        touch();
+        Frozen f = frozen;
+        if (f != null) {
+            return f.map.containsKey(e);
+        }
+        synchronized (this) {
+            boolean result = map.containsKey(e);
+            lockedRead();
+            return result;
+        }
     }
 
     /**
      * @param e IRI
      * @return true if an entity with the same iri as the input exists in the collection
      */
-    public synchronized boolean containsReference(IRI e) {
-        Set<IRI> set = null;
-        if (iris != null) {
-            set = iris.get();
+    public boolean containsReference(IRI e) {
+        touch();
+        Frozen f = frozen;
+        if (f != null) {
+            return f.iris().contains(e);
         }
-        if (set == null) {
-            set = initSet();
+        synchronized (this) {
+            Set<IRI> set = null;
+            if (iris != null) {
+                set = iris.get();
+            }
+            if (set == null) {
+                set = initSet();
+            }
+            lockedRead();
+            return set.contains(e);
         }
-        return set.contains(e);
     }
 
     private Set<IRI> initSet() {
+        Set<IRI> set = iriSet(map);
+        iris = new SoftReference<>(set);
+        return set;
+    }
+
+    private Set<IRI> iriSet(SegmentedMap<K, Collection<V>> m) {
         Set<IRI> set = CollectionFactory.createSet();
         ObjectProcedure<K> consumer = k -> consumer(set, k);
-        map.keys().forEach(consumer);
-        iris = new SoftReference<>(set);
+        m.segments().forEach(segment -> segment.keys().forEach(consumer));
         return set;
     }
 
@@ -135,10 +225,18 @@ public class MapPointer<K, V extends OWLAxiom> {
     /**
      * @return true if initialized
      */
-    public synchronized boolean isInitialized() {
+    public boolean isInitialized() {
         return initialized;
     }
 
+    /**
+     * @return true if this pointer currently serves reads from a published snapshot, without
+     *         locking
+     */
+    public boolean isFrozen() {
+        return frozen != null;
+    }
+
     /**
      * @return the map pointer
      */
@@ -148,18 +246,21 @@ public class MapPointer<K, V extends OWLAxiom> {
             return this;
         }
         initialized = true;
+        i.lazyIndexBuilt(this);
         if (visitor == null || type == null) {
             return this;
         }
         AxiomType<?> t = type;
         assert t != null;
+        // copy the axioms out, so that the axioms by type lock is not held while this map is
+        // populated and other pointers can be initialized concurrently
+        Collection<OWLAxiom> axioms = i.axiomsToIndex(t);
         if (visitor instanceof InitVisitor) {
             InitVisitor<K> v = (InitVisitor<K>) visitor;
-            i.getAxiomsByType().forEach(t, ax -> putInternal(ax.accept(v), (V) ax));
+            axioms.forEach(ax -> putInternal(ax.accept(v), (V) ax));
         } else if (visitor instanceof InitCollectionVisitor) {
             InitCollectionVisitor<K> v = (InitCollectionVisitor<K>) visitor;
-            i.getAxiomsByType().forEach(t,
-                ax -> ax.accept(v).forEach(key -> putInternal(key, (V) ax)));
+            axioms.forEach(ax -> ax.accept(v).forEach(key -> putInternal(key, (V) ax)));
         }
         return this;
     }
@@ -172,40 +273,68 @@ public class MapPointer<K, V extends OWLAxiom> {
     /**
      * @return key set
      */
-    public synchronized Stream<K> keySet() {
-        init();
-        List<K> l = new ArrayList<>();
-        Consumer<ObjectCursor<K>> p = c -> l.add(c.value);
-        map.keys().forEach(p);
-        return l.stream();
+    public Stream<K> keySet() {
+        touch();
+        Frozen f = frozen;
+        if (f != null) {
+            return keys(f.map);
+        }
+        synchronized (this) {
+            init();
+            // the stream reads the map buffers directly; the next write clones the map
+            sharedKeys = true;
+            Stream<K> keys = keys(map);
+            lockedRead();
+            return keys;
+        }
     }
 
     /**
      * @param key key to look up
      * @return value
      */
-    public synchronized Stream<V> getValues(K key) {
-        init();
-        Collection<V> t = map.get(key);
-        if (t == null) {
-            return Stream.empty();
+    public Stream<V> getValues(K key) {
+        touch();
+        Frozen f = frozen;
+        if (f != null) {
+            return stream(f.map.get(key));
         }
-        if (t instanceof SmallSet) {
+        synchronized (this) {
+            init();
+            Collection<V> t = map.get(key);
+            lockedRead();
+            if (t == null) {
+                return Stream.empty();
+            }
+            if (t instanceof HPPCSet) {
+                // the stream reads the set buffer directly; writers copy shared sets
+                ((HPPCSet<V>) t).share();
+                return t.stream();
+            }
+            if (t instanceof CompactAxiomSet) {
+                ((CompactAxiomSet<?>) t).share();
+                return t.stream();
+            }
             return t.stream();
         }
-        if (t instanceof HPPCSet) {
-            return new ArrayList<>(t).stream();
-        }
-        return t.stream();
     }
 
     /**
      * @param key key to look up
      * @param function consumer to apply
      */
-    public synchronized void forEach(K key, Consumer<V> function) {
-        init();
-        get(key).forEach(function);
+    public void forEach(K key, Consumer<V> function) {
+        touch();
+        Frozen f = frozen;
+        if (f != null) {
+            stream(f.map.get(key)).forEach(function);
+            return;
+        }
+        synchronized (this) {
+            init();
+            get(key).forEach(function);
+            lockedRead();
+        }
     }
 
     /**
@@ -213,41 +342,76 @@ public class MapPointer<K, V extends OWLAxiom> {
      * @param function predicate to evaluate
      * @return value
      */
-    public synchronized boolean matchOnValues(K key, Predicate<V> function) {
-        init();
-        return get(key).anyMatch(function);
+    public boolean matchOnValues(K key, Predicate<V> function) {
+        touch();
+        Frozen f = frozen;
+        if (f != null) {
+            return stream(f.map.get(key)).anyMatch(function);
+        }
+        synchronized (this) {
+            init();
+            boolean result = get(key).anyMatch(function);
+            lockedRead();
+            return result;
+        }
     }
 
     /**
      * @param key key to look up
      * @return value
      */
-    public synchronized Collection<V> getValuesAsCollection(K key) {
-        init();
-        Collection<V> t = map.get(key);
-        if (t == null) {
-            return Collections.emptyList();
-        }
-        if (t instanceof SmallSet) {
-            return new ArrayList<>(t);
+    public Collection<V> getValuesAsCollection(K key) {
+        touch();
+        Frozen f = frozen;
+        if (f != null) {
+            Collection<V> t = f.map.get(key);
+            if (t == null) {
+                return Collections.emptyList();
+            }
+            return Collections.unmodifiableCollection(t);
         }
-        if (t instanceof HPPCSet) {
-            return new ArrayList<>(t);
+        synchronized (this) {
+            init();
+            Collection<V> t = map.get(key);
+            lockedRead();
+            if (t == null) {
+                return Collections.emptyList();
+            }
+            if (t instanceof HPPCSet) {
+                ((HPPCSet<V>) t).share();
+                return Collections.unmodifiableCollection(t);
+            }
+            if (t instanceof CompactAxiomSet) {
+                ((CompactAxiomSet<?>) t).share();
+                return Collections.unmodifiableCollection(t);
+            }
+            if (t instanceof SmallSet) {
+                return new ArrayList<>(t);
+            }
+            return t;
         }
-        return t;
     }
 
     /**
      * @param key key to look up
      * @return value
      */
-    public synchronized int countValues(K key) {
-        init();
-        return count(key);
+    public int countValues(K key) {
+        touch();
+        Frozen f = frozen;
+        if (f != null) {
+            return count(f.map, key);
+        }
+        synchronized (this) {
+            init();
+            int count = count(map, key);
+            lockedRead();
+            return count;
+        }
     }
 
-    private int count(K k) {
-        Collection<V> t = map.get(k);
+    private int count(SegmentedMap<K, Collection<V>> m, K k) {
+        Collection<V> t = m.get(k);
         if (t == null) {
             return 0;
         }
@@ -261,20 +425,9 @@ public class MapPointer<K, V extends OWLAxiom> {
      * @return value
      */
     @SuppressWarnings("unchecked")
-    public synchronized <O extends V> Stream<O> values(K key,
+    public <O extends V> Stream<O> values(K key,
         @SuppressWarnings("unused") Class<O> classType) {
-        init();
-        Collection<V> t = map.get(key);
-        if (t == null) {
-            return Stream.empty();
-        }
-        if (t instanceof SmallSet) {
-            return (Stream<O>) t.stream();
-        }
-        if (t instanceof HPPCSet) {
-            return (Stream<O>) new ArrayList<>(t).stream();
-        }
-        return (Stream<O>) t.stream();
+        return (Stream<O>) getValues(key);
     }
 
     /**
@@ -283,13 +436,27 @@ public class MapPointer<K, V extends OWLAxiom> {
      * @param key key
      * @return set of values
      */
-    public synchronized <T> Collection<OWLAxiom> filterAxioms(OWLAxiomSearchFilter filter, T key) {
-        init();
+    public <T> Collection<OWLAxiom> filterAxioms(OWLAxiomSearchFilter filter, T key) {
+        touch();
+        Frozen f = frozen;
+        if (f != null) {
+            return filterAxioms(f.map, filter, key);
+        }
+        synchronized (this) {
+            init();
+            Collection<OWLAxiom> result = filterAxioms(map, filter, key);
+            lockedRead();
+            return result;
+        }
+    }
+
+    private <T> Collection<OWLAxiom> filterAxioms(SegmentedMap<K, Collection<V>> m,
+        OWLAxiomSearchFilter filter, T key) {
         List<OWLAxiom> toReturn = new ArrayList<>();
         for (AxiomType<?> at : filter.getAxiomTypes()) {
             // This method is only used for MapPointer<AxiomType, OWLAxiom>
             @SuppressWarnings("unchecked")
-            Collection<V> collection = map.get((K) at);
+            Collection<V> collection = m.get((K) at);
             if (collection != null) {
                 collection.stream().filter(x -> filter.pass(x, key)).forEach(toReturn::add);
             }
@@ -308,6 +475,7 @@ public class MapPointer<K, V extends OWLAxiom> {
             return false;
         }
         iris = null;
+        thaw();
         return putInternal(key, value);
     }
 
@@ -321,6 +489,7 @@ public class MapPointer<K, V extends OWLAxiom> {
             return false;
         }
         iris = null;
+        thaw();
         return removeInternal(key, value);
     }
 
@@ -328,9 +497,18 @@ public class MapPointer<K, V extends OWLAxiom> {
      * @param key key to look up
      * @return true if there are values for key
      */
-    public synchronized boolean containsKey(K key) {
-        init();
-        return map.containsKey(key);
+    public boolean containsKey(K key) {
+        touch();
+        Frozen f = frozen;
+        if (f != null) {
+            return f.map.containsKey(key);
+        }
+        synchronized (this) {
+            init();
+            boolean result = map.containsKey(key);
+            lockedRead();
+            return result;
+        }
     }
 
     /**
@@ -338,39 +516,195 @@ public class MapPointer<K, V extends OWLAxiom> {
      * @param value value to look up
      * @return true if key and value are contained
      */
-    public synchronized boolean contains(K key, V value) {
-        init();
-        return containsEntry(key, value);
+    public boolean contains(K key, V value) {
+        touch();
+        Frozen f = frozen;
+        if (f != null) {
+            return containsEntry(f.map, key, value);
+        }
+        synchronized (this) {
+            init();
+            boolean result = containsEntry(map, key, value);
+            lockedRead();
+            return result;
+        }
     }
 
     /**
      * @return all values contained
      */
-    public synchronized Stream<V> getAllValues() {
-        init();
-        return values();
+    public Stream<V> getAllValues() {
+        touch();
+        Frozen f = frozen;
+        if (f != null) {
+            return values(f.map);
+        }
+        synchronized (this) {
+            init();
+            // the stream reads the map and set buffers directly; the next write clones the map
+            // and copies the value collections it changes
+            sharedValues = true;
+            Stream<V> values = values(map);
+            lockedRead();
+            return values;
+        }
     }
 
     /**
      * @return number of mapping contained
      */
-    public synchronized int size() {
-        init();
-        return size;
+    public int size() {
+        touch();
+        Frozen f = frozen;
+        if (f != null) {
+            return f.size;
+        }
+        synchronized (this) {
+            init();
+            lockedRead();
+            return size;
+        }
     }
 
     /**
      * @return true if empty
      */
-    public synchronized boolean isEmpty() {
-        init();
-        return size == 0;
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private void touch() {
+        // avoid writing the shared flag on every read
+        if (!used) {
+            used = true;
+        }
+    }
+
+    /**
+     * Eviction check for lazily built pointers, a second chance policy: a pointer read since the
+     * previous check is marked as unused; a pointer that is still unused is dropped and returns to
+     * the uninitialized state, so that it is rebuilt from the internals on next use. Published
+     * snapshots are not modified, readers still using them are not affected.
+     *
+     * @return true if the contents of the pointer have been dropped
+     */
+    synchronized boolean evictIfUnused() {
+        if (used) {
+            used = false;
+            return false;
+        }
+        if (!initialized) {
+            return false;
+        }
+        drop();
+        return true;
+    }
+
+    /**
+     * Drop the contents of this pointer and return it to the uninitialized state. Must be called
+     * with the monitor held.
+     */
+    private void drop() {
+        map = new SegmentedMap<>();
+        size = 0;
+        iris = null;
+        frozen = null;
+        copiedKeys = null;
+        sharedKeys = false;
+        sharedValues = false;
+        readsSinceWrite = 0;
+        estimatedBytes = -1;
+        initialized = false;
+    }
+
+    /**
+     * Account for a read served from the live map, and publish the map as a snapshot if enough
+     * reads have happened since the last write. Must be called with the monitor held.
+     */
+    private void lockedRead() {
+        if (!snapshotReads || !initialized) {
+            return;
+        }
+        readsSinceWrite++;
+        if (readsSinceWrite >= Math.max(FREEZE_THRESHOLD, map.size() >>> 8)) {
+            copiedKeys = null;
+            frozen = new Frozen(map, size);
+        }
+    }
+
+    /**
+     * Prepare the map for a write. If a snapshot has been published, readers might still be using
+     * it: the map is copied, sharing its segments until they are written, and value collections
+     * are copied on first write. Must be called with the monitor held.
+     */
+    private void thaw() {
+        readsSinceWrite = 0;
+        if (frozen != null || sharedValues) {
+            map = map.copy();
+            copiedKeys = new ObjectHashSet<>();
+        } else if (sharedKeys) {
+            map = map.copy();
+        } else {
+            return;
+        }
+        frozen = null;
+        sharedKeys = false;
+        sharedValues = false;
+    }
+
+    /**
+     * @param k key
+     * @param c current values for the key
+     * @return a collection that can be modified in place without affecting published snapshots
+     */
+    @SuppressWarnings("unchecked")
+    private Collection<V> writable(K k, Collection<V> c) {
+        ObjectHashSet<K> copied = copiedKeys;
+        boolean firstWriteSinceShared = copied != null && copied.add(k);
+        if (!firstWriteSinceShared && !isShared(c)) {
+            return c;
+        }
+        Collection<V> copy;
+        if (c instanceof HPPCSet) {
+            copy = new HPPCSet<>(c, valueWithness);
+        } else if (c instanceof CompactAxiomSet) {
+            copy = new CompactAxiomSet<>((CompactAxiomSet<V>) c);
+        } else {
+            copy = new SmallSet<>(c);
+        }
+        map.put(k, copy);
+        return copy;
+    }
+
+    /**
+     * @param c value collection
+     * @return estimated size of the collection, excluding its elements, if it is backed by a hash
+     *         set; -1 otherwise
+     */
+    static long hashSetMemoryUsage(Collection<?> c) {
+        if (c instanceof HPPCSet) {
+            return ((HPPCSet<?>) c).estimateMemoryUsage();
+        }
+        return -1;
+    }
+
+    private static boolean isShared(Collection<?> c) {
+        return c instanceof HPPCSet && ((HPPCSet<?>) c).isShared()
+            || c instanceof CompactAxiomSet && ((CompactAxiomSet<?>) c).isShared();
+    }
+
+    private void copied(K k) {
+        ObjectHashSet<K> copied = copiedKeys;
+        if (copied != null) {
+            copied.add(k);
+        }
     }
 
     private boolean putInternal(@Nullable K k, V v) {
         if (k == null) {
             return false;
         }
+        estimatedBytes = -1;
         Collection<V> set = map.get(k);
         if (set == null) {
             set = Collections.singleton(v);
@@ -384,16 +718,22 @@ public class MapPointer<K, V extends OWLAxiom> {
             } else {
                 set = new SmallSet<>(set);
                 map.put(k, set);
+                copied(k);
             }
         } else if (set.size() == 3) {
             if (set.contains(v)) {
                 return false;
             } else {
-                set = new HPPCSet<>(set, v, valueWithness);
+                set = largeSet(set, v);
                 map.put(k, set);
+                copied(k);
                 size++;
                 return true;
             }
+        } else if (set.contains(v)) {
+            return false;
+        } else {
+            set = writable(k, set);
         }
         boolean added = set.add(v);
         if (added) {
@@ -402,8 +742,15 @@ public class MapPointer<K, V extends OWLAxiom> {
         return added;
     }
 
-    private boolean containsEntry(K k, V v) {
-        Collection<V> t = map.get(k);
+    private Collection<V> largeSet(Collection<V> set, V v) {
+        if (compact) {
+            return new CompactAxiomSet<>(set, v, valueWithness);
+        }
+        return new HPPCSet<>(set, v, valueWithness);
+    }
+
+    private static <K, V> boolean containsEntry(SegmentedMap<K, Collection<V>> m, K k, V v) {
+        Collection<V> t = m.get(k);
         if (t == null) {
             return false;
         }
@@ -415,6 +762,7 @@ public class MapPointer<K, V extends OWLAxiom> {
         if (t == null) {
             return false;
         }
+        estimatedBytes = -1;
         if (t.size() == 1) {
             if (t.contains(v)) {
                 map.remove(k);
@@ -424,6 +772,10 @@ public class MapPointer<K, V extends OWLAxiom> {
                 return false;
             }
         }
+        if (!t.contains(v)) {
+            return false;
+        }
+        t = writable(k, t);
         boolean removed = t.remove(v);
         if (removed) {
             size--;
@@ -434,26 +786,239 @@ public class MapPointer<K, V extends OWLAxiom> {
         return removed;
     }
 
-    private Stream<V> values() {
-        List<V> l = new ArrayList<>();
-        Consumer<ObjectCursor<Collection<V>>> c = q -> l.addAll(q.value);
-        map.values().forEach(c);
-        return l.stream();
+    /**
+     * Make this pointer a copy of the current state of the source pointer. The source map is
+     * shared and published as a snapshot, so that later writes to either pointer copy what they
+     * change instead of modifying the shared map; since the map is segmented, the first write
+     * copies only the segment it changes, not the whole map. If the source is not initialized,
+     * nothing is copied and this pointer initializes itself from its own internals when needed.
+     *
+     * @param source pointer to copy
+     */
+    void shareFrom(MapPointer<K, V> source) {
+        SegmentedMap<K, Collection<V>> shared;
+        int sharedSize;
+        synchronized (source) {
+            if (!source.initialized) {
+                synchronized (this) {
+                    if (initialized) {
+                        drop();
+                    }
+                }
+                return;
+            }
+            // sharing counts as a use, the source is not evicted while its copies read it
+            source.touch();
+            if (source.frozen == null) {
+                source.copiedKeys = null;
+                source.frozen = source.new Frozen(source.map, source.size);
+            }
+            shared = source.map;
+            sharedSize = source.size;
+        }
+        synchronized (this) {
+            map = shared;
+            size = sharedSize;
+            iris = null;
+            estimatedBytes = -1;
+            initialized = true;
+            frozen = new Frozen(map, size);
+        }
     }
 
-    private Stream<V> get(K k) {
-        Collection<V> t = map.get(k);
+    /**
+     * @return number of map segments
+     */
+    synchronized int segmentCount() {
+        return map.segmentCount();
+    }
+
+    /**
+     * @return number of map segments copied since the map was last copied from a snapshot
+     */
+    synchronized int copiedSegmentCount() {
+        return map.segmentCount() - map.sharedSegmentCount();
+    }
+
+    /**
+     * Write the contents of this pointer; nothing is written for the entries of a pointer that has
+     * not been initialized. Keys are written as objects, values as their position in the list of
+     * axioms written before the indexes.
+     *
+     * @param out output
+     * @param numbers position of each value in the axiom list
+     * @throws IOException if the output cannot be written
+     */
+    synchronized void write(OWLObjectBinaryOutput out, ToIntFunction<? super V> numbers)
+        throws IOException {
+        if (!initialized) {
+            out.writeVarInt(0);
+            return;
+        }
+        out.writeVarInt(map.size() + 1);
+        for (ObjectObjectHashMap<K, Collection<V>> segment : asList(map.segments())) {
+            for (ObjectObjectCursor<K, Collection<V>> c : segment) {
+                out.write(c.key);
+                out.writeVarInt(c.value.size());
+                for (V v : c.value) {
+                    out.writeVarInt(numbers.applyAsInt(v));
+                }
+            }
+        }
+    }
+
+    /**
+     * Populate this pointer with the contents written by
+     * {@link #write(OWLObjectBinaryOutput, ToIntFunction)}, without visiting the axioms. If the
+     * written pointer was not initialized, this pointer is left as it is.
+     *
+     * @param in input
+     * @param axioms axiom at each position in the axiom list
+     * @throws IOException if the input cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    synchronized void read(OWLObjectBinaryInput in, IntFunction<? extends OWLAxiom> axioms)
+        throws IOException {
+        int keys = in.readVarInt() - 1;
+        if (keys < 0) {
+            return;
+        }
+        iris = null;
+        thaw();
+        for (int k = 0; k < keys; k++) {
+            K key = (K) in.read();
+            int values = in.readVarInt();
+            for (int v = 0; v < values; v++) {
+                putInternal(key, (V) axioms.apply(in.readVarInt()));
+            }
+        }
+        initialized = true;
+    }
+
+    /**
+     * Estimate the memory retained by the map and its value collections, excluding keys and values.
+     * The estimate is cached until the next change, so polling it is cheap.
+     *
+     * @return estimated size in bytes, or 0 if the pointer has not been initialized
+     */
+    synchronized long estimateMemoryUsage() {
+        if (!initialized) {
+            return 0;
+        }
+        if (estimatedBytes < 0) {
+            long[] bytes = {map.estimateMemoryUsage()};
+            map.forEach((k, v) -> bytes[0] += MemoryEstimator.collection(v));
+            estimatedBytes = bytes[0];
+        }
+        return estimatedBytes;
+    }
+
+    /**
+     * Copy at most {@code limit} values for a key. Unlike {@link #getValues(Object)}, the value
+     * collection is not shared with the caller, so sampling does not cause copies on later writes.
+     *
+     * @param key key
+     * @param limit maximum number of values
+     * @return list of values
+     */
+    List<V> sample(K key, int limit) {
+        Frozen f = frozen;
+        if (f != null) {
+            return sample(f.map, key, limit);
+        }
+        synchronized (this) {
+            return sample(map, key, limit);
+        }
+    }
+
+    private static <K, V> List<V> sample(SegmentedMap<K, Collection<V>> m, K key, int limit) {
+        Collection<V> c = m.get(key);
+        if (c == null) {
+            return Collections.emptyList();
+        }
+        List<V> l = new ArrayList<>(Math.min(limit, c.size()));
+        Iterator<V> it = c.iterator();
+        while (it.hasNext() && l.size() < limit) {
+            l.add(it.next());
+        }
+        return l;
+    }
+
+    /**
+     * @return stream reading the key buffers of the map segments; the segments must not be
+     *         modified while the stream is in use
+     */
+    private static <K> Stream<K> keys(SegmentedMap<K, ?> m) {
+        return m.segments().flatMap(segment -> {
+            Spliterator<K> keys =
+                new HashBufferSpliterator<>(segment.keys, segment.keys, segment.size(), null);
+            return StreamSupport.stream(keys, false);
+        });
+    }
+
+    /**
+     * @return stream reading the value buffers of the map segments and the value collections;
+     *         neither must be modified while the stream is in use
+     */
+    private static <K, V> Stream<V> values(SegmentedMap<K, Collection<V>> m) {
+        return m.segments().flatMap(segment -> {
+            Spliterator<Collection<V>> values = new HashBufferSpliterator<>(segment.keys,
+                segment.values, segment.size(), null);
+            return StreamSupport.stream(values, false).flatMap(Collection::stream);
+        });
+    }
+
+    private static <V> Stream<V> stream(@Nullable Collection<V> t) {
         if (t == null) {
             return Stream.empty();
         }
         return t.stream();
     }
+
+    private Stream<V> get(K k) {
+        return stream(map.get(k));
+    }
+
+    /**
+     * Immutable view of a map, published to readers. Once a map has been frozen, neither the map
+     * nor its value collections are modified.
+     */
+    private final class Frozen {
+        final SegmentedMap<K, Collection<V>> map;
+        final int size;
+        @Nullable
+        private volatile Set<IRI> frozenIris;
+
+        Frozen(SegmentedMap<K, Collection<V>> map, int size) {
+            this.map = map;
+            this.size = size;
+        }
+
+        Set<IRI> iris() {
+            Set<IRI> set = frozenIris;
+            if (set == null) {
+                set = iriSet(map);
+                frozenIris = set;
+            }
+            return set;
+        }
+    }
 }
 
 
+/**
+ * Collection backed by an hppcrt hash set. Iterators and spliterators read the hash set buffer
+ * directly and fail if the set is changed while they are in use.
+ */
 class HPPCSet<S> implements Collection<S> {
     private final ObjectHashSet<S> delegate;
     private final Class<S> witness;
+    private int modifications = 0;
+    /**
+     * True if this set has been handed out to readers outside of the map pointer monitor; shared
+     * sets are copied rather than modified.
+     */
+    private boolean shared = false;
 
     public HPPCSet(Class<S> c) {
         delegate = new ObjectHashSet<>();
@@ -498,12 +1063,36 @@ class HPPCSet<S> implements Collection<S> {
         return witness.isInstance(o) && delegate.contains(witness.cast(o));
     }
 
+    /**
+     * @return estimated size of this set, excluding its elements
+     */
+    long estimateMemoryUsage() {
+        return MemoryEstimator.object(2, 8) + MemoryEstimator.hashSet(delegate.keys.length);
+    }
+
+    /**
+     * Mark this set as shared with readers; the set must not be modified afterwards.
+     */
+    void share() {
+        shared = true;
+    }
+
+    /**
+     * @return true if this set has been shared with readers
+     */
+    boolean isShared() {
+        return shared;
+    }
+
     @Override
     public Iterator<S> iterator() {
-        List<S> l = new ArrayList<>();
-        Consumer<ObjectCursor<S>> c = q -> l.add(q.value);
-        delegate.forEach(c);
-        return l.iterator();
+        return new BufferIterator();
+    }
+
+    @Override
+    public Spliterator<S> spliterator() {
+        return new HashBufferSpliterator<>(delegate.keys, delegate.keys, delegate.size(),
+            () -> modifications);
     }
 
     @Override
@@ -518,13 +1107,18 @@ class HPPCSet<S> implements Collection<S> {
 
     @Override
     public boolean add(@Nullable S e) {
-        return delegate.add(e);
+        if (delegate.add(e)) {
+            modifications++;
+            return true;
+        }
+        return false;
     }
 
     @Override
     public boolean remove(@Nullable Object o) {
-        if (witness.isInstance(o)) {
-            return delegate.remove(witness.cast(o));
+        if (witness.isInstance(o) && delegate.remove(witness.cast(o))) {
+            modifications++;
+            return true;
         }
         return false;
     }
@@ -573,11 +1167,70 @@ class HPPCSet<S> implements Collection<S> {
     @Override
     @SuppressWarnings({"unchecked", "rawtypes"})
     public boolean retainAll(@Nullable Collection<?> c) {
+        modifications++;
         return delegate.retainAll(new HPPCSet(verifyNotNull(c), witness).delegate) > 0;
     }
 
     @Override
     public void clear() {
+        modifications++;
         this.delegate.clear();
     }
+
+    /**
+     * Iterator reading the set buffer directly. Removing an element moves other elements within
+     * the buffer, so the first removal through the iterator copies the buffer and iteration
+     * continues on the copy. Any other change to the set while iterating causes a
+     * {@link ConcurrentModificationException}.
+     */
+    private final class BufferIterator implements Iterator<S> {
+        private Object[] keys = delegate.keys;
+        private boolean copied = false;
+        private int index = 0;
+        private int expectedModifications = modifications;
+        @Nullable
+        private S last;
+
+        BufferIterator() {}
+
+        @Override
+        public boolean hasNext() {
+            while (index < keys.length && keys[index] == null) {
+                index++;
+            }
+            return index < keys.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public S next() {
+            if (modifications != expectedModifications) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            S next = (S) keys[index++];
+            last = next;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            S toRemove = last;
+            if (toRemove == null) {
+                throw new IllegalStateException("next() has not been called");
+            }
+            if (modifications != expectedModifications) {
+                throw new ConcurrentModificationException();
+            }
+            if (!copied) {
+                keys = keys.clone();
+                copied = true;
+            }
+            HPPCSet.this.remove(toRemove);
+            expectedModifications = modifications;
+            last = null;
+        }
+    }
 }
@@ -0,0 +1,281 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.semanticweb.owlapi.model.AxiomType.LOGICAL_AXIOM_TYPES;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAnnotationSubject;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLLogicalAxiom;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLNaryClassAxiom;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.OntologyConfigurator;
+import org.semanticweb.owlapi.model.parameters.Navigation;
+import org.semanticweb.owlapi.util.OWLAxiomSearchFilter;
+
+/**
+ * Internals backed by a {@link MappedOntologyFile}. Counts, signature, reference lookups, filters
+ * and general class axioms are answered from the file. Lazy indexes are built from the axioms of
+ * their type only, so a lookup decodes the blocks for that type; the indexes over all axioms are
+ * only populated, with all the axioms in the file, the first time a lookup needs them.
+ *
+ * @author ignazio
+ */
+class MappedInternals extends Internals {
+
+    private final transient MappedOntologyFile file;
+    private volatile boolean materialized = false;
+
+    /**
+     * @param file mapped file
+     * @param config configuration for index storage and reads
+     */
+    MappedInternals(MappedOntologyFile file, OntologyConfigurator config) {
+        super(config);
+        this.file = file;
+        file.getImportsDeclarations().forEach(this::addImportsDeclaration);
+        file.getAnnotations().forEach(this::addOntologyAnnotation);
+    }
+
+    /**
+     * Populate the map pointers with all axioms in the file; the mapped file is not used for index
+     * lookups after this.
+     */
+    private void materialize() {
+        if (materialized) {
+            return;
+        }
+        synchronized (this) {
+            if (!materialized) {
+                file.axioms().forEach(super::addAxiom);
+                materialized = true;
+            }
+        }
+    }
+
+    /**
+     * @return a plain copy of these internals
+     */
+    private Object writeReplace() {
+        Internals copy = new Internals();
+        file.axioms().forEach(copy::addAxiom);
+        getImportsDeclarations().forEach(copy::addImportsDeclaration);
+        getOntologyAnnotations().forEach(copy::addOntologyAnnotation);
+        return copy;
+    }
+
+    @Override
+    Collection<OWLAxiom> axiomsToIndex(AxiomType<?> type) {
+        if (materialized) {
+            return super.axiomsToIndex(type);
+        }
+        return asList(file.axioms(type));
+    }
+
+    @Override
+    <T extends OWLObject, A extends OWLAxiom> Optional<MapPointer<T, A>> get(Class<T> type,
+        Class<A> axiom, Navigation position) {
+        Optional<MapPointer<T, A>> pointer = super.get(type, axiom, position);
+        if (!materialized && pointer.isPresent() && !isLazyIndex(pointer.get())) {
+            materialize();
+        }
+        return pointer;
+    }
+
+    @Override
+    public <K> Collection<? extends OWLAxiom> filterAxioms(OWLAxiomSearchFilter filter, K key) {
+        if (annotationAssertionsOnly(filter)) {
+            // served by the lazy annotation assertion index, decoded once rather than per search
+            Optional<MapPointer<OWLAnnotationSubject, OWLAnnotationAssertionAxiom>> pointer =
+                get(OWLAnnotationSubject.class, OWLAnnotationAssertionAxiom.class);
+            if (pointer.isPresent()) {
+                return asList(pointer.get().getAllValues().filter(ax -> filter.pass(ax, key)));
+            }
+        }
+        return asList(axioms(filter).filter(ax -> filter.pass(ax, key)));
+    }
+
+    private static boolean annotationAssertionsOnly(OWLAxiomSearchFilter filter) {
+        Iterator<AxiomType<?>> types = filter.getAxiomTypes().iterator();
+        return types.hasNext() && types.next() == AxiomType.ANNOTATION_ASSERTION
+            && !types.hasNext();
+    }
+
+    @Override
+    public <K> boolean contains(OWLAxiomSearchFilter filter, K key) {
+        return axioms(filter).anyMatch(ax -> filter.pass(ax, key));
+    }
+
+    private Stream<OWLAxiom> axioms(OWLAxiomSearchFilter filter) {
+        return StreamSupport.stream(filter.getAxiomTypes().spliterator(), false)
+            .flatMap(file::axioms);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public MapPointer<AxiomType, OWLAxiom> getAxiomsByType() {
+        materialize();
+        return super.getAxiomsByType();
+    }
+
+    @Override
+    public Stream<OWLClassAxiom> getGeneralClassAxioms() {
+        Stream<OWLClassAxiom> subClassAxioms = file.axioms(AxiomType.SUBCLASS_OF)
+            .filter(ax -> ((OWLSubClassOfAxiom) ax).getSubClass().isAnonymous())
+            .map(OWLClassAxiom.class::cast);
+        Stream<OWLClassAxiom> classAxioms = Stream
+            .of(AxiomType.EQUIVALENT_CLASSES, AxiomType.DISJOINT_CLASSES).flatMap(file::axioms)
+            .filter(ax -> ((OWLNaryClassAxiom) ax).classExpressions()
+                .allMatch(OWLClassExpression::isAnonymous))
+            .map(OWLClassAxiom.class::cast);
+        return Stream.concat(subClassAxioms, classAxioms);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return file.getAxiomCount() == 0 && !getOntologyAnnotations().findAny().isPresent();
+    }
+
+    @Override
+    public int getAxiomCount() {
+        return file.getAxiomCount();
+    }
+
+    @Override
+    public <T extends OWLAxiom> int getAxiomCount(AxiomType<T> axiomType) {
+        return file.getAxiomCount(axiomType);
+    }
+
+    @Override
+    public Stream<OWLAxiom> getAxioms() {
+        return file.axioms();
+    }
+
+    @Override
+    public Stream<OWLLogicalAxiom> getLogicalAxioms() {
+        return LOGICAL_AXIOM_TYPES.stream().flatMap(file::axioms).map(OWLLogicalAxiom.class::cast);
+    }
+
+    @Override
+    public int getLogicalAxiomCount() {
+        return LOGICAL_AXIOM_TYPES.stream().mapToInt(file::getAxiomCount).sum();
+    }
+
+    @Override
+    public boolean anyEntities(EntityType<?> type) {
+        return file.containsReferences(type);
+    }
+
+    @Override
+    public boolean containsReference(OWLEntity entity) {
+        return file.containsReference(entity.getEntityType(), entity.getIRI());
+    }
+
+    @Override
+    public Stream<OWLAxiom> getReferencingAxioms(OWLEntity owlEntity) {
+        return file.references(owlEntity).mapToObj(file::axiom);
+    }
+
+    @Override
+    public boolean isDeclared(OWLEntity e) {
+        return file.references(e, AxiomType.DECLARATION)
+            .anyMatch(ax -> ((OWLDeclarationAxiom) ax).getEntity().equals(e));
+    }
+
+    @Override
+    public boolean containsClassInSignature(IRI i) {
+        return file.containsReference(EntityType.CLASS, i);
+    }
+
+    @Override
+    public boolean containsObjectPropertyInSignature(IRI i) {
+        return file.containsReference(EntityType.OBJECT_PROPERTY, i);
+    }
+
+    @Override
+    public boolean containsDataPropertyInSignature(IRI i) {
+        return file.containsReference(EntityType.DATA_PROPERTY, i);
+    }
+
+    @Override
+    public boolean containsAnnotationPropertyInSignature(IRI i) {
+        return file.containsReference(EntityType.ANNOTATION_PROPERTY, i);
+    }
+
+    @Override
+    public boolean containsIndividualInSignature(IRI i) {
+        return file.containsReference(EntityType.NAMED_INDIVIDUAL, i);
+    }
+
+    @Override
+    public boolean containsDatatypeInSignature(IRI i) {
+        return file.containsReference(EntityType.DATATYPE, i);
+    }
+
+    @Override
+    public boolean containsClassInSignature(OWLClass i) {
+        return containsReference(i);
+    }
+
+    @Override
+    public boolean containsObjectPropertyInSignature(OWLObjectProperty i) {
+        return containsReference(i);
+    }
+
+    @Override
+    public boolean containsDataPropertyInSignature(OWLDataProperty i) {
+        return containsReference(i);
+    }
+
+    @Override
+    public boolean containsAnnotationPropertyInSignature(OWLAnnotationProperty i) {
+        return containsReference(i);
+    }
+
+    @Override
+    public boolean containsIndividualInSignature(OWLNamedIndividual i) {
+        return containsReference(i);
+    }
+
+    @Override
+    public boolean containsDatatypeInSignature(OWLDatatype i) {
+        return containsReference(i);
+    }
+
+    @Override
+    public String toString() {
+        return "MappedInternals{" + file.getAxiomCount() + " axioms}";
+    }
+}
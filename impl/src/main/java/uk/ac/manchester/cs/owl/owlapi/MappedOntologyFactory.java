@@ -0,0 +1,93 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.io.OWLOntologyCreationIOException;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyFactory;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+ * Ontology factory for files written by {@link MappedOntologyFile#write}. Add it to the ontology
+ * factories of a manager to load such files as read only {@link MappedOntologyImpl} instances:
+ * {@code manager.getOntologyFactories().add(new MappedOntologyFactory())}. Other documents are left
+ * to the other factories.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public class MappedOntologyFactory implements OWLOntologyFactory {
+
+    @Override
+    public boolean canCreateFromDocumentIRI(IRI documentIRI) {
+        return false;
+    }
+
+    @Override
+    public boolean canAttemptLoading(OWLOntologyDocumentSource source) {
+        File file = file(source.getDocumentIRI());
+        return file != null && MappedOntologyFile.isMappedOntology(file);
+    }
+
+    @Nullable
+    private static File file(IRI iri) {
+        if (!"file".equals(iri.getScheme())) {
+            return null;
+        }
+        try {
+            return new File(iri.toURI());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public OWLOntology createOWLOntology(OWLOntologyManager manager, OWLOntologyID ontologyID,
+        IRI documentIRI, OWLOntologyCreationHandler handler) throws OWLOntologyCreationException {
+        throw new OWLOntologyCreationException(
+            "Mapped ontologies can only be loaded from mapped ontology files");
+    }
+
+    @Override
+    public OWLOntology loadOWLOntology(OWLOntologyManager manager,
+        OWLOntologyDocumentSource documentSource, OWLOntologyCreationHandler handler,
+        OWLOntologyLoaderConfiguration configuration) throws OWLOntologyCreationException {
+        File file = file(documentSource.getDocumentIRI());
+        if (file == null) {
+            throw new OWLOntologyCreationException(
+                "Not a mapped ontology file: " + documentSource.getDocumentIRI());
+        }
+        MappedOntologyFile mapped;
+        try {
+            mapped = MappedOntologyFile.open(file, manager.getOWLDataFactory());
+        } catch (IOException e) {
+            throw new OWLOntologyCreationIOException(e);
+        }
+        OWLOntology ont = new MappedOntologyImpl(manager, mapped);
+        handler.ontologyCreated(ont);
+        handler.setOntologyFormat(ont, new MappedOntologyDocumentFormat());
+        mapped.getImportsDeclarations()
+            .forEach(d -> manager.makeLoadImportRequest(d, configuration));
+        return ont;
+    }
+}
@@ -0,0 +1,612 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.semanticweb.owlapi.util.OWLAPIPreconditions.checkNotNull;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+/**
+ * A read only, pre-indexed ontology file, accessed through a memory mapped buffer. The file
+ * contains the ontology id, imports and annotations, the axioms sorted by type and written in small
+ * blocks in the compact binary encoding, and, for each entity in the signature, the sorted numbers
+ * of the axioms that reference it. Axioms are decoded on demand through the data factory the file
+ * was opened with, so they are interned as usual; decoded blocks are softly cached. Several
+ * processes mapping the same file share the operating system page cache. Files larger than 2GB are
+ * not supported.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public final class MappedOntologyFile {
+
+    /** Magic number at the start of a mapped ontology file. */
+    static final int MAGIC = 0x4F574C4D;
+    private static final int VERSION = 2;
+    private static final int BLOCK_SIZE = 64;
+    private static final int HEADER_SIZE = 64;
+    /** Entity types, in the order of the entity tables, which is also the OWLObject order. */
+    static final List<EntityType<?>> ENTITY_TYPES =
+        Collections.unmodifiableList(Arrays.asList(EntityType.CLASS, EntityType.OBJECT_PROPERTY,
+            EntityType.DATA_PROPERTY, EntityType.NAMED_INDIVIDUAL, EntityType.ANNOTATION_PROPERTY,
+            EntityType.DATATYPE));
+    private final ByteBuffer buffer;
+    private final OWLDataFactory df;
+    private final int axiomCount;
+    private final int blockSize;
+    private final int blockTable;
+    private final int[] typeStart;
+    private final int[] typeCount;
+    private final int[] entityTables;
+    private final int[] entityCounts;
+    private final OWLOntologyID ontologyID;
+    private final List<OWLImportsDeclaration> importsDeclarations;
+    private final List<OWLAnnotation> annotations;
+    private final AtomicReferenceArray<SoftReference<OWLAxiom[]>> blocks;
+
+    @SuppressWarnings("unchecked")
+    private MappedOntologyFile(ByteBuffer buffer, OWLDataFactory df) throws IOException {
+        this.buffer = buffer;
+        this.df = df;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a mapped ontology file, or unsupported version");
+        }
+        axiomCount = buffer.getInt(8);
+        blockSize = buffer.getInt(12);
+        blockTable = buffer.getInt(24);
+        int typeTable = buffer.getInt(28);
+        int entityTable = buffer.getInt(32);
+        OWLObjectBinaryInput header = input(buffer.getInt(16), buffer.getInt(20));
+        IRI ontologyIRI = (IRI) header.read();
+        IRI versionIRI = (IRI) header.read();
+        ontologyID =
+            ontologyIRI == null ? new OWLOntologyID() : new OWLOntologyID(ontologyIRI, versionIRI);
+        importsDeclarations = new ArrayList<>();
+        for (IRI i : (List<IRI>) header.read()) {
+            importsDeclarations.add(df.getOWLImportsDeclaration(i));
+        }
+        annotations = (List<OWLAnnotation>) header.read();
+        int types = buffer.getInt(typeTable);
+        typeStart = new int[types];
+        typeCount = new int[types];
+        for (int i = 0; i < types; i++) {
+            typeStart[i] = buffer.getInt(typeTable + 4 + i * 8);
+            typeCount[i] = buffer.getInt(typeTable + 8 + i * 8);
+        }
+        entityTables = new int[ENTITY_TYPES.size()];
+        entityCounts = new int[ENTITY_TYPES.size()];
+        int position = entityTable;
+        for (int i = 0; i < entityTables.length; i++) {
+            entityCounts[i] = buffer.getInt(position);
+            entityTables[i] = position + 4;
+            position += 4 + entityCounts[i] * 16;
+        }
+        blocks = new AtomicReferenceArray<>((axiomCount + blockSize - 1) / blockSize);
+    }
+
+    /**
+     * Map a file written by {@link #write(OWLOntology, File)}; axioms are decoded with a new data
+     * factory.
+     *
+     * @param file file to map
+     * @return mapped file
+     * @throws IOException if the file cannot be read or is not a mapped ontology file
+     */
+    public static MappedOntologyFile open(File file) throws IOException {
+        return open(file, new OWLDataFactoryImpl());
+    }
+
+    /**
+     * Map a file written by {@link #write(OWLOntology, File)}.
+     *
+     * @param file file to map
+     * @param df data factory to decode axioms with
+     * @return mapped file
+     * @throws IOException if the file cannot be read or is not a mapped ontology file
+     */
+    public static MappedOntologyFile open(File file, OWLDataFactory df) throws IOException {
+        try (RandomAccessFile f = new RandomAccessFile(file, "r");
+            FileChannel channel = f.getChannel()) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Mapped ontology files larger than 2GB are not supported");
+            }
+            // the mapping remains valid after the channel is closed
+            return new MappedOntologyFile(channel.map(MapMode.READ_ONLY, 0, channel.size()),
+                checkNotNull(df, "df cannot be null"));
+        }
+    }
+
+    /**
+     * @param file file to check
+     * @return true if the file starts with the mapped ontology magic number
+     */
+    public static boolean isMappedOntology(File file) {
+        if (!file.isFile()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Write an ontology as a mapped ontology file. Imported ontologies are not included. Offsets in
+     * the file are 32 bit signed integers: writing fails, leaving an incomplete file without a
+     * valid header, if the file would grow larger than 2GB.
+     *
+     * @param ontology ontology to write
+     * @param file destination file
+     * @throws IOException if the file cannot be written, or would be larger than 2GB
+     */
+    public static void write(OWLOntology ontology, File file) throws IOException {
+        checkNotNull(ontology, "ontology cannot be null");
+        int types =
+            AxiomType.AXIOM_TYPES.stream().mapToInt(AxiomType::getIndex).max().orElse(0) + 1;
+        int[] starts = new int[types];
+        int[] counts = new int[types];
+        Map<OWLAxiom, Integer> numbers = new HashMap<>();
+        List<EntityType<?>> entityTypes = ENTITY_TYPES;
+        int[] header = new int[HEADER_SIZE / 4];
+        OffsetOutputStream offsets = new OffsetOutputStream(
+            new BufferedOutputStream(new FileOutputStream(file)), Integer.MAX_VALUE);
+        try (DataOutputStream out = new DataOutputStream(offsets)) {
+            out.write(new byte[HEADER_SIZE]);
+            header[0] = MAGIC;
+            header[1] = VERSION;
+            header[3] = BLOCK_SIZE;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream headerOut = new DataOutputStream(bytes);
+            OWLObjectBinaryOutput objects = new OWLObjectBinaryOutput(headerOut);
+            OWLOntologyID id = ontology.getOntologyID();
+            objects.write(id.getOntologyIRI().orElse(null));
+            objects.write(id.getVersionIRI().orElse(null));
+            objects
+                .write(asList(ontology.importsDeclarations().map(OWLImportsDeclaration::getIRI)));
+            objects.write(asList(ontology.annotations()));
+            headerOut.flush();
+            byte[] ontologyHeader = bytes.toByteArray();
+            header[4] = offsets.offset();
+            header[5] = ontologyHeader.length;
+            out.write(ontologyHeader);
+            // axioms, sorted by type, in blocks
+            List<Integer> blockOffsets = new ArrayList<>();
+            List<OWLAxiom> block = new ArrayList<>(BLOCK_SIZE);
+            for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+                starts[type.getIndex()] = numbers.size();
+                for (OWLAxiom ax : asList(ontology.axioms(type).sorted())) {
+                    numbers.put(ax, Integer.valueOf(numbers.size()));
+                    block.add(ax);
+                    if (block.size() == BLOCK_SIZE) {
+                        writeBlock(out, offsets, block, blockOffsets);
+                    }
+                }
+                counts[type.getIndex()] = numbers.size() - starts[type.getIndex()];
+            }
+            if (!block.isEmpty()) {
+                writeBlock(out, offsets, block, blockOffsets);
+            }
+            header[2] = numbers.size();
+            header[6] = offsets.offset();
+            out.writeInt(blockOffsets.size());
+            for (Integer offset : blockOffsets) {
+                out.writeInt(offset.intValue());
+            }
+            // end of the last block
+            out.writeInt(header[6]);
+            header[7] = offsets.offset();
+            out.writeInt(types);
+            for (int i = 0; i < types; i++) {
+                out.writeInt(starts[i]);
+                out.writeInt(counts[i]);
+            }
+            // names and references for each entity, then the entity tables
+            List<int[]> tables = new ArrayList<>();
+            List<byte[][]> tableNames = new ArrayList<>();
+            for (EntityType<?> type : entityTypes) {
+                List<OWLEntity> entities = asList(ontology.signature()
+                    .filter(e -> e.getEntityType().equals(type)).distinct().sorted());
+                int[] table = new int[entities.size() * 3];
+                byte[][] names = new byte[entities.size()][];
+                for (int i = 0; i < entities.size(); i++) {
+                    OWLEntity e = entities.get(i);
+                    byte[] name = e.getIRI().toString().getBytes(StandardCharsets.UTF_8);
+                    names[i] = name;
+                    table[i * 3] = offsets.offset();
+                    out.writeInt(name.length);
+                    out.write(name);
+                    int[] refs = ontology.referencingAxioms(e).map(numbers::get)
+                        .filter(n -> n != null).mapToInt(Integer::intValue).distinct().sorted()
+                        .toArray();
+                    table[i * 3 + 1] = offsets.offset();
+                    table[i * 3 + 2] = refs.length;
+                    for (int r : refs) {
+                        out.writeInt(r);
+                    }
+                }
+                tables.add(table);
+                tableNames.add(names);
+            }
+            header[8] = offsets.offset();
+            for (int t = 0; t < tables.size(); t++) {
+                int[] table = tables.get(t);
+                byte[][] names = tableNames.get(t);
+                int count = table.length / 3;
+                out.writeInt(count);
+                for (int value : table) {
+                    out.writeInt(value);
+                }
+                // lookup order: entries sorted by the UTF-8 bytes of their IRI
+                Integer[] order = new Integer[count];
+                for (int i = 0; i < count; i++) {
+                    order[i] = Integer.valueOf(i);
+                }
+                Arrays.sort(order, (a, b) -> compare(names[a.intValue()], names[b.intValue()]));
+                for (Integer i : order) {
+                    out.writeInt(i.intValue());
+                }
+            }
+        }
+        try (RandomAccessFile f = new RandomAccessFile(file, "rw")) {
+            for (int value : header) {
+                f.writeInt(value);
+            }
+        }
+    }
+
+    private static void writeBlock(DataOutputStream out, OffsetOutputStream offsets,
+        List<OWLAxiom> block, List<Integer> blockOffsets) throws IOException {
+        blockOffsets.add(Integer.valueOf(offsets.offset()));
+        // each block has its own object numbering, so that it can be decoded on its own
+        new OWLObjectBinaryOutput(out).writeAxioms(block);
+        block.clear();
+    }
+
+    private OWLObjectBinaryInput input(int offset, int length) {
+        ByteBuffer b = buffer.duplicate();
+        b.position(offset);
+        b.limit(offset + length);
+        return new OWLObjectBinaryInput(new DataInputStream(new ByteBufferInputStream(b)), df);
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    private int compare(int nameOffset, byte[] b) {
+        int length = buffer.getInt(nameOffset);
+        int common = Math.min(length, b.length);
+        for (int i = 0; i < common; i++) {
+            int diff = (buffer.get(nameOffset + 4 + i) & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - b.length;
+    }
+
+    /**
+     * @return ontology id
+     */
+    public OWLOntologyID getOntologyID() {
+        return ontologyID;
+    }
+
+    /**
+     * @return imports declarations
+     */
+    public List<OWLImportsDeclaration> getImportsDeclarations() {
+        return Collections.unmodifiableList(importsDeclarations);
+    }
+
+    /**
+     * @return ontology annotations
+     */
+    public List<OWLAnnotation> getAnnotations() {
+        return Collections.unmodifiableList(annotations);
+    }
+
+    /**
+     * @return number of axioms
+     */
+    public int getAxiomCount() {
+        return axiomCount;
+    }
+
+    /**
+     * @param type axiom type
+     * @return number of axioms of the type
+     */
+    public int getAxiomCount(AxiomType<?> type) {
+        return type.getIndex() < typeCount.length ? typeCount[type.getIndex()] : 0;
+    }
+
+    int start(AxiomType<?> type) {
+        return type.getIndex() < typeStart.length ? typeStart[type.getIndex()] : 0;
+    }
+
+    /**
+     * @param number axiom number, between 0 and the axiom count
+     * @return the axiom
+     */
+    public OWLAxiom axiom(int number) {
+        int index = number / blockSize;
+        SoftReference<OWLAxiom[]> ref = blocks.get(index);
+        OWLAxiom[] block = ref == null ? null : ref.get();
+        if (block == null) {
+            int offset = buffer.getInt(blockTable + 4 + index * 4);
+            int end = buffer.getInt(blockTable + 8 + index * 4);
+            List<OWLAxiom> decoded = new ArrayList<>(blockSize);
+            try {
+                input(offset, end - offset).readAxioms(decoded::add);
+            } catch (IOException e) {
+                throw new OWLRuntimeException("Corrupt mapped ontology file", e);
+            }
+            block = decoded.toArray(new OWLAxiom[decoded.size()]);
+            blocks.set(index, new SoftReference<>(block));
+        }
+        return block[number % blockSize];
+    }
+
+    /**
+     * @return all axioms
+     */
+    public Stream<OWLAxiom> axioms() {
+        return IntStream.range(0, axiomCount).mapToObj(this::axiom);
+    }
+
+    /**
+     * @param type axiom type
+     * @return axioms of the type
+     */
+    public Stream<OWLAxiom> axioms(AxiomType<?> type) {
+        int start = start(type);
+        return IntStream.range(start, start + getAxiomCount(type)).mapToObj(this::axiom);
+    }
+
+    /**
+     * @param type entity type
+     * @return number of entities of the type in the signature
+     */
+    public int getEntityCount(EntityType<?> type) {
+        return entityCounts[ENTITY_TYPES.indexOf(type)];
+    }
+
+    /**
+     * @param <E> entity class
+     * @param type entity type
+     * @param df data factory to build entities
+     * @return entities of the type, in sorted order
+     */
+    public <E extends OWLEntity> Stream<E> entities(EntityType<E> type, OWLDataFactory df) {
+        int table = entityTables[ENTITY_TYPES.indexOf(type)];
+        return IntStream.range(0, getEntityCount(type))
+            .mapToObj(i -> df.getOWLEntity(type, iri(buffer.getInt(table + i * 12))));
+    }
+
+    private IRI iri(int nameOffset) {
+        byte[] name = new byte[buffer.getInt(nameOffset)];
+        ByteBuffer b = buffer.duplicate();
+        b.position(nameOffset + 4);
+        b.get(name);
+        return IRI.create(new String(name, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param type entity type
+     * @param iri entity iri
+     * @return position of the entity in the table for its type, or -1 if the entity is not in the
+     *         signature
+     */
+    int find(EntityType<?> type, IRI iri) {
+        int t = ENTITY_TYPES.indexOf(type);
+        int table = entityTables[t];
+        int order = table + entityCounts[t] * 12;
+        byte[] key = iri.toString().getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = entityCounts[t] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = buffer.getInt(order + mid * 4);
+            int diff = compare(buffer.getInt(table + entry * 12), key);
+            if (diff < 0) {
+                low = mid + 1;
+            } else if (diff > 0) {
+                high = mid - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param e entity
+     * @return true if the entity is in the signature of the ontology, referenced by axioms or by
+     *         ontology annotations
+     */
+    public boolean containsEntity(OWLEntity e) {
+        return find(e.getEntityType(), e.getIRI()) >= 0;
+    }
+
+    /**
+     * @param type entity type
+     * @param iri entity iri
+     * @return true if an entity of the specified type is referenced by at least one axiom
+     */
+    public boolean containsReference(EntityType<?> type, IRI iri) {
+        int entry = find(type, iri);
+        return entry >= 0 && referenceCount(type, entry) > 0;
+    }
+
+    /**
+     * @param type entity type
+     * @return true if at least one entity of the specified type is referenced by an axiom
+     */
+    public boolean containsReferences(EntityType<?> type) {
+        int t = ENTITY_TYPES.indexOf(type);
+        if (t < 0) {
+            return false;
+        }
+        for (int entry = 0; entry < entityCounts[t]; entry++) {
+            if (referenceCount(type, entry) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int referenceCount(EntityType<?> type, int entry) {
+        return buffer.getInt(entityTables[ENTITY_TYPES.indexOf(type)] + entry * 12 + 8);
+    }
+
+    /**
+     * @param e entity
+     * @return sorted numbers of the axioms referencing the entity
+     */
+    public IntStream references(OWLEntity e) {
+        int entry = find(e.getEntityType(), e.getIRI());
+        if (entry < 0) {
+            return IntStream.empty();
+        }
+        int refs = buffer.getInt(entityTables[ENTITY_TYPES.indexOf(e.getEntityType())]
+            + entry * 12 + 4);
+        return IntStream.range(0, referenceCount(e.getEntityType(), entry))
+            .map(i -> buffer.getInt(refs + i * 4));
+    }
+
+    /**
+     * @param e entity
+     * @param type axiom type
+     * @return axioms of the specified type referencing the entity
+     */
+    public Stream<OWLAxiom> references(OWLEntity e, AxiomType<?> type) {
+        int start = start(type);
+        int end = start + getAxiomCount(type);
+        return references(e).filter(i -> i >= start && i < end).mapToObj(this::axiom);
+    }
+
+    /**
+     * Output stream that tracks the offset of the next byte and refuses to write past a limit;
+     * unlike {@link DataOutputStream#size()}, the offset does not silently saturate.
+     */
+    static class OffsetOutputStream extends FilterOutputStream {
+
+        private final long limit;
+        private long written = 0;
+
+        OffsetOutputStream(OutputStream out, long limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        /**
+         * @return offset of the next byte to be written
+         */
+        int offset() {
+            return (int) written;
+        }
+
+        private void reserve(int length) throws IOException {
+            if (written + length > limit) {
+                throw new IOException("Mapped ontology files larger than 2GB are not supported");
+            }
+            written += length;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            reserve(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            reserve(len);
+            out.write(b, off, len);
+        }
+    }
+
+    /**
+     * Input stream over the remaining bytes of a buffer.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer b;
+
+        ByteBufferInputStream(ByteBuffer b) {
+            this.b = b;
+        }
+
+        @Override
+        public int read() {
+            return b.hasRemaining() ? b.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (!b.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, b.remaining());
+            b.get(bytes, off, n);
+            return n;
+        }
+    }
+}
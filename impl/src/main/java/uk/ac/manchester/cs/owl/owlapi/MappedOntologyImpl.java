@@ -0,0 +1,132 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.semanticweb.owlapi.util.OWLAPIPreconditions.checkNotNull;
+
+import java.util.stream.Stream;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+ * A read only ontology backed by a {@link MappedOntologyFile}. The ontology is usable as soon as
+ * the file is mapped: axiom counts, signature, declarations and referencing axioms are read from
+ * the pre-built tables in the file, and axioms are deserialized lazily. Lookups that need other
+ * indexes populate the in memory indexes on first use. Changes cannot be applied to this ontology.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public class MappedOntologyImpl extends OWLImmutableOntologyImpl {
+
+    private final transient MappedOntologyFile file;
+
+    /**
+     * @param manager ontology manager
+     * @param file mapped file with the ontology contents
+     */
+    public MappedOntologyImpl(OWLOntologyManager manager, MappedOntologyFile file) {
+        this(manager, checkNotNull(file, "file cannot be null"),
+            new MappedInternals(file, manager.getOntologyConfigurator()));
+    }
+
+    private MappedOntologyImpl(OWLOntologyManager manager, MappedOntologyFile file,
+        MappedInternals ints) {
+        super(manager, file.getOntologyID(), ints);
+        this.file = file;
+    }
+
+    /**
+     * @return a copy of this ontology that does not depend on the mapped file
+     */
+    protected Object writeReplace() {
+        OWLImmutableOntologyImpl copy =
+            new OWLImmutableOntologyImpl(getOWLOntologyManager(), getOntologyID());
+        file.axioms().forEach(copy.ints::addAxiom);
+        importsDeclarations().forEach(copy.ints::addImportsDeclaration);
+        annotations().forEach(copy.ints::addOntologyAnnotation);
+        return copy;
+    }
+
+    @Override
+    public boolean containsAxiom(OWLAxiom axiom) {
+        AxiomType<?> type = axiom.getAxiomType();
+        OWLEntity e = axiom.signature().findFirst().orElse(null);
+        if (e == null) {
+            return file.axioms(type).anyMatch(axiom::equals);
+        }
+        return file.references(e, type).anyMatch(axiom::equals);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends OWLAxiom> Stream<T> axioms(AxiomType<T> axiomType) {
+        return (Stream<T>) file.axioms(axiomType);
+    }
+
+    @Override
+    public Stream<OWLEntity> signature() {
+        // the entity tables include the signature of the ontology annotations, and are sorted
+        return unsortedSignature();
+    }
+
+    @Override
+    public Stream<OWLEntity> unsortedSignature() {
+        return MappedOntologyFile.ENTITY_TYPES.stream().flatMap(t -> file.entities(t, df));
+    }
+
+    @Override
+    public Stream<OWLClass> classesInSignature() {
+        return file.entities(EntityType.CLASS, df);
+    }
+
+    @Override
+    public Stream<OWLObjectProperty> objectPropertiesInSignature() {
+        return file.entities(EntityType.OBJECT_PROPERTY, df);
+    }
+
+    @Override
+    public Stream<OWLDataProperty> dataPropertiesInSignature() {
+        return file.entities(EntityType.DATA_PROPERTY, df);
+    }
+
+    @Override
+    public Stream<OWLNamedIndividual> individualsInSignature() {
+        return file.entities(EntityType.NAMED_INDIVIDUAL, df);
+    }
+
+    @Override
+    public Stream<OWLAnnotationProperty> annotationPropertiesInSignature() {
+        return file.entities(EntityType.ANNOTATION_PROPERTY, df);
+    }
+
+    @Override
+    public Stream<OWLDatatype> datatypesInSignature() {
+        return file.entities(EntityType.DATATYPE, df);
+    }
+
+    @Override
+    public boolean containsEntityInSignature(OWLEntity owlEntity) {
+        return file.containsEntity(owlEntity);
+    }
+}
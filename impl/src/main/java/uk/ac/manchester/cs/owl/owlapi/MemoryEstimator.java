@@ -0,0 +1,164 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.util.SmallSet;
+
+import com.carrotsearch.hppcrt.maps.ObjectObjectHashMap;
+
+/**
+ * Shallow heap size estimates for the structures used by ontology internals. Sizes assume a 64 bit
+ * JVM with compressed references and compressed class pointers, and objects aligned to 8 bytes.
+ * Estimates are meant to compare ontologies and indexes with each other, not to be exact.
+ *
+ * @author ignazio
+ */
+final class MemoryEstimator {
+
+    /** Object header size. */
+    static final int HEADER = 12;
+    /** Array header size, including the length. */
+    static final int ARRAY_HEADER = 16;
+    /** Reference size. */
+    static final int REFERENCE = 4;
+
+    private static final Class<?> SINGLETON = Collections.singleton(Boolean.TRUE).getClass();
+
+    private MemoryEstimator() {}
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * @param references number of reference fields
+     * @param primitiveBytes bytes taken by primitive fields
+     * @return size of an object with the given fields
+     */
+    static long object(int references, int primitiveBytes) {
+        return align(HEADER + references * (long) REFERENCE + primitiveBytes);
+    }
+
+    /**
+     * @param length array length
+     * @param elementBytes size of an element
+     * @return size of the array
+     */
+    static long array(int length, int elementBytes) {
+        return align(ARRAY_HEADER + length * (long) elementBytes);
+    }
+
+    /**
+     * @param s string
+     * @return size of the string and its character array
+     */
+    static long string(String s) {
+        return object(1, 4) + array(s.length(), 2);
+    }
+
+    /**
+     * @param iri IRI
+     * @return size of the IRI and its remainder; namespaces are interned and not included
+     */
+    static long iri(IRI iri) {
+        return object(3, 4) + string(iri.getRemainder().orElse(""));
+    }
+
+    /**
+     * @param m hash map
+     * @return size of the map and its key, value and hash cache buffers
+     */
+    static long hashMap(ObjectObjectHashMap<?, ?> m) {
+        int capacity = m.keys.length;
+        return object(7, 24) + 2 * array(capacity, REFERENCE) + array(capacity, 4);
+    }
+
+    /**
+     * @param capacity length of the key buffer
+     * @return size of an hppcrt hash set and its key and hash cache buffers
+     */
+    static long hashSet(int capacity) {
+        return object(4, 20) + array(capacity, REFERENCE) + array(capacity, 4);
+    }
+
+    /**
+     * @param c index value collection
+     * @return size of the collection, excluding its elements
+     */
+    static long collection(Collection<?> c) {
+        long hashSet = MapPointer.hashSetMemoryUsage(c);
+        if (hashSet >= 0) {
+            return hashSet;
+        }
+        if (c instanceof CompactAxiomSet) {
+            return ((CompactAxiomSet<?>) c).estimateMemoryUsage();
+        }
+        if (c instanceof SmallSet) {
+            return object(3, 0);
+        }
+        if (c.getClass() == SINGLETON) {
+            return object(1, 0);
+        }
+        return object(2, 8) + array(c.size(), REFERENCE);
+    }
+
+    /**
+     * Estimate the size of an object graph, excluding entities and IRIs, which are shared between
+     * ontologies.
+     *
+     * @param o object to estimate
+     * @return estimated size
+     */
+    static long owlObject(Object o) {
+        if (o instanceof OWLEntity || o instanceof IRI) {
+            return 0;
+        }
+        if (o instanceof String) {
+            return string((String) o);
+        }
+        if (o instanceof OWLLiteralImplCompact) {
+            return ((OWLLiteralImplCompact) o).estimateMemoryUsage();
+        }
+        if (o instanceof OWLLiteral) {
+            OWLLiteral l = (OWLLiteral) o;
+            return object(3, 0) + string(l.getLiteral()) + (l.hasLang() ? string(l.getLang()) : 0);
+        }
+        if (o instanceof Collection) {
+            long size = object(2, 4) + array(((Collection<?>) o).size(), REFERENCE);
+            for (Object e : (Collection<?>) o) {
+                size += owlObject(e);
+            }
+            return size;
+        }
+        if (o instanceof OWLObject) {
+            int fields = 0;
+            long size = 0;
+            for (Iterator<?> i = ((OWLObject) o).components().iterator(); i.hasNext();) {
+                size += owlObject(i.next());
+                fields++;
+            }
+            // component fields, plus hash code and signature caches
+            return size + object(fields + 1, 4);
+        }
+        // boxed numbers, enums and other small values
+        return o instanceof Enum ? 0 : object(0, 8);
+    }
+}
@@ -1,11 +1,15 @@
 package uk.ac.manchester.cs.owl.owlapi;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.stream.Stream;
 
 import org.semanticweb.owlapi.model.OWLAnnotationProperty;
 import org.semanticweb.owlapi.model.OWLAnnotationPropertyDomainAxiom;
 import org.semanticweb.owlapi.model.OWLAnnotationPropertyRangeAxiom;
 import org.semanticweb.owlapi.model.OWLAxiomIndex;
+import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLDatatype;
 import org.semanticweb.owlapi.model.OWLDatatypeDefinitionAxiom;
 import org.semanticweb.owlapi.model.OWLSubAnnotationPropertyOfAxiom;
@@ -16,9 +20,21 @@ import org.semanticweb.owlapi.search.Filters;
  * @since 4.0.0
  */
 public abstract class OWLAxiomIndexImpl extends OWLObjectImpl
-    implements OWLAxiomIndex, HasTrimToSize {
+    implements OWLAxiomIndex, HasTrimToSize, HasWarmUpIndexes, HasBulkLoad,
+    HasPersistedIndexes, HasIndexEviction {
 
-    protected final Internals ints = new Internals();
+    protected final Internals ints;
+
+    protected OWLAxiomIndexImpl() {
+        this(new Internals());
+    }
+
+    /**
+     * @param ints internals holding the axioms and indexes
+     */
+    protected OWLAxiomIndexImpl(Internals ints) {
+        this.ints = ints;
+    }
 
     @Override
     public void trimToSize() {
@@ -26,6 +42,41 @@ public abstract class OWLAxiomIndexImpl extends OWLObjectImpl
         // ints.trimToSize();
     }
 
+    @Override
+    public void warmUpIndexes() {
+        ints.warmUpIndexes();
+    }
+
+    @Override
+    public int evictUnusedIndexes() {
+        return ints.evictUnusedIndexes();
+    }
+
+    @Override
+    public void beginBulkLoad() {
+        ints.beginBulkLoad();
+    }
+
+    @Override
+    public void endBulkLoad() {
+        ints.endBulkLoad();
+    }
+
+    @Override
+    public boolean isBulkLoading() {
+        return ints.isBulkLoading();
+    }
+
+    @Override
+    public void writeIndexes(DataOutput out) throws IOException {
+        ints.writeIndexes(out);
+    }
+
+    @Override
+    public void readIndexes(DataInput in, OWLDataFactory df) throws IOException {
+        ints.readIndexes(in, df);
+    }
+
     @Override
     public Stream<OWLDatatypeDefinitionAxiom> datatypeDefinitions(OWLDatatype datatype) {
         // XXX stream better?
@@ -41,6 +41,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -108,6 +109,7 @@ import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLNamedIndividual;
 import org.semanticweb.owlapi.model.OWLNegativeDataPropertyAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLNegativeObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObject;
 import org.semanticweb.owlapi.model.OWLObjectAllValuesFrom;
 import org.semanticweb.owlapi.model.OWLObjectComplementOf;
 import org.semanticweb.owlapi.model.OWLObjectExactCardinality;
@@ -248,6 +250,22 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         dataFactoryInternals.purge();
     }
 
+    /**
+     * @param o object to share
+     * @return an object equal to the input, shared with other callers if hash consing is enabled
+     */
+    private <T extends OWLObject> T intern(T o) {
+        return dataFactoryInternals.intern(o);
+    }
+
+    /**
+     * @return estimated bytes retained by the caches of this data factory, by cache name
+     * @since 5.1.18
+     */
+    public Map<String, Long> estimateCacheMemoryUsage() {
+        return dataFactoryInternals.estimateCacheMemoryUsage();
+    }
+
     @Override
     public <E extends OWLEntity> E getOWLEntity(EntityType<E> entityType, IRI iri) {
         checkNotNull(entityType, ENTITY_TYPE_CANNOT_BE_NULL);
@@ -368,18 +386,18 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
 
     @Override
     public OWLLiteral getOWLLiteral(boolean value) {
-        return dataFactoryInternals.getOWLLiteral(value);
+        return intern(dataFactoryInternals.getOWLLiteral(value));
     }
 
     @Override
     public OWLDataOneOf getOWLDataOneOf(Stream<? extends OWLLiteral> values) {
-        return new OWLDataOneOfImpl(values);
+        return intern(new OWLDataOneOfImpl(values));
     }
 
     @Override
     public OWLDataComplementOf getOWLDataComplementOf(OWLDataRange dataRange) {
         checkNotNull(dataRange, DATA_RANGE_CANNOT_BE_NULL);
-        return new OWLDataComplementOfImpl(dataRange);
+        return intern(new OWLDataComplementOfImpl(dataRange));
     }
 
     @Override
@@ -397,12 +415,12 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
     @Override
     public OWLDataIntersectionOf getOWLDataIntersectionOf(
         Stream<? extends OWLDataRange> dataRanges) {
-        return new OWLDataIntersectionOfImpl(sortedList(OWLDataRange.class, dataRanges));
+        return intern(new OWLDataIntersectionOfImpl(sortedList(OWLDataRange.class, dataRanges)));
     }
 
     @Override
     public OWLDataUnionOf getOWLDataUnionOf(Stream<? extends OWLDataRange> dataRanges) {
-        return new OWLDataUnionOfImpl(sortedList(OWLDataRange.class, dataRanges));
+        return intern(new OWLDataUnionOfImpl(sortedList(OWLDataRange.class, dataRanges)));
     }
 
     @Override
@@ -410,7 +428,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         Collection<OWLFacetRestriction> facetRestrictions) {
         checkNotNull(dataType, DATATYPE_CANNOT_BE_NULL);
         checkIterableNotNull(facetRestrictions, "facets", true);
-        return new OWLDatatypeRestrictionImpl(dataType, facetRestrictions);
+        return intern(new OWLDatatypeRestrictionImpl(dataType, facetRestrictions));
     }
 
     @Override
@@ -419,28 +437,29 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         checkNotNull(dataType, DATATYPE_CANNOT_BE_NULL);
         checkNotNull(facet, FACET_CANNOT_BE_NULL);
         checkNotNull(typedLiteral, TYPED_CONSTANT_CANNOT_BE_NULL);
-        return new OWLDatatypeRestrictionImpl(dataType,
-            CollectionFactory.createSet(getOWLFacetRestriction(facet, typedLiteral)));
+        return intern(new OWLDatatypeRestrictionImpl(dataType,
+            CollectionFactory.createSet(getOWLFacetRestriction(facet, typedLiteral))));
     }
 
     @Override
     public OWLFacetRestriction getOWLFacetRestriction(OWLFacet facet, OWLLiteral facetValue) {
         checkNotNull(facet, FACET_CANNOT_BE_NULL);
         checkNotNull(facetValue, FACET_VALUE_CANNOT_BE_NULL);
-        return new OWLFacetRestrictionImpl(facet, facetValue);
+        return intern(new OWLFacetRestrictionImpl(facet, facetValue));
     }
 
     @Override
     public OWLObjectIntersectionOf getOWLObjectIntersectionOf(
         Stream<? extends OWLClassExpression> operands) {
-        return new OWLObjectIntersectionOfImpl(sortedList(OWLClassExpression.class, operands));
+        return intern(
+            new OWLObjectIntersectionOfImpl(sortedList(OWLClassExpression.class, operands)));
     }
 
     @Override
     public OWLObjectIntersectionOf getOWLObjectIntersectionOf(
         Collection<? extends OWLClassExpression> operands) {
-        return new OWLObjectIntersectionOfImpl(
-            sortedList(OWLClassExpression.class, operands.stream()));
+        return intern(new OWLObjectIntersectionOfImpl(
+            sortedList(OWLClassExpression.class, operands.stream())));
     }
 
     @Override
@@ -448,7 +467,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         OWLDataRange dataRange) {
         checkNotNull(dataRange, DATA_RANGE_CANNOT_BE_NULL);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLDataAllValuesFromImpl(property, dataRange);
+        return intern(new OWLDataAllValuesFromImpl(property, dataRange));
     }
 
     @Override
@@ -462,7 +481,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         OWLDataPropertyExpression property) {
         checkNotNegative(cardinality, CARDINALITY_CANNOT_BE_NEGATIVE);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLDataExactCardinalityImpl(property, cardinality, getTopDatatype());
+        return intern(new OWLDataExactCardinalityImpl(property, cardinality, getTopDatatype()));
     }
 
     @Override
@@ -471,7 +490,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         checkNotNull(dataRange, DATA_RANGE_CANNOT_BE_NULL);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
         checkNotNegative(cardinality, CARDINALITY_CANNOT_BE_NEGATIVE);
-        return new OWLDataExactCardinalityImpl(property, cardinality, dataRange);
+        return intern(new OWLDataExactCardinalityImpl(property, cardinality, dataRange));
     }
 
     @Override
@@ -485,7 +504,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         OWLDataPropertyExpression property) {
         checkNotNegative(cardinality, CARDINALITY_CANNOT_BE_NEGATIVE);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLDataMaxCardinalityImpl(property, cardinality, getTopDatatype());
+        return intern(new OWLDataMaxCardinalityImpl(property, cardinality, getTopDatatype()));
     }
 
     @Override
@@ -494,7 +513,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         checkNotNegative(cardinality, CARDINALITY_CANNOT_BE_NEGATIVE);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
         checkNotNull(dataRange, DATA_RANGE_CANNOT_BE_NULL);
-        return new OWLDataMaxCardinalityImpl(property, cardinality, dataRange);
+        return intern(new OWLDataMaxCardinalityImpl(property, cardinality, dataRange));
     }
 
     @Override
@@ -508,7 +527,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         OWLDataPropertyExpression property) {
         checkNotNegative(cardinality, CARDINALITY_CANNOT_BE_NEGATIVE);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLDataMinCardinalityImpl(property, cardinality, getTopDatatype());
+        return intern(new OWLDataMinCardinalityImpl(property, cardinality, getTopDatatype()));
     }
 
     @Override
@@ -517,7 +536,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         checkNotNull(dataRange, DATA_RANGE_CANNOT_BE_NULL);
         checkNotNegative(cardinality, CARDINALITY_CANNOT_BE_NEGATIVE);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLDataMinCardinalityImpl(property, cardinality, dataRange);
+        return intern(new OWLDataMinCardinalityImpl(property, cardinality, dataRange));
     }
 
     @Override
@@ -531,7 +550,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         OWLDataRange dataRange) {
         checkNotNull(dataRange, DATA_RANGE_CANNOT_BE_NULL);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLDataSomeValuesFromImpl(property, dataRange);
+        return intern(new OWLDataSomeValuesFromImpl(property, dataRange));
     }
 
     @Override
@@ -545,13 +564,13 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         OWLLiteral value) {
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
         checkNotNull(value, VALUE_CANNOT_BE_NULL);
-        return new OWLDataHasValueImpl(property, value);
+        return intern(new OWLDataHasValueImpl(property, value));
     }
 
     @Override
     public OWLObjectComplementOf getOWLObjectComplementOf(OWLClassExpression operand) {
         checkNotNull(operand, "operand");
-        return new OWLObjectComplementOfImpl(operand);
+        return intern(new OWLObjectComplementOfImpl(operand));
     }
 
     @Override
@@ -559,12 +578,12 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         OWLClassExpression classExpression) {
         checkNotNull(classExpression, CLASS_EXPRESSION_CANNOT_BE_NULL);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLObjectAllValuesFromImpl(property, classExpression);
+        return intern(new OWLObjectAllValuesFromImpl(property, classExpression));
     }
 
     @Override
     public OWLObjectOneOf getOWLObjectOneOf(Stream<? extends OWLIndividual> values) {
-        return new OWLObjectOneOfImpl(values.map(x -> x));
+        return intern(new OWLObjectOneOfImpl(values.map(x -> x)));
     }
 
     @Override
@@ -572,7 +591,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         OWLObjectPropertyExpression property) {
         checkNotNegative(cardinality, CARDINALITY_CANNOT_BE_NEGATIVE);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLObjectExactCardinalityImpl(property, cardinality, OWL_THING);
+        return intern(new OWLObjectExactCardinalityImpl(property, cardinality, OWL_THING));
     }
 
     @Override
@@ -581,7 +600,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         checkNotNull(classExpression, CLASS_EXPRESSION_CANNOT_BE_NULL);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
         checkNotNegative(cardinality, CARDINALITY_CANNOT_BE_NEGATIVE);
-        return new OWLObjectExactCardinalityImpl(property, cardinality, classExpression);
+        return intern(new OWLObjectExactCardinalityImpl(property, cardinality, classExpression));
     }
 
     @Override
@@ -589,7 +608,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         OWLObjectPropertyExpression property) {
         checkNotNegative(cardinality, CARDINALITY_CANNOT_BE_NEGATIVE);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLObjectMinCardinalityImpl(property, cardinality, OWL_THING);
+        return intern(new OWLObjectMinCardinalityImpl(property, cardinality, OWL_THING));
     }
 
     @Override
@@ -598,7 +617,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         checkNotNull(classExpression, CLASS_EXPRESSION_CANNOT_BE_NULL);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
         checkNotNegative(cardinality, CARDINALITY_CANNOT_BE_NEGATIVE);
-        return new OWLObjectMinCardinalityImpl(property, cardinality, classExpression);
+        return intern(new OWLObjectMinCardinalityImpl(property, cardinality, classExpression));
     }
 
     @Override
@@ -606,7 +625,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         OWLObjectPropertyExpression property) {
         checkNotNegative(cardinality, CARDINALITY_CANNOT_BE_NEGATIVE);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLObjectMaxCardinalityImpl(property, cardinality, OWL_THING);
+        return intern(new OWLObjectMaxCardinalityImpl(property, cardinality, OWL_THING));
     }
 
     @Override
@@ -615,13 +634,13 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         checkNotNegative(cardinality, CARDINALITY_CANNOT_BE_NEGATIVE);
         checkNotNull(classExpression, CLASS_EXPRESSION_CANNOT_BE_NULL);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLObjectMaxCardinalityImpl(property, cardinality, classExpression);
+        return intern(new OWLObjectMaxCardinalityImpl(property, cardinality, classExpression));
     }
 
     @Override
     public OWLObjectHasSelf getOWLObjectHasSelf(OWLObjectPropertyExpression property) {
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLObjectHasSelfImpl(property);
+        return intern(new OWLObjectHasSelfImpl(property));
     }
 
     @Override
@@ -629,7 +648,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         OWLClassExpression classExpression) {
         checkNotNull(classExpression, CLASS_EXPRESSION_CANNOT_BE_NULL);
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLObjectSomeValuesFromImpl(property, classExpression);
+        return intern(new OWLObjectSomeValuesFromImpl(property, classExpression));
     }
 
     @Override
@@ -637,17 +656,18 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
         OWLIndividual individual) {
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
         checkNotNull(individual, INDIVIDUAL_CANNOT_BE_NULL);
-        return new OWLObjectHasValueImpl(property, individual);
+        return intern(new OWLObjectHasValueImpl(property, individual));
     }
 
     @Override
     public OWLObjectUnionOf getOWLObjectUnionOf(Stream<? extends OWLClassExpression> operands) {
-        return new OWLObjectUnionOfImpl(sortedList(OWLClassExpression.class, operands));
+        return intern(new OWLObjectUnionOfImpl(sortedList(OWLClassExpression.class, operands)));
     }
 
     @Override
     public OWLObjectUnionOf getOWLObjectUnionOf(Collection<? extends OWLClassExpression> operands) {
-        return new OWLObjectUnionOfImpl(sortedList(OWLClassExpression.class, operands.stream()));
+        return intern(
+            new OWLObjectUnionOfImpl(sortedList(OWLClassExpression.class, operands.stream())));
     }
 
     @Override
@@ -958,7 +978,7 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
     @Override
     public OWLObjectInverseOf getOWLObjectInverseOf(OWLObjectProperty property) {
         checkNotNull(property, PROPERTY_CANNOT_BE_NULL);
-        return new OWLObjectInverseOfImpl(property);
+        return intern(new OWLObjectInverseOfImpl(property));
     }
 
     @Override
@@ -1223,34 +1243,34 @@ public class OWLDataFactoryImpl implements OWLDataFactory, Serializable, ClassPr
     public OWLLiteral getOWLLiteral(String lexicalValue, OWLDatatype datatype) {
         checkNotNull(lexicalValue, LEXICAL_VALUE_CANNOT_BE_NULL);
         checkNotNull(datatype, DATATYPE_CANNOT_BE_NULL);
-        return dataFactoryInternals.getOWLLiteral(lexicalValue, datatype);
+        return intern(dataFactoryInternals.getOWLLiteral(lexicalValue, datatype));
     }
 
     @Override
     public OWLLiteral getOWLLiteral(int value) {
-        return dataFactoryInternals.getOWLLiteral(value);
+        return intern(dataFactoryInternals.getOWLLiteral(value));
     }
 
     @Override
     public OWLLiteral getOWLLiteral(double value) {
-        return dataFactoryInternals.getOWLLiteral(value);
+        return intern(dataFactoryInternals.getOWLLiteral(value));
     }
 
     @Override
     public OWLLiteral getOWLLiteral(float value) {
-        return dataFactoryInternals.getOWLLiteral(value);
+        return intern(dataFactoryInternals.getOWLLiteral(value));
     }
 
     @Override
     public OWLLiteral getOWLLiteral(String value) {
         checkNotNull(value, VALUE_CANNOT_BE_NULL);
-        return dataFactoryInternals.getOWLLiteral(value);
+        return intern(dataFactoryInternals.getOWLLiteral(value));
     }
 
     @Override
     public OWLLiteral getOWLLiteral(String literal, @Nullable String lang) {
         checkNotNull(literal, LITERAL_CANNOT_BE_NULL);
-        return dataFactoryInternals.getOWLLiteral(literal, lang);
+        return intern(dataFactoryInternals.getOWLLiteral(literal, lang));
     }
 
     @Override
@@ -13,6 +13,8 @@
 package uk.ac.manchester.cs.owl.owlapi;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.semanticweb.owlapi.model.IRI;
@@ -24,6 +26,7 @@ import org.semanticweb.owlapi.model.OWLDataProperty;
 import org.semanticweb.owlapi.model.OWLDatatype;
 import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObject;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
 
 /**
@@ -126,4 +129,26 @@ public interface OWLDataFactoryInternals extends Serializable {
      */
     OWLAnnotation getOWLAnnotation(OWLAnnotationProperty property, OWLAnnotationValue value,
         Stream<OWLAnnotation> annotations);
+
+    /**
+     * Hash consing: return the shared instance structurally equal to the input, if there is one,
+     * or make the input the shared instance. Implementations that do not share objects return the
+     * input.
+     *
+     * @param o object to share
+     * @param <T> object type
+     * @return an object equal to the input
+     * @since 5.1.18
+     */
+    default <T extends OWLObject> T intern(T o) {
+        return o;
+    }
+
+    /**
+     * @return estimated bytes retained by each cache, by cache name; empty if nothing is cached
+     * @since 5.1.18
+     */
+    default Map<String, Long> estimateCacheMemoryUsage() {
+        return Collections.emptyMap();
+    }
 }
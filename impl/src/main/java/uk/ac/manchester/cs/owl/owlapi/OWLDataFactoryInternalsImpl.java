@@ -13,6 +13,9 @@
 package uk.ac.manchester.cs.owl.owlapi;
 
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import org.semanticweb.owlapi.model.IRI;
@@ -23,12 +26,15 @@ import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLDataProperty;
 import org.semanticweb.owlapi.model.OWLDatatype;
 import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObject;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
 import org.semanticweb.owlapi.model.parameters.ConfigurationOptions;
 
 import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 
 /**
  * @author ignazio
@@ -52,10 +58,36 @@ public class OWLDataFactoryInternalsImpl extends OWLDataFactoryInternalsImplNoCa
     private static final LoadingCache<IRI, OWLNamedIndividual>      individuals =          builder(OWLNamedIndividualImpl::new);
     //@formatter:on
     /**
+     * Shared instances of class expressions, data ranges and literals. Entries are weak and the
+     * interner is bounded by the objects still in use; objects are compared with equals, so a
+     * lookup for an expression whose operands are already shared mostly compares references.
+     */
+    private static final Interner<OWLObject> expressions = Interners.newBuilder().weak()
+        .concurrencyLevel(Runtime.getRuntime().availableProcessors()).build();
+    /** Number of entries measured per cache when estimating memory usage. */
+    private static final int MEMORY_SAMPLE_SIZE = 32;
+    /** Approximate size of a cache entry: weak key reference, cache node and hash table node. */
+    private static final long CACHE_ENTRY_BYTES = 96;
+    private final boolean hashConsing;
+
+    /**
+     * Hash consing is set by {@link ConfigurationOptions#HASH_CONSING}.
+     *
      * @param useCompression true if literals should be compressed
      */
     public OWLDataFactoryInternalsImpl(boolean useCompression) {
+        this(useCompression, ConfigurationOptions.HASH_CONSING
+            .getValue(Boolean.class, Collections.emptyMap()).booleanValue());
+    }
+
+    /**
+     * @param useCompression true if literals should be compressed
+     * @param hashConsing true if structurally equal class expressions, data ranges and literals
+     *        should be shared
+     */
+    public OWLDataFactoryInternalsImpl(boolean useCompression, boolean hashConsing) {
         super(useCompression);
+        this.hashConsing = hashConsing;
     }
 
     private static OWLAnnotation ann(OWLAnnotation o) {
@@ -87,6 +119,52 @@ public class OWLDataFactoryInternalsImpl extends OWLDataFactoryInternalsImplNoCa
         annotations.invalidateAll();
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends OWLObject> T intern(T o) {
+        if (!hashConsing) {
+            return o;
+        }
+        return (T) expressions.intern(o);
+    }
+
+    @Override
+    public Map<String, Long> estimateCacheMemoryUsage() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        map.put("classes", Long.valueOf(estimate(classes)));
+        map.put("objectProperties", Long.valueOf(estimate(objectProperties)));
+        map.put("dataProperties", Long.valueOf(estimate(dataProperties)));
+        map.put("datatypes", Long.valueOf(estimate(datatypes)));
+        map.put("individuals", Long.valueOf(estimate(individuals)));
+        map.put("annotationProperties", Long.valueOf(estimate(annotationProperties)));
+        map.put("annotations", Long.valueOf(estimate(annotations)));
+        return map;
+    }
+
+    /**
+     * Extrapolate the size of a cache from the size of a few of its entries. Keys and values are
+     * either an IRI and the entity for it, or the same annotation.
+     */
+    private static long estimate(LoadingCache<?, ?> cache) {
+        long entries = cache.estimatedSize();
+        if (entries == 0) {
+            return 0;
+        }
+        long sampled = 0;
+        int count = 0;
+        Iterator<? extends Map.Entry<?, ?>> it = cache.asMap().entrySet().iterator();
+        while (it.hasNext() && count < MEMORY_SAMPLE_SIZE) {
+            Map.Entry<?, ?> e = it.next();
+            if (e.getKey() instanceof IRI) {
+                sampled += MemoryEstimator.iri((IRI) e.getKey()) + MemoryEstimator.object(2, 4);
+            } else {
+                sampled += MemoryEstimator.owlObject(e.getValue());
+            }
+            count++;
+        }
+        return entries * (CACHE_ENTRY_BYTES + sampled / Math.max(1, count));
+    }
+
     @Override
     public OWLObjectProperty getOWLObjectProperty(IRI iri) {
         return objectProperties.get(iri);
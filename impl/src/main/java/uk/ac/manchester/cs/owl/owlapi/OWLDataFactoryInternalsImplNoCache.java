@@ -20,6 +20,7 @@ import static uk.ac.manchester.cs.owl.owlapi.InternalizedEntities.XSDFLOAT;
 import static uk.ac.manchester.cs.owl.owlapi.InternalizedEntities.XSDLONG;
 import static uk.ac.manchester.cs.owl.owlapi.InternalizedEntities.XSDSTRING;
 
+import java.util.Collections;
 import java.util.Locale;
 import java.util.stream.Stream;
 
@@ -35,6 +36,7 @@ import org.semanticweb.owlapi.model.OWLDatatype;
 import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLNamedIndividual;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.parameters.ConfigurationOptions;
 
 /**
  * No cache used.
@@ -44,13 +46,33 @@ import org.semanticweb.owlapi.model.OWLObjectProperty;
 public class OWLDataFactoryInternalsImplNoCache implements OWLDataFactoryInternals {
 
     private final boolean useCompression;
+    @Nullable
+    private final LexicalForms lexicalForms;
     private final OWLLiteral negativeFloatZero = getBasicLiteral("-0.0", XSDFLOAT);
 
     /**
+     * Compact literals are set by {@link ConfigurationOptions#COMPACT_LITERALS}.
+     *
      * @param useCompression true if compression of literals should be used
      */
     public OWLDataFactoryInternalsImplNoCache(boolean useCompression) {
+        this(useCompression, ConfigurationOptions.COMPACT_LITERALS
+            .getValue(Boolean.class, Collections.emptyMap()).booleanValue());
+    }
+
+    /**
+     * @param useCompression true if compression of literals should be used
+     * @param compactLiterals true if string literals should be stored as deduplicated byte
+     *        arrays; takes precedence over compression
+     */
+    public OWLDataFactoryInternalsImplNoCache(boolean useCompression, boolean compactLiterals) {
         this.useCompression = useCompression;
+        if (compactLiterals) {
+            lexicalForms = new LexicalForms(ConfigurationOptions.CACHE_SIZE
+                .getValue(Integer.class, Collections.emptyMap()).longValue());
+        } else {
+            lexicalForms = null;
+        }
     }
 
     @Override
@@ -95,6 +117,9 @@ public class OWLDataFactoryInternalsImplNoCache implements OWLDataFactoryInterna
 
     @Override
     public OWLLiteral getOWLLiteral(String value) {
+        if (lexicalForms != null) {
+            return compact(value, "", XSDSTRING);
+        }
         if (useCompression) {
             return new OWLLiteralImpl(value, "", XSDSTRING);
         }
@@ -109,6 +134,9 @@ public class OWLDataFactoryInternalsImplNoCache implements OWLDataFactoryInterna
         } else {
             normalisedLang = lang.trim().toLowerCase(Locale.ENGLISH);
         }
+        if (lexicalForms != null) {
+            return compact(literal, normalisedLang, null);
+        }
         if (normalisedLang.isEmpty()) {
             if (useCompression) {
                 return new OWLLiteralImpl(literal, null, XSDSTRING);
@@ -244,6 +272,9 @@ public class OWLDataFactoryInternalsImplNoCache implements OWLDataFactoryInterna
 
     protected OWLLiteral getBasicLiteral(String lexicalValue, String lang,
         @Nullable OWLDatatype datatype) {
+        if (lexicalForms != null) {
+            return compact(lexicalValue, lang, datatype);
+        }
         if (useCompression) {
             if (datatype == null || datatype.isRDFPlainLiteral() || datatype.equals(LANGSTRING)) {
                 return new OWLLiteralImplPlain(lexicalValue, lang);
@@ -253,6 +284,11 @@ public class OWLDataFactoryInternalsImplNoCache implements OWLDataFactoryInterna
         return new OWLLiteralImplNoCompression(lexicalValue, lang, datatype);
     }
 
+    private OWLLiteral compact(String lexicalValue, String lang, @Nullable OWLDatatype datatype) {
+        return new OWLLiteralImplCompact(verifyNotNull(lexicalForms).encode(lexicalValue), lang,
+            datatype);
+    }
+
     @Override
     public OWLAnnotation getOWLAnnotation(OWLAnnotationProperty property, OWLAnnotationValue value,
         Stream<OWLAnnotation> annotations) {
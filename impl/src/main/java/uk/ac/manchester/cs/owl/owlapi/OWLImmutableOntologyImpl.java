@@ -15,9 +15,9 @@ package uk.ac.manchester.cs.owl.owlapi;
 import static java.util.stream.Collectors.toSet;
 import static org.semanticweb.owlapi.model.parameters.Imports.EXCLUDED;
 import static org.semanticweb.owlapi.util.OWLAPIPreconditions.checkNotNull;
+import static org.semanticweb.owlapi.util.OWLAPIPreconditions.optional;
 import static org.semanticweb.owlapi.util.OWLAPIPreconditions.verifyNotNull;
 import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
-import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asSet;
 import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.empty;
 import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.streamFromSorted;
 
@@ -36,9 +36,7 @@ import javax.annotation.Nullable;
 
 import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.EntityType;
-import org.semanticweb.owlapi.model.HasAnnotationPropertiesInSignature;
 import org.semanticweb.owlapi.model.HasAxiomsByType;
-import org.semanticweb.owlapi.model.HasDatatypesInSignature;
 import org.semanticweb.owlapi.model.HasSignature;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnnotation;
@@ -75,6 +73,7 @@ import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyID;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.model.OWLPrimitive;
+import org.semanticweb.owlapi.model.OntologyMemoryUsage;
 import org.semanticweb.owlapi.model.parameters.AxiomAnnotations;
 import org.semanticweb.owlapi.model.parameters.Imports;
 import org.semanticweb.owlapi.model.parameters.Navigation;
@@ -82,45 +81,12 @@ import org.semanticweb.owlapi.util.OWLAPIStreamUtils;
 import org.semanticweb.owlapi.util.OWLAxiomSearchFilter;
 import org.semanticweb.owlapi.vocab.OWL2Datatype;
 
-import com.github.benmanes.caffeine.cache.LoadingCache;
-
 /**
  * @author Matthew Horridge, The University Of Manchester, Bio-Health Informatics Group
  * @since 2.0.0
  */
 public class OWLImmutableOntologyImpl extends OWLAxiomIndexImpl
     implements OWLOntology, Serializable {
-    // @formatter:off
-    protected static LoadingCache<OWLImmutableOntologyImpl, Set<OWLEntity>>              ontsignatures =                      
-        build(OWLImmutableOntologyImpl::build);
-    protected static LoadingCache<OWLImmutableOntologyImpl, List<OWLAnonymousIndividual>> ontanonCaches =                    build(key -> asList(key.ints.get(OWLAnonymousIndividual.class, OWLAxiom.class).get().keySet().distinct().sorted()));
-    protected static LoadingCache<OWLImmutableOntologyImpl, List<OWLClass>>              ontclassesSignatures =              build(key -> asList(key.ints.get(OWLClass.class, OWLAxiom.class).get().keySet().distinct().sorted()));
-    protected static LoadingCache<OWLImmutableOntologyImpl, List<OWLDataProperty>>       ontdataPropertySignatures =         build(key -> asList(key.ints.get(OWLDataProperty.class, OWLAxiom.class).get().keySet().distinct().sorted()));
-    protected static LoadingCache<OWLImmutableOntologyImpl, List<OWLObjectProperty>>     ontobjectPropertySignatures =       build(key -> asList(key.ints.get(OWLObjectProperty.class, OWLAxiom.class).get().keySet().distinct().sorted()));
-    protected static LoadingCache<OWLImmutableOntologyImpl, List<OWLDatatype>>           ontdatatypeSignatures =             build(key -> asList(Stream.concat(key.ints.get(OWLDatatype.class, OWLAxiom.class).get().keySet(), key.ints.getOntologyAnnotations().flatMap(HasDatatypesInSignature::datatypesInSignature)).distinct().sorted()));
-    protected static LoadingCache<OWLImmutableOntologyImpl, List<OWLNamedIndividual>>    ontindividualSignatures =           build(key -> asList(key.ints.get(OWLNamedIndividual.class, OWLAxiom.class).get().keySet().distinct().sorted()));
-    protected static LoadingCache<OWLImmutableOntologyImpl, List<OWLAnnotationProperty>> ontannotationPropertiesSignatures = build(key -> asList(Stream.concat(key.ints.get(OWLAnnotationProperty.class, OWLAxiom.class, Navigation.IN_SUB_POSITION).get().keySet(),key.ints.getOntologyAnnotations().flatMap(HasAnnotationPropertiesInSignature::annotationPropertiesInSignature)).distinct().sorted()));
-    // @formatter:on
-    protected static void invalidateOntologyCaches(OWLImmutableOntologyImpl o) {
-        ontsignatures.invalidate(o);
-        ontanonCaches.invalidate(o);
-        ontclassesSignatures.invalidate(o);
-        ontdataPropertySignatures.invalidate(o);
-        ontobjectPropertySignatures.invalidate(o);
-        ontdatatypeSignatures.invalidate(o);
-        ontindividualSignatures.invalidate(o);
-        ontannotationPropertiesSignatures.invalidate(o);
-    }
-
-    private static Set<OWLEntity> build(OWLImmutableOntologyImpl key) {
-        Stream<OWLEntity> stream =
-            Stream.of(key.classesInSignature(), key.objectPropertiesInSignature(),
-                key.dataPropertiesInSignature(), key.individualsInSignature(),
-                key.datatypesInSignature(), key.annotationPropertiesInSignature(),
-                key.annotations().flatMap(OWLAnnotation::signature)).flatMap(x -> x);
-        return asSet(stream.distinct().sorted());
-    }
-
     @Nullable
     protected OWLOntologyManager manager;
     protected OWLDataFactory df;
@@ -131,6 +97,17 @@ public class OWLImmutableOntologyImpl extends OWLAxiomIndexImpl
      * @param ontologyID ontology id
      */
     public OWLImmutableOntologyImpl(OWLOntologyManager manager, OWLOntologyID ontologyID) {
+        this(manager, ontologyID, new Internals(manager.getOntologyConfigurator()));
+    }
+
+    /**
+     * @param manager ontology manager
+     * @param ontologyID ontology id
+     * @param ints internals holding the axioms and indexes
+     */
+    protected OWLImmutableOntologyImpl(OWLOntologyManager manager, OWLOntologyID ontologyID,
+        Internals ints) {
+        super(ints);
         this.manager = checkNotNull(manager, "manager cannot be null");
         this.ontologyID = checkNotNull(ontologyID, "ontologyID cannot be null");
         df = manager.getOWLDataFactory();
@@ -183,6 +160,11 @@ public class OWLImmutableOntologyImpl extends OWLAxiomIndexImpl
         return ints.isEmpty();
     }
 
+    @Override
+    public Optional<OntologyMemoryUsage> estimateMemoryUsage() {
+        return optional(ints.estimateMemoryUsage());
+    }
+
     @Override
     public <T extends OWLAxiom> int getAxiomCount(AxiomType<T> axiomType) {
         return ints.getAxiomCount(axiomType);
@@ -231,8 +213,35 @@ public class OWLImmutableOntologyImpl extends OWLAxiomIndexImpl
         return ints.getLogicalAxiomCount();
     }
 
+    /**
+     * @param imports imports flag
+     * @return merged index of the imports closure, if the imports closure is included and the
+     *         manager keeps such indexes
+     */
+    @Nullable
+    private ImportsClosureIndex importsClosureIndex(Imports imports) {
+        OWLOntologyManager m = manager;
+        if (imports == EXCLUDED || !(m instanceof OWLOntologyManagerImpl)) {
+            return null;
+        }
+        return ((OWLOntologyManagerImpl) m).importsClosureIndex(this);
+    }
+
+    @Override
+    public <T extends OWLAxiom> Stream<T> axioms(AxiomType<T> axiomType, Imports imports) {
+        ImportsClosureIndex index = importsClosureIndex(imports);
+        if (index != null) {
+            return index.axioms(axiomType);
+        }
+        return imports.stream(this).flatMap(o -> o.axioms(axiomType));
+    }
+
     @Override
     public <T extends OWLAxiom> int getAxiomCount(AxiomType<T> axiomType, Imports imports) {
+        ImportsClosureIndex index = importsClosureIndex(imports);
+        if (index != null) {
+            return index.getAxiomCount(axiomType);
+        }
         return imports.stream(this).mapToInt(o -> o.getAxiomCount(axiomType)).sum();
     }
 
@@ -279,6 +288,12 @@ public class OWLImmutableOntologyImpl extends OWLAxiomIndexImpl
     @Override
     public boolean containsAxiom(OWLAxiom axiom, Imports imports,
         AxiomAnnotations ignoreAnnotations) {
+        if (ignoreAnnotations == AxiomAnnotations.CONSIDER_AXIOM_ANNOTATIONS) {
+            ImportsClosureIndex index = importsClosureIndex(imports);
+            if (index != null) {
+                return index.containsAxiom(axiom);
+            }
+        }
         return imports.stream(this).anyMatch(o -> ignoreAnnotations.contains(o, axiom));
     }
 
@@ -392,52 +407,45 @@ public class OWLImmutableOntologyImpl extends OWLAxiomIndexImpl
 
     @Override
     public boolean containsEntityInSignature(OWLEntity owlEntity) {
-        // Do not use the cached signature if it has not been created already.
-        // Creating the cache while this method is called during updates leads to very expensive
-        // lookups.
-        Set<OWLEntity> set = ontsignatures.getIfPresent(this);
-        if (set == null) {
-            if (ints.containsReference(owlEntity)) {
-                return true;
-            }
-            return annotations().flatMap(OWLAnnotation::signature).anyMatch(owlEntity::equals);
+        if (ints.containsReference(owlEntity)) {
+            return true;
         }
-        return set.contains(owlEntity);
+        return annotations().flatMap(OWLAnnotation::signature).anyMatch(owlEntity::equals);
     }
 
     @Override
     public Stream<OWLEntity> signature() {
-        return streamFromSorted(ontsignatures.get(this));
+        return streamFromSorted(ints.getSignature().entities());
     }
 
     @Override
     public Stream<OWLAnonymousIndividual> anonymousIndividuals() {
-        return streamFromSorted(ontanonCaches.get(this));
+        return streamFromSorted(ints.getSignature().anonymousIndividuals());
     }
 
     @Override
     public Stream<OWLClass> classesInSignature() {
-        return streamFromSorted(ontclassesSignatures.get(this));
+        return streamFromSorted(ints.getSignature().classes());
     }
 
     @Override
     public Stream<OWLDataProperty> dataPropertiesInSignature() {
-        return streamFromSorted(ontdataPropertySignatures.get(this));
+        return streamFromSorted(ints.getSignature().dataProperties());
     }
 
     @Override
     public Stream<OWLObjectProperty> objectPropertiesInSignature() {
-        return streamFromSorted(ontobjectPropertySignatures.get(this));
+        return streamFromSorted(ints.getSignature().objectProperties());
     }
 
     @Override
     public Stream<OWLNamedIndividual> individualsInSignature() {
-        return streamFromSorted(ontindividualSignatures.get(this));
+        return streamFromSorted(ints.getSignature().individuals());
     }
 
     @Override
     public Stream<OWLDatatype> datatypesInSignature() {
-        return streamFromSorted(ontdatatypeSignatures.get(this));
+        return streamFromSorted(ints.getSignature().datatypes());
     }
 
     @Override
@@ -447,7 +455,7 @@ public class OWLImmutableOntologyImpl extends OWLAxiomIndexImpl
 
     @Override
     public Stream<OWLAnnotationProperty> annotationPropertiesInSignature() {
-        return streamFromSorted(ontannotationPropertiesSignatures.get(this));
+        return streamFromSorted(ints.getSignature().annotationProperties());
     }
 
     @Override
@@ -514,6 +522,17 @@ public class OWLImmutableOntologyImpl extends OWLAxiomIndexImpl
         return datatypeDefinitions(datatype);
     }
 
+    @Override
+    public Stream<OWLAxiom> referencingAxioms(OWLPrimitive owlEntity, Imports imports) {
+        if (owlEntity instanceof OWLEntity || owlEntity instanceof OWLAnonymousIndividual) {
+            ImportsClosureIndex index = importsClosureIndex(imports);
+            if (index != null) {
+                return index.referencingAxioms(owlEntity);
+            }
+        }
+        return imports.stream(this).flatMap(o -> o.referencingAxioms(owlEntity));
+    }
+
     @Override
     public Stream<OWLAxiom> referencingAxioms(OWLPrimitive owlEntity) {
         if (owlEntity instanceof OWLEntity) {
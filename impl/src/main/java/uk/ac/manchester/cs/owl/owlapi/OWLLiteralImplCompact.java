@@ -0,0 +1,242 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+/**
+ * Literal storing its lexical form as a byte array, Latin-1 encoded if all characters fit in one
+ * byte and UTF-16 encoded otherwise, with interned language tags and shared datatype instances.
+ * Equal to, and with the same hash code as, the other literal implementations; the lexical form is
+ * decoded on each call to {@link #getLiteral()}, but equality, hash codes and comparisons between
+ * compact literals use the bytes directly. Estimated with {@link MemoryEstimator}, a literal with a
+ * 51 character ASCII lexical form takes 104 bytes, against 168 bytes for
+ * {@link OWLLiteralImplString} on Java 8; literals with equal forms created through the same data
+ * factory share the byte array.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public class OWLLiteralImplCompact extends OWLObjectImpl implements OWLLiteral {
+
+    private final byte[] literal;
+    private final boolean latin1;
+    private final OWLDatatype datatype;
+    private final String language;
+
+    /**
+     * @param literal actual literal form
+     * @param lang language for literal, can be null
+     * @param datatype datatype for literal
+     */
+    public OWLLiteralImplCompact(String literal, @Nullable String lang,
+        @Nullable OWLDatatype datatype) {
+        this(new LexicalForms.Form(literal, literal.hashCode()), lang, datatype);
+    }
+
+    /**
+     * @param literal encoded literal form, possibly shared with other literals
+     * @param lang language for literal, can be null
+     * @param datatype datatype for literal
+     */
+    OWLLiteralImplCompact(LexicalForms.Form literal, @Nullable String lang,
+        @Nullable OWLDatatype datatype) {
+        this.literal = literal.bytes;
+        latin1 = literal.latin1;
+        if (lang == null || lang.isEmpty()) {
+            language = "";
+            this.datatype = shared(datatype == null ? InternalizedEntities.XSDSTRING : datatype);
+        } else {
+            if (datatype != null && !(datatype.equals(InternalizedEntities.LANGSTRING)
+                || datatype.equals(InternalizedEntities.PLAIN))) {
+                // ERROR: attempting to build a literal with a language tag and
+                // type different from RDF_LANG_STRING or RDF_PLAIN_LITERAL
+                throw new OWLRuntimeException("Error: cannot build a literal with type: "
+                    + datatype.getIRI() + " and language: " + lang);
+            }
+            // few distinct tags are in use; share them between all literals
+            language = lang.intern();
+            this.datatype = InternalizedEntities.LANGSTRING;
+        }
+    }
+
+    private static OWLDatatype shared(OWLDatatype datatype) {
+        if (datatype.equals(InternalizedEntities.XSDSTRING)) {
+            return InternalizedEntities.XSDSTRING;
+        }
+        if (datatype.equals(InternalizedEntities.PLAIN)) {
+            return InternalizedEntities.PLAIN;
+        }
+        if (datatype.equals(InternalizedEntities.LANGSTRING)) {
+            return InternalizedEntities.LANGSTRING;
+        }
+        return datatype;
+    }
+
+    /**
+     * @return estimated heap size of this literal, excluding shared datatype and language tag
+     */
+    long estimateMemoryUsage() {
+        return MemoryEstimator.object(3, 1) + MemoryEstimator.array(literal.length, 1);
+    }
+
+    @Override
+    public String getLiteral() {
+        return LexicalForms.decode(literal, latin1);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj instanceof OWLLiteralImplCompact) {
+            OWLLiteralImplCompact other = (OWLLiteralImplCompact) obj;
+            // encodings are canonical: equal forms have the same coder and bytes
+            return latin1 == other.latin1 && datatype.equals(other.datatype)
+                && language.equals(other.language) && Arrays.equals(literal, other.literal);
+        }
+        return super.equals(obj);
+    }
+
+    @Override
+    public int compareTo(@Nullable OWLObject o) {
+        if (o instanceof OWLLiteralImplCompact) {
+            // same order as the components of the other literal implementations
+            OWLLiteralImplCompact other = (OWLLiteralImplCompact) o;
+            int diff = datatype.compareTo(other.datatype);
+            if (diff != 0) {
+                return diff;
+            }
+            diff = LexicalForms.compare(literal, latin1, other.literal, other.latin1);
+            if (diff != 0) {
+                return diff;
+            }
+            return language.compareTo(other.language);
+        }
+        return super.compareTo(o);
+    }
+
+    @Override
+    public boolean hasLang() {
+        return !language.isEmpty();
+    }
+
+    @Override
+    public boolean isRDFPlainLiteral() {
+        return getDatatype().isRDFPlainLiteral();
+    }
+
+    @Override
+    public boolean isInteger() {
+        return getDatatype().isInteger();
+    }
+
+    @Override
+    public boolean isBoolean() {
+        return getDatatype().isBoolean();
+    }
+
+    @Override
+    public boolean isDouble() {
+        return getDatatype().isDouble();
+    }
+
+    @Override
+    public boolean isFloat() {
+        return getDatatype().isFloat();
+    }
+
+    @Override
+    public int parseInteger() {
+        return Integer.parseInt(getLiteral());
+    }
+
+    @Override
+    public boolean parseBoolean() {
+        return OWLLiteralImpl.asBoolean(getLiteral());
+    }
+
+    @Override
+    public double parseDouble() {
+        return Double.parseDouble(getLiteral());
+    }
+
+    @Override
+    public float parseFloat() {
+        String l = getLiteral();
+        if ("inf".equalsIgnoreCase(l)) {
+            return Float.POSITIVE_INFINITY;
+        }
+        if ("-inf".equalsIgnoreCase(l)) {
+            return Float.NEGATIVE_INFINITY;
+        }
+        return Float.parseFloat(l);
+    }
+
+    @Override
+    public String getLang() {
+        return language;
+    }
+
+    @Override
+    public boolean hasLang(@Nullable String lang) {
+        if (lang == null) {
+            return language.isEmpty();
+        }
+        return language.equalsIgnoreCase(lang.trim());
+    }
+
+    @Override
+    public OWLDatatype getDatatype() {
+        return datatype;
+    }
+
+    @Override
+    public int initHashCode() {
+        int hash = hashIndex();
+        hash = OWLObject.hashIteration(hash, getDatatype().hashCode());
+        hash = OWLObject.hashIteration(hash, specificHash() * 65536);
+        return OWLObject.hashIteration(hash, getLang().hashCode());
+    }
+
+    private int specificHash() {
+        try {
+            if (isInteger()) {
+                return parseInteger();
+            }
+            if (isDouble()) {
+                return (int) parseDouble();
+            }
+            if (isFloat()) {
+                return (int) parseFloat();
+            }
+            if (isBoolean()) {
+                return parseBoolean() ? 1 : 0;
+            }
+            if (datatype.equals(InternalizedEntities.XSDLONG)) {
+                return (int) Long.parseLong(getLiteral());
+            }
+        } catch (@SuppressWarnings("unused") NumberFormatException e) {
+            // malformed values are allowed, as in the other literal implementations
+        }
+        return LexicalForms.hash(literal, latin1);
+    }
+}
@@ -0,0 +1,429 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static uk.ac.manchester.cs.owl.owlapi.OWLObjectBinaryOutput.FACET;
+import static uk.ac.manchester.cs.owl.owlapi.OWLObjectBinaryOutput.INTEGER;
+import static uk.ac.manchester.cs.owl.owlapi.OWLObjectBinaryOutput.IRI_TYPE;
+import static uk.ac.manchester.cs.owl.owlapi.OWLObjectBinaryOutput.LIST;
+import static uk.ac.manchester.cs.owl.owlapi.OWLObjectBinaryOutput.NODE_ID;
+import static uk.ac.manchester.cs.owl.owlapi.OWLObjectBinaryOutput.NULL;
+import static uk.ac.manchester.cs.owl.owlapi.OWLObjectBinaryOutput.OBJECT;
+import static uk.ac.manchester.cs.owl.owlapi.OWLObjectBinaryOutput.REFERENCE;
+import static uk.ac.manchester.cs.owl.owlapi.OWLObjectBinaryOutput.STRING;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.NodeID;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAnnotationSubject;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataPropertyExpression;
+import org.semanticweb.owlapi.model.OWLDataRange;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLFacetRestriction;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLPropertyExpression;
+import org.semanticweb.owlapi.model.SWRLAtom;
+import org.semanticweb.owlapi.model.SWRLDArgument;
+import org.semanticweb.owlapi.model.SWRLIArgument;
+import org.semanticweb.owlapi.vocab.OWLFacet;
+
+/**
+ * Reads OWL objects written by {@link OWLObjectBinaryOutput}. Objects are created through a data
+ * factory, so the usual caching and interning applies to them.
+ *
+ * @author ignazio
+ */
+class OWLObjectBinaryInput {
+
+    private static final OWLFacet[] FACETS = OWLFacet.values();
+    private final DataInput in;
+    private final OWLDataFactory df;
+    private final List<Object> objects = new ArrayList<>();
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * @param in input to read from
+     * @param df data factory to use to create objects
+     */
+    OWLObjectBinaryInput(DataInput in, OWLDataFactory df) {
+        this.in = in;
+        this.df = df;
+    }
+
+    /**
+     * @param consumer consumer for the axioms read
+     * @throws IOException if the input cannot be read or is malformed
+     */
+    void readAxioms(Consumer<OWLAxiom> consumer) throws IOException {
+        int count = readVarInt();
+        for (int i = 0; i < count; i++) {
+            consumer.accept((OWLAxiom) read());
+        }
+    }
+
+    /**
+     * @return the next value in the input
+     * @throws IOException if the input cannot be read or is malformed
+     */
+    @Nullable
+    Object read() throws IOException {
+        int tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString();
+            case INTEGER:
+                int i = readVarInt();
+                return Integer.valueOf((i >>> 1) ^ -(i & 1));
+            case FACET:
+                return FACETS[readVarInt()];
+            case NODE_ID:
+                return NodeID.getNodeID(readString());
+            case LIST:
+                int size = readVarInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int index = 0; index < size; index++) {
+                    list.add(read());
+                }
+                return list;
+            case REFERENCE:
+                return objects.get(readVarInt());
+            case OBJECT:
+                return readObject();
+            default:
+                throw new IOException("Unexpected tag " + tag);
+        }
+    }
+
+    private Object readObject() throws IOException {
+        int type = readVarInt();
+        Object o;
+        if (type == IRI_TYPE) {
+            o = IRI.create(readString(), readString());
+        } else {
+            Object[] c = new Object[readVarInt()];
+            for (int i = 0; i < c.length; i++) {
+                c[i] = read();
+            }
+            try {
+                o = type >= 2000 && type < 3000 ? axiom(type - 2000, c) : object(type, c);
+            } catch (ClassCastException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Malformed object with type index " + type, e);
+            }
+        }
+        if (!(o instanceof OWLAxiom)) {
+            objects.add(o);
+        }
+        return o;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> list(Object o) {
+        return (List<T>) o;
+    }
+
+    private static int integer(Object o) {
+        return ((Integer) o).intValue();
+    }
+
+    private Object object(int type, Object[] c) throws IOException {
+        switch (type) {
+            // entities
+            case 1001:
+                return df.getOWLClass((IRI) c[0]);
+            case 1002:
+                return df.getOWLObjectProperty((IRI) c[0]);
+            case 1003:
+                return df.getOWLObjectInverseOf((OWLObjectProperty) c[0]);
+            case 1004:
+                return df.getOWLDataProperty((IRI) c[0]);
+            case 1005:
+                return df.getOWLNamedIndividual((IRI) c[0]);
+            case 1006:
+                return df.getOWLAnnotationProperty((IRI) c[0]);
+            case 1007:
+                return df.getOWLAnonymousIndividual(((NodeID) c[0]).getID());
+            // class expressions
+            case 3001:
+                return df.getOWLObjectIntersectionOf(list(c[0]));
+            case 3002:
+                return df.getOWLObjectUnionOf(list(c[0]));
+            case 3003:
+                return df.getOWLObjectComplementOf((OWLClassExpression) c[0]);
+            case 3004:
+                return df.getOWLObjectOneOf(list(c[0]));
+            case 3005:
+                return df.getOWLObjectSomeValuesFrom((OWLObjectPropertyExpression) c[0],
+                    (OWLClassExpression) c[1]);
+            case 3006:
+                return df.getOWLObjectAllValuesFrom((OWLObjectPropertyExpression) c[0],
+                    (OWLClassExpression) c[1]);
+            case 3007:
+                return df.getOWLObjectHasValue((OWLObjectPropertyExpression) c[0],
+                    (OWLIndividual) c[1]);
+            case 3008:
+                return df.getOWLObjectMinCardinality(integer(c[1]),
+                    (OWLObjectPropertyExpression) c[0], (OWLClassExpression) c[2]);
+            case 3009:
+                return df.getOWLObjectExactCardinality(integer(c[1]),
+                    (OWLObjectPropertyExpression) c[0], (OWLClassExpression) c[2]);
+            case 3010:
+                return df.getOWLObjectMaxCardinality(integer(c[1]),
+                    (OWLObjectPropertyExpression) c[0], (OWLClassExpression) c[2]);
+            case 3011:
+                return df.getOWLObjectHasSelf((OWLObjectPropertyExpression) c[0]);
+            case 3012:
+                return df.getOWLDataSomeValuesFrom((OWLDataPropertyExpression) c[0],
+                    (OWLDataRange) c[1]);
+            case 3013:
+                return df.getOWLDataAllValuesFrom((OWLDataPropertyExpression) c[0],
+                    (OWLDataRange) c[1]);
+            case 3014:
+                return df.getOWLDataHasValue((OWLDataPropertyExpression) c[0], (OWLLiteral) c[1]);
+            case 3015:
+                return df.getOWLDataMinCardinality(integer(c[1]), (OWLDataPropertyExpression) c[0],
+                    (OWLDataRange) c[2]);
+            case 3016:
+                return df.getOWLDataExactCardinality(integer(c[1]),
+                    (OWLDataPropertyExpression) c[0], (OWLDataRange) c[2]);
+            case 3017:
+                return df.getOWLDataMaxCardinality(integer(c[1]), (OWLDataPropertyExpression) c[0],
+                    (OWLDataRange) c[2]);
+            // data ranges
+            case 4001:
+                return df.getOWLDatatype((IRI) c[0]);
+            case 4002:
+                return df.getOWLDataComplementOf((OWLDataRange) c[0]);
+            case 4003:
+                return df.getOWLDataOneOf(OWLObjectBinaryInput.<OWLLiteral>list(c[0]));
+            case 4004:
+                return df.getOWLDataIntersectionOf(OWLObjectBinaryInput.<OWLDataRange>list(c[0]));
+            case 4005:
+                return df.getOWLDataUnionOf(OWLObjectBinaryInput.<OWLDataRange>list(c[0]));
+            case 4006:
+                return df.getOWLDatatypeRestriction((OWLDatatype) c[0],
+                    OWLObjectBinaryInput.<OWLFacetRestriction>list(c[1]));
+            case 4007:
+                return df.getOWLFacetRestriction((OWLFacet) c[0], (OWLLiteral) c[1]);
+            case 4008:
+                String lang = (String) c[2];
+                if (lang.isEmpty()) {
+                    return df.getOWLLiteral((String) c[1], (OWLDatatype) c[0]);
+                }
+                return df.getOWLLiteral((String) c[1], lang);
+            case 5001:
+                return df.getOWLAnnotation((OWLAnnotationProperty) c[0],
+                    (OWLAnnotationValue) c[1], OWLObjectBinaryInput.<OWLAnnotation>list(c[2]));
+            // SWRL
+            case 6001:
+                return df.getSWRLClassAtom((OWLClassExpression) c[1], (SWRLIArgument) c[0]);
+            case 6002:
+                return df.getSWRLDataRangeAtom((OWLDataRange) c[1], (SWRLDArgument) c[0]);
+            case 6003:
+                return df.getSWRLObjectPropertyAtom((OWLObjectPropertyExpression) c[2],
+                    (SWRLIArgument) c[0], (SWRLIArgument) c[1]);
+            case 6004:
+                return df.getSWRLDataPropertyAtom((OWLDataPropertyExpression) c[2],
+                    (SWRLIArgument) c[0], (SWRLDArgument) c[1]);
+            case 6005:
+                return df.getSWRLBuiltInAtom((IRI) c[1], list(c[0]));
+            case 6006:
+                return df.getSWRLVariable((IRI) c[0]);
+            case 6007:
+                return df.getSWRLIndividualArgument((OWLIndividual) c[0]);
+            case 6008:
+                return df.getSWRLLiteralArgument((OWLLiteral) c[0]);
+            case 6009:
+                return df.getSWRLSameIndividualAtom((SWRLIArgument) c[0], (SWRLIArgument) c[1]);
+            case 6010:
+                return df.getSWRLDifferentIndividualsAtom((SWRLIArgument) c[0],
+                    (SWRLIArgument) c[1]);
+            default:
+                throw new IOException("Unexpected type index " + type);
+        }
+    }
+
+    private OWLAxiom axiom(int axiomType, Object[] c) throws IOException {
+        List<OWLAnnotation> a = list(c[c.length - 1]);
+        switch (axiomType) {
+            case 0:
+                return df.getOWLDeclarationAxiom((OWLEntity) c[0], a);
+            case 1:
+                return df.getOWLEquivalentClassesAxiom(
+                    OWLObjectBinaryInput.<OWLClassExpression>list(c[0]), a);
+            case 2:
+                return df.getOWLSubClassOfAxiom((OWLClassExpression) c[0],
+                    (OWLClassExpression) c[1], a);
+            case 3:
+                return df.getOWLDisjointClassesAxiom(
+                    OWLObjectBinaryInput.<OWLClassExpression>list(c[0]), a);
+            case 4:
+                return df.getOWLDisjointUnionAxiom((OWLClass) c[0],
+                    OWLObjectBinaryInput.<OWLClassExpression>list(c[1]), a);
+            case 5:
+                return df.getOWLClassAssertionAxiom((OWLClassExpression) c[1],
+                    (OWLIndividual) c[0], a);
+            case 6:
+                return df.getOWLSameIndividualAxiom(
+                    OWLObjectBinaryInput.<OWLIndividual>list(c[0]), a);
+            case 7:
+                return df.getOWLDifferentIndividualsAxiom(
+                    OWLObjectBinaryInput.<OWLIndividual>list(c[0]), a);
+            case 8:
+                return df.getOWLObjectPropertyAssertionAxiom((OWLObjectPropertyExpression) c[1],
+                    (OWLIndividual) c[0], (OWLIndividual) c[2], a);
+            case 9:
+                return df.getOWLNegativeObjectPropertyAssertionAxiom(
+                    (OWLObjectPropertyExpression) c[1], (OWLIndividual) c[0],
+                    (OWLIndividual) c[2], a);
+            case 10:
+                return df.getOWLDataPropertyAssertionAxiom((OWLDataPropertyExpression) c[1],
+                    (OWLIndividual) c[0], (OWLLiteral) c[2], a);
+            case 11:
+                return df.getOWLNegativeDataPropertyAssertionAxiom(
+                    (OWLDataPropertyExpression) c[1], (OWLIndividual) c[0], (OWLLiteral) c[2], a);
+            case 12:
+                return df.getOWLEquivalentObjectPropertiesAxiom(
+                    OWLObjectBinaryInput.<OWLObjectPropertyExpression>list(c[0]), a);
+            case 13:
+                return df.getOWLSubObjectPropertyOfAxiom((OWLObjectPropertyExpression) c[0],
+                    (OWLObjectPropertyExpression) c[1], a);
+            case 14:
+                List<OWLObjectPropertyExpression> inverses = list(c[0]);
+                return df.getOWLInverseObjectPropertiesAxiom(inverses.get(0),
+                    inverses.get(inverses.size() - 1), a);
+            case 15:
+                return df.getOWLFunctionalObjectPropertyAxiom((OWLObjectPropertyExpression) c[0],
+                    a);
+            case 16:
+                return df.getOWLInverseFunctionalObjectPropertyAxiom(
+                    (OWLObjectPropertyExpression) c[0], a);
+            case 17:
+                return df.getOWLSymmetricObjectPropertyAxiom((OWLObjectPropertyExpression) c[0],
+                    a);
+            case 18:
+                return df.getOWLAsymmetricObjectPropertyAxiom((OWLObjectPropertyExpression) c[0],
+                    a);
+            case 19:
+                return df.getOWLTransitiveObjectPropertyAxiom((OWLObjectPropertyExpression) c[0],
+                    a);
+            case 20:
+                return df.getOWLReflexiveObjectPropertyAxiom((OWLObjectPropertyExpression) c[0],
+                    a);
+            case 21:
+                return df.getOWLIrreflexiveObjectPropertyAxiom((OWLObjectPropertyExpression) c[0],
+                    a);
+            case 22:
+                return df.getOWLObjectPropertyDomainAxiom((OWLObjectPropertyExpression) c[0],
+                    (OWLClassExpression) c[1], a);
+            case 23:
+                return df.getOWLObjectPropertyRangeAxiom((OWLObjectPropertyExpression) c[0],
+                    (OWLClassExpression) c[1], a);
+            case 24:
+                return df.getOWLDisjointObjectPropertiesAxiom(
+                    OWLObjectBinaryInput.<OWLObjectPropertyExpression>list(c[0]), a);
+            case 25:
+                return df.getOWLSubPropertyChainOfAxiom(
+                    OWLObjectBinaryInput.<OWLObjectPropertyExpression>list(c[0]),
+                    (OWLObjectPropertyExpression) c[1], a);
+            case 26:
+                return df.getOWLEquivalentDataPropertiesAxiom(
+                    OWLObjectBinaryInput.<OWLDataPropertyExpression>list(c[0]), a);
+            case 27:
+                return df.getOWLSubDataPropertyOfAxiom((OWLDataPropertyExpression) c[0],
+                    (OWLDataPropertyExpression) c[1], a);
+            case 28:
+                return df.getOWLFunctionalDataPropertyAxiom((OWLDataPropertyExpression) c[0], a);
+            case 29:
+                return df.getOWLDataPropertyDomainAxiom((OWLDataPropertyExpression) c[0],
+                    (OWLClassExpression) c[1], a);
+            case 30:
+                return df.getOWLDataPropertyRangeAxiom((OWLDataPropertyExpression) c[0],
+                    (OWLDataRange) c[1], a);
+            case 31:
+                return df.getOWLDisjointDataPropertiesAxiom(
+                    OWLObjectBinaryInput.<OWLDataPropertyExpression>list(c[0]), a);
+            case 32:
+                return df.getOWLHasKeyAxiom((OWLClassExpression) c[0],
+                    OWLObjectBinaryInput.<OWLPropertyExpression>list(c[1]), a);
+            case 33:
+                return df.getSWRLRule(OWLObjectBinaryInput.<SWRLAtom>list(c[0]),
+                    OWLObjectBinaryInput.<SWRLAtom>list(c[1]), a);
+            case 34:
+                return df.getOWLAnnotationAssertionAxiom((OWLAnnotationProperty) c[1],
+                    (OWLAnnotationSubject) c[0], (OWLAnnotationValue) c[2], a);
+            case 35:
+                return df.getOWLSubAnnotationPropertyOfAxiom((OWLAnnotationProperty) c[0],
+                    (OWLAnnotationProperty) c[1], a);
+            case 36:
+                return df.getOWLAnnotationPropertyRangeAxiom((OWLAnnotationProperty) c[0],
+                    (IRI) c[1], a);
+            case 37:
+                return df.getOWLAnnotationPropertyDomainAxiom((OWLAnnotationProperty) c[0],
+                    (IRI) c[1], a);
+            case 38:
+                return df.getOWLDatatypeDefinitionAxiom((OWLDatatype) c[0], (OWLDataRange) c[1],
+                    a);
+            default:
+                throw new IOException("Unexpected axiom type " + axiomType);
+        }
+    }
+
+    private String readString() throws IOException {
+        int id = readVarInt();
+        if (id > 0) {
+            return strings.get(id - 1);
+        }
+        byte[] bytes = new byte[readVarInt()];
+        in.readFully(bytes);
+        String s = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(s);
+        return s;
+    }
+
+    /**
+     * @return the next variable length integer
+     * @throws IOException if the input cannot be read
+     */
+    int readVarInt() throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,171 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.NodeID;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.vocab.OWLFacet;
+
+/**
+ * Compact binary encoding of OWL objects. Objects are written as their type index followed by
+ * their components; strings and objects other than axioms are written once and referred to by
+ * number afterwards, so entities, IRI namespaces and shared class expressions cost a few bytes
+ * per occurrence. Counts and numbers are written as variable length integers. The encoding is read
+ * by {@link OWLObjectBinaryInput}.
+ *
+ * @author ignazio
+ */
+class OWLObjectBinaryOutput {
+
+    static final int NULL = 0;
+    static final int REFERENCE = 1;
+    static final int OBJECT = 2;
+    static final int LIST = 3;
+    static final int STRING = 4;
+    static final int INTEGER = 5;
+    static final int FACET = 6;
+    static final int NODE_ID = 7;
+    /** Type index used for IRIs. */
+    static final int IRI_TYPE = 0;
+    private final DataOutput out;
+    private final Map<Object, Integer> objects = new HashMap<>();
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    /**
+     * @param out output to write to
+     */
+    OWLObjectBinaryOutput(DataOutput out) {
+        this.out = out;
+    }
+
+    /**
+     * @param axioms axioms to write, preceded by their number
+     * @throws IOException if the output cannot be written
+     */
+    void writeAxioms(Collection<? extends OWLAxiom> axioms) throws IOException {
+        writeVarInt(axioms.size());
+        for (OWLAxiom ax : axioms) {
+            write(ax);
+        }
+    }
+
+    /**
+     * @param o OWL object, IRI, string, integer, facet, node id or list of those to write; can be
+     *        null
+     * @throws IOException if the output cannot be written
+     */
+    void write(@Nullable Object o) throws IOException {
+        if (o == null) {
+            out.writeByte(NULL);
+        } else if (o instanceof String) {
+            out.writeByte(STRING);
+            writeString((String) o);
+        } else if (o instanceof Integer) {
+            out.writeByte(INTEGER);
+            int i = ((Integer) o).intValue();
+            writeVarInt((i << 1) ^ (i >> 31));
+        } else if (o instanceof OWLFacet) {
+            out.writeByte(FACET);
+            writeVarInt(((OWLFacet) o).ordinal());
+        } else if (o instanceof NodeID) {
+            out.writeByte(NODE_ID);
+            writeString(((NodeID) o).getID());
+        } else if (o instanceof Collection) {
+            writeList((Collection<?>) o);
+        } else if (o instanceof Stream) {
+            writeList(asList((Stream<?>) o));
+        } else if (o instanceof OWLObject) {
+            writeObject((OWLObject) o);
+        } else {
+            throw new IOException("Cannot encode " + o.getClass().getName());
+        }
+    }
+
+    private void writeList(Collection<?> c) throws IOException {
+        out.writeByte(LIST);
+        writeVarInt(c.size());
+        for (Object o : c) {
+            write(o);
+        }
+    }
+
+    private void writeObject(OWLObject o) throws IOException {
+        Integer id = objects.get(o);
+        if (id != null) {
+            out.writeByte(REFERENCE);
+            writeVarInt(id.intValue());
+            return;
+        }
+        out.writeByte(OBJECT);
+        if (o instanceof IRI) {
+            IRI iri = (IRI) o;
+            writeVarInt(IRI_TYPE);
+            writeString(iri.getNamespace());
+            writeString(iri.getRemainder().orElse(""));
+        } else {
+            writeVarInt(o.typeIndex());
+            List<?> components = asList(o.components());
+            writeVarInt(components.size());
+            Iterator<?> it = components.iterator();
+            while (it.hasNext()) {
+                write(it.next());
+            }
+        }
+        // axioms are not shared, no need to number them
+        if (!(o instanceof OWLAxiom)) {
+            objects.put(o, Integer.valueOf(objects.size()));
+        }
+    }
+
+    private void writeString(String s) throws IOException {
+        Integer id = strings.get(s);
+        if (id != null) {
+            writeVarInt(id.intValue() + 1);
+            return;
+        }
+        writeVarInt(0);
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        out.write(bytes);
+        strings.put(s, Integer.valueOf(strings.size()));
+    }
+
+    /**
+     * @param value non negative value to write in as few bytes as possible
+     * @throws IOException if the output cannot be written
+     */
+    void writeVarInt(int value) throws IOException {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+}
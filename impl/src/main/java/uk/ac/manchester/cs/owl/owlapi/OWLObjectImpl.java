@@ -13,18 +13,13 @@
 package uk.ac.manchester.cs.owl.owlapi;
 
 import static org.semanticweb.owlapi.util.OWLAPIPreconditions.checkNotNull;
-import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
 import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.compareIterators;
 import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.equalStreams;
-import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.streamFromSorted;
 
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
-import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -41,12 +36,9 @@ import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLNamedIndividual;
 import org.semanticweb.owlapi.model.OWLObject;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
-import org.semanticweb.owlapi.model.parameters.ConfigurationOptions;
 import org.semanticweb.owlapi.util.OWLClassExpressionCollector;
+import org.semanticweb.owlapi.util.StructuralFingerprint;
 
-import com.github.benmanes.caffeine.cache.CacheLoader;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 
 /**
  * @author Matthew Horridge, The University Of Manchester, Bio-Health Informatics Group
@@ -60,74 +52,71 @@ public abstract class OWLObjectImpl
      */
     protected static final Set<OWLAnnotation> NO_ANNOTATIONS = Collections.emptySet();
 
-    // @formatter:off
-    protected static LoadingCache<OWLObjectImpl, Set<OWLEntity>>              signatures =                      build(key -> key.addSignatureEntitiesToSet(new TreeSet<>()));
-    protected static LoadingCache<OWLObjectImpl, Set<OWLAnonymousIndividual>> anonCaches =                      build(key -> key.addAnonymousIndividualsToSet(new TreeSet<>()));
-    protected static LoadingCache<OWLObjectImpl, List<OWLClass>>              classesSignatures =               build(key -> cacheSig(key, OWLEntity::isOWLClass,               OWLEntity::asOWLClass));
-    protected static LoadingCache<OWLObjectImpl, List<OWLDataProperty>>       dataPropertySignatures =          build(key -> cacheSig(key, OWLEntity::isOWLDataProperty,        OWLEntity::asOWLDataProperty));
-    protected static LoadingCache<OWLObjectImpl, List<OWLObjectProperty>>     objectPropertySignatures =        build(key -> cacheSig(key, OWLEntity::isOWLObjectProperty,      OWLEntity::asOWLObjectProperty));
-    protected static LoadingCache<OWLObjectImpl, List<OWLDatatype>>           datatypeSignatures =              build(key -> cacheSig(key, OWLEntity::isOWLDatatype,            OWLEntity::asOWLDatatype));
-    protected static LoadingCache<OWLObjectImpl, List<OWLNamedIndividual>>    individualSignatures =            build(key -> cacheSig(key, OWLEntity::isOWLNamedIndividual,     OWLEntity::asOWLNamedIndividual));
-    protected static LoadingCache<OWLObjectImpl, List<OWLAnnotationProperty>> annotationPropertiesSignatures =  build(key -> cacheSig(key, OWLEntity::isOWLAnnotationProperty,  OWLEntity::asOWLAnnotationProperty));
-    // @formatter:on
-    static <Q, T> LoadingCache<Q, T> build(CacheLoader<Q, T> c) {
-        return Caffeine.newBuilder().weakKeys().maximumSize(size()).build(c);
-    }
-
-    protected static long size() {
-        return ConfigurationOptions.CACHE_SIZE.getValue(Integer.class, Collections.emptyMap())
-            .longValue();
-    }
+    protected int hashCode = 0;
+    // volatile: a torn long would be a wrong fingerprint, not just a missing one
+    protected transient volatile long fingerprint = 0;
+    @Nullable
+    private transient ObjectSignature signature;
 
-    static <T> List<T> cacheSig(OWLObject o, Predicate<OWLEntity> p, Function<OWLEntity, T> f) {
-        return asList(o.signature().filter(p).map(f));
+    /**
+     * The signature is computed on first use and kept with the object; it is not serialized.
+     *
+     * @return the signature of this object
+     */
+    private ObjectSignature objectSignature() {
+        ObjectSignature s = signature;
+        if (s == null) {
+            // all fields in ObjectSignature are final, so publishing it without synchronization
+            // is safe; concurrent callers might compute it more than once
+            s = new ObjectSignature(this);
+            signature = s;
+        }
+        return s;
     }
 
-    protected int hashCode = 0;
-
     @Override
     public Stream<OWLAnonymousIndividual> anonymousIndividuals() {
-        return anonCaches.get(this).stream();
+        return objectSignature().anonymousIndividuals();
     }
 
     @Override
     public Stream<OWLEntity> signature() {
-        return signatures.get(this).stream();
+        return objectSignature().entities();
     }
 
     @Override
     public boolean containsEntityInSignature(OWLEntity owlEntity) {
-        return signatures.get(this).contains(owlEntity);
+        return objectSignature().contains(owlEntity);
     }
 
     @Override
     public Stream<OWLClass> classesInSignature() {
-        return streamFromSorted(classesSignatures.get(this));
+        return objectSignature().entities(ObjectSignature.CLASSES);
     }
 
     @Override
     public Stream<OWLDataProperty> dataPropertiesInSignature() {
-        return streamFromSorted(dataPropertySignatures.get(this));
+        return objectSignature().entities(ObjectSignature.DATA_PROPERTIES);
     }
 
     @Override
     public Stream<OWLObjectProperty> objectPropertiesInSignature() {
-        return streamFromSorted(objectPropertySignatures.get(this));
+        return objectSignature().entities(ObjectSignature.OBJECT_PROPERTIES);
     }
 
     @Override
     public Stream<OWLNamedIndividual> individualsInSignature() {
-        return streamFromSorted(individualSignatures.get(this));
+        return objectSignature().entities(ObjectSignature.INDIVIDUALS);
     }
 
     @Override
     public Stream<OWLDatatype> datatypesInSignature() {
-        return streamFromSorted(datatypeSignatures.get(this));
+        return objectSignature().entities(ObjectSignature.DATATYPES);
     }
 
     @Override
     public Stream<OWLAnnotationProperty> annotationPropertiesInSignature() {
-        return streamFromSorted(annotationPropertiesSignatures.get(this));
+        return objectSignature().entities(ObjectSignature.ANNOTATION_PROPERTIES);
     }
 
     @Override
@@ -150,6 +139,9 @@ public abstract class OWLObjectImpl
         if (typeIndex() != other.typeIndex() || hashCode() != other.hashCode()) {
             return false;
         }
+        if (other instanceof OWLObjectImpl && fingerprint() != other.fingerprint()) {
+            return false;
+        }
         return equalStreams(components(), other.components());
     }
 
@@ -161,6 +153,16 @@ public abstract class OWLObjectImpl
         return hashCode;
     }
 
+    @Override
+    public long fingerprint() {
+        long f = fingerprint;
+        if (f == 0) {
+            f = StructuralFingerprint.of(this);
+            fingerprint = f;
+        }
+        return f;
+    }
+
     @Override
     public int compareTo(@Nullable OWLObject o) {
         checkNotNull(o);
@@ -14,7 +14,9 @@ package uk.ac.manchester.cs.owl.owlapi;
 
 import static org.semanticweb.owlapi.util.OWLAPIPreconditions.verifyNotNull;
 
+import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -23,9 +25,12 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 import org.semanticweb.owlapi.formats.RDFXMLDocumentFormat;
+import org.semanticweb.owlapi.io.FileDocumentSource;
+import org.semanticweb.owlapi.io.IRIDocumentSource;
 import org.semanticweb.owlapi.io.OWLOntologyCreationIOException;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
 import org.semanticweb.owlapi.io.OWLOntologyInputSourceException;
@@ -46,6 +51,9 @@ import org.semanticweb.owlapi.model.PriorityCollectionSorting;
 import org.semanticweb.owlapi.model.UnloadableImportException;
 import org.semanticweb.owlapi.util.PriorityCollection;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import uk.ac.manchester.cs.AcceptHeaderBuilder;
 
 /**
@@ -53,6 +61,8 @@ import uk.ac.manchester.cs.AcceptHeaderBuilder;
  */
 public class OWLOntologyFactoryImpl implements OWLOntologyFactory {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(OWLOntologyFactoryImpl.class);
+
     private final Set<String> parsableSchemes =
         new HashSet<>(Arrays.asList("http", "https", "file", "ftp", "jar"));
     private final OWLOntologyBuilder ontologyBuilder;
@@ -147,6 +157,97 @@ public class OWLOntologyFactoryImpl implements OWLOntologyFactory {
         return ont;
     }
 
+    /**
+     * Parse into the ontology, deferring index updates until the parser is done if the
+     * configuration requires it and the ontology supports it.
+     */
+    private static OWLDocumentFormat parse(OWLParser parser,
+        OWLOntologyDocumentSource documentSource, OWLOntology ont,
+        OWLOntologyLoaderConfiguration configuration) {
+        if (!configuration.shouldDeferIndexing() || !(ont instanceof HasBulkLoad)) {
+            return parser.parse(documentSource, ont, configuration);
+        }
+        HasBulkLoad bulk = (HasBulkLoad) ont;
+        bulk.beginBulkLoad();
+        try {
+            return parser.parse(documentSource, ont, configuration);
+        } finally {
+            bulk.endBulkLoad();
+        }
+    }
+
+    /**
+     * @return the content hash of the document and of the loader settings that change the parse
+     *         result, if index snapshots are enabled and the document is a readable local file;
+     *         null otherwise
+     */
+    @Nullable
+    private static String indexSnapshotKey(OWLOntologyDocumentSource documentSource,
+        OWLOntologyLoaderConfiguration configuration) {
+        if (configuration.getIndexSnapshotDirectory().isEmpty()
+            || !(documentSource instanceof FileDocumentSource
+                || documentSource instanceof IRIDocumentSource)) {
+            return null;
+        }
+        IRI documentIRI = documentSource.getDocumentIRI();
+        if (!"file".equals(documentIRI.getScheme())) {
+            return null;
+        }
+        try {
+            File document = new File(URI.create(documentIRI.toString()));
+            return document.isFile()
+                ? IndexSnapshotFile.contentHash(documentIRI, document, configuration) : null;
+        } catch (IllegalArgumentException | IOException e) {
+            // the parsers will report the problem, if the document cannot be read at all
+            LOGGER.debug("No index snapshot for {}", documentIRI, e);
+            return null;
+        }
+    }
+
+    /**
+     * Restore the ontology from an index snapshot and load its imports.
+     *
+     * @return true if the snapshot could be read
+     */
+    private static boolean restore(OWLOntologyManager manager, OWLOntology ont, String key,
+        File snapshot, OWLOntologyCreationHandler handler,
+        OWLOntologyLoaderConfiguration configuration) {
+        try {
+            OWLDocumentFormat format = IndexSnapshotFile.read(ont, key, snapshot);
+            handler.setOntologyFormat(ont, format);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Index snapshot {} cannot be read, parsing the document instead", snapshot,
+                e);
+            return false;
+        }
+        try {
+            // parsers request imports while parsing; here, the imports are requested afterwards
+            ont.importsDeclarations()
+                .forEach(i -> manager.makeLoadImportRequest(i, configuration));
+        } catch (UnloadableImportException e) {
+            manager.removeOntology(ont);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Write an index snapshot for the ontology; failures are logged, since the snapshot is only a
+     * cache. If indexes are to be warmed up after loading, this is done before writing, so that
+     * the snapshot holds all indexes.
+     */
+    private static void writeSnapshot(OWLOntology ont, OWLDocumentFormat format, String key,
+        File snapshot, OWLOntologyLoaderConfiguration configuration) {
+        try {
+            if (ont instanceof HasWarmUpIndexes && configuration.shouldWarmUpIndexes()) {
+                ((HasWarmUpIndexes) ont).warmUpIndexes();
+            }
+            IndexSnapshotFile.write(ont, format, key, snapshot);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Index snapshot {} cannot be written", snapshot, e);
+        }
+    }
+
     @Override
     public OWLOntology loadOWLOntology(OWLOntologyManager manager,
         OWLOntologyDocumentSource documentSource, OWLOntologyCreationHandler handler,
@@ -171,6 +272,26 @@ public class OWLOntologyFactoryImpl implements OWLOntologyFactory {
         OWLOntologyID ontologyID = new OWLOntologyID();
         OWLOntology ont =
             createOWLOntology(manager, ontologyID, documentSource.getDocumentIRI(), handler);
+        // with index snapshots enabled, a document that has been loaded before is restored from
+        // its snapshot instead of being parsed and indexed again
+        String snapshotKey = null;
+        File snapshot = null;
+        if (existingOntology == null && ont instanceof HasPersistedIndexes) {
+            snapshotKey = indexSnapshotKey(documentSource, configuration);
+        }
+        if (snapshotKey != null) {
+            snapshot = IndexSnapshotFile.snapshotFile(
+                new File(configuration.getIndexSnapshotDirectory()), snapshotKey);
+            if (snapshot.isFile()) {
+                if (restore(manager, ont, snapshotKey, snapshot, handler, configuration)) {
+                    return ont;
+                }
+                // discard anything restored before the failure
+                manager.removeOntology(ont);
+                ont = createOWLOntology(manager, ontologyID, documentSource.getDocumentIRI(),
+                    handler);
+            }
+        }
         // Now parse the input into the empty ontology that we created
         // select a parser if the input source has format information and MIME
         // information
@@ -192,8 +313,11 @@ public class OWLOntologyFactoryImpl implements OWLOntologyFactory {
                         ont = createOWLOntology(manager, ontologyID,
                             documentSource.getDocumentIRI(), handler);
                     }
-                    OWLDocumentFormat format = parser.parse(documentSource, ont, configuration);
+                    OWLDocumentFormat format = parse(parser, documentSource, ont, configuration);
                     handler.setOntologyFormat(ont, format);
+                    if (snapshotKey != null && snapshot != null) {
+                        writeSnapshot(ont, format, snapshotKey, snapshot, configuration);
+                    }
                     return ont;
                 } catch (UnloadableImportException e) {
                     // If an import cannot be located, all parsers will fail.
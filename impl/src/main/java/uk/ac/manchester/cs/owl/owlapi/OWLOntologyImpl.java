@@ -26,6 +26,7 @@ import org.semanticweb.owlapi.model.AddImport;
 import org.semanticweb.owlapi.model.AddOntologyAnnotation;
 import org.semanticweb.owlapi.model.ChangeDetails;
 import org.semanticweb.owlapi.model.OWLMutableOntology;
+import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyChangeVisitorEx;
 import org.semanticweb.owlapi.model.OWLOntologyID;
@@ -41,7 +42,7 @@ import org.semanticweb.owlapi.model.parameters.ChangeApplied;
  * @since 2.0.0
  */
 public class OWLOntologyImpl extends OWLImmutableOntologyImpl
-    implements OWLMutableOntology, Serializable {
+    implements OWLMutableOntology, HasSnapshot, HasCopyOnWrite, Serializable {
 
     /**
      * @param manager ontology manager
@@ -52,6 +53,25 @@ public class OWLOntologyImpl extends OWLImmutableOntologyImpl
         super(manager, ontologyID);
     }
 
+    @Override
+    public OWLOntology snapshot() {
+        return new OWLOntologySnapshotImpl(this, ints.snapshot());
+    }
+
+    @Override
+    public boolean shareAxioms(OWLOntology source) {
+        if (!(source instanceof HasSnapshot)) {
+            return false;
+        }
+        // the snapshot is taken with whatever locking the source needs, and shares its indexes
+        OWLOntology snapshot = ((HasSnapshot) source).snapshot();
+        if (!(snapshot instanceof OWLImmutableOntologyImpl)) {
+            return false;
+        }
+        ints.shareAxioms(((OWLImmutableOntologyImpl) snapshot).ints);
+        return true;
+    }
+
     @Override
     public ChangeApplied applyDirectChange(OWLOntologyChange change) {
         OWLOntologyChangeFilter changeFilter = new OWLOntologyChangeFilter();
@@ -84,7 +104,6 @@ public class OWLOntologyImpl extends OWLImmutableOntologyImpl
         @Override
         public ChangeApplied visit(RemoveAxiom change) {
             if (ints.removeAxiom(change.getAxiom())) {
-                invalidateOntologyCaches(OWLOntologyImpl.this);
                 return SUCCESSFULLY;
             }
             return NO_OPERATION;
@@ -96,8 +115,8 @@ public class OWLOntologyImpl extends OWLImmutableOntologyImpl
             if (!id.equals(ontologyID)) {
                 // force hashcode recomputation
                 hashCode = 0;
+                fingerprint = 0;
                 ontologyID = id;
-                invalidateOntologyCaches(OWLOntologyImpl.this);
                 return SUCCESSFULLY;
             }
             return NO_OPERATION;
@@ -106,7 +125,6 @@ public class OWLOntologyImpl extends OWLImmutableOntologyImpl
         @Override
         public ChangeApplied visit(AddAxiom change) {
             if (ints.addAxiom(change.getAxiom())) {
-                invalidateOntologyCaches(OWLOntologyImpl.this);
                 return SUCCESSFULLY;
             }
             return NO_OPERATION;
@@ -115,7 +133,6 @@ public class OWLOntologyImpl extends OWLImmutableOntologyImpl
         @Override
         public ChangeApplied visit(AddImport change) {
             if (ints.addImportsDeclaration(change.getImportDeclaration())) {
-                invalidateOntologyCaches(OWLOntologyImpl.this);
                 return SUCCESSFULLY;
             }
             return NO_OPERATION;
@@ -124,7 +141,6 @@ public class OWLOntologyImpl extends OWLImmutableOntologyImpl
         @Override
         public ChangeApplied visit(RemoveImport change) {
             if (ints.removeImportsDeclaration(change.getImportDeclaration())) {
-                invalidateOntologyCaches(OWLOntologyImpl.this);
                 return SUCCESSFULLY;
             }
             return NO_OPERATION;
@@ -133,7 +149,6 @@ public class OWLOntologyImpl extends OWLImmutableOntologyImpl
         @Override
         public ChangeApplied visit(AddOntologyAnnotation change) {
             if (ints.addOntologyAnnotation(change.getAnnotation())) {
-                invalidateOntologyCaches(OWLOntologyImpl.this);
                 return SUCCESSFULLY;
             }
             return NO_OPERATION;
@@ -142,7 +157,6 @@ public class OWLOntologyImpl extends OWLImmutableOntologyImpl
         @Override
         public ChangeApplied visit(RemoveOntologyAnnotation change) {
             if (ints.removeOntologyAnnotation(change.getAnnotation())) {
-                invalidateOntologyCaches(OWLOntologyImpl.this);
                 return SUCCESSFULLY;
             }
             return NO_OPERATION;
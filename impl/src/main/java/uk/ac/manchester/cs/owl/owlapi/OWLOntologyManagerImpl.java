@@ -33,6 +33,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -41,6 +42,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -125,7 +127,11 @@ import org.semanticweb.owlapi.util.PriorityCollection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import uk.ac.manchester.cs.owl.owlapi.concurrent.ConcurrentOWLOntologyImpl;
 import uk.ac.manchester.cs.owl.owlapi.concurrent.ConcurrentPriorityCollection;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.NoOpReadWriteLock;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.OntologyReadWriteLock;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.RegistryReadWriteLock;
 
 /**
  * @author Matthew Horridge, The University Of Manchester, Bio-Health Informatics Group
@@ -136,6 +142,11 @@ public class OWLOntologyManagerImpl
 
     private static final String BADLISTENER = "BADLY BEHAVING LISTENER: {} has been removed";
     private static final Logger LOGGER = LoggerFactory.getLogger(OWLOntologyManagerImpl.class);
+    /**
+     * Number of axioms added to one ontology by a single batch of changes above which the
+     * ontology indexes the new axioms once at the end of the batch rather than one by one.
+     */
+    private static final int BATCH_INDEXING_THRESHOLD = 1_000;
     protected final Map<OWLOntologyID, OWLOntology> ontologiesByID = createSyncMap();
     protected final Map<OWLOntologyID, IRI> documentIRIsByID = createSyncMap();
     protected final Map<OWLOntologyID, OWLOntologyLoaderConfiguration> ontologyConfigurationsByOntologyID =
@@ -149,6 +160,8 @@ public class OWLOntologyManagerImpl
     protected final Map<IRI, Object> importedIRIs = createSyncMap();
     protected final OWLDataFactory dataFactory;
     protected final Map<OWLOntologyID, Set<OWLOntology>> importsClosureCache = createSyncMap();
+    private final Map<OWLOntologyID, ImportsClosureIndex> importsClosureIndexes =
+        new ConcurrentHashMap<>();
     protected final List<MissingImportListener> missingImportsListeners = createSyncList();
     protected final List<OWLOntologyLoaderListener> loaderListeners = createSyncList();
     protected final List<OWLOntologyChangeProgressListener> progressListeners = createSyncList();
@@ -161,6 +174,13 @@ public class OWLOntologyManagerImpl
     private final Lock readLock;
     private final Lock writeLock;
     private final ReadWriteLock lock;
+    /**
+     * Lock held while notifying listeners; with a registry lock, listeners of changes to a single
+     * ontology are notified holding only the lock of that ontology, so that changes to different
+     * ontologies are not serialized by them. Such listeners can be called by several threads at
+     * once, and must be thread safe; see {@link RegistryReadWriteLock}.
+     */
+    private final Lock listenersLock;
     protected OWLOntologyChangeBroadcastStrategy defaultChangeBroadcastStrategy =
         new DefaultChangeBroadcastStrategy();
     protected ImpendingOWLOntologyChangeBroadcastStrategy defaultImpendingChangeBroadcastStrategy =
@@ -169,10 +189,14 @@ public class OWLOntologyManagerImpl
         createSyncMap();
     private transient Map<ImpendingOWLOntologyChangeListener, ImpendingOWLOntologyChangeBroadcastStrategy> impendingChangeListenerMap =
         createSyncMap();
-    private transient List<OWLOntologyChangesVetoedListener> vetoListeners = new ArrayList<>();
+    private transient List<OWLOntologyChangesVetoedListener> vetoListeners = createSyncList();
     private OntologyConfigurator configProvider = new OntologyConfigurator();
     private transient Optional<OWLOntologyLoaderConfiguration> loaderConfig = emptyOptional();
     private transient Optional<OWLOntologyWriterConfiguration> writerConfig = emptyOptional();
+    @Nullable
+    private transient ExecutorService importsLoadingExecutor;
+    @Nullable
+    private transient ImportsPrefetcher prefetcher;
 
     /**
      * @param dataFactory data factory
@@ -194,6 +218,8 @@ public class OWLOntologyManagerImpl
         readLock = readWriteLock.readLock();
         writeLock = readWriteLock.writeLock();
         lock = readWriteLock;
+        listenersLock = readWriteLock instanceof RegistryReadWriteLock
+            ? new NoOpReadWriteLock().writeLock() : writeLock;
         documentMappers = new ConcurrentPriorityCollection<>(readWriteLock, sorting);
         ontologyFactories = new ConcurrentPriorityCollection<>(readWriteLock, sorting);
         parserFactories = new ConcurrentPriorityCollection<>(readWriteLock, sorting);
@@ -208,6 +234,7 @@ public class OWLOntologyManagerImpl
             impendingChangeListenerMap.clear();
             importedIRIs.clear();
             importsClosureCache.clear();
+            importsClosureIndexes.clear();
             listenerMap.clear();
             loaderListeners.clear();
             missingImportsListeners.clear();
@@ -316,6 +343,14 @@ public class OWLOntologyManagerImpl
         }
     }
 
+    @Override
+    public Map<String, Long> estimateSharedMemoryUsage() {
+        if (dataFactory instanceof OWLDataFactoryImpl) {
+            return ((OWLDataFactoryImpl) dataFactory).estimateCacheMemoryUsage();
+        }
+        return Collections.emptyMap();
+    }
+
     @Override
     public boolean contains(OWLOntology ontology) {
         readLock.lock();
@@ -532,6 +567,25 @@ public class OWLOntologyManagerImpl
         }
     }
 
+    /**
+     * @param ontology ontology whose imports closure is queried
+     * @return merged index of the imports closure of the ontology, or null if the configuration
+     *         does not ask for imports closures to be indexed
+     */
+    @Nullable
+    ImportsClosureIndex importsClosureIndex(OWLOntology ontology) {
+        if (!configProvider.shouldIndexImportsClosure()) {
+            return null;
+        }
+        readLock.lock();
+        try {
+            return importsClosureIndexes.computeIfAbsent(ontology.getOntologyID(),
+                id -> new ImportsClosureIndex(asList(importsClosure(ontology))));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     /**
      * A recursive method that gets the reflexive transitive closure of the ontologies that are
      * imported by this ontology.
@@ -595,34 +649,57 @@ public class OWLOntologyManagerImpl
         checkForOntologyIDChange(change);
         ChangeApplied appliedChange = ((OWLMutableOntology) ont).applyDirectChange(change);
         checkForImportsChange(change);
+        if (appliedChange == ChangeApplied.SUCCESSFULLY && !importsClosureIndexes.isEmpty()) {
+            ImportsClosureIndex.changed(importsClosureIndexes.values(), change);
+        }
         return appliedChange;
     }
 
     @Override
     public ChangeDetails applyChangesAndGetDetails(List<? extends OWLOntologyChange> changes) {
-        writeLock.lock();
+        ConcurrentOWLOntologyImpl registered = ontologyWithOwnLock(changes);
+        if (registered == null) {
+            return applyChangesToRegistry(changes, true);
+        }
         try {
             broadcastImpendingChanges(changes);
+        } catch (OWLOntologyChangeVetoException e) {
+            // Some listener blocked the changes.
+            broadcastOntologyChangesVetoed(changes, e);
+            return new ChangeDetails(ChangeApplied.UNSUCCESSFULLY, Collections.emptyList());
+        }
+        ChangeDetails details = applyChangesToOntology(changes, registered);
+        if (details == null) {
+            // the ontology was removed or replaced before its lock was acquired
+            return applyChangesToRegistry(changes, false);
+        }
+        return details;
+    }
+
+    /**
+     * Apply changes holding the manager write lock.
+     *
+     * @param changes changes to apply
+     * @param impending true if impending change listeners still need to be notified
+     * @return change details
+     */
+    private ChangeDetails applyChangesToRegistry(List<? extends OWLOntologyChange> changes,
+        boolean impending) {
+        writeLock.lock();
+        try {
+            if (impending) {
+                broadcastImpendingChanges(changes);
+            }
             AtomicBoolean rollbackRequested = new AtomicBoolean(false);
             AtomicBoolean allNoOps = new AtomicBoolean(true);
             // list of changes applied successfully. These are the changes that
             // will be reverted in case of a rollback
             List<OWLOntologyChange> appliedChanges = new ArrayList<>();
             fireBeginChanges(changes.size());
-            actuallyApply(changes, rollbackRequested, allNoOps, appliedChanges);
-            if (rollbackRequested.get()) {
-                rollBack(appliedChanges);
-                appliedChanges.clear();
-            }
+            applyBatch(changes, rollbackRequested, allNoOps, appliedChanges);
             fireEndChanges();
             broadcastChanges(appliedChanges);
-            if (rollbackRequested.get()) {
-                return new ChangeDetails(ChangeApplied.UNSUCCESSFULLY, appliedChanges);
-            }
-            if (allNoOps.get()) {
-                return new ChangeDetails(ChangeApplied.NO_OPERATION, appliedChanges);
-            }
-            return new ChangeDetails(ChangeApplied.SUCCESSFULLY, appliedChanges);
+            return changeDetails(rollbackRequested, allNoOps, appliedChanges);
         } catch (OWLOntologyChangeVetoException e) {
             // Some listener blocked the changes.
             broadcastOntologyChangesVetoed(changes, e);
@@ -632,6 +709,126 @@ public class OWLOntologyManagerImpl
         }
     }
 
+    /**
+     * Apply changes to a single ontology holding only the lock of that ontology; listeners are
+     * notified before the lock is released, so that they receive the changes to the ontology in the
+     * order they were applied. The ontology lock includes the read lock of the registry, so once it
+     * is held the registry cannot change; the ontology is looked up again to make sure it is still
+     * the one the lock belongs to.
+     *
+     * @return change details, or null if the ontology is no longer registered with the same lock
+     */
+    @Nullable
+    private ChangeDetails applyChangesToOntology(List<? extends OWLOntologyChange> changes,
+        ConcurrentOWLOntologyImpl registered) {
+        AtomicBoolean rollbackRequested = new AtomicBoolean(false);
+        AtomicBoolean allNoOps = new AtomicBoolean(true);
+        List<OWLOntologyChange> appliedChanges = new ArrayList<>();
+        Lock ontologyLock = registered.getLock().writeLock();
+        ontologyLock.lock();
+        try {
+            if (ontologiesByID.get(changes.get(0).getOntology().getOntologyID()) != registered) {
+                return null;
+            }
+            fireBeginChanges(changes.size());
+            applyBatch(changes, rollbackRequested, allNoOps, appliedChanges);
+            fireEndChanges();
+            broadcastChanges(appliedChanges);
+        } finally {
+            ontologyLock.unlock();
+        }
+        return changeDetails(rollbackRequested, allNoOps, appliedChanges);
+    }
+
+    private static ChangeDetails changeDetails(AtomicBoolean rollbackRequested,
+        AtomicBoolean allNoOps, List<OWLOntologyChange> appliedChanges) {
+        if (rollbackRequested.get()) {
+            return new ChangeDetails(ChangeApplied.UNSUCCESSFULLY, appliedChanges);
+        }
+        if (allNoOps.get()) {
+            return new ChangeDetails(ChangeApplied.NO_OPERATION, appliedChanges);
+        }
+        return new ChangeDetails(ChangeApplied.SUCCESSFULLY, appliedChanges);
+    }
+
+    /**
+     * @param changes changes to apply
+     * @return with a registry lock, the registered ontology if all changes are to that ontology,
+     *         do not affect the registry and the ontology has a lock of its own; null if the
+     *         manager write lock is needed. The choice is made without holding any lock, and must
+     *         be checked again once the ontology lock is held
+     */
+    @Nullable
+    private ConcurrentOWLOntologyImpl ontologyWithOwnLock(
+        List<? extends OWLOntologyChange> changes) {
+        if (!(lock instanceof RegistryReadWriteLock) || changes.isEmpty()) {
+            return null;
+        }
+        OWLOntology ontology = changes.get(0).getOntology();
+        for (OWLOntologyChange change : changes) {
+            if (change.getOntology() != ontology || change.isImportChange()
+                || change instanceof SetOntologyID) {
+                return null;
+            }
+        }
+        // changes made through a concurrent ontology refer to the ontology it wraps
+        OWLOntology registered = ontologiesByID.get(ontology.getOntologyID());
+        if (registered instanceof ConcurrentOWLOntologyImpl) {
+            ConcurrentOWLOntologyImpl concurrent = (ConcurrentOWLOntologyImpl) registered;
+            if (concurrent.getLock() instanceof OntologyReadWriteLock) {
+                return concurrent;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Apply the changes in order, rolling back the applied ones if a change fails. Ontologies
+     * receiving many axioms in the batch defer their index updates until the batch, including any
+     * rollback, is complete; each index is then updated in a single pass.
+     */
+    private void applyBatch(List<? extends OWLOntologyChange> changes,
+        AtomicBoolean rollbackRequested, AtomicBoolean allNoOps,
+        List<OWLOntologyChange> appliedChanges) {
+        List<HasBulkLoad> deferred = deferIndexing(changes);
+        try {
+            actuallyApply(changes, rollbackRequested, allNoOps, appliedChanges);
+            if (rollbackRequested.get()) {
+                rollBack(appliedChanges);
+                appliedChanges.clear();
+            }
+        } finally {
+            deferred.forEach(HasBulkLoad::endBulkLoad);
+        }
+    }
+
+    /**
+     * @param changes changes to apply
+     * @return the ontologies that started deferring index updates for this batch; ontologies
+     *         already deferring them, e.g., while being parsed, are left alone
+     */
+    private static List<HasBulkLoad> deferIndexing(List<? extends OWLOntologyChange> changes) {
+        if (changes.size() < BATCH_INDEXING_THRESHOLD) {
+            return Collections.emptyList();
+        }
+        Map<OWLOntology, AtomicInteger> additions = new IdentityHashMap<>();
+        for (OWLOntologyChange change : changes) {
+            if (change.isAddAxiom()) {
+                additions.computeIfAbsent(change.getOntology(), o -> new AtomicInteger())
+                    .incrementAndGet();
+            }
+        }
+        List<HasBulkLoad> deferred = new ArrayList<>();
+        additions.forEach((o, count) -> {
+            if (count.get() >= BATCH_INDEXING_THRESHOLD && o instanceof HasBulkLoad
+                && !((HasBulkLoad) o).isBulkLoading()) {
+                ((HasBulkLoad) o).beginBulkLoad();
+                deferred.add((HasBulkLoad) o);
+            }
+        });
+        return deferred;
+    }
+
     protected void actuallyApply(List<? extends OWLOntologyChange> changes,
         AtomicBoolean rollbackRequested, AtomicBoolean allNoOps,
         List<OWLOntologyChange> appliedChanges) {
@@ -866,7 +1063,9 @@ public class OWLOntologyManagerImpl
                 case SHALLOW:
                 case DEEP:
                     OWLOntology o = createOntology(toCopy.getOntologyID());
-                    AxiomType.AXIOM_TYPES.forEach(t -> addAxioms(o, toCopy.axioms(t)));
+                    if (!shareAxioms(o, toCopy, settings)) {
+                        AxiomType.AXIOM_TYPES.forEach(t -> addAxioms(o, toCopy.axioms(t)));
+                    }
                     toCopy.annotations().forEach(a -> applyChange(new AddOntologyAnnotation(o, a)));
                     toCopy.importsDeclarations().forEach(a -> applyChange(new AddImport(o, a)));
                     toReturn = o;
@@ -890,7 +1089,8 @@ public class OWLOntologyManagerImpl
                 toReturn.setOWLOntologyManager(this);
                 // change the lock on the ontology
                 if (toReturn instanceof OWLMutableOntology) {
-                    ((OWLMutableOntology) toReturn).setLock(lock);
+                    ((OWLMutableOntology) toReturn)
+                        .setLock(OntologyReadWriteLock.forOntology(lock));
                 }
             }
             return toReturn;
@@ -899,6 +1099,42 @@ public class OWLOntologyManagerImpl
         }
     }
 
+    /**
+     * Share the axioms of an ontology with its shallow copy, if the configuration allows it and
+     * the ontologies support it.
+     *
+     * @param copy new, empty ontology
+     * @param toCopy ontology being copied
+     * @param settings copy mode
+     * @return true if the axioms have been shared, false if they need to be added to the copy
+     */
+    private boolean shareAxioms(OWLOntology copy, OWLOntology toCopy, OntologyCopy settings) {
+        return settings == OntologyCopy.SHALLOW && configProvider.shouldShareShallowCopies()
+            && shareAxioms(copy, toCopy);
+    }
+
+    /**
+     * Share the axioms of an ontology with a new, empty ontology, if the ontologies support it.
+     * No change events are generated for shared axioms, so axioms are not shared while listeners
+     * expecting those events, e.g., change journals, are attached; merged imports closure indexes
+     * are discarded, since they are not updated either.
+     *
+     * @param target new, empty ontology
+     * @param source ontology whose axioms are shared
+     * @return true if the axioms have been shared, false if they need to be added to the target
+     */
+    private boolean shareAxioms(OWLOntology target, OWLOntology source) {
+        if (broadcastChanges.get()
+            && !(listenerMap.isEmpty() && impendingChangeListenerMap.isEmpty())) {
+            return false;
+        }
+        if (!(target instanceof HasCopyOnWrite && ((HasCopyOnWrite) target).shareAxioms(source))) {
+            return false;
+        }
+        importsClosureIndexes.clear();
+        return true;
+    }
+
     @Override
     public OWLOntology loadOntology(IRI ontologyIRI) throws OWLOntologyCreationException {
         // if an ontology cyclically imports itself, the manager should not try to download from the
@@ -1039,6 +1275,20 @@ public class OWLOntologyManagerImpl
     protected OWLOntology loadOntology(@Nullable IRI ontologyIRI,
         OWLOntologyDocumentSource documentSource, OWLOntologyLoaderConfiguration configuration)
         throws OWLOntologyCreationException {
+        // the imports closure is parsed before the write lock is taken, so that the lock is only
+        // held while the parses are registered; nested loads never get here with a zero count
+        ImportsPrefetcher discovered = null;
+        if (loadCount.get() == 0 && configuration.shouldLoadImportsInParallel()) {
+            readLock.lock();
+            try {
+                discovered = new ImportsPrefetcher(dataFactory, parserFactories, documentMappers,
+                    configuration, importsLoadingExecutor);
+            } finally {
+                readLock.unlock();
+            }
+            discovered.discover(documentSource);
+            discovered.awaitDiscovery();
+        }
         writeLock.lock();
         try {
             if (loadCount.get() != importsLoadCount.get()) {
@@ -1047,6 +1297,10 @@ public class OWLOntologyManagerImpl
             }
             fireStartedLoadingEvent(new OWLOntologyID(optional(ontologyIRI), emptyOptional()),
                 documentSource.getDocumentIRI(), loadCount.get() > 0);
+            if (loadCount.get() == 0 && discovered != null) {
+                prefetcher = discovered;
+                discovered = null;
+            }
             loadCount.incrementAndGet();
             broadcastChanges.set(false);
             Exception ex = null;
@@ -1070,6 +1324,11 @@ public class OWLOntologyManagerImpl
                 if (loadCount.decrementAndGet() == 0) {
                     broadcastChanges.set(true);
                     // Completed loading ontology and imports
+                    ImportsPrefetcher p = prefetcher;
+                    if (p != null) {
+                        p.close();
+                        prefetcher = null;
+                    }
                 }
                 fireFinishedLoadingEvent(idOfLoadedOntology, documentSource.getDocumentIRI(),
                     loadCount.get() > 0, ex);
@@ -1077,6 +1336,10 @@ public class OWLOntologyManagerImpl
             throw new OWLOntologyFactoryNotFoundException(documentSource.getDocumentIRI());
         } finally {
             writeLock.unlock();
+            if (discovered != null) {
+                // another load started while the closure was being discovered
+                discovered.close();
+            }
         }
     }
 
@@ -1094,6 +1357,13 @@ public class OWLOntologyManagerImpl
                 return getOntology(findAny.get().getKey());
             }
         }
+        ImportsPrefetcher p = prefetcher;
+        if (p != null && ImportsPrefetcher.canTake(documentSource)) {
+            ImportsPrefetcher.Prefetched prefetched = p.take(documentSource.getDocumentIRI());
+            if (prefetched != null) {
+                return adopt(prefetched, documentSource.getDocumentIRI(), configuration);
+            }
+        }
         for (OWLOntologyFactory factory : ontologyFactories) {
             if (factory.canAttemptLoading(documentSource)) {
                 try {
@@ -1103,15 +1373,7 @@ public class OWLOntologyManagerImpl
                     factory.setLock(lock);
                     OWLOntology ontology =
                         factory.loadOWLOntology(this, documentSource, this, configuration);
-                    if (configuration.shouldRepairIllegalPunnings()) {
-                        fixIllegalPunnings(ontology);
-                    }
-                    // Store the ontology to the document IRI mapping
-                    documentIRIsByID.put(ontology.getOntologyID(), documentSource.getDocumentIRI());
-                    ontologyConfigurationsByOntologyID.put(ontology.getOntologyID(), configuration);
-                    if (ontology instanceof HasTrimToSize && configuration.shouldTrimToSize()) {
-                        ((HasTrimToSize) ontology).trimToSize();
-                    }
+                    finishLoading(ontology, documentSource.getDocumentIRI(), configuration);
                     return ontology;
                 } catch (OWLOntologyRenameException e) {
                     // We loaded an ontology from a document and the
@@ -1124,6 +1386,74 @@ public class OWLOntologyManagerImpl
         return null;
     }
 
+    private void finishLoading(OWLOntology ontology, IRI documentIRI,
+        OWLOntologyLoaderConfiguration configuration) {
+        if (configuration.shouldRepairIllegalPunnings()) {
+            fixIllegalPunnings(ontology);
+        }
+        // Store the ontology to the document IRI mapping
+        documentIRIsByID.put(ontology.getOntologyID(), documentIRI);
+        ontologyConfigurationsByOntologyID.put(ontology.getOntologyID(), configuration);
+        if (ontology instanceof HasTrimToSize && configuration.shouldTrimToSize()) {
+            ((HasTrimToSize) ontology).trimToSize();
+        }
+        if (ontology instanceof HasWarmUpIndexes && configuration.shouldWarmUpIndexes()) {
+            ((HasWarmUpIndexes) ontology).warmUpIndexes();
+        }
+    }
+
+    /**
+     * Copy an ontology parsed ahead of time by an imports prefetcher into an ontology created by
+     * this manager's factories, then load its imports as its parser would have. Axioms are shared
+     * with the parse when the new ontology supports it.
+     */
+    private OWLOntology adopt(ImportsPrefetcher.Prefetched prefetched, IRI documentIRI,
+        OWLOntologyLoaderConfiguration configuration) throws OWLOntologyCreationException {
+        OWLOntology parsed = prefetched.ontology;
+        OWLOntologyID id = parsed.getOntologyID();
+        if (ontologiesByID.containsKey(id)) {
+            throw new OWLOntologyAlreadyExistsException(id);
+        }
+        for (OWLOntologyFactory factory : ontologyFactories) {
+            if (factory.canCreateFromDocumentIRI(documentIRI)) {
+                factory.setLock(lock);
+                OWLOntology ontology = factory.createOWLOntology(this, id, documentIRI, this);
+                documentIRIsByID.put(id, documentIRI);
+                ontologyFormatsByOntology.put(id, prefetched.format);
+                if (!shareAxioms(ontology, parsed)) {
+                    AxiomType.AXIOM_TYPES.forEach(t -> addAxioms(ontology, parsed.axioms(t)));
+                }
+                parsed.annotations()
+                    .forEach(a -> applyChange(new AddOntologyAnnotation(ontology, a)));
+                parsed.importsDeclarations().forEach(i -> {
+                    makeLoadImportRequest(i, configuration);
+                    applyChange(new AddImport(ontology, i));
+                });
+                finishLoading(ontology, documentIRI, configuration);
+                return ontology;
+            }
+        }
+        throw new OWLOntologyFactoryNotFoundException(documentIRI);
+    }
+
+    /**
+     * @return the lock guarding this manager
+     */
+    ReadWriteLock getLock() {
+        return lock;
+    }
+
+    /**
+     * Set the executor parsing imported documents when parallel imports loading is enabled. The
+     * executor is not shut down by the manager.
+     *
+     * @param executor executor to use; null to create a pool for each load, sized by the loader
+     *        configuration
+     */
+    public void setImportsLoadingExecutor(@Nullable ExecutorService executor) {
+        importsLoadingExecutor = executor;
+    }
+
     protected void fixIllegalPunnings(OWLOntology o) {
         Collection<IRI> illegals = OWLDocumentFormat.determineIllegalPunnings(true,
             Imports.INCLUDED.stream(o).flatMap(HasSignature::unsortedSignature),
@@ -1270,6 +1600,7 @@ public class OWLOntologyManagerImpl
         writeLock.lock();
         try {
             importsClosureCache.clear();
+            importsClosureIndexes.clear();
         } finally {
             writeLock.unlock();
         }
@@ -1523,7 +1854,7 @@ public class OWLOntologyManagerImpl
      * @param changes The ontology changes to broadcast
      */
     protected void broadcastChanges(List<? extends OWLOntologyChange> changes) {
-        writeLock.lock();
+        listenersLock.lock();
         try {
             if (!broadcastChanges.get()) {
                 return;
@@ -1547,12 +1878,12 @@ public class OWLOntologyManagerImpl
                 }
             }
         } finally {
-            writeLock.unlock();
+            listenersLock.unlock();
         }
     }
 
     protected void broadcastImpendingChanges(List<? extends OWLOntologyChange> changes) {
-        writeLock.lock();
+        listenersLock.lock();
         try {
             if (!broadcastChanges.get()) {
                 return;
@@ -1566,7 +1897,7 @@ public class OWLOntologyManagerImpl
                 }
             }
         } finally {
-            writeLock.unlock();
+            listenersLock.unlock();
         }
     }
 
@@ -1643,11 +1974,11 @@ public class OWLOntologyManagerImpl
 
     private void broadcastOntologyChangesVetoed(List<? extends OWLOntologyChange> changes,
         OWLOntologyChangeVetoException veto) {
-        writeLock.lock();
+        listenersLock.lock();
         try {
             new ArrayList<>(vetoListeners).forEach(l -> l.ontologyChangesVetoed(changes, veto));
         } finally {
-            writeLock.unlock();
+            listenersLock.unlock();
         }
     }
 
@@ -1812,7 +2143,7 @@ public class OWLOntologyManagerImpl
     }
 
     protected void fireBeginChanges(int size) {
-        writeLock.lock();
+        listenersLock.lock();
         try {
             if (!broadcastChanges.get()) {
                 return;
@@ -1826,12 +2157,12 @@ public class OWLOntologyManagerImpl
                 }
             }
         } finally {
-            writeLock.unlock();
+            listenersLock.unlock();
         }
     }
 
     protected void fireEndChanges() {
-        writeLock.lock();
+        listenersLock.lock();
         try {
             if (!broadcastChanges.get()) {
                 return;
@@ -1845,12 +2176,12 @@ public class OWLOntologyManagerImpl
                 }
             }
         } finally {
-            writeLock.unlock();
+            listenersLock.unlock();
         }
     }
 
     protected void fireChangeApplied(OWLOntologyChange change) {
-        writeLock.lock();
+        listenersLock.lock();
         try {
             if (!broadcastChanges.get()) {
                 return;
@@ -1867,7 +2198,7 @@ public class OWLOntologyManagerImpl
                 }
             }
         } finally {
-            writeLock.unlock();
+            listenersLock.unlock();
         }
     }
 }
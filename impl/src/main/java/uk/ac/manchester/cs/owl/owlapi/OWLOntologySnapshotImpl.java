@@ -0,0 +1,76 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.util.stream.Stream;
+
+import org.semanticweb.owlapi.model.OWLDocumentFormat;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * A read only snapshot of an ontology. The snapshot shares index maps with the ontology it was
+ * taken from until that ontology is changed; changes applied afterwards are not visible through
+ * the snapshot. Imports are not part of the snapshot: imports queries are answered by the
+ * manager, so imported ontologies are the live ones.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public class OWLOntologySnapshotImpl extends OWLImmutableOntologyImpl {
+
+    private final transient OWLOntology live;
+
+    /**
+     * @param live ontology the snapshot was taken from
+     * @param ints snapshot of the internals of the live ontology
+     */
+    OWLOntologySnapshotImpl(OWLImmutableOntologyImpl live, Internals ints) {
+        super(live.getOWLOntologyManager(), live.getOntologyID(), ints);
+        this.live = live;
+    }
+
+    /**
+     * @return the ontology this snapshot was taken from
+     */
+    public OWLOntology getLiveOntology() {
+        return live;
+    }
+
+    @Override
+    public OWLDocumentFormat getFormat() {
+        return live.getFormat();
+    }
+
+    @Override
+    public Stream<OWLOntology> imports() {
+        return live.imports().map(this::replaceLive);
+    }
+
+    @Override
+    public Stream<OWLOntology> directImports() {
+        return live.directImports().map(this::replaceLive);
+    }
+
+    @Override
+    public Stream<OWLOntology> importsClosure() {
+        return live.importsClosure().map(this::replaceLive);
+    }
+
+    private OWLOntology replaceLive(OWLOntology o) {
+        // the manager only knows the live ontology; ontology ids are unique within a manager
+        if (o == live || o.getOntologyID().equals(getOntologyID())) {
+            return this;
+        }
+        return o;
+    }
+}
@@ -0,0 +1,99 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.streamFromSorted;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+/**
+ * Signature of an {@link OWLObjectImpl}, stored as sorted arrays. Entities sort by type index
+ * first, so the entities of each type are a contiguous range of the entity array; the signature by
+ * type is answered from that range without copying, and membership is a binary search.
+ *
+ * @author ignazio
+ */
+final class ObjectSignature {
+
+    /** Entity type indexes, in sort order. */
+    private static final int[] TYPE_INDEXES = {1001, 1002, 1004, 1005, 1006, 4001};
+    static final int CLASSES = 0;
+    static final int OBJECT_PROPERTIES = 1;
+    static final int DATA_PROPERTIES = 2;
+    static final int INDIVIDUALS = 3;
+    static final int ANNOTATION_PROPERTIES = 4;
+    static final int DATATYPES = 5;
+    private static final OWLEntity[] NO_ENTITIES = {};
+    private static final OWLAnonymousIndividual[] NO_ANONS = {};
+    private static final int[] NO_BOUNDS = new int[TYPE_INDEXES.length + 1];
+    private final OWLEntity[] entities;
+    private final OWLAnonymousIndividual[] anons;
+    /** Start of the range for each type; the last element is the length of the entity array. */
+    private final int[] bounds;
+
+    ObjectSignature(HasIncrementalSignatureGenerationSupport o) {
+        Set<OWLEntity> sorted = o.addSignatureEntitiesToSet(new TreeSet<>());
+        entities = sorted.isEmpty() ? NO_ENTITIES : sorted.toArray(NO_ENTITIES);
+        Set<OWLAnonymousIndividual> sortedAnons =
+            o.addAnonymousIndividualsToSet(new TreeSet<>());
+        anons = sortedAnons.isEmpty() ? NO_ANONS : sortedAnons.toArray(NO_ANONS);
+        bounds = entities.length == 0 ? NO_BOUNDS : bounds(entities);
+    }
+
+    private static int[] bounds(OWLEntity[] entities) {
+        int[] b = new int[TYPE_INDEXES.length + 1];
+        int type = 0;
+        for (int i = 0; i < entities.length; i++) {
+            while (type < TYPE_INDEXES.length - 1
+                && entities[i].typeIndex() > TYPE_INDEXES[type]) {
+                b[++type] = i;
+            }
+        }
+        while (type < TYPE_INDEXES.length) {
+            b[++type] = entities.length;
+        }
+        return b;
+    }
+
+    Stream<OWLEntity> entities() {
+        return streamFromSorted(entities);
+    }
+
+    Stream<OWLAnonymousIndividual> anonymousIndividuals() {
+        return streamFromSorted(anons);
+    }
+
+    /**
+     * @param type one of the type constants in this class
+     * @param <T> entity type matching the constant
+     * @return the entities of the specified type
+     */
+    @SuppressWarnings("unchecked")
+    <T extends OWLEntity> Stream<T> entities(int type) {
+        return (Stream<T>) streamFromSorted(entities, bounds[type], bounds[type + 1]);
+    }
+
+    boolean contains(OWLEntity e) {
+        int type = Arrays.binarySearch(TYPE_INDEXES, e.typeIndex());
+        if (type < 0) {
+            return false;
+        }
+        return Arrays.binarySearch(entities, bounds[type], bounds[type + 1], e) >= 0;
+    }
+}
@@ -0,0 +1,721 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.semanticweb.owlapi.util.OWLAPIPreconditions.checkNotNull;
+import static org.semanticweb.owlapi.util.OWLAPIPreconditions.verifyNotNull;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.change.AddAxiomData;
+import org.semanticweb.owlapi.change.AddImportData;
+import org.semanticweb.owlapi.change.AddOntologyAnnotationData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeDataVisitor;
+import org.semanticweb.owlapi.change.OWLOntologyChangeRecord;
+import org.semanticweb.owlapi.change.RemoveAxiomData;
+import org.semanticweb.owlapi.change.RemoveImportData;
+import org.semanticweb.owlapi.change.RemoveOntologyAnnotationData;
+import org.semanticweb.owlapi.change.SetOntologyIDData;
+import org.semanticweb.owlapi.model.DefaultChangeBroadcastStrategy;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.semanticweb.owlapi.model.SetOntologyID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.ac.manchester.cs.owl.owlapi.concurrent.ConcurrentOWLOntologyImpl;
+import uk.ac.manchester.cs.owl.owlapi.concurrent.NoOpReadWriteLock;
+
+/**
+ * Append-only journal of the changes applied to the ontologies in a manager, so that edits can be
+ * recovered after a crash without saving the ontologies after every edit. <br>
+ * The journal directory contains a snapshot of the ontologies, written in the
+ * {@link BinaryOntologyFile} format, and journal files listing the changes applied since the
+ * snapshot was taken. Each batch of changes is appended to the current journal file as one frame,
+ * made of its length, a checksum and the changes in the compact binary encoding; a frame only
+ * partially written when the process stopped is discarded when the journal is opened again.
+ * Managers notify listeners while holding the write lock of the changed ontology, or the manager
+ * write lock, so the frames for an ontology follow the order in which its changes were applied.
+ * <br>
+ * {@link #open(OWLOntologyManager, File, SyncPolicy)} restores the snapshot, if any, and replays
+ * the journal into the manager, then records all changes applied to the manager's ontologies from
+ * that point. Ontologies in the snapshot that the manager already contains, e.g., because they
+ * have been loaded from their original documents, have their contents replaced with the
+ * snapshot's contents. {@link #compact()} writes a new snapshot and starts an empty journal file;
+ * compaction can also be triggered automatically when the journal grows past a size threshold.
+ * <br>
+ * Only changes to ontologies with an ontology IRI are recorded, since anonymous ontologies cannot
+ * be matched after a restart; adding or removing ontologies to the manager is not recorded,
+ * although ontologies that receive changes are created on replay if needed.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public final class OntologyChangeJournal implements OWLOntologyChangeListener, AutoCloseable {
+
+    /**
+     * When journal writes are forced to disk.
+     */
+    public enum SyncPolicy {
+        /** Force each batch of changes to disk before the call applying the changes returns. */
+        ALWAYS,
+        /**
+         * Force changes to disk at most once per sync interval; a crash can lose the changes
+         * applied in the last interval.
+         */
+        PERIODIC,
+        /** Leave writing to disk to the operating system. */
+        NEVER
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OntologyChangeJournal.class);
+    /** Magic number at the start of a journal file. */
+    static final int MAGIC = 0x4F574C4A;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final Pattern JOURNAL = Pattern.compile("journal-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT = Pattern.compile("snapshot-(\\d+)");
+    private static final int ADD_AXIOM = 0;
+    private static final int REMOVE_AXIOM = 1;
+    private static final int ADD_IMPORT = 2;
+    private static final int REMOVE_IMPORT = 3;
+    private static final int ADD_ANNOTATION = 4;
+    private static final int REMOVE_ANNOTATION = 5;
+    private static final int SET_ONTOLOGY_ID = 6;
+    private static final OWLOntologyChangeDataVisitor<Integer> KINDS =
+        new OWLOntologyChangeDataVisitor<Integer>() {
+
+            @Override
+            public Integer visit(AddAxiomData data) {
+                return Integer.valueOf(ADD_AXIOM);
+            }
+
+            @Override
+            public Integer visit(RemoveAxiomData data) {
+                return Integer.valueOf(REMOVE_AXIOM);
+            }
+
+            @Override
+            public Integer visit(AddOntologyAnnotationData data) {
+                return Integer.valueOf(ADD_ANNOTATION);
+            }
+
+            @Override
+            public Integer visit(RemoveOntologyAnnotationData data) {
+                return Integer.valueOf(REMOVE_ANNOTATION);
+            }
+
+            @Override
+            public Integer visit(SetOntologyIDData data) {
+                return Integer.valueOf(SET_ONTOLOGY_ID);
+            }
+
+            @Override
+            public Integer visit(AddImportData data) {
+                return Integer.valueOf(ADD_IMPORT);
+            }
+
+            @Override
+            public Integer visit(RemoveImportData data) {
+                return Integer.valueOf(REMOVE_IMPORT);
+            }
+        };
+    private final OWLOntologyManager manager;
+    @Nullable
+    private final ReadWriteLock managerLock;
+    private final File directory;
+    private final SyncPolicy policy;
+    private final Object compactionLock = new Object();
+    private long syncIntervalNanos = TimeUnit.SECONDS.toNanos(1);
+    private long compactionThreshold;
+    @Nullable
+    private ExecutorService compactor;
+    private boolean compactionScheduled;
+    private long generation;
+    private FileChannel channel;
+    private long lastSync = System.nanoTime();
+    private boolean closed;
+
+    private OntologyChangeJournal(OWLOntologyManager manager, File directory, SyncPolicy policy,
+        long generation) throws IOException {
+        this.manager = manager;
+        managerLock = manager instanceof OWLOntologyManagerImpl
+            ? ((OWLOntologyManagerImpl) manager).getLock() : null;
+        this.directory = directory;
+        this.policy = policy;
+        this.generation = generation;
+        channel = openJournal(journalFile(directory, generation));
+    }
+
+    /**
+     * Restore the snapshot and replay the journal in the directory into the manager, then record
+     * all further changes to the manager's ontologies in the journal.
+     *
+     * @param manager manager to restore and record
+     * @param directory journal directory; created if it does not exist
+     * @param policy when journal writes are forced to disk
+     * @return the journal attached to the manager
+     * @throws IOException if the journal cannot be read or written
+     * @throws OWLOntologyCreationException if the ontologies in the journal cannot be created
+     */
+    public static OntologyChangeJournal open(OWLOntologyManager manager, File directory,
+        SyncPolicy policy) throws IOException, OWLOntologyCreationException {
+        checkNotNull(manager, "manager cannot be null");
+        checkNotNull(directory, "directory cannot be null");
+        checkNotNull(policy, "policy cannot be null");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create journal directory " + directory);
+        }
+        long snapshot = restoreSnapshot(manager, directory);
+        long last = snapshot;
+        for (long g : generations(directory, JOURNAL)) {
+            if (g >= snapshot) {
+                replay(manager, journalFile(directory, g));
+                last = g;
+            }
+        }
+        deleteBefore(directory, snapshot);
+        OntologyChangeJournal journal = new OntologyChangeJournal(manager, directory, policy, last);
+        manager.addOntologyChangeListener(journal, new DefaultChangeBroadcastStrategy());
+        return journal;
+    }
+
+    /**
+     * @param interval minimum time between forced writes with the {@link SyncPolicy#PERIODIC}
+     *        policy
+     * @param unit unit of the interval
+     */
+    public synchronized void setSyncInterval(long interval, TimeUnit unit) {
+        syncIntervalNanos = unit.toNanos(interval);
+    }
+
+    /**
+     * @param bytes journal file size above which a compaction is started on a background thread;
+     *        0, the default, disables automatic compaction. The snapshot is written while other
+     *        threads apply changes, so automatic compaction needs a concurrent manager
+     * @throws IllegalStateException if automatic compaction is enabled for a manager that is not
+     *         thread safe
+     */
+    public synchronized void setCompactionThreshold(long bytes) {
+        if (bytes > 0 && (managerLock == null || managerLock instanceof NoOpReadWriteLock)) {
+            throw new IllegalStateException(
+                "Automatic compaction requires a concurrent manager: " + manager);
+        }
+        compactionThreshold = bytes;
+    }
+
+    /**
+     * @return number of the current journal file; incremented by each compaction
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return size in bytes of the current journal file
+     * @throws IOException if the size cannot be read
+     */
+    public synchronized long getJournalSize() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+        List<OWLOntologyChangeRecord> records = records(changes);
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            byte[] frame = frame(records);
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                write(channel, ByteBuffer.wrap(frame));
+                if (policy == SyncPolicy.ALWAYS || policy == SyncPolicy.PERIODIC
+                    && System.nanoTime() - lastSync >= syncIntervalNanos) {
+                    sync();
+                }
+                if (compactionThreshold > 0 && channel.size() > compactionThreshold
+                    && !compactionScheduled) {
+                    scheduleCompaction();
+                }
+            }
+        } catch (IOException e) {
+            // the manager removes listeners that throw exceptions, so no further changes are
+            // recorded
+            throw new OWLRuntimeException("Change journal " + directory + " cannot be written", e);
+        }
+    }
+
+    /**
+     * Force all changes recorded so far to disk.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+        lastSync = System.nanoTime();
+    }
+
+    /**
+     * Write a snapshot of the manager's ontologies and start a new, empty journal file; the
+     * previous snapshot and journal files are deleted once the new snapshot is complete. With a
+     * concurrent manager, changes can be applied by other threads while the snapshot is written:
+     * they are recorded in the new journal file. The journal file is switched, and the ids of the
+     * ontologies in the snapshot recorded, while holding the manager write lock, so the snapshot
+     * has the ids that the changes in the new journal file start from.
+     *
+     * @throws IOException if the snapshot or the journal cannot be written
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            long next;
+            Map<OWLOntology, OWLOntologyID> ids = new IdentityHashMap<>();
+            Lock writeLock = managerLock == null ? null : managerLock.writeLock();
+            if (writeLock != null) {
+                writeLock.lock();
+            }
+            try {
+                synchronized (this) {
+                    if (closed) {
+                        return;
+                    }
+                    // changes are recorded before the lock of their ontology is released, and
+                    // the manager write lock excludes all ontology locks, so every change applied
+                    // so far is in the old file and included in the snapshot; changes applied
+                    // from now on go to the new journal file
+                    next = generation + 1;
+                    FileChannel previous = channel;
+                    channel = openJournal(journalFile(directory, next));
+                    generation = next;
+                    previous.force(false);
+                    previous.close();
+                    manager.ontologies().forEach(o -> ids.put(o, o.getOntologyID()));
+                }
+            } finally {
+                if (writeLock != null) {
+                    writeLock.unlock();
+                }
+            }
+            writeSnapshot(next, ids);
+            deleteBefore(directory, next);
+        }
+    }
+
+    private void scheduleCompaction() {
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "owlapi-journal-compaction");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        compactionScheduled = true;
+        verifyNotNull(compactor).execute(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                LOGGER.error("Compaction of change journal {} failed: {}", directory,
+                    e.getMessage(), e);
+            } finally {
+                synchronized (this) {
+                    compactionScheduled = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Stop recording changes, wait for a compaction in progress to complete, force the journal to
+     * disk and close it.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        manager.removeOntologyChangeListener(this);
+        synchronized (compactionLock) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (compactor != null) {
+                    compactor.shutdown();
+                }
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+
+    private void writeSnapshot(long g, Map<OWLOntology, OWLOntologyID> ids) throws IOException {
+        File tmp = new File(directory, "snapshot-" + g + ".tmp");
+        deleteRecursively(tmp);
+        if (!tmp.mkdirs()) {
+            throw new IOException("Cannot create snapshot directory " + tmp);
+        }
+        int i = 0;
+        for (Map.Entry<OWLOntology, OWLOntologyID> e : ids.entrySet()) {
+            OWLOntology o = e.getKey();
+            if (!e.getValue().getOntologyIRI().isPresent()) {
+                LOGGER.warn("Anonymous ontology {} not included in journal snapshot", o);
+                continue;
+            }
+            // each ontology is written in a consistent state; changes applied after the journal
+            // switch may or may not be included, and are replayed from the new journal file
+            Lock readLock = o instanceof ConcurrentOWLOntologyImpl
+                ? ((ConcurrentOWLOntologyImpl) o).getLock().readLock() : null;
+            try (FileOutputStream out = new FileOutputStream(new File(tmp, i++ + ".owlb"))) {
+                if (readLock != null) {
+                    readLock.lock();
+                }
+                try {
+                    BinaryOntologyFile.write(o, e.getValue(), out);
+                } finally {
+                    if (readLock != null) {
+                        readLock.unlock();
+                    }
+                }
+                out.getFD().sync();
+            }
+        }
+        Files.move(tmp.toPath(), snapshotDirectory(directory, g).toPath(),
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param changes changes just applied
+     * @return records for the changes to named ontologies, with the ontology ids those ontologies
+     *         had when each change was applied
+     */
+    private static List<OWLOntologyChangeRecord> records(
+        List<? extends OWLOntologyChange> changes) {
+        // walk back from the current ids, undoing id changes along the way
+        Map<OWLOntology, OWLOntologyID> ids = new IdentityHashMap<>();
+        OWLOntologyChangeRecord[] records = new OWLOntologyChangeRecord[changes.size()];
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            OWLOntologyChange change = changes.get(i);
+            OWLOntology o = change.getOntology();
+            OWLOntologyID id = ids.computeIfAbsent(o, OWLOntology::getOntologyID);
+            if (change instanceof SetOntologyID) {
+                id = ((SetOntologyID) change).getOriginalOntologyID();
+                ids.put(o, id);
+            }
+            if (id.getOntologyIRI().isPresent()) {
+                records[i] = new OWLOntologyChangeRecord(id, change.getChangeData());
+            } else {
+                LOGGER.debug("Change to anonymous ontology not journaled: {}", change);
+            }
+        }
+        List<OWLOntologyChangeRecord> list = new ArrayList<>(records.length);
+        Arrays.stream(records).filter(r -> r != null).forEach(list::add);
+        return list;
+    }
+
+    private static byte[] frame(List<OWLOntologyChangeRecord> records) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        // room for the frame header
+        out.writeLong(0);
+        OWLObjectBinaryOutput objects = new OWLObjectBinaryOutput(out);
+        objects.writeVarInt(records.size());
+        for (OWLOntologyChangeRecord r : records) {
+            writeID(objects, r.getOntologyID());
+            OWLOntologyChangeData data = r.getData();
+            int kind = data.accept(KINDS).intValue();
+            objects.writeVarInt(kind);
+            if (kind == SET_ONTOLOGY_ID) {
+                writeID(objects, ((SetOntologyIDData) data).getNewId());
+            } else if (kind == ADD_IMPORT || kind == REMOVE_IMPORT) {
+                objects.write(((OWLImportsDeclaration) data.getItem()).getIRI());
+            } else {
+                objects.write(data.getItem());
+            }
+        }
+        out.flush();
+        byte[] frame = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(frame, FRAME_HEADER_BYTES, frame.length - FRAME_HEADER_BYTES);
+        ByteBuffer header = ByteBuffer.wrap(frame, 0, FRAME_HEADER_BYTES);
+        header.putInt(frame.length - FRAME_HEADER_BYTES);
+        header.putInt((int) crc.getValue());
+        return frame;
+    }
+
+    private static void writeID(OWLObjectBinaryOutput objects, OWLOntologyID id)
+        throws IOException {
+        objects.write(id.getOntologyIRI().orElse(null));
+        objects.write(id.getVersionIRI().orElse(null));
+    }
+
+    private static OWLOntologyID readID(OWLObjectBinaryInput objects) throws IOException {
+        IRI ontologyIRI = (IRI) objects.read();
+        IRI versionIRI = (IRI) objects.read();
+        return ontologyIRI == null ? new OWLOntologyID()
+            : new OWLOntologyID(ontologyIRI, versionIRI);
+    }
+
+    /**
+     * Apply the changes in the valid frames of a journal file, and truncate the file after the
+     * last valid frame.
+     */
+    private static void replay(OWLOntologyManager manager, File file)
+        throws IOException, OWLOntologyCreationException {
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES) {
+                // the file was being created
+                ch.truncate(0);
+                return;
+            }
+            DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Channels.newInputStream(ch)));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a change journal, or unsupported version: " + file);
+            }
+            long valid = HEADER_BYTES;
+            while (true) {
+                byte[] payload;
+                int checksum;
+                try {
+                    int length = in.readInt();
+                    checksum = in.readInt();
+                    if (length < 0 || length > size - valid - FRAME_HEADER_BYTES) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(payload, 0, payload.length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                apply(manager, payload);
+                valid += FRAME_HEADER_BYTES + payload.length;
+            }
+            if (valid < size) {
+                LOGGER.warn("Discarding {} bytes of incomplete changes at the end of {}",
+                    Long.valueOf(size - valid), file);
+                ch.truncate(valid);
+            }
+        }
+    }
+
+    private static void apply(OWLOntologyManager manager, byte[] payload)
+        throws IOException, OWLOntologyCreationException {
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLObjectBinaryInput objects = new OWLObjectBinaryInput(
+            new DataInputStream(new ByteArrayInputStream(payload)), df);
+        int count = objects.readVarInt();
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            OWLOntologyID id = readID(objects);
+            int kind = objects.readVarInt();
+            OWLOntologyChangeData data = data(kind, objects, df);
+            if (kind == SET_ONTOLOGY_ID) {
+                // later changes refer to the new id, so the ontology must be renamed first
+                manager.applyChanges(changes);
+                changes.clear();
+            }
+            OWLOntology o = manager.getOntology(id);
+            if (o == null) {
+                o = manager.createOntology(id);
+            }
+            changes.add(data.createOntologyChange(o));
+            if (kind == SET_ONTOLOGY_ID) {
+                manager.applyChanges(changes);
+                changes.clear();
+            }
+        }
+        manager.applyChanges(changes);
+    }
+
+    private static OWLOntologyChangeData data(int kind, OWLObjectBinaryInput objects,
+        OWLDataFactory df) throws IOException {
+        switch (kind) {
+            case ADD_AXIOM:
+                return new AddAxiomData((OWLAxiom) objects.read());
+            case REMOVE_AXIOM:
+                return new RemoveAxiomData((OWLAxiom) objects.read());
+            case ADD_IMPORT:
+                return new AddImportData(df.getOWLImportsDeclaration((IRI) objects.read()));
+            case REMOVE_IMPORT:
+                return new RemoveImportData(df.getOWLImportsDeclaration((IRI) objects.read()));
+            case ADD_ANNOTATION:
+                return new AddOntologyAnnotationData((OWLAnnotation) objects.read());
+            case REMOVE_ANNOTATION:
+                return new RemoveOntologyAnnotationData((OWLAnnotation) objects.read());
+            case SET_ONTOLOGY_ID:
+                return new SetOntologyIDData(readID(objects));
+            default:
+                throw new IOException("Unexpected change kind " + kind);
+        }
+    }
+
+    /**
+     * @return the generation of the snapshot restored, or 0 if there is no snapshot
+     */
+    private static long restoreSnapshot(OWLOntologyManager manager, File directory)
+        throws IOException, OWLOntologyCreationException {
+        List<Long> snapshots = generations(directory, SNAPSHOT);
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        long g = snapshots.get(snapshots.size() - 1).longValue();
+        File[] files = snapshotDirectory(directory, g).listFiles();
+        if (files == null) {
+            throw new IOException("Cannot list snapshot " + snapshotDirectory(directory, g));
+        }
+        Arrays.sort(files);
+        for (File f : files) {
+            try (InputStream in = new FileInputStream(f)) {
+                BinaryOntologyFile.read(manager, in, true);
+            }
+        }
+        return g;
+    }
+
+    /**
+     * @return the generations of the journal files or snapshots in the directory, in ascending
+     *         order
+     */
+    private static List<Long> generations(File directory, Pattern pattern) {
+        List<Long> list = new ArrayList<>();
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                Matcher m = pattern.matcher(name);
+                if (m.matches()) {
+                    list.add(Long.valueOf(m.group(1)));
+                }
+            }
+        }
+        list.sort(null);
+        return list;
+    }
+
+    /**
+     * Delete journal files and snapshots older than the specified generation, and incomplete
+     * snapshots.
+     */
+    private static void deleteBefore(File directory, long g) throws IOException {
+        for (Long old : generations(directory, JOURNAL)) {
+            if (old.longValue() < g) {
+                Files.deleteIfExists(journalFile(directory, old.longValue()).toPath());
+            }
+        }
+        for (Long old : generations(directory, SNAPSHOT)) {
+            if (old.longValue() < g) {
+                deleteRecursively(snapshotDirectory(directory, old.longValue()));
+            }
+        }
+        File[] files = directory.listFiles((d, name) -> name.endsWith(".tmp"));
+        if (files != null) {
+            for (File f : files) {
+                if (!f.getName().equals("snapshot-" + g + ".tmp")) {
+                    deleteRecursively(f);
+                }
+            }
+        }
+    }
+
+    private static void deleteRecursively(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        Files.deleteIfExists(file.toPath());
+    }
+
+    private static File journalFile(File directory, long g) {
+        return new File(directory, "journal-" + g + ".log");
+    }
+
+    private static File snapshotDirectory(File directory, long g) {
+        return new File(directory, "snapshot-" + g);
+    }
+
+    /**
+     * Open a journal file for appending, writing the file header if the file is new.
+     */
+    private static FileChannel openJournal(File file) throws IOException {
+        FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE);
+        if (ch.size() < HEADER_BYTES) {
+            ch.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            write(ch, header);
+            ch.force(true);
+        }
+        ch.position(ch.size());
+        return ch;
+    }
+
+    private static void write(FileChannel ch, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            ch.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+/**
+ * Sorted signature of an ontology, kept up to date as references are added to and removed from the
+ * reference indexes in {@link Internals}. Entities referenced only by ontology annotations are
+ * reference counted, so that removing an annotation does not remove entities still used elsewhere.
+ * Each query returns an immutable sorted list, which is only copied again after an entity of the
+ * same type has been added or removed.
+ *
+ * @author ignazio
+ */
+class OntologySignature {
+
+    private final SortedKeys<OWLClass> classes = new SortedKeys<>();
+    private final SortedKeys<OWLObjectProperty> objectProperties = new SortedKeys<>();
+    private final SortedKeys<OWLDataProperty> dataProperties = new SortedKeys<>();
+    private final SortedKeys<OWLNamedIndividual> individuals = new SortedKeys<>();
+    private final SortedKeys<OWLAnnotationProperty> annotationProperties = new SortedKeys<>();
+    private final SortedKeys<OWLDatatype> datatypes = new SortedKeys<>();
+    private final SortedKeys<OWLAnonymousIndividual> anonymousIndividuals = new SortedKeys<>();
+    private final Map<OWLEntity, Integer> annotationReferences = new ConcurrentHashMap<>();
+    @Nullable
+    private volatile List<OWLEntity> entities;
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private <K extends OWLObject> SortedKeys<K> keys(K k) {
+        if (k instanceof OWLClass) {
+            return (SortedKeys<K>) classes;
+        }
+        if (k instanceof OWLObjectProperty) {
+            return (SortedKeys<K>) objectProperties;
+        }
+        if (k instanceof OWLDataProperty) {
+            return (SortedKeys<K>) dataProperties;
+        }
+        if (k instanceof OWLNamedIndividual) {
+            return (SortedKeys<K>) individuals;
+        }
+        if (k instanceof OWLAnnotationProperty) {
+            return (SortedKeys<K>) annotationProperties;
+        }
+        if (k instanceof OWLDatatype) {
+            return (SortedKeys<K>) datatypes;
+        }
+        if (k instanceof OWLAnonymousIndividual) {
+            return (SortedKeys<K>) anonymousIndividuals;
+        }
+        return null;
+    }
+
+    /**
+     * @param k entity or anonymous individual now referenced by at least one axiom
+     */
+    <K extends OWLObject> void add(K k) {
+        SortedKeys<K> keys = keys(k);
+        if (keys != null && keys.add(k) && k instanceof OWLEntity) {
+            entities = null;
+        }
+    }
+
+    /**
+     * @param k entity or anonymous individual no longer referenced by any axiom
+     */
+    <K extends OWLObject> void remove(K k) {
+        if (annotationReferences.containsKey(k)) {
+            return;
+        }
+        SortedKeys<K> keys = keys(k);
+        if (keys != null && keys.remove(k) && k instanceof OWLEntity) {
+            entities = null;
+        }
+    }
+
+    /**
+     * @param a ontology annotation added to the ontology
+     */
+    void annotationAdded(OWLAnnotation a) {
+        a.signature().distinct().forEach(e -> {
+            annotationReferences.merge(e, Integer.valueOf(1),
+                (x, y) -> Integer.valueOf(x.intValue() + y.intValue()));
+            add(e);
+        });
+    }
+
+    /**
+     * @param a ontology annotation removed from the ontology
+     * @param referencedByAxioms check for entities still referenced by axioms
+     */
+    void annotationRemoved(OWLAnnotation a, Predicate<OWLEntity> referencedByAxioms) {
+        a.signature().distinct().forEach(e -> {
+            Integer count = annotationReferences.computeIfPresent(e,
+                (x, y) -> y.intValue() == 1 ? null : Integer.valueOf(y.intValue() - 1));
+            if (count == null && !referencedByAxioms.test(e)) {
+                remove(e);
+            }
+        });
+    }
+
+    /**
+     * @param e entity to check
+     * @return true if the entity is in the signature
+     */
+    boolean contains(OWLEntity e) {
+        SortedKeys<OWLEntity> keys = keys(e);
+        return keys != null && keys.contains(e);
+    }
+
+    /**
+     * @return all entities in the signature, sorted
+     */
+    List<OWLEntity> entities() {
+        List<OWLEntity> list = entities;
+        if (list == null) {
+            // entities are sorted by type index first: classes, object properties, data
+            // properties, individuals, annotation properties, datatypes
+            list = new ArrayList<>();
+            list.addAll(classes.list());
+            list.addAll(objectProperties.list());
+            list.addAll(dataProperties.list());
+            list.addAll(individuals.list());
+            list.addAll(annotationProperties.list());
+            list.addAll(datatypes.list());
+            list = Collections.unmodifiableList(list);
+            entities = list;
+        }
+        return list;
+    }
+
+    List<OWLClass> classes() {
+        return classes.list();
+    }
+
+    List<OWLObjectProperty> objectProperties() {
+        return objectProperties.list();
+    }
+
+    List<OWLDataProperty> dataProperties() {
+        return dataProperties.list();
+    }
+
+    List<OWLNamedIndividual> individuals() {
+        return individuals.list();
+    }
+
+    List<OWLAnnotationProperty> annotationProperties() {
+        return annotationProperties.list();
+    }
+
+    List<OWLDatatype> datatypes() {
+        return datatypes.list();
+    }
+
+    List<OWLAnonymousIndividual> anonymousIndividuals() {
+        return anonymousIndividuals.list();
+    }
+
+    /**
+     * @return estimated size of the signature, excluding the entities
+     */
+    long estimateMemoryUsage() {
+        long bytes = classes.estimateMemoryUsage() + objectProperties.estimateMemoryUsage()
+            + dataProperties.estimateMemoryUsage() + individuals.estimateMemoryUsage()
+            + annotationProperties.estimateMemoryUsage() + datatypes.estimateMemoryUsage()
+            + anonymousIndividuals.estimateMemoryUsage();
+        // concurrent hash map nodes: hash, key, value, next; values are cached Integers
+        bytes += annotationReferences.size()
+            * (MemoryEstimator.object(3, 4) + MemoryEstimator.REFERENCE);
+        List<OWLEntity> list = entities;
+        if (list != null) {
+            bytes += MemoryEstimator.array(list.size(), MemoryEstimator.REFERENCE);
+        }
+        return bytes;
+    }
+
+    /**
+     * @param s stream of keys to add
+     * @return this signature
+     */
+    <K extends OWLObject> OntologySignature addAll(Stream<K> s) {
+        s.forEach(this::add);
+        return this;
+    }
+
+    private static class SortedKeys<K extends OWLObject> {
+
+        private final ConcurrentSkipListSet<K> keys = new ConcurrentSkipListSet<>();
+        @Nullable
+        private volatile List<K> list;
+
+        boolean add(K k) {
+            if (keys.add(k)) {
+                list = null;
+                return true;
+            }
+            return false;
+        }
+
+        boolean remove(K k) {
+            if (keys.remove(k)) {
+                list = null;
+                return true;
+            }
+            return false;
+        }
+
+        boolean contains(K k) {
+            return keys.contains(k);
+        }
+
+        long estimateMemoryUsage() {
+            List<K> l = list;
+            int size = l == null ? keys.size() : l.size();
+            // one skip list node per key, plus index nodes for about a quarter of the keys
+            long bytes = (size + size / 4) * MemoryEstimator.object(3, 0);
+            if (l != null) {
+                bytes += MemoryEstimator.array(size, MemoryEstimator.REFERENCE);
+            }
+            return bytes;
+        }
+
+        List<K> list() {
+            List<K> l = list;
+            if (l == null) {
+                // the set is already sorted, copying it is linear
+                l = Collections.unmodifiableList(new ArrayList<>(keys));
+                list = l;
+            }
+            return l;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import com.carrotsearch.hppcrt.cursors.ObjectObjectCursor;
+import com.carrotsearch.hppcrt.maps.ObjectObjectHashMap;
+
+/**
+ * Hash map split into segments by key hash. A copy shares all segments with the original and
+ * clones a segment only when it first writes to it, so copying a map and changing a few keys costs
+ * time proportional to the number of segments rather than to the number of keys. The number of
+ * segments doubles as the map grows, keeping a few hundred keys per segment on average. Null keys
+ * and values are not supported.
+ *
+ * @author ignazio
+ * @param <K> key type
+ * @param <T> value type
+ */
+final class SegmentedMap<K, T> {
+
+    /** Average number of keys per segment above which the number of segments is doubled. */
+    private static final int SEGMENT_SIZE = 256;
+    private static final int MAX_SEGMENTS = 1 << 16;
+    private ObjectObjectHashMap<K, T>[] segments;
+    /**
+     * True at the positions of segments that might be referenced by another map; they are cloned
+     * before being changed.
+     */
+    private boolean[] shared;
+    private int shift;
+    private int size;
+
+    SegmentedMap() {
+        segments = newSegments(1);
+        segments[0] = new ObjectObjectHashMap<>(17, 0.75F);
+        shared = new boolean[1];
+        shift = 32;
+    }
+
+    private SegmentedMap(SegmentedMap<K, T> source) {
+        segments = source.segments.clone();
+        shared = new boolean[segments.length];
+        Arrays.fill(shared, true);
+        shift = source.shift;
+        size = source.size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, T> ObjectObjectHashMap<K, T>[] newSegments(int count) {
+        return (ObjectObjectHashMap<K, T>[]) new ObjectObjectHashMap<?, ?>[count];
+    }
+
+    /**
+     * @return a copy of this map, sharing all segments with it; this map can still be read but
+     *         must not be changed afterwards
+     */
+    SegmentedMap<K, T> copy() {
+        return new SegmentedMap<>(this);
+    }
+
+    private int index(Object key) {
+        if (segments.length == 1) {
+            return 0;
+        }
+        // the segment is chosen by the high bits of the spread hash, the hash maps in the
+        // segments mix the whole hash code
+        return (key.hashCode() * 0x9E3779B9) >>> shift;
+    }
+
+    private ObjectObjectHashMap<K, T> writable(int index) {
+        if (shared[index]) {
+            segments[index] = segments[index].clone();
+            shared[index] = false;
+        }
+        return segments[index];
+    }
+
+    /**
+     * @param key key
+     * @return value for the key, or null if the key is not in the map
+     */
+    @Nullable
+    T get(K key) {
+        return segments[index(key)].get(key);
+    }
+
+    /**
+     * @param key key
+     * @return true if the key is in the map
+     */
+    boolean containsKey(K key) {
+        return segments[index(key)].containsKey(key);
+    }
+
+    /**
+     * @param key key
+     * @param value value
+     */
+    void put(K key, T value) {
+        if (writable(index(key)).put(key, value) == null) {
+            size++;
+            if (size > segments.length * SEGMENT_SIZE && segments.length < MAX_SEGMENTS) {
+                split();
+            }
+        }
+    }
+
+    /**
+     * @param key key to remove
+     */
+    void remove(K key) {
+        int index = index(key);
+        if (segments[index].containsKey(key)) {
+            writable(index).remove(key);
+            size--;
+        }
+    }
+
+    /**
+     * Double the number of segments; the new segments are not shared.
+     */
+    private void split() {
+        ObjectObjectHashMap<K, T>[] old = segments;
+        segments = newSegments(old.length * 2);
+        for (int index = 0; index < segments.length; index++) {
+            segments[index] = new ObjectObjectHashMap<>(SEGMENT_SIZE);
+        }
+        shared = new boolean[segments.length];
+        shift = 32 - Integer.numberOfTrailingZeros(segments.length);
+        for (ObjectObjectHashMap<K, T> segment : old) {
+            for (ObjectObjectCursor<K, T> c : segment) {
+                segments[index(c.key)].put(c.key, c.value);
+            }
+        }
+    }
+
+    /**
+     * @return number of keys
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the segments; the stream reads the segments current at the time of the call
+     */
+    Stream<ObjectObjectHashMap<K, T>> segments() {
+        return Arrays.stream(segments);
+    }
+
+    /**
+     * @param consumer consumer for all keys and values
+     */
+    void forEach(BiConsumer<? super K, ? super T> consumer) {
+        for (ObjectObjectHashMap<K, T> segment : segments) {
+            for (ObjectObjectCursor<K, T> c : segment) {
+                consumer.accept(c.key, c.value);
+            }
+        }
+    }
+
+    /**
+     * @return number of segments
+     */
+    int segmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * @return number of segments still shared with the map this map was copied from
+     */
+    int sharedSegmentCount() {
+        int count = 0;
+        for (boolean b : shared) {
+            if (b) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return estimated size of the map and its segments, excluding keys and values
+     */
+    long estimateMemoryUsage() {
+        long bytes = MemoryEstimator.object(3, 8)
+            + MemoryEstimator.array(segments.length, MemoryEstimator.REFERENCE)
+            + MemoryEstimator.array(segments.length, 1);
+        for (ObjectObjectHashMap<K, T> segment : segments) {
+            bytes += MemoryEstimator.hashMap(segment);
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder("[");
+        forEach((k, v) -> {
+            if (b.length() > 1) {
+                b.append(", ");
+            }
+            b.append(k).append("=>").append(v);
+        });
+        return b.append(']').toString();
+    }
+}
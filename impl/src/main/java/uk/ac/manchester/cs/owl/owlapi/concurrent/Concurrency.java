@@ -10,5 +10,15 @@ public enum Concurrency {
     CONCURRENT, /**
      * Non concurrent implementation.
      */
-    NON_CONCURRENT
+    NON_CONCURRENT,
+    /**
+     * Concurrent implementation with a lock for each ontology; the manager lock only guards the
+     * registry of ontologies. See {@link RegistryReadWriteLock}.
+     */
+    PER_ONTOLOGY_LOCKS,
+    /**
+     * Concurrent implementation with a lock shared by the manager and its ontologies, where short
+     * queries are first attempted without locking. See {@link OptimisticReadWriteLock}.
+     */
+    OPTIMISTIC_READS
 }
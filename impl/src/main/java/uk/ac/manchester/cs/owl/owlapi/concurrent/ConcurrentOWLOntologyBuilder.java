@@ -31,7 +31,9 @@ public class ConcurrentOWLOntologyBuilder implements OWLOntologyBuilder {
     @Override
     public OWLOntology createOWLOntology(OWLOntologyManager manager, OWLOntologyID ontologyID) {
         OWLOntology owlOntology = builder.createOWLOntology(manager, ontologyID);
-        return new ConcurrentOWLOntologyImpl(owlOntology, readWriteLock);
+        // with a registry lock, every ontology gets a lock of its own
+        return new ConcurrentOWLOntologyImpl(owlOntology,
+            OntologyReadWriteLock.forOntology(readWriteLock));
     }
 
     @Override
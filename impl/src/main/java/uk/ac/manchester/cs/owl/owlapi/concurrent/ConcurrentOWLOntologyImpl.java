@@ -14,16 +14,22 @@ package uk.ac.manchester.cs.owl.owlapi.concurrent;
 
 import static org.semanticweb.owlapi.util.OWLAPIPreconditions.verifyNotNull;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 import java.util.function.IntSupplier;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -49,6 +55,7 @@ import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLClassAxiom;
 import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLDataProperty;
 import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLDataPropertyAxiom;
@@ -107,13 +114,22 @@ import org.semanticweb.owlapi.model.OWLSubDataPropertyOfAxiom;
 import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
 import org.semanticweb.owlapi.model.OWLSymmetricObjectPropertyAxiom;
 import org.semanticweb.owlapi.model.OWLTransitiveObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OntologyConfigurator;
+import org.semanticweb.owlapi.model.OntologyMemoryUsage;
 import org.semanticweb.owlapi.model.parameters.AxiomAnnotations;
 import org.semanticweb.owlapi.model.parameters.ChangeApplied;
 import org.semanticweb.owlapi.model.parameters.Imports;
 import org.semanticweb.owlapi.model.parameters.Navigation;
 import org.semanticweb.owlapi.util.OWLAxiomSearchFilter;
 
+import uk.ac.manchester.cs.owl.owlapi.HasBulkLoad;
+import uk.ac.manchester.cs.owl.owlapi.HasCopyOnWrite;
+import uk.ac.manchester.cs.owl.owlapi.HasIndexEviction;
+import uk.ac.manchester.cs.owl.owlapi.HasPersistedIndexes;
+import uk.ac.manchester.cs.owl.owlapi.HasSnapshot;
 import uk.ac.manchester.cs.owl.owlapi.HasTrimToSize;
+import uk.ac.manchester.cs.owl.owlapi.HasWarmUpIndexes;
+import uk.ac.manchester.cs.owl.owlapi.LazyIndexEvictor;
 
 /**
  * Matthew Horridge
@@ -125,10 +141,17 @@ import uk.ac.manchester.cs.owl.owlapi.HasTrimToSize;
  * Matthew Horridge Stanford Center for Biomedical Informatics Research 03/04/15
  */
 @SuppressWarnings({"deprecation"})
-public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToSize {
+public class ConcurrentOWLOntologyImpl
+    implements OWLMutableOntology, HasTrimToSize, HasWarmUpIndexes, HasBulkLoad, HasSnapshot,
+    HasPersistedIndexes, HasIndexEviction, HasCopyOnWrite {
 
     private final OWLOntology delegate;
     private ReadWriteLock lock;
+    /** True if reads should be served from snapshots rather than under the read lock. */
+    private final boolean snapshotReads;
+    /** Current snapshot of the delegate; null if a write happened since it was taken. */
+    @Nullable
+    private transient volatile OWLOntology snapshot;
 
     /**
      * Constructs a ConcurrentOWLOntology that provides concurrent access to a delegate
@@ -143,6 +166,13 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
     public ConcurrentOWLOntologyImpl(OWLOntology delegate, ReadWriteLock readWriteLock) {
         this.delegate = verifyNotNull(delegate);
         lock = verifyNotNull(readWriteLock);
+        // delegates not attached to a manager use the default configuration
+        OWLOntologyManager manager = delegate.getOWLOntologyManager();
+        OntologyConfigurator config =
+            manager == null ? new OntologyConfigurator() : manager.getOntologyConfigurator();
+        snapshotReads = config.shouldUseSnapshotReads();
+        // eviction takes the write lock, so it is safe from the background task
+        LazyIndexEvictor.register(this, config);
     }
 
     @Override
@@ -155,22 +185,47 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
         this.lock = lock;
     }
 
+    /**
+     * @return the lock guarding this ontology
+     */
+    public ReadWriteLock getLock() {
+        return lock;
+    }
+
     private <T> T withWriteLock(Supplier<T> t) {
         Lock writeLock = lock.writeLock();
         writeLock.lock();
         try {
             return t.get();
         } finally {
+            snapshot = null;
             writeLock.unlock();
         }
     }
 
+    /**
+     * Changes routed through the manager. With an {@link OntologyReadWriteLock}, the manager takes
+     * the lock of this ontology while enacting the changes, or the registry write lock if they
+     * affect the registry; holding the lock of this ontology here would make the latter deadlock.
+     */
+    private <T> T withChangeLock(Supplier<T> t) {
+        if (!(lock instanceof OntologyReadWriteLock)) {
+            return withWriteLock(t);
+        }
+        try {
+            return t.get();
+        } finally {
+            snapshot = null;
+        }
+    }
+
     private void callWriteLock(Runnable t) {
         Lock writeLock = lock.writeLock();
         writeLock.lock();
         try {
             t.run();
         } finally {
+            snapshot = null;
             writeLock.unlock();
         }
     }
@@ -186,6 +241,20 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
     }
 
     private boolean withBooleanReadLock(BooleanSupplier t) {
+        if (lock instanceof OptimisticReadWriteLock) {
+            OptimisticReadWriteLock optimistic = (OptimisticReadWriteLock) lock;
+            long stamp = optimistic.tryOptimisticRead();
+            if (stamp != 0L) {
+                try {
+                    boolean result = t.getAsBoolean();
+                    if (optimistic.validate(stamp)) {
+                        return result;
+                    }
+                } catch (RuntimeException e) {
+                    // a concurrent write can make the read fail; repeat it under the lock
+                }
+            }
+        }
         Lock readLock = lock.readLock();
         readLock.lock();
         try {
@@ -196,6 +265,20 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
     }
 
     private int withIntReadLock(IntSupplier t) {
+        if (lock instanceof OptimisticReadWriteLock) {
+            OptimisticReadWriteLock optimistic = (OptimisticReadWriteLock) lock;
+            long stamp = optimistic.tryOptimisticRead();
+            if (stamp != 0L) {
+                try {
+                    int result = t.getAsInt();
+                    if (optimistic.validate(stamp)) {
+                        return result;
+                    }
+                } catch (RuntimeException e) {
+                    // a concurrent write can make the read fail; repeat it under the lock
+                }
+            }
+        }
         Lock readLock = lock.readLock();
         readLock.lock();
         try {
@@ -205,6 +288,73 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
         }
     }
 
+    /**
+     * @return the snapshot to serve reads from, or null if reads should lock the delegate
+     */
+    @Nullable
+    private OWLOntology reader() {
+        if (!snapshotReads || !(delegate instanceof HasSnapshot)) {
+            return null;
+        }
+        return snapshot();
+    }
+
+    private <T> T read(Function<OWLOntology, T> t) {
+        OWLOntology reader = reader();
+        if (reader != null) {
+            return t.apply(reader);
+        }
+        return withReadLock(() -> t.apply(delegate));
+    }
+
+    private boolean readBoolean(Predicate<OWLOntology> t) {
+        OWLOntology reader = reader();
+        if (reader != null) {
+            return t.test(reader);
+        }
+        return withBooleanReadLock(() -> t.test(delegate));
+    }
+
+    private int readInt(ToIntFunction<OWLOntology> t) {
+        OWLOntology reader = reader();
+        if (reader != null) {
+            return t.applyAsInt(reader);
+        }
+        return withIntReadLock(() -> t.applyAsInt(delegate));
+    }
+
+    /**
+     * The snapshot is taken under the read lock, so it never includes part of a change batch. It
+     * is discarded by every write and taken again on the next request.
+     *
+     * @return a read only snapshot of the current state of this ontology, or the delegate itself if
+     *         it cannot provide snapshots
+     */
+    @Override
+    public OWLOntology snapshot() {
+        OWLOntology s = snapshot;
+        if (s != null) {
+            return s;
+        }
+        if (!(delegate instanceof HasSnapshot)) {
+            return delegate;
+        }
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            synchronized (this) {
+                s = snapshot;
+                if (s == null) {
+                    s = ((HasSnapshot) delegate).snapshot();
+                    snapshot = s;
+                }
+                return s;
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     private interface Store {
         void store() throws OWLOntologyStorageException;
     }
@@ -230,6 +380,88 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
         }
     }
 
+    @Override
+    public void beginBulkLoad() {
+        callWriteLock(() -> {
+            if (delegate instanceof HasBulkLoad) {
+                ((HasBulkLoad) delegate).beginBulkLoad();
+            }
+        });
+    }
+
+    @Override
+    public void endBulkLoad() {
+        callWriteLock(() -> {
+            if (delegate instanceof HasBulkLoad) {
+                ((HasBulkLoad) delegate).endBulkLoad();
+            }
+        });
+    }
+
+    @Override
+    public boolean isBulkLoading() {
+        return delegate instanceof HasBulkLoad && ((HasBulkLoad) delegate).isBulkLoading();
+    }
+
+    @Override
+    public boolean shareAxioms(OWLOntology source) {
+        if (!(delegate instanceof HasCopyOnWrite)) {
+            return false;
+        }
+        return withWriteLock(() -> Boolean.valueOf(((HasCopyOnWrite) delegate).shareAxioms(source)))
+            .booleanValue();
+    }
+
+    @Override
+    public void writeIndexes(DataOutput out) throws IOException {
+        if (!(delegate instanceof HasPersistedIndexes)) {
+            throw new IOException("Ontology does not support persisted indexes: " + delegate);
+        }
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            ((HasPersistedIndexes) delegate).writeIndexes(out);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void readIndexes(DataInput in, OWLDataFactory df) throws IOException {
+        if (!(delegate instanceof HasPersistedIndexes)) {
+            throw new IOException("Ontology does not support persisted indexes: " + delegate);
+        }
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            ((HasPersistedIndexes) delegate).readIndexes(in, df);
+        } finally {
+            snapshot = null;
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int evictUnusedIndexes() {
+        // the current snapshot would keep the dropped indexes reachable
+        return withWriteLock(() -> Integer.valueOf(delegate instanceof HasIndexEviction
+            ? ((HasIndexEviction) delegate).evictUnusedIndexes() : 0)).intValue();
+    }
+
+    @Override
+    public void warmUpIndexes() {
+        // lazy indexes are initialized under the read lock on first use as well
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            if (delegate instanceof HasWarmUpIndexes) {
+                ((HasWarmUpIndexes) delegate).warmUpIndexes();
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     @Override
     public void accept(OWLNamedObjectVisitor owlNamedObjectVisitor) {
         delegate.accept(owlNamedObjectVisitor);
@@ -262,27 +494,27 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
 
     @Override
     public OWLOntologyID getOntologyID() {
-        return withReadLock(delegate::getOntologyID);
+        return read(ont -> ont.getOntologyID());
     }
 
     @Override
     public boolean isAnonymous() {
-        return withBooleanReadLock(delegate::isAnonymous);
+        return readBoolean(ont -> ont.isAnonymous());
     }
 
     @Override
     public Set<OWLAnnotation> getAnnotations() {
-        return withReadLock(delegate::getAnnotations);
+        return read(ont -> ont.getAnnotations());
     }
 
     @Override
     public Set<IRI> getDirectImportsDocuments() {
-        return withReadLock(delegate::getDirectImportsDocuments);
+        return read(ont -> ont.getDirectImportsDocuments());
     }
 
     @Override
     public Stream<IRI> directImportsDocuments() {
-        return withReadLock(delegate::directImportsDocuments);
+        return read(ont -> ont.directImportsDocuments());
     }
 
     @Override
@@ -317,82 +549,87 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
 
     @Override
     public Set<OWLImportsDeclaration> getImportsDeclarations() {
-        return withReadLock(delegate::getImportsDeclarations);
+        return read(ont -> ont.getImportsDeclarations());
     }
 
     @Override
     public boolean isEmpty() {
-        return withBooleanReadLock(delegate::isEmpty);
+        return readBoolean(ont -> ont.isEmpty());
+    }
+
+    @Override
+    public Optional<OntologyMemoryUsage> estimateMemoryUsage() {
+        return read(OWLOntology::estimateMemoryUsage);
     }
 
     @Override
     public Set<OWLAxiom> getTBoxAxioms(Imports imports) {
-        return withReadLock(() -> delegate.getTBoxAxioms(imports));
+        return read(ont -> ont.getTBoxAxioms(imports));
     }
 
     @Override
     public Set<OWLAxiom> getABoxAxioms(Imports imports) {
-        return withReadLock(() -> delegate.getABoxAxioms(imports));
+        return read(ont -> ont.getABoxAxioms(imports));
     }
 
     @Override
     public Set<OWLAxiom> getRBoxAxioms(Imports imports) {
-        return withReadLock(() -> delegate.getRBoxAxioms(imports));
+        return read(ont -> ont.getRBoxAxioms(imports));
     }
 
     @Override
     public Stream<OWLAxiom> tboxAxioms(Imports imports) {
-        return withReadLock(() -> delegate.tboxAxioms(imports));
+        return read(ont -> ont.tboxAxioms(imports));
     }
 
     @Override
     public Stream<OWLAxiom> aboxAxioms(Imports imports) {
-        return withReadLock(() -> delegate.aboxAxioms(imports));
+        return read(ont -> ont.aboxAxioms(imports));
     }
 
     @Override
     public Stream<OWLAxiom> rboxAxioms(Imports imports) {
-        return withReadLock(() -> delegate.rboxAxioms(imports));
+        return read(ont -> ont.rboxAxioms(imports));
     }
 
     @Override
     public Set<OWLClassAxiom> getGeneralClassAxioms() {
-        return withReadLock(delegate::getGeneralClassAxioms);
+        return read(ont -> ont.getGeneralClassAxioms());
     }
 
     @Override
     public Set<OWLEntity> getSignature() {
-        return withReadLock(delegate::getSignature);
+        return read(ont -> ont.getSignature());
     }
 
     @Override
     public Set<OWLEntity> getSignature(Imports imports) {
-        return withReadLock(() -> delegate.getSignature(imports));
+        return read(ont -> ont.getSignature(imports));
     }
 
     @Override
     public Stream<OWLClassAxiom> generalClassAxioms() {
-        return withReadLock(delegate::generalClassAxioms);
+        return read(ont -> ont.generalClassAxioms());
     }
 
     @Override
     public Stream<OWLEntity> signature() {
-        return withReadLock(delegate::signature);
+        return read(ont -> ont.signature());
     }
 
     @Override
     public Stream<OWLEntity> signature(Imports imports) {
-        return withReadLock(() -> delegate.signature(imports));
+        return read(ont -> ont.signature(imports));
     }
 
     @Override
     public boolean isDeclared(OWLEntity owlEntity) {
-        return withBooleanReadLock(() -> delegate.isDeclared(owlEntity));
+        return readBoolean(ont -> ont.isDeclared(owlEntity));
     }
 
     @Override
     public boolean isDeclared(OWLEntity owlEntity, Imports imports) {
-        return withBooleanReadLock(() -> delegate.isDeclared(owlEntity, imports));
+        return readBoolean(ont -> ont.isDeclared(owlEntity, imports));
     }
 
     @Override
@@ -442,7 +679,7 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
 
     @Override
     public Set<OWLClassExpression> getNestedClassExpressions() {
-        return withReadLock(delegate::getNestedClassExpressions);
+        return read(ont -> ont.getNestedClassExpressions());
     }
 
     @Override
@@ -457,12 +694,12 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
 
     @Override
     public boolean isTopEntity() {
-        return withBooleanReadLock(delegate::isTopEntity);
+        return readBoolean(ont -> ont.isTopEntity());
     }
 
     @Override
     public boolean isBottomEntity() {
-        return withBooleanReadLock(delegate::isBottomEntity);
+        return readBoolean(ont -> ont.isBottomEntity());
     }
 
     @Override
@@ -472,962 +709,945 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
 
     @Override
     public int compareTo(@Nullable OWLObject o) {
-        return withIntReadLock(() -> delegate.compareTo(o));
+        return readInt(ont -> ont.compareTo(o));
     }
 
     @Override
     public boolean containsEntityInSignature(OWLEntity owlEntity) {
-        return withBooleanReadLock(() -> delegate.containsEntityInSignature(owlEntity));
+        return readBoolean(ont -> ont.containsEntityInSignature(owlEntity));
     }
 
     @Override
     public boolean containsEntitiesOfTypeInSignature(EntityType<?> type) {
-        return withBooleanReadLock(() -> delegate.containsEntitiesOfTypeInSignature(type));
+        return readBoolean(ont -> ont.containsEntitiesOfTypeInSignature(type));
     }
 
     @Override
     public boolean containsEntitiesOfTypeInSignature(EntityType<?> type,
         Imports includeImportsClosure) {
-        return withBooleanReadLock(
-            () -> delegate.containsEntitiesOfTypeInSignature(type, includeImportsClosure));
+        return readBoolean(
+            ont -> ont.containsEntitiesOfTypeInSignature(type, includeImportsClosure));
     }
 
     @Override
     public Set<OWLAnonymousIndividual> getAnonymousIndividuals() {
-        return withReadLock(delegate::getAnonymousIndividuals);
+        return read(ont -> ont.getAnonymousIndividuals());
     }
 
     @Override
     public Set<OWLClass> getClassesInSignature() {
-        return withReadLock(delegate::getClassesInSignature);
+        return read(ont -> ont.getClassesInSignature());
     }
 
     @Override
     public Set<OWLObjectProperty> getObjectPropertiesInSignature() {
-        return withReadLock(delegate::getObjectPropertiesInSignature);
+        return read(ont -> ont.getObjectPropertiesInSignature());
     }
 
     @Override
     public Set<OWLDataProperty> getDataPropertiesInSignature() {
-        return withReadLock(delegate::getDataPropertiesInSignature);
+        return read(ont -> ont.getDataPropertiesInSignature());
     }
 
     @Override
     public Set<OWLNamedIndividual> getIndividualsInSignature() {
-        return withReadLock(delegate::getIndividualsInSignature);
+        return read(ont -> ont.getIndividualsInSignature());
     }
 
     @Override
     public Set<OWLDatatype> getDatatypesInSignature() {
-        return withReadLock(delegate::getDatatypesInSignature);
+        return read(ont -> ont.getDatatypesInSignature());
     }
 
     @Override
     public Set<OWLAnnotationProperty> getAnnotationPropertiesInSignature() {
-        return withReadLock(delegate::getAnnotationPropertiesInSignature);
+        return read(ont -> ont.getAnnotationPropertiesInSignature());
     }
 
     @Override
     public Set<OWLAxiom> getAxioms(Imports imports) {
-        return withReadLock(() -> delegate.getAxioms(imports));
+        return read(ont -> ont.getAxioms(imports));
     }
 
     @Override
     public int getAxiomCount(Imports imports) {
-        return withIntReadLock(() -> delegate.getAxiomCount(imports));
+        return readInt(ont -> ont.getAxiomCount(imports));
     }
 
     @Override
     public Set<OWLLogicalAxiom> getLogicalAxioms(Imports imports) {
-        return withReadLock(() -> delegate.getLogicalAxioms(imports));
+        return read(ont -> ont.getLogicalAxioms(imports));
     }
 
     @Override
     public int getLogicalAxiomCount(Imports imports) {
-        return withIntReadLock(() -> delegate.getLogicalAxiomCount(imports));
+        return readInt(ont -> ont.getLogicalAxiomCount(imports));
     }
 
     @Override
     public <T extends OWLAxiom> Set<T> getAxioms(AxiomType<T> axiomType, Imports imports) {
-        return withReadLock(() -> delegate.getAxioms(axiomType, imports));
+        return read(ont -> ont.getAxioms(axiomType, imports));
     }
 
     @Override
     public <T extends OWLAxiom> Stream<T> axioms(AxiomType<T> axiomType, Imports imports) {
-        return withReadLock(() -> delegate.axioms(axiomType, imports));
+        return read(ont -> ont.axioms(axiomType, imports));
     }
 
     @Override
     public <T extends OWLAxiom> int getAxiomCount(AxiomType<T> axiomType, Imports imports) {
-        return withIntReadLock(() -> delegate.getAxiomCount(axiomType, imports));
+        return readInt(ont -> ont.getAxiomCount(axiomType, imports));
     }
 
     @Override
     public boolean containsAxiom(OWLAxiom owlAxiom, Imports imports,
         AxiomAnnotations axiomAnnotations) {
-        return withBooleanReadLock(
-            () -> delegate.containsAxiom(owlAxiom, imports, axiomAnnotations));
+        return readBoolean(ont -> ont.containsAxiom(owlAxiom, imports, axiomAnnotations));
     }
 
     @Override
     public Set<OWLAxiom> getAxiomsIgnoreAnnotations(OWLAxiom owlAxiom, Imports imports) {
-        return withReadLock(() -> delegate.getAxiomsIgnoreAnnotations(owlAxiom, imports));
+        return read(ont -> ont.getAxiomsIgnoreAnnotations(owlAxiom, imports));
     }
 
     @Override
     public Stream<OWLAxiom> axiomsIgnoreAnnotations(OWLAxiom owlAxiom, Imports imports) {
-        return withReadLock(() -> delegate.axiomsIgnoreAnnotations(owlAxiom, imports));
+        return read(ont -> ont.axiomsIgnoreAnnotations(owlAxiom, imports));
     }
 
     @Override
     public Set<OWLAxiom> getReferencingAxioms(OWLPrimitive owlPrimitive, Imports imports) {
-        return withReadLock(() -> delegate.getReferencingAxioms(owlPrimitive, imports));
+        return read(ont -> ont.getReferencingAxioms(owlPrimitive, imports));
     }
 
     @Override
     public Stream<OWLAxiom> referencingAxioms(OWLPrimitive owlPrimitive, Imports imports) {
-        return withReadLock(() -> delegate.referencingAxioms(owlPrimitive, imports));
+        return read(ont -> ont.referencingAxioms(owlPrimitive, imports));
     }
 
     @Override
     public Set<OWLClassAxiom> getAxioms(OWLClass owlClass, Imports imports) {
-        return withReadLock(() -> delegate.getAxioms(owlClass, imports));
+        return read(ont -> ont.getAxioms(owlClass, imports));
     }
 
     @Override
     public Set<OWLObjectPropertyAxiom> getAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression, Imports imports) {
-        return withReadLock(() -> delegate.getAxioms(owlObjectPropertyExpression, imports));
+        return read(ont -> ont.getAxioms(owlObjectPropertyExpression, imports));
     }
 
     @Override
     public Set<OWLDataPropertyAxiom> getAxioms(OWLDataProperty owlDataProperty, Imports imports) {
-        return withReadLock(() -> delegate.getAxioms(owlDataProperty, imports));
+        return read(ont -> ont.getAxioms(owlDataProperty, imports));
     }
 
     @Override
     public Set<OWLIndividualAxiom> getAxioms(OWLIndividual owlIndividual, Imports imports) {
-        return withReadLock(() -> delegate.getAxioms(owlIndividual, imports));
+        return read(ont -> ont.getAxioms(owlIndividual, imports));
     }
 
     @Override
     public Set<OWLAnnotationAxiom> getAxioms(OWLAnnotationProperty owlAnnotationProperty,
         Imports imports) {
-        return withReadLock(() -> delegate.getAxioms(owlAnnotationProperty, imports));
+        return read(ont -> ont.getAxioms(owlAnnotationProperty, imports));
     }
 
     @Override
     public Set<OWLDatatypeDefinitionAxiom> getAxioms(OWLDatatype owlDatatype, Imports imports) {
-        return withReadLock(() -> delegate.getAxioms(owlDatatype, imports));
+        return read(ont -> ont.getAxioms(owlDatatype, imports));
     }
 
     @Override
     public Set<OWLAxiom> getAxioms() {
-        return withReadLock(delegate::getAxioms);
+        return read(ont -> ont.getAxioms());
     }
 
     @Override
     public Stream<OWLAxiom> axioms() {
         // XXX investigate locking access to streams
-        return withReadLock(delegate::axioms);
+        return read(ont -> ont.axioms());
     }
 
     @Override
     public Set<OWLLogicalAxiom> getLogicalAxioms() {
-        return withReadLock(delegate::getLogicalAxioms);
+        return read(ont -> ont.getLogicalAxioms());
     }
 
     @Override
     public Stream<OWLLogicalAxiom> logicalAxioms() {
-        return withReadLock(delegate::logicalAxioms);
+        return read(ont -> ont.logicalAxioms());
     }
 
     @Override
     public <T extends OWLAxiom> Set<T> getAxioms(AxiomType<T> axiomType) {
-        return withReadLock(() -> delegate.getAxioms(axiomType));
+        return read(ont -> ont.getAxioms(axiomType));
     }
 
     @Override
     public <T extends OWLAxiom> Stream<T> axioms(AxiomType<T> axiomType) {
-        return withReadLock(() -> delegate.axioms(axiomType));
+        return read(ont -> ont.axioms(axiomType));
     }
 
     @Override
     public boolean equalAxioms(HasAxiomsByType o) {
-        return withBooleanReadLock(() -> delegate.equalAxioms(o));
+        return readBoolean(ont -> ont.equalAxioms(o));
     }
 
     @Override
     public boolean containsAxiom(OWLAxiom owlAxiom) {
-        return withBooleanReadLock(() -> delegate.containsAxiom(owlAxiom));
+        return readBoolean(ont -> ont.containsAxiom(owlAxiom));
     }
 
     @Override
     public Set<OWLAxiom> getAxioms(boolean b) {
-        return withReadLock(() -> delegate.getAxioms(b));
+        return read(ont -> ont.getAxioms(b));
     }
 
     @Override
     public int getAxiomCount(boolean b) {
-        return withIntReadLock(() -> delegate.getAxiomCount(b));
+        return readInt(ont -> ont.getAxiomCount(b));
     }
 
     @Override
     public Set<OWLLogicalAxiom> getLogicalAxioms(boolean b) {
-        return withReadLock(() -> delegate.getLogicalAxioms(b));
+        return read(ont -> ont.getLogicalAxioms(b));
     }
 
     @Override
     public int getLogicalAxiomCount(boolean b) {
-        return withIntReadLock(() -> delegate.getLogicalAxiomCount(b));
+        return readInt(ont -> ont.getLogicalAxiomCount(b));
     }
 
     @Override
     public <T extends OWLAxiom> Set<T> getAxioms(AxiomType<T> axiomType, boolean b) {
-        return withReadLock(() -> delegate.getAxioms(axiomType, b));
+        return read(ont -> ont.getAxioms(axiomType, b));
     }
 
     @Override
     public <T extends OWLAxiom> int getAxiomCount(AxiomType<T> axiomType, boolean b) {
-        return withIntReadLock(() -> delegate.getAxiomCount(axiomType, b));
+        return readInt(ont -> ont.getAxiomCount(axiomType, b));
     }
 
     @Override
     public boolean containsAxiom(OWLAxiom owlAxiom, boolean b) {
-        return withBooleanReadLock(() -> delegate.containsAxiom(owlAxiom, b));
+        return readBoolean(ont -> ont.containsAxiom(owlAxiom, b));
     }
 
     @Override
     public boolean containsAxiomIgnoreAnnotations(OWLAxiom owlAxiom, boolean b) {
-        return withBooleanReadLock(() -> delegate.containsAxiomIgnoreAnnotations(owlAxiom, b));
+        return readBoolean(ont -> ont.containsAxiomIgnoreAnnotations(owlAxiom, b));
     }
 
     @Override
     public Set<OWLAxiom> getAxiomsIgnoreAnnotations(OWLAxiom owlAxiom, boolean b) {
-        return withReadLock(() -> delegate.getAxiomsIgnoreAnnotations(owlAxiom, b));
+        return read(ont -> ont.getAxiomsIgnoreAnnotations(owlAxiom, b));
     }
 
     @Override
     public Set<OWLAxiom> getReferencingAxioms(OWLPrimitive owlPrimitive, boolean b) {
-        return withReadLock(() -> delegate.getReferencingAxioms(owlPrimitive, b));
+        return read(ont -> ont.getReferencingAxioms(owlPrimitive, b));
     }
 
     @Override
     public Set<OWLClassAxiom> getAxioms(OWLClass owlClass, boolean b) {
-        return withReadLock(() -> delegate.getAxioms(owlClass, b));
+        return read(ont -> ont.getAxioms(owlClass, b));
     }
 
     @Override
     public Set<OWLObjectPropertyAxiom> getAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression, boolean b) {
-        return withReadLock(() -> delegate.getAxioms(owlObjectPropertyExpression, b));
+        return read(ont -> ont.getAxioms(owlObjectPropertyExpression, b));
     }
 
     @Override
     public Set<OWLDataPropertyAxiom> getAxioms(OWLDataProperty owlDataProperty, boolean b) {
-        return withReadLock(() -> delegate.getAxioms(owlDataProperty, b));
+        return read(ont -> ont.getAxioms(owlDataProperty, b));
     }
 
     @Override
     public Set<OWLIndividualAxiom> getAxioms(OWLIndividual owlIndividual, boolean b) {
-        return withReadLock(() -> delegate.getAxioms(owlIndividual, b));
+        return read(ont -> ont.getAxioms(owlIndividual, b));
     }
 
     @Override
     public Set<OWLAnnotationAxiom> getAxioms(OWLAnnotationProperty owlAnnotationProperty,
         boolean b) {
-        return withReadLock(() -> delegate.getAxioms(owlAnnotationProperty, b));
+        return read(ont -> ont.getAxioms(owlAnnotationProperty, b));
     }
 
     @Override
     public Set<OWLDatatypeDefinitionAxiom> getAxioms(OWLDatatype owlDatatype, boolean b) {
-        return withReadLock(() -> delegate.getAxioms(owlDatatype, b));
+        return read(ont -> ont.getAxioms(owlDatatype, b));
     }
 
     @Override
     public int getAxiomCount() {
-        return withIntReadLock(delegate::getAxiomCount);
+        return readInt(ont -> ont.getAxiomCount());
     }
 
     @Override
     public int getLogicalAxiomCount() {
-        return withIntReadLock(delegate::getLogicalAxiomCount);
+        return readInt(ont -> ont.getLogicalAxiomCount());
     }
 
     @Override
     public <T extends OWLAxiom> int getAxiomCount(AxiomType<T> axiomType) {
-        return withIntReadLock(() -> delegate.getAxiomCount(axiomType));
+        return readInt(ont -> ont.getAxiomCount(axiomType));
     }
 
     @Override
     public boolean containsAxiomIgnoreAnnotations(OWLAxiom owlAxiom) {
-        return withBooleanReadLock(() -> delegate.containsAxiomIgnoreAnnotations(owlAxiom));
+        return readBoolean(ont -> ont.containsAxiomIgnoreAnnotations(owlAxiom));
     }
 
     @Override
     public Set<OWLAxiom> getAxiomsIgnoreAnnotations(OWLAxiom owlAxiom) {
-        return withReadLock(() -> delegate.getAxiomsIgnoreAnnotations(owlAxiom));
+        return read(ont -> ont.getAxiomsIgnoreAnnotations(owlAxiom));
     }
 
     @Override
     public Stream<OWLAxiom> axiomsIgnoreAnnotations(OWLAxiom owlAxiom) {
-        return withReadLock(() -> delegate.axiomsIgnoreAnnotations(owlAxiom));
+        return read(ont -> ont.axiomsIgnoreAnnotations(owlAxiom));
     }
 
     @Override
     public Set<OWLAxiom> getReferencingAxioms(OWLPrimitive owlPrimitive) {
-        return withReadLock(() -> delegate.getReferencingAxioms(owlPrimitive));
+        return read(ont -> ont.getReferencingAxioms(owlPrimitive));
     }
 
     @Override
     public Stream<OWLAxiom> referencingAxioms(OWLPrimitive owlPrimitive) {
-        return withReadLock(() -> delegate.referencingAxioms(owlPrimitive));
+        return read(ont -> ont.referencingAxioms(owlPrimitive));
     }
 
     @Override
     public Set<OWLClassAxiom> getAxioms(OWLClass owlClass) {
-        return withReadLock(() -> delegate.getAxioms(owlClass));
+        return read(ont -> ont.getAxioms(owlClass));
     }
 
     @Override
     public Set<OWLObjectPropertyAxiom> getAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(() -> delegate.getAxioms(owlObjectPropertyExpression));
+        return read(ont -> ont.getAxioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLDataPropertyAxiom> getAxioms(OWLDataProperty owlDataProperty) {
-        return withReadLock(() -> delegate.getAxioms(owlDataProperty));
+        return read(ont -> ont.getAxioms(owlDataProperty));
     }
 
     @Override
     public Set<OWLIndividualAxiom> getAxioms(OWLIndividual owlIndividual) {
-        return withReadLock(() -> delegate.getAxioms(owlIndividual));
+        return read(ont -> ont.getAxioms(owlIndividual));
     }
 
     @Override
     public Set<OWLAnnotationAxiom> getAxioms(OWLAnnotationProperty owlAnnotationProperty) {
-        return withReadLock(() -> delegate.getAxioms(owlAnnotationProperty));
+        return read(ont -> ont.getAxioms(owlAnnotationProperty));
     }
 
     @Override
     public Set<OWLDatatypeDefinitionAxiom> getAxioms(OWLDatatype owlDatatype) {
-        return withReadLock(() -> delegate.getAxioms(owlDatatype));
+        return read(ont -> ont.getAxioms(owlDatatype));
     }
 
     @Override
     public Stream<OWLClassAxiom> axioms(OWLClass owlClass) {
-        return withReadLock(() -> delegate.axioms(owlClass));
+        return read(ont -> ont.axioms(owlClass));
     }
 
     @Override
     public Stream<OWLObjectPropertyAxiom> axioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(() -> delegate.axioms(owlObjectPropertyExpression));
+        return read(ont -> ont.axioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Stream<OWLDataPropertyAxiom> axioms(OWLDataProperty owlDataProperty) {
-        return withReadLock(() -> delegate.axioms(owlDataProperty));
+        return read(ont -> ont.axioms(owlDataProperty));
     }
 
     @Override
     public Stream<OWLIndividualAxiom> axioms(OWLIndividual owlIndividual) {
-        return withReadLock(() -> delegate.axioms(owlIndividual));
+        return read(ont -> ont.axioms(owlIndividual));
     }
 
     @Override
     public Stream<OWLAnnotationAxiom> axioms(OWLAnnotationProperty owlAnnotationProperty) {
-        return withReadLock(() -> delegate.axioms(owlAnnotationProperty));
+        return read(ont -> ont.axioms(owlAnnotationProperty));
     }
 
     @Override
     public Stream<OWLDatatypeDefinitionAxiom> axioms(OWLDatatype owlDatatype) {
-        return withReadLock(() -> delegate.axioms(owlDatatype));
+        return read(ont -> ont.axioms(owlDatatype));
     }
 
     @Override
     public Set<OWLClass> getClassesInSignature(Imports imports) {
-        return withReadLock(() -> delegate.getClassesInSignature(imports));
+        return read(ont -> ont.getClassesInSignature(imports));
     }
 
     @Override
     public Set<OWLObjectProperty> getObjectPropertiesInSignature(Imports imports) {
-        return withReadLock(() -> delegate.getObjectPropertiesInSignature(imports));
+        return read(ont -> ont.getObjectPropertiesInSignature(imports));
     }
 
     @Override
     public Set<OWLDataProperty> getDataPropertiesInSignature(Imports imports) {
-        return withReadLock(() -> delegate.getDataPropertiesInSignature(imports));
+        return read(ont -> ont.getDataPropertiesInSignature(imports));
     }
 
     @Override
     public Set<OWLNamedIndividual> getIndividualsInSignature(Imports imports) {
-        return withReadLock(() -> delegate.getIndividualsInSignature(imports));
+        return read(ont -> ont.getIndividualsInSignature(imports));
     }
 
     @Override
     public Set<OWLAnonymousIndividual> getReferencedAnonymousIndividuals(Imports imports) {
-        return withReadLock(() -> delegate.getReferencedAnonymousIndividuals(imports));
+        return read(ont -> ont.getReferencedAnonymousIndividuals(imports));
     }
 
     @Override
     public Stream<OWLAnonymousIndividual> referencedAnonymousIndividuals(Imports imports) {
-        return withReadLock(() -> delegate.referencedAnonymousIndividuals(imports));
+        return read(ont -> ont.referencedAnonymousIndividuals(imports));
     }
 
     @Override
     public Stream<OWLAnonymousIndividual> referencedAnonymousIndividuals() {
-        return withReadLock(delegate::referencedAnonymousIndividuals);
+        return read(ont -> ont.referencedAnonymousIndividuals());
     }
 
     @Override
     public Set<OWLDatatype> getDatatypesInSignature(Imports imports) {
-        return withReadLock(() -> delegate.getDatatypesInSignature(imports));
+        return read(ont -> ont.getDatatypesInSignature(imports));
     }
 
     @Override
     public Set<OWLAnnotationProperty> getAnnotationPropertiesInSignature(Imports imports) {
-        return withReadLock(() -> delegate.getAnnotationPropertiesInSignature(imports));
+        return read(ont -> ont.getAnnotationPropertiesInSignature(imports));
     }
 
     @Override
     public boolean containsEntityInSignature(OWLEntity owlEntity, Imports imports) {
-        return withBooleanReadLock(() -> delegate.containsEntityInSignature(owlEntity, imports));
+        return readBoolean(ont -> ont.containsEntityInSignature(owlEntity, imports));
     }
 
     @Override
     public boolean containsEntityInSignature(IRI iri, Imports imports) {
-        return withBooleanReadLock(() -> delegate.containsEntityInSignature(iri, imports));
+        return readBoolean(ont -> ont.containsEntityInSignature(iri, imports));
     }
 
     @Override
     public boolean containsClassInSignature(IRI iri, Imports imports) {
-        return withBooleanReadLock(() -> delegate.containsClassInSignature(iri, imports));
+        return readBoolean(ont -> ont.containsClassInSignature(iri, imports));
     }
 
     @Override
     public boolean containsObjectPropertyInSignature(IRI iri, Imports imports) {
-        return withBooleanReadLock(() -> delegate.containsObjectPropertyInSignature(iri, imports));
+        return readBoolean(ont -> ont.containsObjectPropertyInSignature(iri, imports));
     }
 
     @Override
     public boolean containsDataPropertyInSignature(IRI iri, Imports imports) {
-        return withBooleanReadLock(() -> delegate.containsDataPropertyInSignature(iri, imports));
+        return readBoolean(ont -> ont.containsDataPropertyInSignature(iri, imports));
     }
 
     @Override
     public boolean containsAnnotationPropertyInSignature(IRI iri, Imports imports) {
-        return withBooleanReadLock(
-            () -> delegate.containsAnnotationPropertyInSignature(iri, imports));
+        return readBoolean(ont -> ont.containsAnnotationPropertyInSignature(iri, imports));
     }
 
     @Override
     public boolean containsDatatypeInSignature(IRI iri, Imports imports) {
-        return withBooleanReadLock(() -> delegate.containsDatatypeInSignature(iri, imports));
+        return readBoolean(ont -> ont.containsDatatypeInSignature(iri, imports));
     }
 
     @Override
     public boolean containsIndividualInSignature(IRI iri, Imports imports) {
-        return withBooleanReadLock(() -> delegate.containsIndividualInSignature(iri, imports));
+        return readBoolean(ont -> ont.containsIndividualInSignature(iri, imports));
     }
 
     @Override
     public boolean containsDatatypeInSignature(IRI iri) {
-        return withBooleanReadLock(() -> delegate.containsDatatypeInSignature(iri));
+        return readBoolean(ont -> ont.containsDatatypeInSignature(iri));
     }
 
     @Override
     public boolean containsEntityInSignature(IRI iri) {
-        return withBooleanReadLock(() -> delegate.containsEntityInSignature(iri));
+        return readBoolean(ont -> ont.containsEntityInSignature(iri));
     }
 
     @Override
     public boolean containsClassInSignature(IRI iri) {
-        return withBooleanReadLock(() -> delegate.containsClassInSignature(iri));
+        return readBoolean(ont -> ont.containsClassInSignature(iri));
     }
 
     @Override
     public boolean containsObjectPropertyInSignature(IRI iri) {
-        return withBooleanReadLock(() -> delegate.containsObjectPropertyInSignature(iri));
+        return readBoolean(ont -> ont.containsObjectPropertyInSignature(iri));
     }
 
     @Override
     public boolean containsDataPropertyInSignature(IRI iri) {
-        return withBooleanReadLock(() -> delegate.containsDataPropertyInSignature(iri));
+        return readBoolean(ont -> ont.containsDataPropertyInSignature(iri));
     }
 
     @Override
     public boolean containsAnnotationPropertyInSignature(IRI iri) {
-        return withBooleanReadLock(() -> delegate.containsAnnotationPropertyInSignature(iri));
+        return readBoolean(ont -> ont.containsAnnotationPropertyInSignature(iri));
     }
 
     @Override
     public boolean containsIndividualInSignature(IRI iri) {
-        return withBooleanReadLock(() -> delegate.containsIndividualInSignature(iri));
+        return readBoolean(ont -> ont.containsIndividualInSignature(iri));
     }
 
     @Override
     public Set<OWLEntity> getEntitiesInSignature(IRI iri, Imports imports) {
-        return withReadLock(() -> delegate.getEntitiesInSignature(iri, imports));
+        return read(ont -> ont.getEntitiesInSignature(iri, imports));
     }
 
     @Override
     public Set<IRI> getPunnedIRIs(Imports imports) {
-        return withReadLock(() -> delegate.getPunnedIRIs(imports));
+        return read(ont -> ont.getPunnedIRIs(imports));
     }
 
     @Override
     public boolean containsReference(OWLEntity owlEntity, Imports imports) {
-        return withBooleanReadLock(() -> delegate.containsReference(owlEntity, imports));
+        return readBoolean(ont -> ont.containsReference(owlEntity, imports));
     }
 
     @Override
     public boolean containsReference(OWLEntity owlEntity) {
-        return withBooleanReadLock(() -> delegate.containsReference(owlEntity));
+        return readBoolean(ont -> ont.containsReference(owlEntity));
     }
 
     @Override
     public Set<OWLEntity> getEntitiesInSignature(IRI iri) {
-        return withReadLock(() -> delegate.getEntitiesInSignature(iri));
+        return read(ont -> ont.getEntitiesInSignature(iri));
     }
 
     @Override
     public Stream<OWLEntity> entitiesInSignature(IRI iri) {
-        return withReadLock(() -> delegate.entitiesInSignature(iri));
+        return read(ont -> ont.entitiesInSignature(iri));
     }
 
     @Override
     public Set<OWLClass> getClassesInSignature(boolean b) {
-        return withReadLock(() -> delegate.getClassesInSignature(b));
+        return read(ont -> ont.getClassesInSignature(b));
     }
 
     @Override
     public Set<OWLObjectProperty> getObjectPropertiesInSignature(boolean b) {
-        return withReadLock(() -> delegate.getObjectPropertiesInSignature(b));
+        return read(ont -> ont.getObjectPropertiesInSignature(b));
     }
 
     @Override
     public Set<OWLDataProperty> getDataPropertiesInSignature(boolean b) {
-        return withReadLock(() -> delegate.getDataPropertiesInSignature(b));
+        return read(ont -> ont.getDataPropertiesInSignature(b));
     }
 
     @Override
     public Set<OWLNamedIndividual> getIndividualsInSignature(boolean b) {
-        return withReadLock(() -> delegate.getIndividualsInSignature(b));
+        return read(ont -> ont.getIndividualsInSignature(b));
     }
 
     @Override
     public Set<OWLAnonymousIndividual> getReferencedAnonymousIndividuals(boolean b) {
-        return withReadLock(() -> delegate.getReferencedAnonymousIndividuals(b));
+        return read(ont -> ont.getReferencedAnonymousIndividuals(b));
     }
 
     @Override
     public Set<OWLDatatype> getDatatypesInSignature(boolean b) {
-        return withReadLock(() -> delegate.getDatatypesInSignature(b));
+        return read(ont -> ont.getDatatypesInSignature(b));
     }
 
     @Override
     public Set<OWLAnnotationProperty> getAnnotationPropertiesInSignature(boolean b) {
-        return withReadLock(() -> delegate.getAnnotationPropertiesInSignature(b));
+        return read(ont -> ont.getAnnotationPropertiesInSignature(b));
     }
 
     @Override
     public boolean containsEntityInSignature(OWLEntity owlEntity, boolean b) {
-        return withBooleanReadLock(() -> delegate.containsEntityInSignature(owlEntity, b));
+        return readBoolean(ont -> ont.containsEntityInSignature(owlEntity, b));
     }
 
     @Override
     public boolean containsEntityInSignature(IRI iri, boolean b) {
-        return withBooleanReadLock(() -> delegate.containsEntityInSignature(iri, b));
+        return readBoolean(ont -> ont.containsEntityInSignature(iri, b));
     }
 
     @Override
     public boolean containsClassInSignature(IRI iri, boolean b) {
-        return withBooleanReadLock(() -> delegate.containsClassInSignature(iri, b));
+        return readBoolean(ont -> ont.containsClassInSignature(iri, b));
     }
 
     @Override
     public boolean containsObjectPropertyInSignature(IRI iri, boolean b) {
-        return withBooleanReadLock(() -> delegate.containsObjectPropertyInSignature(iri, b));
+        return readBoolean(ont -> ont.containsObjectPropertyInSignature(iri, b));
     }
 
     @Override
     public boolean containsDataPropertyInSignature(IRI iri, boolean b) {
-        return withBooleanReadLock(() -> delegate.containsDataPropertyInSignature(iri, b));
+        return readBoolean(ont -> ont.containsDataPropertyInSignature(iri, b));
     }
 
     @Override
     public boolean containsAnnotationPropertyInSignature(IRI iri, boolean b) {
-        return withBooleanReadLock(() -> delegate.containsAnnotationPropertyInSignature(iri, b));
+        return readBoolean(ont -> ont.containsAnnotationPropertyInSignature(iri, b));
     }
 
     @Override
     public boolean containsDatatypeInSignature(IRI iri, boolean b) {
-        return withBooleanReadLock(() -> delegate.containsDatatypeInSignature(iri, b));
+        return readBoolean(ont -> ont.containsDatatypeInSignature(iri, b));
     }
 
     @Override
     public boolean containsIndividualInSignature(IRI iri, boolean b) {
-        return withBooleanReadLock(() -> delegate.containsIndividualInSignature(iri, b));
+        return readBoolean(ont -> ont.containsIndividualInSignature(iri, b));
     }
 
     @Override
     public Set<OWLEntity> getEntitiesInSignature(IRI iri, boolean b) {
-        return withReadLock(() -> delegate.getEntitiesInSignature(iri, b));
+        return read(ont -> ont.getEntitiesInSignature(iri, b));
     }
 
     @Override
     public boolean containsReference(OWLEntity owlEntity, boolean b) {
-        return withBooleanReadLock(() -> delegate.containsReference(owlEntity, b));
+        return readBoolean(ont -> ont.containsReference(owlEntity, b));
     }
 
     @Override
     public <T extends OWLAxiom> Set<T> getAxioms(Class<T> aClass, OWLObject owlObject,
         Imports imports, Navigation navigation) {
-        return withReadLock(() -> delegate.getAxioms(aClass, owlObject, imports, navigation));
+        return read(ont -> ont.getAxioms(aClass, owlObject, imports, navigation));
     }
 
     @Override
     public <T extends OWLAxiom> Stream<T> axioms(Class<T> aClass, OWLObject owlObject,
         Imports imports, Navigation navigation) {
-        return withReadLock(() -> delegate.axioms(aClass, owlObject, imports, navigation));
+        return read(ont -> ont.axioms(aClass, owlObject, imports, navigation));
     }
 
     @Override
     public <T extends OWLAxiom> Collection<T> filterAxioms(
         OWLAxiomSearchFilter owlAxiomSearchFilter, Object o, Imports imports) {
-        return withReadLock(() -> delegate.filterAxioms(owlAxiomSearchFilter, o, imports));
+        return read(ont -> ont.filterAxioms(owlAxiomSearchFilter, o, imports));
     }
 
     @Override
     public boolean contains(OWLAxiomSearchFilter owlAxiomSearchFilter, Object o, Imports imports) {
-        return withBooleanReadLock(() -> delegate.contains(owlAxiomSearchFilter, o, imports));
+        return readBoolean(ont -> ont.contains(owlAxiomSearchFilter, o, imports));
     }
 
     @Override
     public boolean contains(OWLAxiomSearchFilter owlAxiomSearchFilter, Object o) {
-        return withBooleanReadLock(() -> delegate.contains(owlAxiomSearchFilter, o));
+        return readBoolean(ont -> ont.contains(owlAxiomSearchFilter, o));
     }
 
     @Override
     public <T extends OWLAxiom> Set<T> getAxioms(Class<T> aClass,
         Class<? extends OWLObject> aClass1, OWLObject owlObject, Imports imports,
         Navigation navigation) {
-        return withReadLock(
-            () -> delegate.getAxioms(aClass, aClass1, owlObject, imports, navigation));
+        return read(ont -> ont.getAxioms(aClass, aClass1, owlObject, imports, navigation));
     }
 
     @Override
     public <T extends OWLAxiom> Stream<T> axioms(Class<T> aClass,
         Class<? extends OWLObject> aClass1, OWLObject owlObject, Imports imports,
         Navigation navigation) {
-        return withReadLock(() -> delegate.axioms(aClass, aClass1, owlObject, imports, navigation));
+        return read(ont -> ont.axioms(aClass, aClass1, owlObject, imports, navigation));
     }
 
     @Override
     public Set<OWLSubAnnotationPropertyOfAxiom> getSubAnnotationPropertyOfAxioms(
         OWLAnnotationProperty owlAnnotationProperty) {
-        return withReadLock(() -> delegate.getSubAnnotationPropertyOfAxioms(owlAnnotationProperty));
+        return read(ont -> ont.getSubAnnotationPropertyOfAxioms(owlAnnotationProperty));
     }
 
     @Override
     public Set<OWLAnnotationPropertyDomainAxiom> getAnnotationPropertyDomainAxioms(
         OWLAnnotationProperty owlAnnotationProperty) {
-        return withReadLock(
-            () -> delegate.getAnnotationPropertyDomainAxioms(owlAnnotationProperty));
+        return read(ont -> ont.getAnnotationPropertyDomainAxioms(owlAnnotationProperty));
     }
 
     @Override
     public Set<OWLAnnotationPropertyRangeAxiom> getAnnotationPropertyRangeAxioms(
         OWLAnnotationProperty owlAnnotationProperty) {
-        return withReadLock(() -> delegate.getAnnotationPropertyRangeAxioms(owlAnnotationProperty));
+        return read(ont -> ont.getAnnotationPropertyRangeAxioms(owlAnnotationProperty));
     }
 
     @Override
     public Stream<OWLAnnotationPropertyDomainAxiom> annotationPropertyDomainAxioms(
         OWLAnnotationProperty owlAnnotationProperty) {
-        return withReadLock(() -> delegate.annotationPropertyDomainAxioms(owlAnnotationProperty));
+        return read(ont -> ont.annotationPropertyDomainAxioms(owlAnnotationProperty));
     }
 
     @Override
     public Stream<OWLAnnotationPropertyRangeAxiom> annotationPropertyRangeAxioms(
         OWLAnnotationProperty owlAnnotationProperty) {
-        return withReadLock(() -> delegate.annotationPropertyRangeAxioms(owlAnnotationProperty));
+        return read(ont -> ont.annotationPropertyRangeAxioms(owlAnnotationProperty));
     }
 
     @Override
     public Set<OWLDeclarationAxiom> getDeclarationAxioms(OWLEntity owlEntity) {
-        return withReadLock(() -> delegate.getDeclarationAxioms(owlEntity));
+        return read(ont -> ont.getDeclarationAxioms(owlEntity));
     }
 
     @Override
     public Set<OWLAnnotationAssertionAxiom> getAnnotationAssertionAxioms(
         OWLAnnotationSubject owlAnnotationSubject) {
-        return withReadLock(() -> delegate.getAnnotationAssertionAxioms(owlAnnotationSubject));
+        return read(ont -> ont.getAnnotationAssertionAxioms(owlAnnotationSubject));
     }
 
     @Override
     public Set<OWLSubClassOfAxiom> getSubClassAxiomsForSubClass(OWLClass owlClass) {
-        return withReadLock(() -> delegate.getSubClassAxiomsForSubClass(owlClass));
+        return read(ont -> ont.getSubClassAxiomsForSubClass(owlClass));
     }
 
     @Override
     public Set<OWLSubClassOfAxiom> getSubClassAxiomsForSuperClass(OWLClass owlClass) {
-        return withReadLock(() -> delegate.getSubClassAxiomsForSuperClass(owlClass));
+        return read(ont -> ont.getSubClassAxiomsForSuperClass(owlClass));
     }
 
     @Override
     public Set<OWLEquivalentClassesAxiom> getEquivalentClassesAxioms(OWLClass owlClass) {
-        return withReadLock(() -> delegate.getEquivalentClassesAxioms(owlClass));
+        return read(ont -> ont.getEquivalentClassesAxioms(owlClass));
     }
 
     @Override
     public Set<OWLDisjointClassesAxiom> getDisjointClassesAxioms(OWLClass owlClass) {
-        return withReadLock(() -> delegate.getDisjointClassesAxioms(owlClass));
+        return read(ont -> ont.getDisjointClassesAxioms(owlClass));
     }
 
     @Override
     public Set<OWLDisjointUnionAxiom> getDisjointUnionAxioms(OWLClass owlClass) {
-        return withReadLock(() -> delegate.getDisjointUnionAxioms(owlClass));
+        return read(ont -> ont.getDisjointUnionAxioms(owlClass));
     }
 
     @Override
     public Set<OWLHasKeyAxiom> getHasKeyAxioms(OWLClass owlClass) {
-        return withReadLock(() -> delegate.getHasKeyAxioms(owlClass));
+        return read(ont -> ont.getHasKeyAxioms(owlClass));
     }
 
     @Override
     public Set<OWLSubObjectPropertyOfAxiom> getObjectSubPropertyAxiomsForSubProperty(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getObjectSubPropertyAxiomsForSubProperty(owlObjectPropertyExpression));
+        return read(
+            ont -> ont.getObjectSubPropertyAxiomsForSubProperty(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLSubObjectPropertyOfAxiom> getObjectSubPropertyAxiomsForSuperProperty(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getObjectSubPropertyAxiomsForSuperProperty(owlObjectPropertyExpression));
+        return read(
+            ont -> ont.getObjectSubPropertyAxiomsForSuperProperty(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLObjectPropertyDomainAxiom> getObjectPropertyDomainAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getObjectPropertyDomainAxioms(owlObjectPropertyExpression));
+        return read(ont -> ont.getObjectPropertyDomainAxioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLObjectPropertyRangeAxiom> getObjectPropertyRangeAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getObjectPropertyRangeAxioms(owlObjectPropertyExpression));
+        return read(ont -> ont.getObjectPropertyRangeAxioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLInverseObjectPropertiesAxiom> getInverseObjectPropertyAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getInverseObjectPropertyAxioms(owlObjectPropertyExpression));
+        return read(ont -> ont.getInverseObjectPropertyAxioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLEquivalentObjectPropertiesAxiom> getEquivalentObjectPropertiesAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getEquivalentObjectPropertiesAxioms(owlObjectPropertyExpression));
+        return read(ont -> ont.getEquivalentObjectPropertiesAxioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLDisjointObjectPropertiesAxiom> getDisjointObjectPropertiesAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getDisjointObjectPropertiesAxioms(owlObjectPropertyExpression));
+        return read(ont -> ont.getDisjointObjectPropertiesAxioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLFunctionalObjectPropertyAxiom> getFunctionalObjectPropertyAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getFunctionalObjectPropertyAxioms(owlObjectPropertyExpression));
+        return read(ont -> ont.getFunctionalObjectPropertyAxioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLInverseFunctionalObjectPropertyAxiom> getInverseFunctionalObjectPropertyAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getInverseFunctionalObjectPropertyAxioms(owlObjectPropertyExpression));
+        return read(
+            ont -> ont.getInverseFunctionalObjectPropertyAxioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLSymmetricObjectPropertyAxiom> getSymmetricObjectPropertyAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getSymmetricObjectPropertyAxioms(owlObjectPropertyExpression));
+        return read(ont -> ont.getSymmetricObjectPropertyAxioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLAsymmetricObjectPropertyAxiom> getAsymmetricObjectPropertyAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getAsymmetricObjectPropertyAxioms(owlObjectPropertyExpression));
+        return read(ont -> ont.getAsymmetricObjectPropertyAxioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLReflexiveObjectPropertyAxiom> getReflexiveObjectPropertyAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getReflexiveObjectPropertyAxioms(owlObjectPropertyExpression));
+        return read(ont -> ont.getReflexiveObjectPropertyAxioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLIrreflexiveObjectPropertyAxiom> getIrreflexiveObjectPropertyAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getIrreflexiveObjectPropertyAxioms(owlObjectPropertyExpression));
+        return read(ont -> ont.getIrreflexiveObjectPropertyAxioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLTransitiveObjectPropertyAxiom> getTransitiveObjectPropertyAxioms(
         OWLObjectPropertyExpression owlObjectPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getTransitiveObjectPropertyAxioms(owlObjectPropertyExpression));
+        return read(ont -> ont.getTransitiveObjectPropertyAxioms(owlObjectPropertyExpression));
     }
 
     @Override
     public Set<OWLSubDataPropertyOfAxiom> getDataSubPropertyAxiomsForSubProperty(
         OWLDataProperty owlDataProperty) {
-        return withReadLock(() -> delegate.getDataSubPropertyAxiomsForSubProperty(owlDataProperty));
+        return read(ont -> ont.getDataSubPropertyAxiomsForSubProperty(owlDataProperty));
     }
 
     @Override
     public Set<OWLSubDataPropertyOfAxiom> getDataSubPropertyAxiomsForSuperProperty(
         OWLDataPropertyExpression owlDataPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getDataSubPropertyAxiomsForSuperProperty(owlDataPropertyExpression));
+        return read(ont -> ont.getDataSubPropertyAxiomsForSuperProperty(owlDataPropertyExpression));
     }
 
     @Override
     public Set<OWLDataPropertyDomainAxiom> getDataPropertyDomainAxioms(
         OWLDataProperty owlDataProperty) {
-        return withReadLock(() -> delegate.getDataPropertyDomainAxioms(owlDataProperty));
+        return read(ont -> ont.getDataPropertyDomainAxioms(owlDataProperty));
     }
 
     @Override
     public Set<OWLDataPropertyRangeAxiom> getDataPropertyRangeAxioms(
         OWLDataProperty owlDataProperty) {
-        return withReadLock(() -> delegate.getDataPropertyRangeAxioms(owlDataProperty));
+        return read(ont -> ont.getDataPropertyRangeAxioms(owlDataProperty));
     }
 
     @Override
     public Set<OWLEquivalentDataPropertiesAxiom> getEquivalentDataPropertiesAxioms(
         OWLDataProperty owlDataProperty) {
-        return withReadLock(() -> delegate.getEquivalentDataPropertiesAxioms(owlDataProperty));
+        return read(ont -> ont.getEquivalentDataPropertiesAxioms(owlDataProperty));
     }
 
     @Override
     public Set<OWLDisjointDataPropertiesAxiom> getDisjointDataPropertiesAxioms(
         OWLDataProperty owlDataProperty) {
-        return withReadLock(() -> delegate.getDisjointDataPropertiesAxioms(owlDataProperty));
+        return read(ont -> ont.getDisjointDataPropertiesAxioms(owlDataProperty));
     }
 
     @Override
     public Set<OWLFunctionalDataPropertyAxiom> getFunctionalDataPropertyAxioms(
         OWLDataPropertyExpression owlDataPropertyExpression) {
-        return withReadLock(
-            () -> delegate.getFunctionalDataPropertyAxioms(owlDataPropertyExpression));
+        return read(ont -> ont.getFunctionalDataPropertyAxioms(owlDataPropertyExpression));
     }
 
     @Override
     public Set<OWLClassAssertionAxiom> getClassAssertionAxioms(OWLIndividual owlIndividual) {
-        return withReadLock(() -> delegate.getClassAssertionAxioms(owlIndividual));
+        return read(ont -> ont.getClassAssertionAxioms(owlIndividual));
     }
 
     @Override
     public Set<OWLClassAssertionAxiom> getClassAssertionAxioms(
         OWLClassExpression owlClassExpression) {
-        return withReadLock(() -> delegate.getClassAssertionAxioms(owlClassExpression));
+        return read(ont -> ont.getClassAssertionAxioms(owlClassExpression));
     }
 
     @Override
     public Set<OWLDataPropertyAssertionAxiom> getDataPropertyAssertionAxioms(
         OWLIndividual owlIndividual) {
-        return withReadLock(() -> delegate.getDataPropertyAssertionAxioms(owlIndividual));
+        return read(ont -> ont.getDataPropertyAssertionAxioms(owlIndividual));
     }
 
     @Override
     public Set<OWLObjectPropertyAssertionAxiom> getObjectPropertyAssertionAxioms(
         OWLIndividual owlIndividual) {
-        return withReadLock(() -> delegate.getObjectPropertyAssertionAxioms(owlIndividual));
+        return read(ont -> ont.getObjectPropertyAssertionAxioms(owlIndividual));
     }
 
     @Override
     public Set<OWLNegativeObjectPropertyAssertionAxiom> getNegativeObjectPropertyAssertionAxioms(
         OWLIndividual owlIndividual) {
-        return withReadLock(() -> delegate.getNegativeObjectPropertyAssertionAxioms(owlIndividual));
+        return read(ont -> ont.getNegativeObjectPropertyAssertionAxioms(owlIndividual));
     }
 
     @Override
     public Set<OWLNegativeDataPropertyAssertionAxiom> getNegativeDataPropertyAssertionAxioms(
         OWLIndividual owlIndividual) {
-        return withReadLock(() -> delegate.getNegativeDataPropertyAssertionAxioms(owlIndividual));
+        return read(ont -> ont.getNegativeDataPropertyAssertionAxioms(owlIndividual));
     }
 
     @Override
     public Set<OWLSameIndividualAxiom> getSameIndividualAxioms(OWLIndividual owlIndividual) {
-        return withReadLock(() -> delegate.getSameIndividualAxioms(owlIndividual));
+        return read(ont -> ont.getSameIndividualAxioms(owlIndividual));
     }
 
     @Override
     public Set<OWLDifferentIndividualsAxiom> getDifferentIndividualAxioms(
         OWLIndividual owlIndividual) {
-        return withReadLock(() -> delegate.getDifferentIndividualAxioms(owlIndividual));
+        return read(ont -> ont.getDifferentIndividualAxioms(owlIndividual));
     }
 
     @Override
     public Set<OWLDatatypeDefinitionAxiom> getDatatypeDefinitions(OWLDatatype owlDatatype) {
-        return withReadLock(() -> delegate.getDatatypeDefinitions(owlDatatype));
+        return read(ont -> ont.getDatatypeDefinitions(owlDatatype));
     }
 
     @Override
     public ChangeApplied applyChange(OWLOntologyChange owlOntologyChange) {
-        return withWriteLock(() -> getMutableOntology().applyChange(owlOntologyChange));
+        return withChangeLock(() -> getMutableOntology().applyChange(owlOntologyChange));
     }
 
     @Override
     public ChangeDetails applyChangesAndGetDetails(List<? extends OWLOntologyChange> list) {
-        return withWriteLock(() -> getMutableOntology().applyChangesAndGetDetails(list));
+        return withChangeLock(() -> getMutableOntology().applyChangesAndGetDetails(list));
     }
 
     @Override
     public ChangeApplied addAxiom(OWLAxiom owlAxiom) {
-        return withWriteLock(() -> getMutableOntology().addAxiom(owlAxiom));
+        return withChangeLock(() -> getMutableOntology().addAxiom(owlAxiom));
     }
 
     @Override
     public ChangeApplied addAxioms(Collection<? extends OWLAxiom> set) {
-        return withWriteLock(() -> getMutableOntology().addAxioms(set));
+        return withChangeLock(() -> getMutableOntology().addAxioms(set));
     }
 
     @Override
     public ChangeApplied addAxioms(OWLAxiom... set) {
-        return withWriteLock(() -> getMutableOntology().addAxioms(set));
+        return withChangeLock(() -> getMutableOntology().addAxioms(set));
     }
 
     @Override
     public ChangeApplied add(OWLAxiom owlAxiom) {
-        return withWriteLock(() -> getMutableOntology().add(owlAxiom));
+        return withChangeLock(() -> getMutableOntology().add(owlAxiom));
     }
 
     @Override
     public ChangeApplied add(Collection<? extends OWLAxiom> set) {
-        return withWriteLock(() -> getMutableOntology().add(set));
+        return withChangeLock(() -> getMutableOntology().add(set));
     }
 
     @Override
     public ChangeApplied add(OWLAxiom... set) {
-        return withWriteLock(() -> getMutableOntology().add(set));
+        return withChangeLock(() -> getMutableOntology().add(set));
     }
 
     private OWLMutableOntology getMutableOntology() {
@@ -1436,65 +1656,65 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
 
     @Override
     public Stream<OWLImportsDeclaration> importsDeclarations() {
-        return withReadLock(delegate::importsDeclarations);
+        return read(ont -> ont.importsDeclarations());
     }
 
     @Override
     public <T extends OWLAxiom> Stream<T> axioms(OWLAxiomSearchFilter filter, Object key,
         Imports includeImportsClosure) {
-        return withReadLock(() -> delegate.axioms(filter, key, includeImportsClosure));
+        return read(ont -> ont.axioms(filter, key, includeImportsClosure));
     }
 
     @Override
     public <T extends OWLAxiom> Stream<T> axioms(OWLAxiomSearchFilter filter, Object key) {
-        return withReadLock(() -> delegate.axioms(filter, key));
+        return read(ont -> ont.axioms(filter, key));
     }
 
     @Override
     public <T extends OWLAxiom> Stream<T> axioms(Class<T> type,
         Class<? extends OWLObject> explicitClass, OWLObject entity, Navigation forSubPosition) {
-        return withReadLock(() -> delegate.axioms(type, explicitClass, entity, forSubPosition));
+        return read(ont -> ont.axioms(type, explicitClass, entity, forSubPosition));
     }
 
     @Override
     public Stream<OWLSubAnnotationPropertyOfAxiom> subAnnotationPropertyOfAxioms(
         OWLAnnotationProperty subProperty) {
-        return withReadLock(() -> delegate.subAnnotationPropertyOfAxioms(subProperty));
+        return read(ont -> ont.subAnnotationPropertyOfAxioms(subProperty));
     }
 
     @Override
     public Stream<OWLDatatypeDefinitionAxiom> datatypeDefinitions(OWLDatatype datatype) {
-        return withReadLock(() -> delegate.datatypeDefinitions(datatype));
+        return read(ont -> ont.datatypeDefinitions(datatype));
     }
 
     @Override
     public ChangeApplied removeAxiom(OWLAxiom axiom) {
-        return withWriteLock(() -> delegate.removeAxiom(axiom));
+        return withChangeLock(() -> delegate.removeAxiom(axiom));
     }
 
     @Override
     public ChangeApplied removeAxioms(Collection<? extends OWLAxiom> axioms) {
-        return withWriteLock(() -> delegate.removeAxioms(axioms));
+        return withChangeLock(() -> delegate.removeAxioms(axioms));
     }
 
     @Override
     public ChangeApplied removeAxioms(OWLAxiom... axioms) {
-        return withWriteLock(() -> delegate.removeAxioms(axioms));
+        return withChangeLock(() -> delegate.removeAxioms(axioms));
     }
 
     @Override
     public ChangeApplied remove(OWLAxiom axiom) {
-        return withWriteLock(() -> delegate.remove(axiom));
+        return withChangeLock(() -> delegate.remove(axiom));
     }
 
     @Override
     public ChangeApplied remove(Collection<? extends OWLAxiom> axioms) {
-        return withWriteLock(() -> delegate.remove(axioms));
+        return withChangeLock(() -> delegate.remove(axioms));
     }
 
     @Override
     public ChangeApplied remove(OWLAxiom... axioms) {
-        return withWriteLock(() -> delegate.remove(axioms));
+        return withChangeLock(() -> delegate.remove(axioms));
     }
 
     @Override
@@ -1505,265 +1725,265 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
     @Override
     public Stream<OWLDisjointObjectPropertiesAxiom> disjointObjectPropertiesAxioms(
         OWLObjectPropertyExpression property) {
-        return withReadLock(() -> delegate.disjointObjectPropertiesAxioms(property));
+        return read(ont -> ont.disjointObjectPropertiesAxioms(property));
     }
 
     @Override
     public Stream<OWLObjectProperty> objectPropertiesInSignature() {
-        return withReadLock(delegate::objectPropertiesInSignature);
+        return read(ont -> ont.objectPropertiesInSignature());
     }
 
     @Override
     public Stream<OWLAnnotationAssertionAxiom> annotationAssertionAxioms(
         OWLAnnotationSubject entity) {
-        return withReadLock(() -> delegate.annotationAssertionAxioms(entity));
+        return read(ont -> ont.annotationAssertionAxioms(entity));
     }
 
     @Override
     public Stream<OWLAnnotationAssertionAxiom> annotationAssertionAxioms(
         OWLAnnotationSubject entity, Imports imports) {
-        return withReadLock(() -> delegate.annotationAssertionAxioms(entity, imports));
+        return read(ont -> ont.annotationAssertionAxioms(entity, imports));
     }
 
     @Override
     public Stream<OWLAnnotationProperty> annotationPropertiesInSignature() {
-        return withReadLock(delegate::annotationPropertiesInSignature);
+        return read(ont -> ont.annotationPropertiesInSignature());
     }
 
     @Override
     public Stream<OWLAnnotationProperty> annotationPropertiesInSignature(Imports imports) {
-        return withReadLock(() -> delegate.annotationPropertiesInSignature(imports));
+        return read(ont -> ont.annotationPropertiesInSignature(imports));
     }
 
     @Override
     public Stream<OWLAnnotation> annotations() {
-        return withReadLock(delegate::annotations);
+        return read(ont -> ont.annotations());
     }
 
     @Override
     public List<OWLAnnotation> annotationsAsList() {
-        return withReadLock(delegate::annotationsAsList);
+        return read(ont -> ont.annotationsAsList());
     }
 
     @Override
     public Stream<OWLAnnotation> annotations(OWLAnnotationProperty p) {
-        return withReadLock(() -> delegate.annotations(p));
+        return read(ont -> ont.annotations(p));
     }
 
     @Override
     public Stream<OWLAnnotation> annotations(Predicate<OWLAnnotation> p) {
-        return withReadLock(() -> delegate.annotations(p));
+        return read(ont -> ont.annotations(p));
     }
 
     @Override
     public Stream<OWLAnonymousIndividual> anonymousIndividuals() {
-        return withReadLock(delegate::anonymousIndividuals);
+        return read(ont -> ont.anonymousIndividuals());
     }
 
     @Override
     public Stream<OWLAsymmetricObjectPropertyAxiom> asymmetricObjectPropertyAxioms(
         OWLObjectPropertyExpression property) {
-        return withReadLock(() -> delegate.asymmetricObjectPropertyAxioms(property));
+        return read(ont -> ont.asymmetricObjectPropertyAxioms(property));
     }
 
     @Override
     public <T extends OWLAxiom> Stream<T> axioms(Class<T> type, OWLObject entity,
         Navigation forSubPosition) {
-        return withReadLock(() -> delegate.axioms(type, entity, forSubPosition));
+        return read(ont -> ont.axioms(type, entity, forSubPosition));
     }
 
     @Override
     public Stream<OWLAxiom> axioms(Imports imports) {
-        return withReadLock(() -> delegate.axioms(imports));
+        return read(ont -> ont.axioms(imports));
     }
 
     @Override
     public Stream<OWLAnnotationAxiom> axioms(OWLAnnotationProperty property, Imports imports) {
-        return withReadLock(() -> delegate.axioms(property, imports));
+        return read(ont -> ont.axioms(property, imports));
     }
 
     @Override
     public Stream<OWLClassAxiom> axioms(OWLClass cls, Imports imports) {
-        return withReadLock(() -> delegate.axioms(cls, imports));
+        return read(ont -> ont.axioms(cls, imports));
     }
 
     @Override
     public Stream<OWLDataPropertyAxiom> axioms(OWLDataProperty property, Imports imports) {
-        return withReadLock(() -> delegate.axioms(property, imports));
+        return read(ont -> ont.axioms(property, imports));
     }
 
     @Override
     public Stream<OWLDatatypeDefinitionAxiom> axioms(OWLDatatype datatype, Imports imports) {
-        return withReadLock(() -> delegate.axioms(datatype, imports));
+        return read(ont -> ont.axioms(datatype, imports));
     }
 
     @Override
     public Stream<OWLIndividualAxiom> axioms(OWLIndividual individual, Imports imports) {
-        return withReadLock(() -> delegate.axioms(individual, imports));
+        return read(ont -> ont.axioms(individual, imports));
     }
 
     @Override
     public Stream<OWLObjectPropertyAxiom> axioms(OWLObjectPropertyExpression property,
         Imports imports) {
-        return withReadLock(() -> delegate.axioms(property, imports));
+        return read(ont -> ont.axioms(property, imports));
     }
 
     @Override
     public Stream<OWLClassAssertionAxiom> classAssertionAxioms(OWLClassExpression ce) {
-        return withReadLock(() -> delegate.classAssertionAxioms(ce));
+        return read(ont -> ont.classAssertionAxioms(ce));
     }
 
     @Override
     public Stream<OWLClassAssertionAxiom> classAssertionAxioms(OWLIndividual individual) {
-        return withReadLock(() -> delegate.classAssertionAxioms(individual));
+        return read(ont -> ont.classAssertionAxioms(individual));
     }
 
     @Override
     public Stream<OWLClass> classesInSignature() {
-        return withReadLock(delegate::classesInSignature);
+        return read(ont -> ont.classesInSignature());
     }
 
     @Override
     public Stream<OWLClass> classesInSignature(Imports imports) {
-        return withReadLock(() -> delegate.classesInSignature(imports));
+        return read(ont -> ont.classesInSignature(imports));
     }
 
     @Override
     public Stream<OWLDataProperty> dataPropertiesInSignature() {
-        return withReadLock(delegate::dataPropertiesInSignature);
+        return read(ont -> ont.dataPropertiesInSignature());
     }
 
     @Override
     public Stream<OWLDataProperty> dataPropertiesInSignature(Imports imports) {
-        return withReadLock(() -> delegate.dataPropertiesInSignature(imports));
+        return read(ont -> ont.dataPropertiesInSignature(imports));
     }
 
     @Override
     public Stream<OWLDataPropertyAssertionAxiom> dataPropertyAssertionAxioms(
         OWLIndividual individual) {
-        return withReadLock(() -> delegate.dataPropertyAssertionAxioms(individual));
+        return read(ont -> ont.dataPropertyAssertionAxioms(individual));
     }
 
     @Override
     public Stream<OWLDataPropertyDomainAxiom> dataPropertyDomainAxioms(OWLDataProperty property) {
-        return withReadLock(() -> delegate.dataPropertyDomainAxioms(property));
+        return read(ont -> ont.dataPropertyDomainAxioms(property));
     }
 
     @Override
     public Stream<OWLDataPropertyRangeAxiom> dataPropertyRangeAxioms(OWLDataProperty property) {
-        return withReadLock(() -> delegate.dataPropertyRangeAxioms(property));
+        return read(ont -> ont.dataPropertyRangeAxioms(property));
     }
 
     @Override
     public Stream<OWLSubDataPropertyOfAxiom> dataSubPropertyAxiomsForSubProperty(
         OWLDataProperty subProperty) {
-        return withReadLock(() -> delegate.dataSubPropertyAxiomsForSubProperty(subProperty));
+        return read(ont -> ont.dataSubPropertyAxiomsForSubProperty(subProperty));
     }
 
     @Override
     public Stream<OWLSubDataPropertyOfAxiom> dataSubPropertyAxiomsForSuperProperty(
         OWLDataPropertyExpression superProperty) {
-        return withReadLock(() -> delegate.dataSubPropertyAxiomsForSuperProperty(superProperty));
+        return read(ont -> ont.dataSubPropertyAxiomsForSuperProperty(superProperty));
     }
 
     @Override
     public Stream<OWLDatatype> datatypesInSignature() {
-        return withReadLock(delegate::datatypesInSignature);
+        return read(ont -> ont.datatypesInSignature());
     }
 
     @Override
     public Stream<OWLDatatype> datatypesInSignature(Imports imports) {
-        return withReadLock(() -> delegate.datatypesInSignature(imports));
+        return read(ont -> ont.datatypesInSignature(imports));
     }
 
     @Override
     public Stream<OWLDeclarationAxiom> declarationAxioms(OWLEntity subject) {
-        return withReadLock(() -> delegate.declarationAxioms(subject));
+        return read(ont -> ont.declarationAxioms(subject));
     }
 
     @Override
     public Stream<OWLDifferentIndividualsAxiom> differentIndividualAxioms(
         OWLIndividual individual) {
-        return withReadLock(() -> delegate.differentIndividualAxioms(individual));
+        return read(ont -> ont.differentIndividualAxioms(individual));
     }
 
     @Override
     public Stream<OWLDisjointClassesAxiom> disjointClassesAxioms(OWLClass cls) {
-        return withReadLock(() -> delegate.disjointClassesAxioms(cls));
+        return read(ont -> ont.disjointClassesAxioms(cls));
     }
 
     @Override
     public Stream<OWLDisjointDataPropertiesAxiom> disjointDataPropertiesAxioms(
         OWLDataProperty property) {
-        return withReadLock(() -> delegate.disjointDataPropertiesAxioms(property));
+        return read(ont -> ont.disjointDataPropertiesAxioms(property));
     }
 
     @Override
     public Stream<OWLDisjointUnionAxiom> disjointUnionAxioms(OWLClass owlClass) {
-        return withReadLock(() -> delegate.disjointUnionAxioms(owlClass));
+        return read(ont -> ont.disjointUnionAxioms(owlClass));
     }
 
     @Override
     public Stream<OWLEntity> entitiesInSignature(IRI iri, Imports imports) {
-        return withReadLock(() -> delegate.entitiesInSignature(iri, imports));
+        return read(ont -> ont.entitiesInSignature(iri, imports));
     }
 
     @Override
     public Stream<OWLEquivalentClassesAxiom> equivalentClassesAxioms(OWLClass cls) {
-        return withReadLock(() -> delegate.equivalentClassesAxioms(cls));
+        return read(ont -> ont.equivalentClassesAxioms(cls));
     }
 
     @Override
     public Stream<OWLEquivalentDataPropertiesAxiom> equivalentDataPropertiesAxioms(
         OWLDataProperty property) {
-        return withReadLock(() -> delegate.equivalentDataPropertiesAxioms(property));
+        return read(ont -> ont.equivalentDataPropertiesAxioms(property));
     }
 
     @Override
     public Stream<OWLEquivalentObjectPropertiesAxiom> equivalentObjectPropertiesAxioms(
         OWLObjectPropertyExpression property) {
-        return withReadLock(() -> delegate.equivalentObjectPropertiesAxioms(property));
+        return read(ont -> ont.equivalentObjectPropertiesAxioms(property));
     }
 
     @Override
     public <T extends OWLAxiom> Collection<T> filterAxioms(OWLAxiomSearchFilter filter,
         Object key) {
-        return withReadLock(() -> delegate.filterAxioms(filter, key));
+        return read(ont -> ont.filterAxioms(filter, key));
     }
 
     @Override
     public Stream<OWLFunctionalDataPropertyAxiom> functionalDataPropertyAxioms(
         OWLDataPropertyExpression property) {
-        return withReadLock(() -> delegate.functionalDataPropertyAxioms(property));
+        return read(ont -> ont.functionalDataPropertyAxioms(property));
     }
 
     @Override
     public Stream<OWLFunctionalObjectPropertyAxiom> functionalObjectPropertyAxioms(
         OWLObjectPropertyExpression property) {
-        return withReadLock(() -> delegate.functionalObjectPropertyAxioms(property));
+        return read(ont -> ont.functionalObjectPropertyAxioms(property));
     }
 
     @Override
     public Set<OWLAnnotationAssertionAxiom> getAnnotationAssertionAxioms(
         OWLAnnotationSubject entity, Imports imports) {
-        return withReadLock(() -> delegate.getAnnotationAssertionAxioms(entity, imports));
+        return read(ont -> ont.getAnnotationAssertionAxioms(entity, imports));
     }
 
     @Override
     public Set<OWLAnnotation> getAnnotations(OWLAnnotationProperty annotationProperty) {
-        return withReadLock(() -> delegate.getAnnotations(annotationProperty));
+        return read(ont -> ont.getAnnotations(annotationProperty));
     }
 
     @Override
     public <T extends OWLAxiom> Set<T> getAxioms(Class<T> type,
         Class<? extends OWLObject> explicitClass, OWLObject entity, Navigation forSubPosition) {
-        return withReadLock(() -> delegate.getAxioms(type, explicitClass, entity, forSubPosition));
+        return read(ont -> ont.getAxioms(type, explicitClass, entity, forSubPosition));
     }
 
     @Override
     public <T extends OWLAxiom> Set<T> getAxioms(Class<T> type, OWLObject entity,
         Navigation forSubPosition) {
-        return withReadLock(() -> delegate.getAxioms(type, entity, forSubPosition));
+        return read(ont -> ont.getAxioms(type, entity, forSubPosition));
     }
 
     @Override
@@ -1774,129 +1994,129 @@ public class ConcurrentOWLOntologyImpl implements OWLMutableOntology, HasTrimToS
 
     @Override
     public Set<OWLAnonymousIndividual> getReferencedAnonymousIndividuals() {
-        return withReadLock(delegate::getReferencedAnonymousIndividuals);
+        return read(ont -> ont.getReferencedAnonymousIndividuals());
     }
 
     @Override
     public Stream<OWLHasKeyAxiom> hasKeyAxioms(OWLClass cls) {
-        return withReadLock(() -> delegate.hasKeyAxioms(cls));
+        return read(ont -> ont.hasKeyAxioms(cls));
     }
 
     @Override
     public Stream<OWLNamedIndividual> individualsInSignature() {
-        return withReadLock(delegate::individualsInSignature);
+        return read(ont -> ont.individualsInSignature());
     }
 
     @Override
     public Stream<OWLNamedIndividual> individualsInSignature(Imports imports) {
-        return withReadLock(() -> delegate.individualsInSignature(imports));
+        return read(ont -> ont.individualsInSignature(imports));
     }
 
     @Override
     public Stream<OWLInverseFunctionalObjectPropertyAxiom> inverseFunctionalObjectPropertyAxioms(
         OWLObjectPropertyExpression property) {
-        return withReadLock(() -> delegate.inverseFunctionalObjectPropertyAxioms(property));
+        return read(ont -> ont.inverseFunctionalObjectPropertyAxioms(property));
     }
 
     @Override
     public Stream<OWLInverseObjectPropertiesAxiom> inverseObjectPropertyAxioms(
         OWLObjectPropertyExpression property) {
-        return withReadLock(() -> delegate.inverseObjectPropertyAxioms(property));
+        return read(ont -> ont.inverseObjectPropertyAxioms(property));
     }
 
     @Override
     public Stream<OWLIrreflexiveObjectPropertyAxiom> irreflexiveObjectPropertyAxioms(
         OWLObjectPropertyExpression property) {
-        return withReadLock(() -> delegate.irreflexiveObjectPropertyAxioms(property));
+        return read(ont -> ont.irreflexiveObjectPropertyAxioms(property));
     }
 
     @Override
     public Stream<OWLLogicalAxiom> logicalAxioms(Imports imports) {
-        return withReadLock(() -> delegate.logicalAxioms(imports));
+        return read(ont -> ont.logicalAxioms(imports));
     }
 
     @Override
     public Stream<OWLNegativeDataPropertyAssertionAxiom> negativeDataPropertyAssertionAxioms(
         OWLIndividual individual) {
-        return withReadLock(() -> delegate.negativeDataPropertyAssertionAxioms(individual));
+        return read(ont -> ont.negativeDataPropertyAssertionAxioms(individual));
     }
 
     @Override
     public Stream<OWLNegativeObjectPropertyAssertionAxiom> negativeObjectPropertyAssertionAxioms(
         OWLIndividual individual) {
-        return withReadLock(() -> delegate.negativeObjectPropertyAssertionAxioms(individual));
+        return read(ont -> ont.negativeObjectPropertyAssertionAxioms(individual));
     }
 
     @Override
     public Stream<OWLClassExpression> nestedClassExpressions() {
-        return withReadLock(delegate::nestedClassExpressions);
+        return read(ont -> ont.nestedClassExpressions());
     }
 
     @Override
     public Stream<OWLObjectProperty> objectPropertiesInSignature(Imports imports) {
-        return withReadLock(() -> delegate.objectPropertiesInSignature(imports));
+        return read(ont -> ont.objectPropertiesInSignature(imports));
     }
 
     @Override
     public Stream<OWLObjectPropertyAssertionAxiom> objectPropertyAssertionAxioms(
         OWLIndividual individual) {
-        return withReadLock(() -> delegate.objectPropertyAssertionAxioms(individual));
+        return read(ont -> ont.objectPropertyAssertionAxioms(individual));
     }
 
     @Override
     public Stream<OWLObjectPropertyDomainAxiom> objectPropertyDomainAxioms(
         OWLObjectPropertyExpression property) {
-        return withReadLock(() -> delegate.objectPropertyDomainAxioms(property));
+        return read(ont -> ont.objectPropertyDomainAxioms(property));
     }
 
     @Override
     public Stream<OWLObjectPropertyRangeAxiom> objectPropertyRangeAxioms(
         OWLObjectPropertyExpression property) {
-        return withReadLock(() -> delegate.objectPropertyRangeAxioms(property));
+        return read(ont -> ont.objectPropertyRangeAxioms(property));
     }
 
     @Override
     public Stream<OWLSubObjectPropertyOfAxiom> objectSubPropertyAxiomsForSubProperty(
         OWLObjectPropertyExpression subProperty) {
-        return withReadLock(() -> delegate.objectSubPropertyAxiomsForSubProperty(subProperty));
+        return read(ont -> ont.objectSubPropertyAxiomsForSubProperty(subProperty));
     }
 
     @Override
     public Stream<OWLSubObjectPropertyOfAxiom> objectSubPropertyAxiomsForSuperProperty(
         OWLObjectPropertyExpression superProperty) {
-        return withReadLock(() -> delegate.objectSubPropertyAxiomsForSuperProperty(superProperty));
+        return read(ont -> ont.objectSubPropertyAxiomsForSuperProperty(superProperty));
     }
 
     @Override
     public Stream<OWLReflexiveObjectPropertyAxiom> reflexiveObjectPropertyAxioms(
         OWLObjectPropertyExpression property) {
-        return withReadLock(() -> delegate.reflexiveObjectPropertyAxioms(property));
+        return read(ont -> ont.reflexiveObjectPropertyAxioms(property));
     }
 
     @Override
     public Stream<OWLSameIndividualAxiom> sameIndividualAxioms(OWLIndividual individual) {
-        return withReadLock(() -> delegate.sameIndividualAxioms(individual));
+        return read(ont -> ont.sameIndividualAxioms(individual));
     }
 
     @Override
     public Stream<OWLSubClassOfAxiom> subClassAxiomsForSubClass(OWLClass cls) {
-        return withReadLock(() -> delegate.subClassAxiomsForSubClass(cls));
+        return read(ont -> ont.subClassAxiomsForSubClass(cls));
     }
 
     @Override
     public Stream<OWLSubClassOfAxiom> subClassAxiomsForSuperClass(OWLClass cls) {
-        return withReadLock(() -> delegate.subClassAxiomsForSuperClass(cls));
+        return read(ont -> ont.subClassAxiomsForSuperClass(cls));
     }
 
     @Override
     public Stream<OWLSymmetricObjectPropertyAxiom> symmetricObjectPropertyAxioms(
         OWLObjectPropertyExpression property) {
-        return withReadLock(() -> delegate.symmetricObjectPropertyAxioms(property));
+        return read(ont -> ont.symmetricObjectPropertyAxioms(property));
     }
 
     @Override
     public Stream<OWLTransitiveObjectPropertyAxiom> transitiveObjectPropertyAxioms(
         OWLObjectPropertyExpression property) {
-        return withReadLock(() -> delegate.transitiveObjectPropertyAxioms(property));
+        return read(ont -> ont.transitiveObjectPropertyAxioms(property));
     }
 }
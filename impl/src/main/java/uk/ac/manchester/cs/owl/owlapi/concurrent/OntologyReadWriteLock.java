@@ -0,0 +1,154 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Lock for a single ontology in a manager using a {@link RegistryReadWriteLock}. Both the read and
+ * the write lock take the read lock of the registry before the lock of the ontology; locks are
+ * always acquired in this order, and a manager changing its registry excludes access to all its
+ * ontologies.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public class OntologyReadWriteLock implements ReadWriteLock {
+
+    private final ReadWriteLock registryLock;
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    /**
+     * @param registryLock lock of the manager owning the ontology
+     */
+    public OntologyReadWriteLock(ReadWriteLock registryLock) {
+        this.registryLock = registryLock;
+        ReentrantReadWriteLock ontologyLock = new ReentrantReadWriteLock();
+        readLock = new NestedLock(registryLock.readLock(), ontologyLock.readLock());
+        writeLock = new NestedLock(registryLock.readLock(), ontologyLock.writeLock());
+    }
+
+    /**
+     * @param managerLock lock of the manager owning an ontology
+     * @return a new ontology lock if the manager lock is a {@link RegistryReadWriteLock}, the
+     *         manager lock itself otherwise
+     */
+    public static ReadWriteLock forOntology(ReadWriteLock managerLock) {
+        if (managerLock instanceof RegistryReadWriteLock) {
+            return ((RegistryReadWriteLock) managerLock).newOntologyLock();
+        }
+        return managerLock;
+    }
+
+    /**
+     * @return the lock of the manager owning the ontology
+     */
+    public ReadWriteLock getRegistryLock() {
+        return registryLock;
+    }
+
+    @Override
+    public Lock readLock() {
+        return readLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return writeLock;
+    }
+
+    /**
+     * Lock holding an outer lock for as long as the inner lock is held.
+     */
+    private static class NestedLock implements Lock {
+
+        private final Lock outer;
+        private final Lock inner;
+
+        NestedLock(Lock outer, Lock inner) {
+            this.outer = outer;
+            this.inner = inner;
+        }
+
+        @Override
+        public void lock() {
+            outer.lock();
+            try {
+                inner.lock();
+            } catch (RuntimeException | Error e) {
+                outer.unlock();
+                throw e;
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            outer.lockInterruptibly();
+            try {
+                inner.lockInterruptibly();
+            } catch (InterruptedException | RuntimeException | Error e) {
+                outer.unlock();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (!outer.tryLock()) {
+                return false;
+            }
+            if (inner.tryLock()) {
+                return true;
+            }
+            outer.unlock();
+            return false;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(time);
+            if (!outer.tryLock(time, unit)) {
+                return false;
+            }
+            try {
+                if (inner.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException | RuntimeException | Error e) {
+                outer.unlock();
+                throw e;
+            }
+            outer.unlock();
+            return false;
+        }
+
+        @Override
+        public void unlock() {
+            try {
+                inner.unlock();
+            } finally {
+                outer.unlock();
+            }
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions are not supported by this lock");
+        }
+    }
+}
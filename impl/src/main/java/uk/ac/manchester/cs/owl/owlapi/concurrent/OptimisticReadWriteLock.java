@@ -0,0 +1,106 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Reentrant read write lock that also supports optimistic reads. The outermost acquisition of the
+ * write lock takes the write lock of a {@link StampedLock} as well, so that a read started with
+ * {@link #tryOptimisticRead()} can be validated with {@link #validate(long)} without writing to
+ * shared memory. Short queries on ontologies guarded by this lock are served optimistically first,
+ * and are repeated under the read lock if a write happened in the meantime.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public class OptimisticReadWriteLock extends ReentrantReadWriteLock {
+
+    private final StampedLock stamps = new StampedLock();
+    private final StampingWriteLock writeLock = new StampingWriteLock(this);
+    /** Stamp of the stamped write lock; only accessed by the thread holding the write lock. */
+    private long writeStamp;
+
+    @Override
+    public WriteLock writeLock() {
+        return writeLock;
+    }
+
+    /**
+     * @return a stamp to validate after an optimistic read, or zero if a write is in progress
+     */
+    public long tryOptimisticRead() {
+        return stamps.tryOptimisticRead();
+    }
+
+    /**
+     * @param stamp stamp returned by {@link #tryOptimisticRead()}
+     * @return true if no write started since the stamp was issued
+     */
+    public boolean validate(long stamp) {
+        return stamps.validate(stamp);
+    }
+
+    private void stamp() {
+        if (getWriteHoldCount() == 1) {
+            writeStamp = stamps.writeLock();
+        }
+    }
+
+    private class StampingWriteLock extends WriteLock {
+
+        StampingWriteLock(ReentrantReadWriteLock lock) {
+            super(lock);
+        }
+
+        @Override
+        public void lock() {
+            super.lock();
+            stamp();
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            super.lockInterruptibly();
+            stamp();
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (!super.tryLock()) {
+                return false;
+            }
+            stamp();
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long timeout, TimeUnit unit) throws InterruptedException {
+            if (!super.tryLock(timeout, unit)) {
+                return false;
+            }
+            stamp();
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            if (getWriteHoldCount() == 1) {
+                stamps.unlockWrite(writeStamp);
+            }
+            super.unlock();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/* This file is part of the OWL API.
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ * Copyright 2014, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0 in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License. */
+package uk.ac.manchester.cs.owl.owlapi.concurrent;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Lock for managers where each ontology has its own {@link OntologyReadWriteLock}. The manager
+ * takes the write lock only to change its registry: loading, creating, removing and renaming
+ * ontologies, and changing imports. Changes to the axioms and annotations of a single ontology
+ * only lock that ontology, so unrelated ontologies can be read and edited in parallel.
+ * <p>
+ * This changes the contract for listeners. Listeners of changes to a single ontology are notified
+ * holding only the write lock of that ontology, so change, impending change and veto listeners can
+ * be called by several threads at once and must be thread safe. Changes to the same ontology still
+ * arrive in the order they were applied; a change listener can read any ontology and change the
+ * one it is notified about, but must not change other ontologies or the registry, as that could
+ * deadlock. Impending change listeners are notified before the ontology lock is taken, so another
+ * thread can change the ontology between the notification and the change being applied.
+ *
+ * @author ignazio
+ * @since 5.1.18
+ */
+public class RegistryReadWriteLock extends ReentrantReadWriteLock {
+
+    /**
+     * @return a new lock for an ontology in the registry guarded by this lock
+     */
+    public OntologyReadWriteLock newOntologyLock() {
+        return new OntologyReadWriteLock(this);
+    }
+}
@@ -0,0 +1,55 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+
+@SuppressWarnings("javadoc")
+public class ClassAxiomByClassPointerTestCase {
+
+    private final OWLDataFactory df = new OWLDataFactoryImpl();
+
+    @Test(timeout = 10000)
+    public void shouldNotTakeInternalsMonitorWhileInitializing() throws InterruptedException {
+        Internals internals = new Internals();
+        OWLClass a = df.getOWLClass("urn:test:A");
+        OWLSubClassOfAxiom indexed = df.getOWLSubClassOfAxiom(a, df.getOWLClass("urn:test:B"));
+        OWLSubClassOfAxiom pending = df.getOWLSubClassOfAxiom(a, df.getOWLClass("urn:test:C"));
+        internals.addAxiom(indexed);
+        internals.beginBulkLoad();
+        internals.addAxiom(pending);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // stands in for a thread indexing pending axioms, which holds the internals monitor and
+        // then needs the monitors of the indexes
+        Thread indexer = new Thread(() -> {
+            synchronized (internals) {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        indexer.start();
+        held.await();
+        try {
+            synchronized (internals.classAxiomsByClass) {
+                internals.classAxiomsByClass.init();
+            }
+            assertTrue(internals.classAxiomsByClass.contains(a, indexed));
+        } finally {
+            release.countDown();
+            indexer.join();
+        }
+        internals.endBulkLoad();
+        assertEquals(2, internals.classAxiomsByClass.getValues(a).count());
+    }
+}
@@ -0,0 +1,146 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.OntologyConfigurator;
+
+@SuppressWarnings("javadoc")
+public class CompactAxiomSetTestCase {
+
+    private final OWLDataFactory df = new OWLDataFactoryImpl();
+    private final OWLClass a = df.getOWLClass("urn:test:A");
+
+    private OWLSubClassOfAxiom sub(int i) {
+        return df.getOWLSubClassOfAxiom(a, df.getOWLClass("urn:test:B" + i));
+    }
+
+    private CompactAxiomSet<OWLSubClassOfAxiom> set(int size) {
+        CompactAxiomSet<OWLSubClassOfAxiom> set =
+            new CompactAxiomSet<>(Arrays.asList(sub(0)), sub(1), OWLSubClassOfAxiom.class);
+        for (int i = 2; i < size; i++) {
+            set.add(sub(i));
+        }
+        return set;
+    }
+
+    @Test
+    public void shouldAddContainAndRemove() {
+        CompactAxiomSet<OWLSubClassOfAxiom> set = set(50);
+        assertEquals(50, set.size());
+        assertFalse(set.add(sub(7)));
+        assertTrue(set.contains(sub(49)));
+        assertFalse(set.contains(sub(50)));
+        assertFalse(set.contains(a));
+        assertTrue(set.remove(sub(7)));
+        assertFalse(set.remove(sub(7)));
+        assertFalse(set.contains(sub(7)));
+        assertEquals(49, set.size());
+        Set<OWLSubClassOfAxiom> seen = new HashSet<>(set);
+        assertEquals(49, seen.size());
+        assertFalse(seen.contains(sub(7)));
+    }
+
+    @Test
+    public void shouldCopyIndependently() {
+        CompactAxiomSet<OWLSubClassOfAxiom> first = set(10);
+        CompactAxiomSet<OWLSubClassOfAxiom> second = new CompactAxiomSet<>(first);
+        first.remove(sub(2));
+        second.add(sub(100));
+        assertFalse(first.contains(sub(2)));
+        assertTrue(second.contains(sub(2)));
+        assertFalse(first.contains(sub(100)));
+        assertTrue(second.contains(sub(100)));
+        assertEquals(9, first.size());
+        assertEquals(11, second.size());
+    }
+
+    @Test
+    public void shouldRemoveThroughIterator() {
+        CompactAxiomSet<OWLSubClassOfAxiom> set = set(10);
+        Iterator<OWLSubClassOfAxiom> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().equals(sub(4))) {
+                iterator.remove();
+            }
+        }
+        assertEquals(1, set.size());
+        assertTrue(set.contains(sub(4)));
+    }
+
+    @Test
+    public void shouldMatchHashSetsThroughMerges() {
+        CompactAxiomSet<OWLSubClassOfAxiom> set = set(2);
+        Set<OWLSubClassOfAxiom> expected = new HashSet<>(set);
+        Random random = new Random(42);
+        for (int n = 0; n < 20000; n++) {
+            OWLSubClassOfAxiom ax = sub(random.nextInt(2000));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(ax), set.remove(ax));
+            } else {
+                assertEquals(expected.add(ax), set.add(ax));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        assertEquals(expected, new HashSet<>(set));
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(expected.contains(sub(i)), set.contains(sub(i)));
+        }
+        CompactAxiomSet<OWLSubClassOfAxiom> copy = new CompactAxiomSet<>(set);
+        assertEquals(expected, new HashSet<>(copy));
+        Iterator<OWLSubClassOfAxiom> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().hashCode() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        expected.removeIf(ax -> ax.hashCode() % 2 == 0);
+        assertEquals(expected, new HashSet<>(set));
+        assertEquals(expected.size(), set.size());
+    }
+
+    @Test(timeout = 20000)
+    public void shouldAddAndRemoveLargeSetsInSubquadraticTime() {
+        // shifting the whole array on each change would take minutes at this size
+        int size = 300000;
+        CompactAxiomSet<OWLSubClassOfAxiom> set = set(size);
+        assertEquals(size, set.size());
+        for (int i = 0; i < size; i += 2) {
+            assertTrue(set.remove(sub(i)));
+        }
+        assertEquals(size / 2, set.size());
+        assertFalse(set.contains(sub(0)));
+        assertTrue(set.contains(sub(1)));
+    }
+
+    @Test
+    public void shouldUseLessIndexMemoryThanHashSets() {
+        Internals hashed = new Internals(new OntologyConfigurator().withCompactIndexStorage(false));
+        Internals compact = new Internals(new OntologyConfigurator().withCompactIndexStorage(true));
+        // ten classes with a thousand superclasses each; every large entry needs a value set
+        for (int i = 0; i < 10; i++) {
+            OWLClass c = df.getOWLClass("urn:test:C" + i);
+            for (int j = 0; j < 1000; j++) {
+                OWLSubClassOfAxiom ax =
+                    df.getOWLSubClassOfAxiom(c, df.getOWLClass("urn:test:D" + j));
+                hashed.addAxiom(ax);
+                compact.addAxiom(ax);
+            }
+        }
+        long hashedBytes = hashed.estimateMemoryUsage().getTotalIndexBytes();
+        long compactBytes = compact.estimateMemoryUsage().getTotalIndexBytes();
+        assertEquals(hashed.getAxiomCount(), compact.getAxiomCount());
+        assertTrue(hashedBytes + " vs " + compactBytes, compactBytes * 2 < hashedBytes);
+    }
+}
@@ -0,0 +1,95 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+@SuppressWarnings("javadoc")
+public class CompactLiteralTestCase {
+
+    private final OWLDataFactoryInternals compact =
+        new OWLDataFactoryInternalsImplNoCache(false, true);
+    private final OWLDataFactoryInternals plain =
+        new OWLDataFactoryInternalsImplNoCache(false, false);
+
+    private static void assertSameLiteral(OWLLiteral expected, OWLLiteral actual) {
+        assertTrue(actual instanceof OWLLiteralImplCompact);
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(expected.getLiteral(), actual.getLiteral());
+        assertEquals(expected.getDatatype(), actual.getDatatype());
+        assertEquals(expected.getLang(), actual.getLang());
+        assertEquals(0, expected.compareTo(actual));
+    }
+
+    @Test
+    public void shouldBeEqualToOtherLiteralImplementations() {
+        assertSameLiteral(plain.getOWLLiteral("a string"), compact.getOWLLiteral("a string"));
+        assertSameLiteral(plain.getOWLLiteral("café ☃ 😀", "FR "),
+            compact.getOWLLiteral("café ☃ 😀", "FR "));
+        assertSameLiteral(plain.getOWLLiteral("untagged", ""),
+            compact.getOWLLiteral("untagged", ""));
+        OWLDatatype anyURI = OWL2Datatype.XSD_ANY_URI.getDatatype(new OWLDataFactoryImpl());
+        assertSameLiteral(plain.getOWLLiteral("urn:x", anyURI),
+            compact.getOWLLiteral("urn:x", anyURI));
+        OWLDatatype integer = OWL2Datatype.XSD_INTEGER.getDatatype(new OWLDataFactoryImpl());
+        assertSameLiteral(plain.getOWLLiteral("0012", integer),
+            compact.getOWLLiteral("0012", integer));
+        assertSameLiteral(plain.getOWLLiteral("", integer), compact.getOWLLiteral("", integer));
+        assertSameLiteral(new OWLLiteralImplNoCompression("x", "en", null),
+            new OWLLiteralImplCompact("x", "en", null));
+    }
+
+    @Test
+    public void shouldKeepUnpairedSurrogatesAndOrder() {
+        List<String> forms = Arrays.asList("\ud800", "a\udc00b", "\ud83d\ude00", "café", "cafe",
+            "ÿ", "Ā", "", "z");
+        List<OWLLiteral> plainLiterals = new ArrayList<>();
+        List<OWLLiteral> compactLiterals = new ArrayList<>();
+        for (String form : forms) {
+            plainLiterals.add(plain.getOWLLiteral(form));
+            compactLiterals.add(compact.getOWLLiteral(form));
+            assertSameLiteral(plain.getOWLLiteral(form), compact.getOWLLiteral(form));
+        }
+        Collections.sort(plainLiterals);
+        Collections.sort(compactLiterals);
+        assertEquals(plainLiterals, compactLiterals);
+        assertEquals(compact.getOWLLiteral("ÿ"), compact.getOWLLiteral(new String("ÿ")));
+        assertNotEquals(compact.getOWLLiteral("Ā"), compact.getOWLLiteral("ā"));
+    }
+
+    @Test
+    public void shouldShareLexicalFormsAndLanguageTags() {
+        LexicalForms forms = new LexicalForms(16);
+        LexicalForms.Form first = forms.encode("shared");
+        assertSame(first, forms.encode(new String("shared")));
+        assertNotSame(first, forms.encode("other"));
+        OWLLiteral a = compact.getOWLLiteral("x", new String("en-gb"));
+        OWLLiteral b = compact.getOWLLiteral("y", new String("EN-GB"));
+        assertSame(a.getLang(), b.getLang());
+    }
+
+    @Test
+    public void shouldUseLessMemory() {
+        String label = "a typical rdfs:label value of some forty characters";
+        long compactSize = MemoryEstimator.owlObject(compact.getOWLLiteral(label));
+        long plainSize = MemoryEstimator.owlObject(plain.getOWLLiteral(label));
+        // the figures quoted in the documentation of OWLLiteralImplCompact
+        assertEquals(51, label.length());
+        assertEquals(104, compactSize);
+        assertEquals(168, plainSize);
+    }
+}
@@ -0,0 +1,63 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataRange;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+@SuppressWarnings("javadoc")
+public class HashConsingTestCase {
+
+    private final OWLDataFactory df = new OWLDataFactoryImpl();
+    private final OWLDataFactory other = new OWLDataFactoryImpl();
+    private final OWLDataFactoryInternals sharing = new OWLDataFactoryInternalsImpl(false, true);
+
+    private static OWLClassExpression partOf(OWLDataFactory f, String filler) {
+        OWLObjectProperty p = f.getOWLObjectProperty("urn:test:part_of");
+        return f.getOWLObjectSomeValuesFrom(p, f.getOWLClass(filler));
+    }
+
+    @Test
+    public void shouldShareEqualClassExpressionsAcrossFactories() {
+        OWLClassExpression first = partOf(df, "urn:test:shared");
+        OWLClassExpression second = partOf(other, "urn:test:shared");
+        assertNotSame(first, second);
+        OWLClassExpression shared = sharing.intern(first);
+        assertSame(first, shared);
+        assertSame(shared, sharing.intern(second));
+        assertNotSame(shared, sharing.intern(partOf(other, "urn:test:notShared")));
+    }
+
+    @Test
+    public void shouldShareNestedExpressions() {
+        OWLClassExpression a = df.getOWLObjectIntersectionOf(
+            sharing.intern(partOf(df, "urn:test:X")), df.getOWLClass("urn:test:Z"));
+        OWLClassExpression b = df.getOWLObjectIntersectionOf(
+            sharing.intern(partOf(other, "urn:test:X")), df.getOWLClass("urn:test:Z"));
+        assertEquals(a, b);
+        assertSame(sharing.intern(a), sharing.intern(b));
+    }
+
+    @Test
+    public void shouldShareDataRangesAndLiterals() {
+        OWLLiteral one = df.getOWLLiteral(1);
+        assertSame(sharing.intern(one), sharing.intern(other.getOWLLiteral(1)));
+        OWLDataRange r = df.getOWLDataOneOf(df.getOWLLiteral("a"), df.getOWLLiteral("b"));
+        OWLDataRange s = other.getOWLDataOneOf(other.getOWLLiteral("b"), other.getOWLLiteral("a"));
+        assertSame(sharing.intern(r), sharing.intern(s));
+    }
+
+    @Test
+    public void shouldNotShareByDefault() {
+        OWLDataFactoryInternals internals = new OWLDataFactoryInternalsImpl(false, false);
+        OWLClassExpression first = partOf(df, "urn:test:X");
+        assertSame(first, internals.intern(first));
+        assertNotSame(first, internals.intern(partOf(df, "urn:test:X")));
+    }
+}
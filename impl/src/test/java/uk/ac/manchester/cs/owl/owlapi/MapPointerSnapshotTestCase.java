@@ -0,0 +1,183 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+
+@SuppressWarnings("javadoc")
+public class MapPointerSnapshotTestCase {
+
+    private final OWLDataFactory df = new OWLDataFactoryImpl();
+    private final OWLClass a = df.getOWLClass("urn:test:A");
+
+    private OWLSubClassOfAxiom sub(int i) {
+        return df.getOWLSubClassOfAxiom(a, df.getOWLClass("urn:test:B" + i));
+    }
+
+    private MapPointer<OWLClass, OWLSubClassOfAxiom> pointer() {
+        return new MapPointer<>(null, null, true, new Internals(), OWLSubClassOfAxiom.class,
+            true);
+    }
+
+    private static void read(MapPointer<OWLClass, OWLSubClassOfAxiom> p, OWLClass c, int times) {
+        for (int i = 0; i < times; i++) {
+            p.countValues(c);
+        }
+    }
+
+    @Test
+    public void shouldFreezeAfterReadsAndThawOnWrite() {
+        MapPointer<OWLClass, OWLSubClassOfAxiom> p = pointer();
+        for (int i = 0; i < 10; i++) {
+            p.put(a, sub(i));
+        }
+        assertFalse(p.isFrozen());
+        read(p, a, 20);
+        assertTrue(p.isFrozen());
+        assertEquals(10, p.countValues(a));
+        assertTrue(p.contains(a, sub(3)));
+        p.put(a, sub(10));
+        assertFalse(p.isFrozen());
+        assertEquals(11, p.countValues(a));
+        assertEquals(11, p.size());
+    }
+
+    @Test
+    public void shouldNotChangeSnapshotSeenByReaders() {
+        MapPointer<OWLClass, OWLSubClassOfAxiom> p = pointer();
+        for (int i = 0; i < 10; i++) {
+            p.put(a, sub(i));
+        }
+        read(p, a, 20);
+        assertTrue(p.isFrozen());
+        // a stream obtained from the snapshot must not see later writes
+        Stream<OWLSubClassOfAxiom> before = p.getValues(a);
+        p.remove(a, sub(0));
+        p.put(a, sub(20));
+        List<OWLSubClassOfAxiom> seen = before.collect(Collectors.toList());
+        assertEquals(10, seen.size());
+        assertTrue(seen.contains(sub(0)));
+        assertFalse(seen.contains(sub(20)));
+        assertFalse(p.contains(a, sub(0)));
+        assertTrue(p.contains(a, sub(20)));
+        assertEquals(10, p.countValues(a));
+    }
+
+    @Test
+    public void shouldNotFreezeWithoutSnapshotReads() {
+        MapPointer<OWLClass, OWLSubClassOfAxiom> p =
+            new MapPointer<>(null, null, true, new Internals(), OWLSubClassOfAxiom.class);
+        p.put(a, sub(1));
+        read(p, a, 100);
+        assertFalse(p.isFrozen());
+        assertEquals(1, p.countValues(a));
+    }
+
+    @Test
+    public void shouldNotChangeStreamsHandedOutUnderLock() {
+        MapPointer<OWLClass, OWLSubClassOfAxiom> p =
+            new MapPointer<>(null, null, true, new Internals(), OWLSubClassOfAxiom.class);
+        OWLClass b = df.getOWLClass("urn:test:B");
+        for (int i = 0; i < 10; i++) {
+            p.put(a, sub(i));
+        }
+        Stream<OWLSubClassOfAxiom> values = p.getValues(a);
+        Stream<OWLClass> keys = p.keySet();
+        Stream<OWLSubClassOfAxiom> all = p.getAllValues();
+        p.remove(a, sub(0));
+        p.put(a, sub(20));
+        p.put(b, sub(21));
+        Set<OWLSubClassOfAxiom> seen = values.collect(Collectors.toSet());
+        assertEquals(10, seen.size());
+        assertTrue(seen.contains(sub(0)));
+        assertFalse(seen.contains(sub(20)));
+        assertEquals(1, keys.count());
+        assertEquals(seen, all.collect(Collectors.toSet()));
+        assertEquals(10, p.countValues(a));
+        assertEquals(2, p.keySet().count());
+        assertEquals(11, p.getAllValues().count());
+    }
+
+    @Test
+    public void shouldCopyOnlyChangedSegmentsAfterSnapshot() {
+        MapPointer<OWLClass, OWLSubClassOfAxiom> p = pointer();
+        for (int i = 0; i < 20000; i++) {
+            OWLClass c = df.getOWLClass("urn:test:C" + i);
+            p.put(c, df.getOWLSubClassOfAxiom(c, a));
+        }
+        MapPointer<OWLClass, OWLSubClassOfAxiom> snapshot = pointer();
+        snapshot.shareFrom(p);
+        p.put(a, sub(1));
+        assertTrue(p.segmentCount() > 16);
+        assertEquals(1, p.copiedSegmentCount());
+        assertEquals(20001, p.size());
+        assertEquals(20000, snapshot.size());
+        assertFalse(snapshot.containsKey(a));
+    }
+
+    @Test
+    public void shouldBuildIndexesUsedBySnapshotsOnce() {
+        Internals internals = new Internals();
+        internals.addAxiom(sub(1));
+        Internals first = internals.snapshot();
+        assertFalse(first.subClassAxiomsBySubPosition.isInitialized());
+        assertEquals(1, first.subClassAxiomsBySubPosition.countValues(a));
+        assertFalse(internals.subClassAxiomsBySubPosition.isInitialized());
+        Internals second = internals.snapshot();
+        assertTrue(internals.subClassAxiomsBySubPosition.isInitialized());
+        assertTrue(second.subClassAxiomsBySubPosition.isInitialized());
+        assertEquals(1, second.subClassAxiomsBySubPosition.countValues(a));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void shouldDetectChangesWhileIterating() {
+        HPPCSet<OWLSubClassOfAxiom> set = new HPPCSet<>(OWLSubClassOfAxiom.class);
+        for (int i = 0; i < 10; i++) {
+            set.add(sub(i));
+        }
+        Iterator<OWLSubClassOfAxiom> iterator = set.iterator();
+        iterator.next();
+        set.add(sub(10));
+        iterator.next();
+    }
+
+    @Test
+    public void shouldRemoveThroughSetIterator() {
+        HPPCSet<OWLSubClassOfAxiom> set = new HPPCSet<>(OWLSubClassOfAxiom.class);
+        for (int i = 0; i < 1000; i++) {
+            set.add(sub(i));
+        }
+        assertTrue(set.removeIf(ax -> ax.getSuperClass().toString().endsWith("0>")));
+        assertEquals(900, set.size());
+        Iterator<OWLSubClassOfAxiom> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().equals(sub(7))) {
+                iterator.remove();
+            }
+        }
+        assertEquals(1, set.size());
+        assertTrue(set.contains(sub(7)));
+    }
+
+    @Test
+    public void shouldSplitSetIteration() {
+        HPPCSet<OWLSubClassOfAxiom> set = new HPPCSet<>(OWLSubClassOfAxiom.class);
+        for (int i = 0; i < 1000; i++) {
+            set.add(sub(i));
+        }
+        assertEquals(1000, set.parallelStream().distinct().count());
+        assertEquals(1000, set.stream().collect(Collectors.toSet()).size());
+    }
+}
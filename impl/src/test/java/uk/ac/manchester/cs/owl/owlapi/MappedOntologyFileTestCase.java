@@ -0,0 +1,32 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import uk.ac.manchester.cs.owl.owlapi.MappedOntologyFile.OffsetOutputStream;
+
+@SuppressWarnings("javadoc")
+public class MappedOntologyFileTestCase {
+
+    @Test
+    public void shouldRefuseToWritePastTheOffsetLimit() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OffsetOutputStream offsets = new OffsetOutputStream(bytes, 10);
+        offsets.write(new byte[4]);
+        offsets.write(1);
+        assertEquals(5, offsets.offset());
+        try {
+            offsets.write(new byte[6]);
+            fail("write past the limit should fail");
+        } catch (IOException e) {
+            // the offsets already written are still valid
+            assertEquals(5, offsets.offset());
+            assertEquals(5, bytes.size());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+@SuppressWarnings("javadoc")
+public class ObjectSignatureTestCase {
+
+    private final OWLDataFactory df = new OWLDataFactoryImpl();
+    private final OWLClass a = df.getOWLClass("urn:test:A");
+    private final OWLClass b = df.getOWLClass("urn:test:B");
+    private final OWLObjectProperty op = df.getOWLObjectProperty("urn:test:op");
+    private final OWLDataProperty dp = df.getOWLDataProperty("urn:test:dp");
+    private final OWLNamedIndividual x = df.getOWLNamedIndividual("urn:test:x");
+    private final OWLAnnotationProperty ap = df.getOWLAnnotationProperty("urn:test:ap");
+    private final OWLDatatype dt = df.getIntegerOWLDatatype();
+
+    @Test
+    public void shouldSplitSignatureByType() {
+        OWLAxiom axiom = df.getOWLSubClassOfAxiom(
+            df.getOWLObjectIntersectionOf(b, df.getOWLObjectHasValue(op, x)),
+            df.getOWLObjectUnionOf(a, df.getOWLDataSomeValuesFrom(dp, dt)),
+            Collections.singleton(df.getOWLAnnotation(ap, df.getOWLLiteral(1))));
+        assertEquals(Arrays.asList(a, b), asList(axiom.classesInSignature()));
+        assertEquals(Collections.singletonList(op), asList(axiom.objectPropertiesInSignature()));
+        assertEquals(Collections.singletonList(dp), asList(axiom.dataPropertiesInSignature()));
+        assertEquals(Collections.singletonList(x), asList(axiom.individualsInSignature()));
+        assertEquals(Collections.singletonList(ap),
+            asList(axiom.annotationPropertiesInSignature()));
+        assertEquals(Collections.singletonList(dt), asList(axiom.datatypesInSignature()));
+        assertEquals(Arrays.asList(a, b, op, dp, x, ap, dt), asList(axiom.signature()));
+        assertTrue(axiom.containsEntityInSignature(dt));
+        assertTrue(axiom.containsEntityInSignature(op));
+        assertFalse(axiom.containsEntityInSignature(df.getOWLClass("urn:test:C")));
+        assertFalse(axiom.containsEntityInSignature(df.getOWLObjectProperty("urn:test:A")));
+    }
+
+    @Test
+    public void shouldHandleMissingTypes() {
+        OWLAnonymousIndividual anon = df.getOWLAnonymousIndividual();
+        OWLAxiom axiom = df.getOWLDataPropertyAssertionAxiom(dp, anon, 1);
+        assertTrue(asList(axiom.classesInSignature()).isEmpty());
+        assertTrue(asList(axiom.individualsInSignature()).isEmpty());
+        assertEquals(Arrays.asList(dp, dt), asList(axiom.signature()));
+        assertEquals(Collections.singletonList(anon), asList(axiom.anonymousIndividuals()));
+        assertTrue(asList(df.getOWLThing().getNNF().anonymousIndividuals()).isEmpty());
+    }
+}
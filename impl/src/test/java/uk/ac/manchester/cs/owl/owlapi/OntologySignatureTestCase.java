@@ -0,0 +1,82 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+
+@SuppressWarnings("javadoc")
+public class OntologySignatureTestCase {
+
+    private final OWLDataFactory df = new OWLDataFactoryImpl();
+    private final OWLClass a = df.getOWLClass("urn:test:A");
+    private final OWLClass b = df.getOWLClass("urn:test:B");
+    private final OWLNamedIndividual x = df.getOWLNamedIndividual("urn:test:x");
+    private final OWLAnnotationProperty p = df.getOWLAnnotationProperty("urn:test:p");
+
+    @Test
+    public void shouldUpdateSignatureOnAxiomChanges() {
+        Internals internals = new Internals();
+        OWLAxiom subClass = df.getOWLSubClassOfAxiom(a, b);
+        OWLAxiom assertion = df.getOWLClassAssertionAxiom(b, x);
+        internals.addAxiom(subClass);
+        assertEquals(Arrays.asList(a, b), internals.getSignature().classes());
+        internals.addAxiom(assertion);
+        assertEquals(Arrays.asList(a, b), internals.getSignature().classes());
+        assertEquals(Collections.singletonList(x), internals.getSignature().individuals());
+        internals.removeAxiom(subClass);
+        // b is still referenced by the class assertion
+        assertEquals(Collections.singletonList(b), internals.getSignature().classes());
+        assertFalse(internals.getSignature().contains(a));
+        internals.removeAxiom(assertion);
+        assertTrue(internals.getSignature().entities().isEmpty());
+    }
+
+    @Test
+    public void shouldCountReferencesFromOntologyAnnotations() {
+        Internals internals = new Internals();
+        OWLAnnotation annotation = df.getOWLAnnotation(p, df.getOWLLiteral("test"));
+        OWLAxiom declaration = df.getOWLDeclarationAxiom(p);
+        internals.addOntologyAnnotation(annotation);
+        internals.addAxiom(declaration);
+        assertEquals(Collections.singletonList(p), internals.getSignature().annotationProperties());
+        internals.removeAxiom(declaration);
+        assertTrue(internals.getSignature().contains(p));
+        internals.addAxiom(declaration);
+        internals.removeOntologyAnnotation(annotation);
+        assertTrue(internals.getSignature().contains(p));
+        internals.removeAxiom(declaration);
+        assertFalse(internals.getSignature().contains(p));
+        assertTrue(internals.getSignature().datatypes().isEmpty());
+    }
+
+    @Test
+    public void shouldReuseSortedListsUntilMembershipChanges() {
+        Internals internals = new Internals();
+        internals.addAxiom(df.getOWLSubClassOfAxiom(a, b));
+        List<OWLEntity> entities = internals.getSignature().entities();
+        List<OWLClass> classes = internals.getSignature().classes();
+        internals.addAxiom(df.getOWLDisjointClassesAxiom(a, b));
+        assertSame(entities, internals.getSignature().entities());
+        assertSame(classes, internals.getSignature().classes());
+        internals.addAxiom(df.getOWLClassAssertionAxiom(a, x));
+        assertSame(classes, internals.getSignature().classes());
+        List<OWLEntity> expected = new ArrayList<>(Arrays.asList(x, b, a));
+        Collections.sort(expected);
+        assertEquals(expected, internals.getSignature().entities());
+    }
+}
@@ -0,0 +1,82 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.util.StructuralFingerprint;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+@SuppressWarnings("javadoc")
+public class StructuralFingerprintTestCase {
+
+    private final OWLDataFactory df = new OWLDataFactoryImpl();
+    private final OWLDataFactory other = new OWLDataFactoryImpl();
+
+    private static OWLAxiom axiom(OWLDataFactory f, String filler, String label) {
+        OWLObjectProperty p = f.getOWLObjectProperty("urn:test:part_of");
+        return f.getOWLSubClassOfAxiom(f.getOWLClass("urn:test:C"),
+            f.getOWLObjectSomeValuesFrom(p, f.getOWLClass(filler)),
+            Collections.singleton(f.getRDFSLabel(f.getOWLLiteral(label, "en"))));
+    }
+
+    private static OWLLiteral copy(OWLDataFactoryInternals internals, OWLLiteral l) {
+        if (l.hasLang()) {
+            return internals.getOWLLiteral(l.getLiteral(), l.getLang());
+        }
+        return internals.getOWLLiteral(l.getLiteral(), l.getDatatype());
+    }
+
+    private static void assertSameFingerprint(OWLObject expected, OWLObject actual) {
+        assertEquals(expected, actual);
+        assertEquals(StructuralFingerprint.of(expected), actual.fingerprint());
+        assertEquals(expected.fingerprint(), actual.fingerprint());
+    }
+
+    @Test
+    public void shouldMatchForEqualObjects() {
+        assertSameFingerprint(axiom(df, "urn:test:D", "x"), axiom(other, "urn:test:D", "x"));
+        OWLDatatype integer = OWL2Datatype.XSD_INTEGER.getDatatype(df);
+        assertSameFingerprint(df.getOWLDatatype(integer.getIRI()), integer);
+        OWLDataFactoryInternals plain = new OWLDataFactoryInternalsImplNoCache(false, false);
+        OWLDataFactoryInternals compressed = new OWLDataFactoryInternalsImplNoCache(true, false);
+        OWLDataFactoryInternals compact = new OWLDataFactoryInternalsImplNoCache(false, true);
+        for (OWLLiteral l : new OWLLiteral[] {plain.getOWLLiteral("a"),
+            plain.getOWLLiteral("b", "en"), plain.getOWLLiteral(3), plain.getOWLLiteral(1.5D)}) {
+            assertSameFingerprint(l, copy(compressed, l));
+            assertSameFingerprint(l, copy(compact, l));
+        }
+    }
+
+    @Test
+    public void shouldDifferForDifferentObjects() {
+        Map<Long, OWLObject> seen = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            for (OWLObject o : new OWLObject[] {axiom(df, "urn:test:D" + i, "x"),
+                axiom(df, "urn:test:D", "x" + i), df.getOWLClass("urn:test:D" + i),
+                df.getOWLObjectProperty("urn:test:D" + i), df.getOWLLiteral(i),
+                df.getOWLLiteral(Integer.toString(i))}) {
+                OWLObject previous = seen.put(Long.valueOf(o.fingerprint()), o);
+                assertEquals(null, previous);
+            }
+        }
+        assertNotEquals(axiom(df, "urn:test:D", "x").fingerprint(),
+            axiom(df, "urn:test:D", "y").fingerprint());
+    }
+
+    @Test
+    public void shouldBeStableAcrossRuns() {
+        assertEquals(-8246888299687378466L, df.getOWLClass("urn:test:C").fingerprint());
+        assertEquals(2786211963174264416L, axiom(df, "urn:test:D", "x").fingerprint());
+    }
+}
@@ -0,0 +1,44 @@
+package uk.ac.manchester.cs.owl.owlapi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+
+@SuppressWarnings("javadoc")
+public class WarmUpIndexesTestCase {
+
+    private final OWLDataFactory df = new OWLDataFactoryImpl();
+
+    @Test
+    public void shouldInitializeAllLazyIndexes() {
+        Internals internals = new Internals();
+        OWLClass a = df.getOWLClass("urn:test:A");
+        Set<OWLAxiom> expected = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            OWLClass b = df.getOWLClass("urn:test:B" + i);
+            OWLNamedIndividual x = df.getOWLNamedIndividual("urn:test:x" + i);
+            expected.add(df.getOWLSubClassOfAxiom(a, b));
+            expected.add(df.getOWLEquivalentClassesAxiom(b, df.getOWLClass("urn:test:C" + i)));
+            internals.addAxiom(df.getOWLSubClassOfAxiom(a, b));
+            internals.addAxiom(df.getOWLEquivalentClassesAxiom(b, df.getOWLClass("urn:test:C" + i)));
+            internals.addAxiom(df.getOWLClassAssertionAxiom(b, x));
+        }
+        assertFalse(internals.lazyIndexes().anyMatch(MapPointer::isInitialized));
+        internals.warmUpIndexes();
+        assertTrue(internals.lazyIndexes().allMatch(MapPointer::isInitialized));
+        assertEquals(100, internals.classAxiomsByClass.getValues(a).count());
+        assertEquals(100, internals.classAssertionAxiomsByIndividual.size());
+        Set<OWLAxiom> found = new HashSet<>();
+        internals.classAxiomsByClass.getAllValues().forEach(found::add);
+        assertEquals(expected, found);
+    }
+}
@@ -0,0 +1,69 @@
+package uk.ac.manchester.cs.owl.owlapi.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+@SuppressWarnings({"javadoc"})
+public class OptimisticReadWriteLock_TestCase {
+
+    private final OptimisticReadWriteLock lock = new OptimisticReadWriteLock();
+
+    @Test
+    public void shouldValidateReadsWithoutWrites() {
+        long stamp = lock.tryOptimisticRead();
+        assertNotEquals(0L, stamp);
+        lock.readLock().lock();
+        lock.readLock().unlock();
+        assertTrue(lock.validate(stamp));
+    }
+
+    @Test
+    public void shouldInvalidateReadsOverlappingWrites() {
+        long stamp = lock.tryOptimisticRead();
+        lock.writeLock().lock();
+        try {
+            assertEquals(0L, lock.tryOptimisticRead());
+            // reentrant acquisitions do not release the stamp early
+            lock.writeLock().lock();
+            lock.writeLock().unlock();
+            assertEquals(0L, lock.tryOptimisticRead());
+            assertTrue(lock.isWriteLockedByCurrentThread());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        assertFalse(lock.validate(stamp));
+        assertTrue(lock.validate(lock.tryOptimisticRead()));
+    }
+
+    @Test
+    public void shouldExcludeOtherWriters() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            lock.writeLock().lock();
+            try {
+                assertFalse(executor.submit(() -> Boolean.valueOf(lock.writeLock().tryLock()))
+                    .get(10, TimeUnit.SECONDS).booleanValue());
+            } finally {
+                lock.writeLock().unlock();
+            }
+            assertTrue(executor.submit(() -> {
+                if (!lock.writeLock().tryLock(10, TimeUnit.SECONDS)) {
+                    return Boolean.FALSE;
+                }
+                lock.writeLock().unlock();
+                return Boolean.TRUE;
+            }).get(10, TimeUnit.SECONDS).booleanValue());
+            assertNotEquals(0L, lock.tryOptimisticRead());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}